@@ -30,8 +30,6 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -102,74 +100,83 @@ public class HaxeCompilerError {
     return create(rootPath, message, true);
   }
 
+    /**
+     * Classifies one line of compiler output.  The line is scanned once, left to right, for the shapes the
+     * compiler and the build tools print:
+     * <ul>
+     *   <li>{@code Library <name> is not installed...}</li>
+     *   <li>{@code <path>:<line>: characters <start>-<end> : <message>}</li>
+     *   <li>{@code <path>:<line>: lines <start>-<end> : <message>}</li>
+     *   <li>{@code <prefix>Error: <message>}</li>
+     *   <li>{@code <error> : <message>}, which is also used by a few informational messages.</li>
+     * </ul>
+     * Anything else is informational.
+     */
     @Nullable
     public static HaxeCompilerError create(@NotNull String rootPath,
                                            final String message,
                                            boolean checkExistence)
     {
-        Matcher m;
-
         // Trim the trailing newline, if any.
         String trimmed = message.trim();
 
-        // Library (\S+) (is not installed.*)
-        if ((m = pLibraryNotInstalled.matcher(trimmed)).matches()) {
-            return new HaxeCompilerError(CompilerMessageCategory.ERROR,
-                                         "Library " + m.group(1).trim() +
-                                         " " +
-                                         m.group(2).trim(), null, -1, -1);
+        HaxeCompilerError libraryError = matchLibraryNotInstalled(trimmed);
+        if (null != libraryError) {
+            return libraryError;
         }
 
-        String rawPath = null, rawLine, rawColumn, text;
-
-        // ([^:]+):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)
-        if ((m = pColumnError.matcher(trimmed)).matches()) {
-            rawPath = m.group(1);
-            rawLine = m.group(2);
-            rawColumn = m.group(3);
-            text = m.group(4).trim();
-        }
-        // ([^:]+):([\\d]+): lines [\\d]+-[\\d]+ :(.*)
-        else if ((m = pLineError.matcher(trimmed)).matches()) {
-            rawPath = m.group(1);
-            rawLine = m.group(2);
-            rawColumn = "-1";
-            text = m.group(3).trim();
-        }
-        // ([^:]*)Error:(.*)
-        else if ((m = pBareError.matcher(trimmed)).matches()) {
-          String msg = buildGenericErrorMessage(m.group(1).trim(), m.group(2).trim());
-          return new HaxeCompilerError(CompilerMessageCategory.ERROR,
-                                       msg, null, -1, -1);
+        // One scan over the colons finds the position reference, the bare error prefix and the generic separator.
+        Location characters = null;
+        Location lines = null;
+        int bareErrorColon = -1;
+        int genericSeparator = -1;
+        boolean seenColon = false;
+        for (int i = trimmed.indexOf(':'); i >= 0; i = trimmed.indexOf(':', i + 1)) {
+            if (!seenColon) {
+                seenColon = true;
+                if (i >= 5 && trimmed.regionMatches(true, i - 5, "Error", 0, 5)) {
+                    bareErrorColon = i;
+                }
+            }
+            if (i > 0 && characters == null) {
+                characters = Location.parse(trimmed, i, "characters ");
+            }
+            if (i > 0 && lines == null) {
+                lines = Location.parse(trimmed, i, "lines ");
+            }
+            if (genericSeparator < 0 && i > 1 && trimmed.charAt(i - 1) == ' '
+                && i + 1 < trimmed.length() && trimmed.charAt(i + 1) == ' ' && i + 2 < trimmed.length()) {
+                genericSeparator = i - 1;
+            }
         }
-        // ([^:]+) : (.+)  Keep this pattern *last* because it's the most generic
-        // and the least useful to users.  There are a number of messages that
-        // match the expression that are not errors.  Those we try to ignore.
-        // Windows file paths don't have spaces around the colon, so should not
-        // match the pattern.
-        else if ((m = pGenericError.matcher(trimmed)).matches()) {
-          String error = m.group(1).trim();
-          if (matchesInformationalPattern(error)) {
-            // Don't trim the message for information.  (Spaces are meaningful in the compiler banners.)
-            return new HaxeCompilerError(CompilerMessageCategory.INFORMATION,
-                                         message, null, -1, -1);
-          }
 
-          String msg = buildGenericErrorMessage(m.group(1).trim(), m.group(2).trim());
-          return new HaxeCompilerError(CompilerMessageCategory.ERROR,
-                                       msg, null, -1, -1);
-        }
-
-        // Anything that doesn't match error patterns is purely informational
-        else {
-          // Don't trim the message for information.  (Spaces are meaningful in the compiler banners.)
-          return new HaxeCompilerError(CompilerMessageCategory.INFORMATION,
-                                         message, null, -1, -1);
+        Location location = characters != null ? characters : lines;
+        if (null == location) {
+            if (bareErrorColon >= 0) {
+                String msg = buildGenericErrorMessage(trimmed.substring(0, bareErrorColon - 5).trim(),
+                                                      trimmed.substring(bareErrorColon + 1).trim());
+                return new HaxeCompilerError(CompilerMessageCategory.ERROR, msg, null, -1, -1);
+            }
+            // Keep this shape *last* because it's the most generic and the least useful to users.  There are a
+            // number of messages that match it that are not errors.  Those we try to ignore.  Windows file paths
+            // don't have spaces around the colon, so should not match.
+            if (genericSeparator >= 0) {
+                String error = trimmed.substring(0, genericSeparator).trim();
+                if (matchesInformationalPattern(error)) {
+                    // Don't trim the message for information.  (Spaces are meaningful in the compiler banners.)
+                    return new HaxeCompilerError(CompilerMessageCategory.INFORMATION, message, null, -1, -1);
+                }
+                String msg = buildGenericErrorMessage(error, trimmed.substring(genericSeparator + 3).trim());
+                return new HaxeCompilerError(CompilerMessageCategory.ERROR, msg, null, -1, -1);
+            }
+            // Anything that doesn't match error shapes is purely informational.
+            // Don't trim the message for information.  (Spaces are meaningful in the compiler banners.)
+            return new HaxeCompilerError(CompilerMessageCategory.INFORMATION, message, null, -1, -1);
         }
 
         // Got a real file error, so handle it
 
-        String filePath = FileUtil.toSystemIndependentName(rawPath);
+        String filePath = FileUtil.toSystemIndependentName(trimmed.substring(0, location.pathEnd));
         if (!FileUtil.isAbsolute(filePath)) {
             filePath = rootPath + "/" + filePath;
         }
@@ -179,21 +186,9 @@ public class HaxeCompilerError {
                 filePath = "Missing file: " + filePath;
         }
 
-        int line, column;
-
-        try {
-            line = Integer.parseInt(rawLine);
-        }
-        catch (NumberFormatException e) {
-            line = -1;
-        }
-
-        try {
-            column = Integer.parseInt(rawColumn);
-        }
-        catch (NumberFormatException e) {
-            column = -1;
-        }
+        int line = location.line;
+        int column = location == characters ? location.rangeStart : -1;
+        String text = trimmed.substring(location.textStart).trim();
 
         final String warningStr = "Warning";
         if (0 == text.indexOf(warningStr)) {
@@ -211,6 +206,60 @@ public class HaxeCompilerError {
         }
     }
 
+    /**
+     * {@code Library <name> is not installed...}, as printed by haxelib and hxcpp.
+     */
+    @Nullable
+    private static HaxeCompilerError matchLibraryNotInstalled(@NotNull String trimmed) {
+        final String prefix = "Library ";
+        if (!trimmed.startsWith(prefix)) return null;
+        int nameEnd = trimmed.indexOf(' ', prefix.length());
+        if (nameEnd <= prefix.length()) return null;
+        String name = trimmed.substring(prefix.length(), nameEnd);
+        String reason = trimmed.substring(nameEnd + 1);
+        if (!reason.startsWith("is not installed") || name.chars().anyMatch(Character::isWhitespace)) return null;
+        return new HaxeCompilerError(CompilerMessageCategory.ERROR, prefix + name + " " + reason.trim(), null, -1, -1);
+    }
+
+    /**
+     * The {@code :<line>: characters <start>-<end> :} (or {@code lines}) part of a position reference.
+     */
+    private record Location(int pathEnd, int line, int rangeStart, int textStart) {
+
+        /**
+         * @param colon index of the colon after the path.
+         */
+        @Nullable
+        static Location parse(@NotNull String text, int colon, @NotNull String rangeKind) {
+            int lineEnd = skipDigits(text, colon + 1);
+            if (lineEnd == colon + 1 || !text.startsWith(": " + rangeKind, lineEnd)) return null;
+            int rangeStartBegin = lineEnd + 2 + rangeKind.length();
+            int rangeStartEnd = skipDigits(text, rangeStartBegin);
+            if (rangeStartEnd == rangeStartBegin || !text.startsWith("-", rangeStartEnd)) return null;
+            int rangeEndEnd = skipDigits(text, rangeStartEnd + 1);
+            if (rangeEndEnd == rangeStartEnd + 1 || !text.startsWith(" :", rangeEndEnd)) return null;
+            return new Location(colon,
+                                parseInt(text, colon + 1, lineEnd),
+                                parseInt(text, rangeStartBegin, rangeStartEnd),
+                                rangeEndEnd + 2);
+        }
+
+        private static int skipDigits(@NotNull String text, int from) {
+            int i = from;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+            return i;
+        }
+
+        private static int parseInt(@NotNull String text, int from, int to) {
+            try {
+                return Integer.parseInt(text, from, to, 10);
+            }
+            catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
     private static String buildGenericErrorMessage(String error, String reason) {
       StringBuilder msg = new StringBuilder();
       String errType = error;
@@ -224,25 +273,12 @@ public class HaxeCompilerError {
     }
 
     private static boolean matchesInformationalPattern(String message) {
-      return pGeneratingStatusMessage.matcher(message).matches()
+      return (message.startsWith(GENERATING_PREFIX) && message.length() > GENERATING_PREFIX.length())
           || mInformationalMessages.contains(message)
-          || pCompilingStatusMessage.matcher(message).matches();
+          || (message.startsWith(COMPILING_PREFIX) && message.length() > COMPILING_PREFIX.length());
     }
 
-    static Pattern pLibraryNotInstalled = Pattern.compile
-        ("Library (\\S+) (is not installed.*)");
-    static Pattern pBareError = Pattern.compile("([^:]*)Error:(.*)", Pattern.CASE_INSENSITIVE);
-    static Pattern pColumnError =
-        Pattern.compile("(.+?):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)");
-    static Pattern pLineError =
-        Pattern.compile("(.+?):([\\d]+): lines [\\d]+-[\\d]+ :(.*)");
-
-    // Unfortunately, the Haxe compiler doesn't always mark its error lines with
-    // a useful "Warning" or "Error" prefix.  However, the common error output (main.ml)
-    // uses the pattern "%s : %s".
-    static Pattern pGenericError = Pattern.compile("(.+?) : (.+)");
-
-    // These are a few well-known informational patterns that should NOT be marked
+    // These are a few well-known informational messages that should NOT be marked
     // as errors.  Keeping this up to date will always be an arms race.
     static HashSet<String> mInformationalMessages = new HashSet<String>();
     static {
@@ -252,6 +288,6 @@ public class HaxeCompilerError {
       };
       mInformationalMessages.addAll(Arrays.asList(nonErrors));
     }
-    static Pattern pGeneratingStatusMessage = Pattern.compile("Generating (.+)");
-    static Pattern pCompilingStatusMessage = Pattern.compile("- Compiling (.+)");
+    private static final String GENERATING_PREFIX = "Generating ";
+    private static final String COMPILING_PREFIX = "- Compiling ";
 }
@@ -0,0 +1,54 @@
+package com.intellij.plugins.haxe.compilation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits compiler output, which arrives in chunks of arbitrary size, into lines and hands every complete line on as
+ * soon as it is seen, so that diagnostics show up while the compiler is still running and the output is never
+ * buffered as a whole.
+ * <p>
+ * Not thread safe; feed each output stream through its own parser.
+ */
+public class HaxeCompilerOutputParser {
+
+  private final Consumer<String> lineConsumer;
+  private final StringBuilder pending = new StringBuilder();
+
+  public HaxeCompilerOutputParser(@NotNull Consumer<String> lineConsumer) {
+    this.lineConsumer = lineConsumer;
+  }
+
+  /**
+   * Adds a chunk of output.  Lines end with {@code \n}, {@code \r\n} or {@code \r}; blank lines are dropped.
+   */
+  public void append(@NotNull CharSequence chunk) {
+    int length = chunk.length();
+    for (int i = 0; i < length; i++) {
+      char c = chunk.charAt(i);
+      if (c == '\n' || c == '\r') {
+        emitPending();
+      }
+      else {
+        pending.append(c);
+      }
+    }
+  }
+
+  /**
+   * Emits the last line when the output did not end with a line break.  Call once the output is complete.
+   */
+  public void flush() {
+    emitPending();
+  }
+
+  private void emitPending() {
+    if (pending.isEmpty()) return;
+    String line = pending.toString();
+    pending.setLength(0);
+    if (!line.isBlank()) {
+      lineConsumer.accept(line);
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package com.intellij.plugins.haxe.compilation;
 
 import com.intellij.execution.process.ColoredProcessHandler;
+import com.intellij.execution.process.ProcessOutputType;
 import com.intellij.openapi.util.Key;
 import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -24,7 +25,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -37,6 +40,10 @@ public class HaxeCompilerProcessHandler extends ColoredProcessHandler {
   static final String STDERR_PREFIX = "(stderr) ";
 
   final HaxeCommonCompilerUtil.CompilationContext context;
+  /**
+   * A parser per output stream, so that a line of stdout and one of stderr arriving interleaved are not joined.
+   */
+  private final Map<Key, HaxeCompilerOutputParser> outputParsers = new LinkedHashMap<>();
 
   public HaxeCompilerProcessHandler(@NotNull HaxeCommonCompilerUtil.CompilationContext context, @NotNull Process process, /*@NotNull*/ String commandLine, @NotNull Charset charset) {
     super(process, commandLine, charset);
@@ -45,6 +52,9 @@ public class HaxeCompilerProcessHandler extends ColoredProcessHandler {
 
   @Override
   protected void onOSProcessTerminated(int exitCode) {
+    synchronized (outputParsers) {
+      outputParsers.values().forEach(HaxeCompilerOutputParser::flush);
+    }
     if (exitCode != 0) {
       List<String> errors = new ArrayList<String>();
 
@@ -78,8 +88,12 @@ public class HaxeCompilerProcessHandler extends ColoredProcessHandler {
   @Override
   public void coloredTextAvailable(@NotNull String text, @NotNull Key attributes) {
     super.coloredTextAvailable(text, attributes);
-    if(text.trim().length()>0) {// avoid empty lines
-      context.handleOutput(new String[]{text});
+    // Chunks may hold several lines or end in the middle of one; report each line once it is complete.
+    // Colored text comes with a key of its own; its base type tells the stream it came from.
+    Key outputType = attributes instanceof ProcessOutputType type ? type.getBaseOutputType() : attributes;
+    synchronized (outputParsers) {
+      outputParsers.computeIfAbsent(outputType, key -> new HaxeCompilerOutputParser(line -> context.handleOutput(new String[]{line})))
+        .append(text);
     }
     // TODO mlo: add support for compiler new output format
   }
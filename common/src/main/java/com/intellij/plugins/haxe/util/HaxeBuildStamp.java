@@ -0,0 +1,374 @@
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Remembers the inputs of the last successful build of a module, so that a module is only compiled again when one of
+ * its inputs changed: the compiler command lines, the .hx files of the module's source roots and of every class path
+ * the build adds, the build files (.hxml, project.xml, .nmml, and the files they include), the haxelib libraries the
+ * build uses and the assets a lime project ships.
+ * <p>
+ * The inputs are read from the build files themselves, without evaluating conditions, so that the IDE and the
+ * external build, which share the stamps in the build system directory of the project, come to the same set.
+ */
+public class HaxeBuildStamp {
+
+  private static final Logger LOG = Logger.getInstance("#HaxeBuildStamp");
+
+  private static final Pattern DEPENDENCIES = Pattern.compile("\"dependencies\"\\s*:\\s*\\{([^}]*)}");
+  private static final Pattern JSON_KEY = Pattern.compile("\"([^\"]+)\"\\s*:");
+  private static final Pattern CLASS_PATH = Pattern.compile("\"classPath\"\\s*:\\s*\"([^\"]*)\"");
+
+  private final File stampFile;
+  private final List<File> inputs;
+  private final long stamp;
+
+  private HaxeBuildStamp(@NotNull File stampFile, @NotNull List<File> inputs, long stamp) {
+    this.stampFile = stampFile;
+    this.inputs = inputs;
+    this.stamp = stamp;
+  }
+
+  /**
+   * @param stateDirectory   build system directory of the project.
+   * @param buildName        identifies the build of the module (module name, debug or release, ...).
+   * @param sourceRoots      source roots of the module and of what it depends on.
+   * @param projectFile      the .hxml, project.xml or .nmml file the module is built from, if any.
+   * @param workingDirectory the directory the compiler runs in, which relative paths are resolved against.
+   */
+  @NotNull
+  public static HaxeBuildStamp compute(@NotNull File stateDirectory, @NotNull String buildName,
+                                       @NotNull List<List<String>> commandLines, @NotNull Collection<String> sourceRoots,
+                                       @Nullable String projectFile, @NotNull File workingDirectory) {
+    InputCollector collector = new InputCollector(workingDirectory);
+    sourceRoots.forEach(root -> collector.addClassPath(new File(root)));
+    commandLines.forEach(commandLine -> collector.addArguments(commandLine, workingDirectory));
+    if (projectFile != null && !projectFile.isEmpty()) {
+      collector.addBuildFile(collector.resolve(projectFile, workingDirectory));
+    }
+    List<File> inputs = collector.collect();
+
+    long stamp = commandLines.hashCode();
+    for (File input : inputs) {
+      stamp = stamp * 31 + input.getPath().hashCode();
+      stamp = stamp * 31 + input.length();
+      stamp = stamp * 31 + input.lastModified();
+    }
+    File stampFile = new File(new File(stateDirectory, "haxe"), FileUtil.sanitizeFileName(buildName) + ".stamp");
+    return new HaxeBuildStamp(stampFile, inputs, stamp);
+  }
+
+  /**
+   * Gathers the directories and files a build reads, following .hxml and project.xml includes and haxelib
+   * dependencies.  Missing files are kept as inputs too, so that creating one changes the stamp.
+   */
+  private static class InputCollector {
+    private final File workingDirectory;
+    private final Set<File> classPaths = new LinkedHashSet<>();
+    private final Set<File> assetPaths = new LinkedHashSet<>();
+    private final Set<File> files = new LinkedHashSet<>();
+    private final Set<String> libraries = new LinkedHashSet<>();
+    private File haxelibRepository;
+
+    InputCollector(@NotNull File workingDirectory) {
+      this.workingDirectory = workingDirectory;
+    }
+
+    @NotNull
+    File resolve(@NotNull String path, @NotNull File base) {
+      File file = new File(FileUtil.toSystemDependentName(path));
+      return (file.isAbsolute() ? file : new File(base, file.getPath())).toPath().normalize().toFile();
+    }
+
+    @NotNull
+    private static String before(@NotNull String text, char separator) {
+      int index = text.indexOf(separator);
+      return index < 0 ? text : text.substring(0, index);
+    }
+
+    void addClassPath(@NotNull File path) {
+      classPaths.add(path);
+    }
+
+    void addArguments(@NotNull List<String> arguments, @NotNull File base) {
+      for (int i = 0; i < arguments.size(); i++) {
+        String argument = arguments.get(i);
+        String next = i + 1 < arguments.size() ? arguments.get(i + 1) : null;
+        switch (argument) {
+          case "-cp", "-p", "--class-path" -> {
+            if (next != null) addClassPath(resolve(next, base));
+            i++;
+          }
+          case "-lib", "-L", "--library" -> {
+            if (next != null) addLibrary(next);
+            i++;
+          }
+          case "-resource", "--resource" -> {
+            if (next != null) files.add(resolve(before(next, '@'), base));
+            i++;
+          }
+          // haxelib run lime build project.xml: the tool is an input of the build as well.
+          case "run" -> {
+            if (next != null) addLibrary(next);
+            i++;
+          }
+          default -> {
+            String extension = FileUtil.getExtension(argument);
+            if (extension.equals("hxml") || extension.equals("xml") || extension.equals("nmml")) {
+              addBuildFile(resolve(argument, base));
+            }
+          }
+        }
+      }
+    }
+
+    void addBuildFile(@NotNull File file) {
+      if (!files.add(file) || !file.isFile()) return;
+      String extension = FileUtil.getExtension(file.getName());
+      if (extension.equals("hxml")) {
+        addHxml(file);
+      }
+      else if (extension.equals("xml") || extension.equals("nmml")) {
+        addProjectXml(file);
+      }
+    }
+
+    private void addHxml(@NotNull File file) {
+      List<String> arguments = new ArrayList<>();
+      try {
+        for (String line : FileUtil.loadLines(file)) {
+          line = line.trim();
+          if (line.isEmpty() || line.startsWith("#")) continue;
+          arguments.addAll(StringUtil.split(line, " "));
+        }
+      }
+      catch (IOException e) {
+        LOG.debug("Could not read " + file, e);
+        return;
+      }
+      // The compiler resolves paths in .hxml files against its working directory.
+      addArguments(arguments, workingDirectory);
+    }
+
+    private void addProjectXml(@NotNull File file) {
+      Element root;
+      try {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setExpandEntityReferences(false);
+        root = factory.newDocumentBuilder().parse(file).getDocumentElement();
+      }
+      catch (Exception e) {
+        LOG.debug("Could not read " + file, e);
+        return;
+      }
+      addProjectXmlChildren(root, file.getParentFile());
+    }
+
+    /**
+     * Lime resolves the paths of a project file against the directory of that file.  Conditions are not evaluated:
+     * an input that only some builds use is still an input.
+     */
+    private void addProjectXmlChildren(@NotNull Element parent, @NotNull File base) {
+      for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+        if (!(node instanceof Element element)) continue;
+        String path = element.getAttribute("path");
+        switch (element.getTagName()) {
+          case "include" -> {
+            if (path.isEmpty()) break;
+            File included = resolve(path, base);
+            addBuildFile(included.isDirectory() ? new File(included, "include.xml") : included);
+          }
+          case "classpath", "source" -> {
+            if (!path.isEmpty()) addClassPath(resolve(path, base));
+          }
+          case "assets" -> {
+            if (!path.isEmpty()) assetPaths.add(resolve(path, base));
+          }
+          case "haxelib" -> {
+            String name = element.getAttribute("name");
+            String version = element.getAttribute("version");
+            if (!name.isEmpty()) addLibrary(version.isEmpty() ? name : name + ":" + version);
+          }
+          default -> addProjectXmlChildren(element, base);
+        }
+      }
+    }
+
+    /**
+     * Adds the sources and build files of a haxelib library, and of the libraries it depends on.
+     *
+     * @param library a library name, with an optional {@code :version}.
+     */
+    private void addLibrary(@NotNull String library) {
+      if (!libraries.add(library)) return;
+      File root = findLibraryRoot(before(library, ':'), StringUtil.substringAfter(library, ":"));
+      if (root == null) return;
+
+      File descriptor = new File(root, "haxelib.json");
+      files.add(descriptor);
+      String classPath = null;
+      if (descriptor.isFile()) {
+        try {
+          String json = FileUtil.loadFile(descriptor);
+          Matcher classPathMatcher = CLASS_PATH.matcher(json);
+          if (classPathMatcher.find()) classPath = classPathMatcher.group(1);
+          Matcher dependencies = DEPENDENCIES.matcher(json);
+          if (dependencies.find()) {
+            Matcher names = JSON_KEY.matcher(dependencies.group(1));
+            while (names.find()) addLibrary(names.group(1));
+          }
+        }
+        catch (IOException e) {
+          LOG.debug("Could not read " + descriptor, e);
+        }
+      }
+      addClassPath(StringUtil.isEmpty(classPath) ? root : new File(root, classPath));
+      addBuildFile(new File(root, "include.xml"));
+      addBuildFile(new File(root, "extraParams.hxml"));
+    }
+
+    /**
+     * @return the directory of the library's version the build uses (a {@code .dev} directory, the given version or
+     * the {@code .current} one), or null if the library is not installed.
+     */
+    @Nullable
+    private File findLibraryRoot(@NotNull String name, @Nullable String version) {
+      File repository = getHaxelibRepository();
+      if (repository == null) return null;
+      File libraryDirectory = new File(repository, name.replace('.', ','));
+      File dev = new File(libraryDirectory, ".dev");
+      File current = new File(libraryDirectory, ".current");
+      // The marker files select the version: a change to them is a change of input.
+      files.add(dev);
+      files.add(current);
+      try {
+        if (dev.isFile()) return resolve(FileUtil.loadFile(dev).trim(), libraryDirectory);
+        if (StringUtil.isEmpty(version) && current.isFile()) version = FileUtil.loadFile(current).trim();
+      }
+      catch (IOException e) {
+        LOG.debug("Could not read the version of " + name, e);
+      }
+      if (StringUtil.isEmpty(version)) return null;
+      File root = new File(libraryDirectory, version.replace('.', ','));
+      return root.isDirectory() ? root : null;
+    }
+
+    /**
+     * @return the haxelib repository: a local {@code .haxelib} directory, {@code HAXELIB_PATH}, or the one
+     * {@code ~/.haxelib} names.
+     */
+    @Nullable
+    private File getHaxelibRepository() {
+      if (haxelibRepository == null) {
+        File local = new File(workingDirectory, ".haxelib");
+        if (local.isDirectory()) {
+          haxelibRepository = local;
+        }
+        else if (System.getenv("HAXELIB_PATH") != null) {
+          haxelibRepository = new File(System.getenv("HAXELIB_PATH"));
+        }
+        else {
+          File config = new File(System.getProperty("user.home"), ".haxelib");
+          try {
+            haxelibRepository = config.isFile() ? new File(FileUtil.loadFile(config).trim()) : config;
+          }
+          catch (IOException e) {
+            LOG.debug("Could not read " + config, e);
+          }
+        }
+      }
+      return haxelibRepository != null && haxelibRepository.isDirectory() ? haxelibRepository : null;
+    }
+
+    @NotNull
+    List<File> collect() {
+      Set<File> inputs = new TreeSet<>(Comparator.comparing(File::getPath));
+      inputs.addAll(files);
+      for (File classPath : classPaths) {
+        walk(classPath, path -> path.toString().endsWith(".hx"), inputs);
+      }
+      for (File assetPath : assetPaths) {
+        if (assetPath.isFile()) {
+          inputs.add(assetPath);
+        }
+        else {
+          walk(assetPath, path -> true, inputs);
+        }
+      }
+      return new ArrayList<>(inputs);
+    }
+
+    private static void walk(@NotNull File root, @NotNull Predicate<Path> filter, @NotNull Set<File> inputs) {
+      Path rootPath = root.toPath();
+      if (!Files.isDirectory(rootPath)) return;
+      try (Stream<Path> paths = Files.walk(rootPath)) {
+        paths.filter(path -> filter.test(path) && Files.isRegularFile(path))
+          .forEach(path -> inputs.add(path.toFile()));
+      }
+      catch (IOException | UncheckedIOException e) {
+        LOG.debug("Could not list the files in " + root, e);
+      }
+    }
+  }
+
+  /**
+   * @param output the file or directory the build writes.
+   * @return whether the inputs are the same as those of the last successful build and its output still exists.
+   */
+  public boolean isUpToDate(@NotNull String output) {
+    if (!new File(output).exists()) return false;
+    try {
+      return stampFile.isFile() && Long.parseLong(FileUtil.loadFile(stampFile).trim()) == stamp;
+    }
+    catch (IOException | NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Records the inputs as built.  Call only after a successful build.
+   */
+  public void save() {
+    try {
+      FileUtil.writeToFile(stampFile, Long.toString(stamp));
+    }
+    catch (IOException e) {
+      LOG.warn("Could not save the build stamp " + stampFile, e);
+    }
+  }
+
+  /**
+   * Forgets the last successful build, so that the next build compiles again.
+   */
+  public void clear() {
+    FileUtil.delete(stampFile);
+  }
+
+  /**
+   * @return the files the stamp was computed from, sorted by path.
+   */
+  @NotNull
+  public List<File> getInputs() {
+    return Collections.unmodifiableList(inputs);
+  }
+}
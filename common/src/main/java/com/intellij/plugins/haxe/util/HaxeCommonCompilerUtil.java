@@ -33,6 +33,7 @@ import com.intellij.util.BooleanValueHolder;
 import com.intellij.util.PathUtil;
 import com.intellij.util.text.StringTokenizer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.PropertyKey;
 
 import java.io.File;
@@ -77,6 +78,11 @@ public class HaxeCommonCompilerUtil {
 
     String getSdkName();
 
+    /**
+     * @return the source roots of the module and of the modules it depends on (recursively, exported only, without
+     * the SDK), followed by the source roots of its libraries.  The IDE and the external build must agree on these,
+     * since they share the build stamps computed from them.
+     */
     List<String> getSourceRoots();
 
     String getModuleDefaultCompileOutputPath();
@@ -90,10 +96,49 @@ public class HaxeCommonCompilerUtil {
     HaxeTarget getHaxeTarget();
 
     String getModuleDirPath();
+
+    /**
+     * @return the port of a Haxe compilation server ({@code haxe --wait}) to compile through, or 0 to run the
+     * compiler directly.
+     */
+    default int getCompilationServerPort() {
+      return 0;
+    }
+
+    /**
+     * @return the directory that keeps the stamps of the last successful builds (see {@link HaxeBuildStamp}), or
+     * null to compile the module on every build.
+     */
+    @Nullable
+    default File getBuildStateDirectory() {
+      return null;
+    }
+
+    /**
+     * @return whether the build system knows of changed inputs, in which case the module is compiled even if its
+     * build stamp is up to date.
+     */
+    default boolean hasDirtyInputs() {
+      return false;
+    }
+
+    /**
+     * Called after the module compiled successfully, with the inputs of the build.
+     *
+     * @param output the file or directory the compiler wrote, when known.
+     */
+    default void buildSucceeded(@NotNull HaxeBuildStamp stamp, @Nullable String output) {
+    }
   }
 
   private static final Logger LOG = Logger.getInstance("#HaxeCommonCompilerUtil");
 
+  /**
+   * Builder parameter set when the IDE compiled the Haxe modules before starting the external build, which then
+   * leaves them alone.
+   */
+  public static final String BUILT_BY_IDE_PARAMETER = "haxe.modules.built.by.ide";
+
   public static boolean compile(final CompilationContext context) {
     HaxeModuleSettingsBase settings = context.getModuleSettings();
     if (settings.isExcludeFromCompilation()) {
@@ -117,7 +162,19 @@ public class HaxeCommonCompilerUtil {
       }
     }
 
-    final List<List<String>> commandLines = generateCommandLines(context);
+    // The stamp covers the inputs and options of the build, not how it is run (--connect to a compilation server),
+    // which the IDE and the external build don't share.  Nothing is started before the module is known to be stale.
+    final String output = calculateBuildOutputPath(context, workingDirectory);
+    final File stateDirectory = context.getBuildStateDirectory();
+    final HaxeBuildStamp stamp = stateDirectory == null ? null : HaxeBuildStamp.compute(
+      stateDirectory, getBuildName(context), generateCommandLines(context, false), context.getSourceRoots(),
+      getProjectFilePath(settings), workingDirectory);
+    if (stamp != null && output != null && !context.hasDirtyInputs() && stamp.isUpToDate(output)) {
+      context.infoHandler(HaxeCommonBundle.message("module.0.is.up.to.date", context.getModuleName()));
+      return true;
+    }
+
+    final List<List<String>> commandLines = generateCommandLines(context, true);
 
     final BooleanValueHolder hasErrors = new BooleanValueHolder(false);
     try {
@@ -166,10 +223,34 @@ public class HaxeCommonCompilerUtil {
       hasErrors.setValue(true);
       return false;
     }
+    finally {
+      if (stamp != null && hasErrors.getValue()) {
+        stamp.clear();
+      }
+    }
 
+    if (stamp != null && !hasErrors.getValue()) {
+      stamp.save();
+      context.buildSucceeded(stamp, output);
+    }
     return !hasErrors.getValue();
   }
 
+  @NotNull
+  private static String getBuildName(CompilationContext context) {
+    return context.getModuleName()
+           + (context.isDebug() ? "-debug" : "-release")
+           + (Boolean.TRUE.equals(context.getIsTestBuild()) ? "-test" : "");
+  }
+
+  @Nullable
+  private static String getProjectFilePath(HaxeModuleSettingsBase settings) {
+    if (settings.isUseHxmlToBuild()) return settings.getHxmlPath();
+    if (settings.isUseOpenFLToBuild()) return settings.getOpenFLPath();
+    if (settings.isUseNmmlToBuild()) return settings.getNmmlPath();
+    return null;
+  }
+
   private static boolean verifyProjectSettings(CompilationContext context) {
     final HaxeModuleSettingsBase settings = context.getModuleSettings();
     final String mainClass = context.getCompilationClass();
@@ -316,6 +397,69 @@ public class HaxeCommonCompilerUtil {
                  outputFile);
   }
 
+  private static final Pattern APP_PATH_PATTERN = Pattern.compile("<app\\b[^>]*\\bpath\\s*=\\s*[\"']([^\"']*)[\"']");
+
+  /**
+   * @return the file or directory the build writes: the output of the user properties, the output of the configured
+   * target in the .hxml file, or the {@code <app path="...">} directory of a lime/NME project.  Null if it can't be
+   * determined, in which case the build is not considered up to date.
+   */
+  @Nullable
+  private static String calculateBuildOutputPath(CompilationContext context, File workingDirectory) {
+    HaxeModuleSettingsBase settings = context.getModuleSettings();
+    if (settings.isUseUserPropertiesToBuild()) {
+      return calculateOutputPath(context);
+    }
+    if (settings.isUseHxmlToBuild()) {
+      return findHxmlOutputPath(new File(FileUtil.toSystemDependentName(settings.getHxmlPath())), context.getHaxeTarget(),
+                                workingDirectory);
+    }
+    if (settings.isUseOpenFLToBuild() || settings.isUseNmmlToBuild()) {
+      File projectFile = new File(FileUtil.toSystemDependentName(
+        settings.isUseOpenFLToBuild() ? settings.getOpenFLPath() : settings.getNmmlPath()));
+      String path = settings.isUseOpenFLToBuild() ? "Export" : "bin";
+      try {
+        Matcher matcher = APP_PATH_PATTERN.matcher(FileUtil.loadFile(projectFile));
+        if (matcher.find()) path = matcher.group(1);
+      }
+      catch (IOException e) {
+        return null;
+      }
+      return resolvePath(path, projectFile.getParentFile());
+    }
+    return null;
+  }
+
+  /**
+   * @return the output given to the flag of {@code target} in the .hxml file (or of the first target when there's
+   * none for it), resolved against the directory the compiler runs in.
+   */
+  @Nullable
+  private static String findHxmlOutputPath(File hxml, @Nullable HaxeTarget target, File workingDirectory) {
+    String firstOutput = null;
+    try {
+      for (String line : FileUtil.loadLines(hxml)) {
+        List<String> arguments = StringUtil.split(line.trim(), " ");
+        if (arguments.size() < 2 || arguments.get(0).startsWith("#")) continue;
+        String flag = arguments.get(0);
+        HaxeTarget matched = HaxeTarget.matchOutputTarget(flag.startsWith("--") ? flag.substring(1) : flag);
+        if (matched == null) continue;
+        String output = resolvePath(arguments.get(1), workingDirectory);
+        if (matched == target) return output;
+        if (firstOutput == null) firstOutput = output;
+      }
+    }
+    catch (IOException e) {
+      return null;
+    }
+    return firstOutput;
+  }
+
+  private static String resolvePath(String path, File base) {
+    File file = new File(FileUtil.toSystemDependentName(path));
+    return (file.isAbsolute() ? file : new File(base, file.getPath())).getPath();
+  }
+
   private static final Pattern CWD_PATTERN = Pattern.compile("--cwd[ \t]+('[^']*'|\"[^\"]*\"|(\\ |[^ \t])+)");
   private static String findCwdInCommandLineArguments(HaxeModuleSettingsBase settings) {
     String cl = settings.getArguments();
@@ -328,7 +472,10 @@ public class HaxeCommonCompilerUtil {
   }
 
 
-  private static List<List<String>> generateCommandLines(CompilationContext context) {
+  /**
+   * @param connect whether to compile through the compilation server, which is started if need be.
+   */
+  private static List<List<String>> generateCommandLines(CompilationContext context, boolean connect) {
     List<List<String>> clList = new ArrayList<List<String>>();
     HaxeModuleSettingsBase settings = context.getModuleSettings();
 
@@ -339,21 +486,22 @@ public class HaxeCommonCompilerUtil {
       clList.add(generateNmeCommand(context));
     }
     else if (settings.isUseHxmlToBuild()) {
-      clList.add(generateHxmlCommand(context));
+      clList.add(generateHxmlCommand(context, connect));
     }
     else {
-      clList.add(generateUserPropertiesCommand(context));
+      clList.add(generateUserPropertiesCommand(context, connect));
     }
 
     return clList;
   }
 
 
-  private static List<String> generateHxmlCommand(CompilationContext context) {
+  private static List<String> generateHxmlCommand(CompilationContext context, boolean connect) {
 
     final List<String> commandLine = new ArrayList<String>();
     final String sdkExePath = HaxeSdkUtilBase.getCompilerPathByFolderPath(context.getSdkHomePath());
     commandLine.add(sdkExePath);
+    if (connect) addCompilationServerArguments(context, commandLine);
 
     String hxmlPath = context.getModuleSettings().getHxmlPath();
     commandLine.add(FileUtil.toSystemDependentName(hxmlPath));
@@ -365,12 +513,12 @@ public class HaxeCommonCompilerUtil {
     return commandLine;
   }
 
-  private static List<String> generateUserPropertiesCommand(CompilationContext context) {
+  private static List<String> generateUserPropertiesCommand(CompilationContext context, boolean connect) {
 
     final List<String> commandLine = new ArrayList<String>();
     final String sdkExePath = HaxeSdkUtilBase.getCompilerPathByFolderPath(context.getSdkHomePath());
     commandLine.add(sdkExePath);
-
+    if (connect) addCompilationServerArguments(context, commandLine);
 
     final HaxeModuleSettingsBase settings = context.getModuleSettings();
     commandLine.add("-main");
@@ -399,6 +547,14 @@ public class HaxeCommonCompilerUtil {
     return commandLine;
   }
 
+  private static void addCompilationServerArguments(CompilationContext context, List<String> commandLine) {
+    int port = context.getCompilationServerPort();
+    if (port > 0) {
+      commandLine.add("--connect");
+      commandLine.add(String.valueOf(port));
+    }
+  }
+
   private static List<String> generateNmeCommand(CompilationContext context) {
 
     final List<String> commandLine = new ArrayList<>();
@@ -19,13 +19,14 @@
 package org.jetbrains.jps.haxe.build;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.plugins.haxe.HaxeCommonBundle;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
 import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
+import com.intellij.plugins.haxe.util.HaxeBuildStamp;
 import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
-import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -34,6 +35,7 @@ import org.jetbrains.jps.ModuleChunk;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
 import org.jetbrains.jps.builders.java.JavaSourceRootDescriptor;
 import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleSettings;
+import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleType;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkAdditionalData;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkType;
 import org.jetbrains.jps.haxe.util.JpsHaxeUtil;
@@ -45,13 +47,11 @@ import org.jetbrains.jps.model.java.JpsJavaExtensionService;
 import org.jetbrains.jps.model.java.JpsJavaProjectExtension;
 import org.jetbrains.jps.model.library.sdk.JpsSdk;
 import org.jetbrains.jps.model.module.JpsModule;
-import org.jetbrains.jps.model.module.JpsModuleSourceRoot;
 import org.jetbrains.jps.model.serialization.JpsModelSerializationDataService;
-import org.jetbrains.jps.util.JpsPathUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -79,27 +79,42 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
                         DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> dirtyFilesHolder,
                         OutputConsumer outputConsumer)
     throws ProjectBuildException, IOException {
-    boolean doneSomething = false;
+    if (Boolean.parseBoolean(context.getBuilderParameter(HaxeCommonCompilerUtil.BUILT_BY_IDE_PARAMETER))) {
+      // HaxeCompiler has already compiled the modules in the IDE; don't do it again.
+      return ExitCode.NOTHING_DONE;
+    }
 
-    // Don't do this.  HaxeCompiler already does it, and doing it here just
-    // does it again.
-//    for (final JpsModule module : chunk.getModules()) {
-//      if (module.getModuleType() == JpsHaxeModuleType.INSTANCE) {
-//        doneSomething |= processModule(context, dirtyFilesHolder, module);
-//      }
-//    }
+    boolean doneSomething = false;
+    for (ModuleBuildTarget target : chunk.getTargets()) {
+      if (!target.isTests() && target.getModule().getModuleType() == JpsHaxeModuleType.INSTANCE) {
+        doneSomething |= processModule(context, dirtyFilesHolder, outputConsumer, target);
+      }
+    }
 
     return doneSomething ? ExitCode.OK : ExitCode.NOTHING_DONE;
   }
 
   @Override
   public List<String> getCompilableFileExtensions() {
-    return Collections.emptyList();
+    return List.of("hx", "hxml", "xml");
+  }
+
+  private static boolean hasDirtyInputs(@NotNull DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> holder,
+                                        @NotNull ModuleBuildTarget target) throws IOException {
+    if (!holder.getRemovedFiles(target).isEmpty()) return true;
+    final Ref<Boolean> dirty = Ref.create(false);
+    holder.processDirtyFiles((dirtyTarget, file, root) -> {
+      if (dirtyTarget.equals(target)) dirty.set(true);
+      return !dirty.get();
+    });
+    return dirty.get();
   }
 
   private boolean processModule(final CompileContext context,
                                 final DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> holder,
-                                final JpsModule module) {
+                                final OutputConsumer outputConsumer,
+                                final ModuleBuildTarget target) throws IOException {
+    final JpsModule module = target.getModule();
     final boolean isDebugRunner = "HaxeDebugRunner".equals(context.getBuilderParameter("RUNNER_ID"));
     if (isDebugRunner ^ myDebugBuilder) {
       return false;
@@ -118,6 +133,7 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
       );
       return false;
     }
+    final boolean dirtyInputs = hasDirtyInputs(holder, target);
 
     context.processMessage(new ProgressMessage(HaxeCommonBundle.message("haxe.module.compilation.progress.message", module.getName())));
 
@@ -206,12 +222,15 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
       @Override
       public List<String> getSourceRoots() {
-        return ContainerUtil.map(module.getSourceRoots(), new Function<JpsModuleSourceRoot, String>() {
-          @Override
-          public String fun(JpsModuleSourceRoot root) {
-            return JpsPathUtil.urlToPath(root.getUrl());
-          }
-        });
+        // The same roots as HaxeCompiler's context in the IDE.
+        final List<String> result = new ArrayList<String>();
+        for (File sourceRoot : JpsJavaExtensionService.dependencies(module).recursively().withoutSdk().exportedOnly().sources().getRoots()) {
+          result.add(sourceRoot.getPath());
+        }
+        for (File sourceRoot : JpsJavaExtensionService.dependencies(module).librariesOnly().sources().getRoots()) {
+          result.add(sourceRoot.getPath());
+        }
+        return result;
       }
 
       @Override
@@ -267,6 +286,27 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
         return getWorkingDirectoryPath();
       }
 
+      @Override
+      public File getBuildStateDirectory() {
+        return context.getProjectDescriptor().dataManager.getDataPaths().getDataStorageRoot();
+      }
+
+      @Override
+      public boolean hasDirtyInputs() {
+        return dirtyInputs;
+      }
+
+      @Override
+      public void buildSucceeded(@NotNull HaxeBuildStamp stamp, @Nullable String output) {
+        if (output == null) return;
+        try {
+          outputConsumer.registerOutputFile(target, new File(output), ContainerUtil.mapNotNull(stamp.getInputs(), input -> input.isFile() ? input.getPath() : null));
+        }
+        catch (IOException e) {
+          LOG.warn("Could not register the output of " + module.getName(), e);
+        }
+      }
+
       @Nullable
       public String getWorkingDirectoryPath() {
         final File baseDirectory = JpsModelSerializationDataService.getBaseDirectory(module);
@@ -0,0 +1,22 @@
+package com.intellij.plugins.haxe.buildsystem.hxml;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.plugins.haxe.buildsystem.hxml.lexer.HXMLFilterLexer;
+import com.intellij.psi.impl.cache.impl.OccurrenceConsumer;
+import com.intellij.psi.impl.cache.impl.id.LexerBasedIdIndexer;
+import org.jetbrains.annotations.NotNull;
+
+public class HXMLIdIndexer extends LexerBasedIdIndexer {
+  private static final int VERSION = 1;
+
+  @NotNull
+  @Override
+  public Lexer createLexer(@NotNull OccurrenceConsumer consumer) {
+    return new HXMLFilterLexer(consumer);
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+}
@@ -0,0 +1,42 @@
+package com.intellij.plugins.haxe.buildsystem.hxml.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.plugins.haxe.hxml.psi.HXMLTypes;
+import com.intellij.psi.impl.cache.impl.BaseFilterLexer;
+import com.intellij.psi.impl.cache.impl.OccurrenceConsumer;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Feeds the id and todo indices for hxml files.  Class names (main classes, macros, etc.) are indexed as code,
+ * so that searching for usages of a Haxe class also visits the build files mentioning it.
+ */
+public class HXMLFilterLexer extends BaseFilterLexer {
+
+  public HXMLFilterLexer(@NotNull OccurrenceConsumer occurrenceConsumer) {
+    this(new HXMLLexerAdapter(), occurrenceConsumer);
+  }
+
+  public HXMLFilterLexer(@NotNull Lexer originalLexer, @NotNull OccurrenceConsumer occurrenceConsumer) {
+    super(originalLexer, occurrenceConsumer);
+  }
+
+  @Override
+  public void advance() {
+    IElementType tokenType = myDelegate.getTokenType();
+
+    if (tokenType == HXMLTypes.QUALIFIEDCLASSNAME) {
+      scanWordsInToken(UsageSearchContext.IN_CODE, false, false);
+    }
+    else if (tokenType == HXMLTypes.VALUE_TOKEN || tokenType == HXMLTypes.HXML_FILE) {
+      scanWordsInToken(UsageSearchContext.IN_PLAIN_TEXT | UsageSearchContext.IN_STRINGS, true, false);
+    }
+    else if (tokenType == HXMLTypes.COMMENT) {
+      scanWordsInToken(UsageSearchContext.IN_COMMENTS, false, false);
+      advanceTodoItemCountsInToken();
+    }
+
+    myDelegate.advance();
+  }
+}
@@ -0,0 +1,137 @@
+package com.intellij.plugins.haxe.buildsystem.hxml.model;
+
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * One compilation of an HXML build: the arguments of a {@code --next} section, including the arguments shared
+ * through {@code --each} and those coming from included .hxml files.
+ */
+public class HXMLBuildSection {
+
+  private final Map<String, String> definitions = new LinkedHashMap<>();
+  private final List<String> classpaths = new ArrayList<>();
+  private final List<String> libraries = new ArrayList<>();
+  private final List<String> macros = new ArrayList<>();
+  private final List<HXMLProjectModel.Argument> arguments = new ArrayList<>();
+  private String mainClass;
+  private HaxeTarget target;
+  private String output;
+  private String workingDirectory;
+  private boolean debug;
+
+  void add(@NotNull HXMLProjectModel.Argument argument) {
+    arguments.add(argument);
+    String value = argument.value();
+    switch (argument.option()) {
+      case "-D", "--define" -> {
+        if (value != null) addDefinition(value);
+      }
+      case "-cp", "-p", "--class-path" -> {
+        if (value != null) classpaths.add(value);
+      }
+      case "-lib", "-L", "--library" -> {
+        if (value != null) libraries.add(value);
+      }
+      case "-main", "-m", "--main" -> mainClass = value;
+      case "--macro" -> {
+        if (value != null) macros.add(value);
+      }
+      case "--cwd", "-C" -> workingDirectory = value;
+      case "-debug", "--debug" -> {
+        debug = true;
+        definitions.put("debug", "true");
+      }
+      default -> {
+        HaxeTarget matched = matchTarget(argument.option());
+        if (matched != null) {
+          target = matched;
+          output = value;
+        }
+      }
+    }
+  }
+
+  private void addDefinition(@NotNull String define) {
+    int separator = define.indexOf('=');
+    if (separator < 0) {
+      definitions.put(define, "true");
+    }
+    else {
+      definitions.put(define.substring(0, separator), define.substring(separator + 1));
+    }
+  }
+
+  /**
+   * Matches both the Haxe 3 ({@code -js}) and Haxe 4 ({@code --js}) spelling of target flags.
+   */
+  @Nullable
+  static HaxeTarget matchTarget(@NotNull String option) {
+    HaxeTarget target = HaxeTarget.matchOutputTarget(option);
+    if (target == null && option.startsWith("--")) {
+      target = HaxeTarget.matchOutputTarget(option.substring(1));
+    }
+    return target;
+  }
+
+  @NotNull
+  public Map<String, String> getDefinitions() {
+    return Collections.unmodifiableMap(definitions);
+  }
+
+  @NotNull
+  public List<String> getClasspaths() {
+    return Collections.unmodifiableList(classpaths);
+  }
+
+  /**
+   * @return library references as written, either {@code name} or {@code name:version}.
+   */
+  @NotNull
+  public List<String> getLibraries() {
+    return Collections.unmodifiableList(libraries);
+  }
+
+  @NotNull
+  public List<String> getMacros() {
+    return Collections.unmodifiableList(macros);
+  }
+
+  /**
+   * @return every argument of the section, in command line order.
+   */
+  @NotNull
+  public List<HXMLProjectModel.Argument> getArguments() {
+    return Collections.unmodifiableList(arguments);
+  }
+
+  @Nullable
+  public String getMainClass() {
+    return mainClass;
+  }
+
+  @Nullable
+  public HaxeTarget getTarget() {
+    return target;
+  }
+
+  /**
+   * @return the output file or directory given to the target flag.
+   */
+  @Nullable
+  public String getOutput() {
+    return output;
+  }
+
+  @Nullable
+  public String getWorkingDirectory() {
+    return workingDirectory;
+  }
+
+  public boolean isDebug() {
+    return debug;
+  }
+}
@@ -17,24 +17,31 @@ package com.intellij.plugins.haxe.buildsystem.hxml.model;
 
 import com.intellij.openapi.diagnostic.LogLevel;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.plugins.haxe.hxml.psi.HXMLLib;
-import com.intellij.plugins.haxe.hxml.psi.HXMLOption;
-import com.intellij.plugins.haxe.hxml.psi.HXMLProperty;
-import com.intellij.plugins.haxe.hxml.psi.HXMLValue;
-import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.plugins.haxe.buildsystem.hxml.psi.HXMLFile;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.hxml.psi.*;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Function;
 
 /**
+ * Model of an HXML build file: the compilations it describes ({@code --next} sections, with the arguments shared
+ * through {@code --each}), with the arguments of included .hxml files inlined where they are referenced.
+ * <p>
+ * Use {@link #getCachedModel} to get a model that is kept until the file or one of the files it includes changes.
+ *
  * Created by ebishton on 9/8/2017.
  */
 @CustomLog
@@ -57,11 +64,26 @@ public class HXMLProjectModel {
 
   public static final String CWD = "--cwd";
 
+  public static final String NEXT = "--next";
+  public static final String EACH = "--each";
+
+  /**
+   * A single command line argument: an option and its value, if it has one.
+   */
+  public record Argument(@NotNull String option, @Nullable String value) {
+  }
 
   protected PsiFile psiFile;
 
+  private final List<HXMLBuildSection> sections = new ArrayList<>();
+  private final Set<PsiFile> includedFiles = new LinkedHashSet<>();
+  private boolean hasUnresolvedIncludes;
+
   public HXMLProjectModel(PsiFile psiFile) {
     this.psiFile = psiFile;
+    if (psiFile != null) {
+      buildSections(readArguments(psiFile));
+    }
   }
 
   public static HXMLProjectModel create(Project project, VirtualFile hxmlFile) {
@@ -71,26 +93,194 @@ public class HXMLProjectModel {
     }
 
     PsiFile psi = PsiManager.getInstance(project).findFile(hxmlFile);
-    return new HXMLProjectModel(psi);
+    return psi == null ? null : getCachedModel(psi);
   }
 
-  // public Map<String,String> getDefinitions();
-  // public List<String> getMacros();
-  // public List<String> getClasspath();
-  // public String getMainClass();
+  /**
+   * @return the model for {@code file}, cached until the file or any of the .hxml files it includes change.
+   */
+  @NotNull
+  public static HXMLProjectModel getCachedModel(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      HXMLProjectModel model = new HXMLProjectModel(file);
+      List<Object> dependencies = new ArrayList<>(model.includedFiles);
+      dependencies.add(file);
+      if (model.hasUnresolvedIncludes) {
+        // a missing include may be created later.
+        dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+      }
+      return CachedValueProvider.Result.create(model, dependencies.toArray());
+    });
+  }
 
-  public List<String> getLibraries() {
-      List<String> found = new ArrayList<>();;
-      HXMLLib[] libs = UsefulPsiTreeUtil.getChildrenOfType(psiFile, HXMLLib.class, null);
-      if (null != libs) {
-        for (HXMLLib lib : libs) {
-          lib.getValueList().stream()
-            .map(PsiElement::getText)
-            .filter(Objects::nonNull)
-            .forEach(found::add);
+  @NotNull
+  private List<Argument> readArguments(@NotNull PsiFile file) {
+    List<Argument> arguments = new ArrayList<>();
+    readArguments(file, arguments, new HashSet<>());
+    return arguments;
+  }
+
+  private void readArguments(@NotNull PsiFile file, @NotNull List<Argument> arguments, @NotNull Set<PsiFile> visiting) {
+    if (!visiting.add(file)) {
+      log.warn("Recursive include of " + file.getName() + " ignored.");
+      return;
+    }
+    for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof HXMLDefine define) {
+        arguments.add(new Argument("-D", textOf(define.getValue())));
+      }
+      else if (child instanceof HXMLClasspath classpath) {
+        arguments.add(new Argument(CLASSPATH, textOf(classpath.getValue())));
+      }
+      else if (child instanceof HXMLLib lib) {
+        List<String> parts = lib.getValueList().stream().map(PsiElement::getText).toList();
+        arguments.add(new Argument(LIBRARY, parts.isEmpty() ? null : String.join(":", parts)));
+      }
+      else if (child instanceof HXMLMain main) {
+        arguments.add(new Argument(MAIN_CLASS, textOf(main.getQualifiedName())));
+      }
+      else if (child instanceof HXMLProperty property) {
+        HXMLOption option = property.getOption();
+        if (option != null) {
+          arguments.add(new Argument(option.getText(), textOf(property.getValue())));
         }
       }
-    return found;
+      else if (child instanceof HXMLHxml include) {
+        PsiFile included = findInclude(file, include.getText().trim());
+        if (included != null) {
+          includedFiles.add(included);
+          readArguments(included, arguments, visiting);
+        }
+        else {
+          hasUnresolvedIncludes = true;
+        }
+      }
+    }
+    visiting.remove(file);
+  }
+
+  /**
+   * Included files are looked up relative to the including file, then as absolute paths.
+   */
+  @Nullable
+  private static PsiFile findInclude(@NotNull PsiFile from, @NotNull String path) {
+    VirtualFile including = from.getOriginalFile().getVirtualFile();
+    VirtualFile file = including != null && including.getParent() != null
+                       ? including.getParent().findFileByRelativePath(path.replace('\\', '/'))
+                       : null;
+    if (file == null) {
+      file = LocalFileSystem.getInstance().findFileByPath(path);
+    }
+    if (file == null) return null;
+    PsiFile psi = from.getManager().findFile(file);
+    return psi instanceof HXMLFile ? psi : null;
+  }
+
+  @Nullable
+  private static String textOf(@Nullable PsiElement element) {
+    if (element == null) return null;
+    String text = element.getText().trim();
+    return StringUtil.unquoteString(text);
+  }
+
+  /**
+   * Splits the arguments into compilations: {@code --next} starts a new one, and everything before an
+   * {@code --each} is repeated at the start of every compilation that follows it.
+   */
+  private void buildSections(@NotNull List<Argument> arguments) {
+    List<Argument> shared = List.of();
+    List<Argument> current = new ArrayList<>();
+    for (Argument argument : arguments) {
+      switch (argument.option()) {
+        case EACH -> {
+          shared = List.copyOf(current);
+          current = new ArrayList<>(shared);
+        }
+        case NEXT -> {
+          addSection(current, shared);
+          current = new ArrayList<>(shared);
+        }
+        default -> current.add(argument);
+      }
+    }
+    addSection(current, shared);
+    if (sections.isEmpty()) {
+      addSection(current, List.of());
+    }
+  }
+
+  private void addSection(@NotNull List<Argument> arguments, @NotNull List<Argument> shared) {
+    if (arguments.size() == shared.size() && !shared.isEmpty()) return; // nothing but the --each arguments
+    if (arguments.isEmpty() && !sections.isEmpty()) return;
+    HXMLBuildSection section = new HXMLBuildSection();
+    arguments.forEach(section::add);
+    sections.add(section);
+  }
+
+  /**
+   * @return the compilations described by the file, at least one.
+   */
+  @NotNull
+  public List<HXMLBuildSection> getSections() {
+    return Collections.unmodifiableList(sections);
+  }
+
+  /**
+   * @return the .hxml files included from this file, directly or not.
+   */
+  @NotNull
+  public Collection<PsiFile> getIncludedFiles() {
+    return Collections.unmodifiableSet(includedFiles);
+  }
+
+  /**
+   * @return the section compiling for {@code target}, or the first section (the arguments before any {@code --next})
+   * when none does.
+   */
+  @NotNull
+  public HXMLBuildSection getSection(@Nullable HaxeTarget target) {
+    return sections.stream().filter(section -> target != null && section.getTarget() == target).findFirst()
+      .orElse(sections.get(0));
+  }
+
+  /**
+   * @return the definitions given to the compilation for {@code target}, see {@link #getSection}.  The definitions
+   * of the target itself are not included.
+   */
+  @NotNull
+  public Map<String, String> getDefinitions(@Nullable HaxeTarget target) {
+    return getSection(target).getDefinitions();
+  }
+
+  @NotNull
+  public List<String> getMacros() {
+    return collect(HXMLBuildSection::getMacros);
+  }
+
+  @NotNull
+  public List<String> getClasspath() {
+    return collect(HXMLBuildSection::getClasspaths);
+  }
+
+  @Nullable
+  public String getMainClass() {
+    return sections.stream().map(HXMLBuildSection::getMainClass).filter(Objects::nonNull).findFirst().orElse(null);
+  }
+
+  @NotNull
+  public List<HaxeTarget> getTargets() {
+    return sections.stream().map(HXMLBuildSection::getTarget).filter(Objects::nonNull).distinct().toList();
+  }
+
+  public List<String> getLibraries() {
+    return collect(HXMLBuildSection::getLibraries);
+  }
+
+  @NotNull
+  private List<String> collect(@NotNull Function<HXMLBuildSection, List<String>> values) {
+    Set<String> found = new LinkedHashSet<>();
+    sections.forEach(section -> found.addAll(values.apply(section)));
+    return new ArrayList<>(found);
   }
 
   @Nullable
@@ -98,7 +288,6 @@ public class HXMLProjectModel {
     return getProperty(SWF_NAME);
   }
 
-
   @Nullable
   public String getProperty(String propertyName) {
     List<String> found = getProperties(propertyName);
@@ -132,18 +321,15 @@ public class HXMLProjectModel {
     }
 
     List<String> found = null;
-    HXMLProperty[] properties = UsefulPsiTreeUtil.getChildrenOfType(psiFile, HXMLProperty.class, null);
-    if (null != properties) {
-      for (HXMLProperty foundProperty : properties) {
-        HXMLOption option = foundProperty.getOption();
-        if (null != option && propertyName.equals(option.getText())) {
-          HXMLValue val = foundProperty.getValue();
-          if (val != null) {
-            if (found == null) {
-              found = new ArrayList<String>();
-            }
-            found.add(val.getText());
+    // arguments shared through --each are the same instances in every section; report them once.
+    Set<Argument> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (HXMLBuildSection section : sections) {
+      for (Argument argument : section.getArguments()) {
+        if (propertyName.equals(argument.option()) && argument.value() != null && seen.add(argument)) {
+          if (found == null) {
+            found = new ArrayList<String>();
           }
+          found.add(argument.value());
         }
       }
     }
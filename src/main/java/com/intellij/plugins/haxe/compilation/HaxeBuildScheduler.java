@@ -0,0 +1,160 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Builds a set of items (modules) with at most {@code parallelism} builds running at once.  An item is only started
+ * once all the items it depends on have been built; items whose dependencies failed are not built at all.
+ * Dependency cycles are broken by starting the first remaining item of the cycle.
+ *
+ * @param <T> the type of the items to build.
+ */
+@CustomLog
+public class HaxeBuildScheduler<T> {
+
+  public interface Listener<T> {
+    default void started(@NotNull T item) {}
+
+    default void finished(@NotNull T item, boolean success) {}
+
+    /**
+     * Called instead of building the item because {@code failedDependency} could not be built.
+     */
+    default void skipped(@NotNull T item, @NotNull T failedDependency) {}
+  }
+
+  private final List<T> items;
+  private final Map<T, Set<T>> waitingFor = new LinkedHashMap<>();
+  private final Map<T, T> failedDependencies = new HashMap<>();
+  private final int parallelism;
+
+  /**
+   * @param items        the items to build, in their preferred build order.
+   * @param dependencies the items an item depends on; dependencies outside of {@code items} are ignored.
+   */
+  public HaxeBuildScheduler(@NotNull List<T> items, @NotNull Function<T, Collection<T>> dependencies, int parallelism) {
+    this.items = List.copyOf(items);
+    this.parallelism = Math.max(1, parallelism);
+    for (T item : this.items) {
+      Set<T> itemDependencies = new LinkedHashSet<>(dependencies.apply(item));
+      itemDependencies.retainAll(this.items);
+      itemDependencies.remove(item);
+      waitingFor.put(item, itemDependencies);
+    }
+  }
+
+  /**
+   * Runs the builds and waits for them to finish.  When the indicator is cancelled, no further builds are started,
+   * but those already running are waited for.
+   *
+   * @param builder builds an item and returns whether it succeeded.
+   * @return the items that were built successfully, in the order in which they finished.
+   */
+  @NotNull
+  public List<T> build(@NotNull Predicate<T> builder, @NotNull Listener<T> listener, @Nullable ProgressIndicator indicator) {
+    List<T> built = new ArrayList<>();
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Haxe Build Scheduler", parallelism);
+    CompletionService<Map.Entry<T, Boolean>> completionService = new ExecutorCompletionService<>(executor);
+    int running = 0;
+    try {
+      while (!waitingFor.isEmpty() || running > 0) {
+        boolean canceled = indicator != null && indicator.isCanceled();
+        if (!canceled) {
+          running += startReadyItems(completionService, builder, listener);
+          if (running == 0 && !waitingFor.isEmpty()) {
+            breakCycle();
+            continue;
+          }
+        }
+        else if (running == 0) {
+          break;
+        }
+
+        Future<Map.Entry<T, Boolean>> done = completionService.poll(100, TimeUnit.MILLISECONDS);
+        if (done == null) continue;
+        running--;
+
+        Map.Entry<T, Boolean> result = done.get();
+        T item = result.getKey();
+        boolean success = result.getValue();
+        listener.finished(item, success);
+        if (success) {
+          built.add(item);
+        }
+        else {
+          waitingFor.forEach((waiting, dependencies) -> {
+            if (dependencies.contains(item)) failedDependencies.putIfAbsent(waiting, item);
+          });
+        }
+        waitingFor.values().forEach(dependencies -> dependencies.remove(item));
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e) {
+      // runBuilder() doesn't throw, so this is an error in the scheduler itself.
+      throw new IllegalStateException(e.getCause());
+    }
+    finally {
+      executor.shutdown();
+    }
+    return built;
+  }
+
+  private int startReadyItems(@NotNull CompletionService<Map.Entry<T, Boolean>> completionService,
+                              @NotNull Predicate<T> builder, @NotNull Listener<T> listener) {
+    int started = 0;
+    boolean skippedAny;
+    do {
+      skippedAny = false;
+      for (T item : items) {
+        Set<T> dependencies = waitingFor.get(item);
+        if (dependencies == null || !dependencies.isEmpty()) continue;
+        waitingFor.remove(item);
+
+        T failedDependency = failedDependencies.get(item);
+        if (failedDependency != null) {
+          listener.skipped(item, failedDependency);
+          // Whatever depends on this item can't be built either.
+          waitingFor.forEach((waiting, waitingDependencies) -> {
+            if (waitingDependencies.remove(item)) failedDependencies.putIfAbsent(waiting, failedDependency);
+          });
+          skippedAny = true;
+          continue;
+        }
+
+        listener.started(item);
+        completionService.submit(() -> Map.entry(item, runBuilder(builder, item)));
+        started++;
+      }
+    }
+    while (skippedAny);
+    return started;
+  }
+
+  private static <T> boolean runBuilder(@NotNull Predicate<T> builder, @NotNull T item) {
+    try {
+      return builder.test(item);
+    }
+    catch (RuntimeException e) {
+      log.warn("Building " + item + " failed", e);
+      return false;
+    }
+  }
+
+  private void breakCycle() {
+    T first = waitingFor.keySet().iterator().next();
+    log.warn("Dependency cycle between modules, building " + first + " without waiting for " + waitingFor.get(first));
+    waitingFor.get(first).clear();
+  }
+}
@@ -0,0 +1,121 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
+import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * A Haxe compilation server ({@code haxe --wait <port>}) shared by the builds of a project, so that modules
+ * compiled through it ({@code haxe --connect <port>}) reuse the typing results of the standard library and
+ * of the libraries they have in common.
+ * <p>
+ * The server is started with the SDK of the first module that asks for it and is stopped with the project.  A server
+ * that is already listening on the port (started by the user, for instance) is used as is.
+ */
+@CustomLog
+public class HaxeCompilationServer implements Disposable {
+
+  private static final int STARTUP_TIMEOUT_MS = 5000;
+
+  private Process process;
+  private String sdkHomePath;
+  private int port;
+
+  public static HaxeCompilationServer getInstance(@NotNull Project project) {
+    return project.getService(HaxeCompilationServer.class);
+  }
+
+  /**
+   * Makes sure a server is listening on the port, starting one with the given SDK if needed.
+   *
+   * @return the port to connect to, or 0 when the server can't be used for this SDK and the compiler should be run
+   * directly.
+   */
+  public synchronized int connect(int port, @Nullable String sdkHomePath, @Nullable HaxeSdkAdditionalDataBase sdkData) {
+    if (port <= 0 || sdkHomePath == null) return 0;
+
+    if (process != null && process.isAlive() && this.port == port) {
+      if (sdkHomePath.equals(this.sdkHomePath)) return port;
+      log.info("Compilation server on port " + port + " runs " + this.sdkHomePath + ", compiling " + sdkHomePath + " directly.");
+      return 0;
+    }
+    stop();
+
+    if (isListening(port)) {
+      // Not ours; assume whoever started it knows which SDK it should run.
+      return port;
+    }
+
+    String compiler = HaxeSdkUtilBase.getCompilerPathByFolderPath(sdkHomePath);
+    if (compiler == null) return 0;
+    try {
+      process = HaxeSdkUtilBase.createProcessBuilder(List.of(compiler, "--wait", String.valueOf(port)), null, sdkData)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    }
+    catch (IOException e) {
+      log.warn("Could not start the compilation server: " + e.getMessage());
+      return 0;
+    }
+
+    if (!waitUntilListening(port)) {
+      log.warn("Compilation server did not start listening on port " + port + ", compiling directly.");
+      stop();
+      return 0;
+    }
+    this.port = port;
+    this.sdkHomePath = sdkHomePath;
+    log.info("Started compilation server on port " + port + " for " + sdkHomePath);
+    return port;
+  }
+
+  private boolean waitUntilListening(int port) {
+    long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+    while (System.currentTimeMillis() < deadline) {
+      if (!process.isAlive()) return false;
+      if (isListening(port)) return true;
+      try {
+        Thread.sleep(50);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isListening(int port) {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+      return true;
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+
+  private synchronized void stop() {
+    if (process != null) {
+      process.destroy();
+      process = null;
+    }
+    sdkHomePath = null;
+    port = 0;
+  }
+
+  @Override
+  public void dispose() {
+    stop();
+  }
+}
@@ -19,14 +19,17 @@
 package com.intellij.plugins.haxe.compilation;
 
 import com.intellij.compiler.options.CompileStepBeforeRun;
+import com.intellij.compiler.server.BuildManager;
 import com.intellij.execution.ExecutorRegistry;
 import com.intellij.execution.configurations.ModuleBasedConfiguration;
 import com.intellij.execution.configurations.RunConfiguration;
 import com.intellij.execution.configurations.RunConfigurationModule;
 import com.intellij.execution.executors.DefaultDebugExecutor;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.compiler.*;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleType;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.projectRoots.Sdk;
@@ -39,6 +42,8 @@ import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.newvfs.impl.FakeVirtualFile;
 import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
@@ -51,11 +56,12 @@ import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
 import com.intellij.util.PathUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.DataInput;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @CustomLog
 public class HaxeCompiler implements FileProcessingCompiler {
@@ -150,22 +156,60 @@ public class HaxeCompiler implements FileProcessingCompiler {
   }
 
   private static ProcessingItem[] make(CompileContext context, ProcessingItem[] items) {
-    final List<ProcessingItem> result = new ArrayList<ProcessingItem>();
+    final Map<Module, ProcessingItem> itemsByModule = new LinkedHashMap<>();
     for (ProcessingItem processingItem : items) {
-      if (!(processingItem instanceof MyProcessingItem)) {
-        continue;
-      }
-      final MyProcessingItem myProcessingItem = (MyProcessingItem)processingItem;
-      if (compileModule(context, myProcessingItem.myModule, createCompilationContext(context, myProcessingItem.myModule, null))) {
-        result.add(processingItem);
+      if (processingItem instanceof MyProcessingItem myProcessingItem) {
+        itemsByModule.put(myProcessingItem.myModule, processingItem);
       }
     }
+    final List<Module> modules = new ArrayList<>(itemsByModule.keySet());
+
+    // Created up front, on this thread; the builds themselves run on pooled threads.
+    final Map<Module, HaxeCommonCompilerUtil.CompilationContext> compilationContexts = new HashMap<>();
+    for (Module module : modules) {
+      compilationContexts.put(module, createCompilationContext(context, module, null));
+    }
+    final Map<Module, Collection<Module>> dependencies = ReadAction.compute(() -> {
+      Map<Module, Collection<Module>> result = new HashMap<>();
+      for (Module module : modules) {
+        result.put(module, Arrays.asList(ModuleRootManager.getInstance(module).getDependencies()));
+      }
+      return result;
+    });
+
+    final boolean parallel = HaxeProjectSettings.getInstance(context.getProject()).isParallelModuleBuild();
+    final HaxeBuildScheduler<Module> scheduler =
+      new HaxeBuildScheduler<>(modules, dependencies::get, parallel ? Runtime.getRuntime().availableProcessors() : 1);
+
+    final Set<Module> compiled = new HashSet<>(scheduler.build(
+      module -> compileModule(context, module, compilationContexts.get(module)),
+      new HaxeBuildScheduler.Listener<>() {
+        @Override
+        public void started(@NotNull Module module) {
+          ProgressIndicator indicator = context.getProgressIndicator();
+          if (indicator != null) {
+            indicator.setText2(HaxeCommonBundle.message("haxe.module.compilation.progress.message", module.getName()));
+          }
+        }
+
+        @Override
+        public void skipped(@NotNull Module module, @NotNull Module failedDependency) {
+          context.addMessage(CompilerMessageCategory.ERROR,
+                             HaxeBundle.message("haxe.compiler.module.skipped", module.getName(), failedDependency.getName()), null, -1, -1);
+        }
+      },
+      context.getProgressIndicator()));
+
+    final List<ProcessingItem> result = new ArrayList<ProcessingItem>();
+    itemsByModule.forEach((module, item) -> {
+      if (compiled.contains(module)) result.add(item);
+    });
     return result.toArray(new ProcessingItem[0]);
   }
 
   private static boolean compileModule(final CompileContext context,
                                        Module module,
-                                       @NotNull final HaxeCommonCompilerUtil.CompilationContext compilationContext) {
+                                       @Nullable final HaxeCommonCompilerUtil.CompilationContext compilationContext) {
 
     /*
     if ((skipBuildMap.get(module) != null) && (skipBuildMap.get(module).booleanValue())) {
@@ -176,6 +220,10 @@ public class HaxeCompiler implements FileProcessingCompiler {
     if (!ModuleType.get(module).equals(HaxeModuleType.getInstance())) {
       return true;
     }
+    if (compilationContext == null) {
+      // createCompilationContext() has already reported why.
+      return false;
+    }
 
     boolean compiled = HaxeCommonCompilerUtil.compile(compilationContext);
 
@@ -364,6 +412,18 @@ public class HaxeCompiler implements FileProcessingCompiler {
       public String getModuleDirPath() {
         return ProjectUtil.guessModuleDir(module).getCanonicalPath();
       }
+
+      @Override
+      public File getBuildStateDirectory() {
+        return BuildManager.getInstance().getProjectSystemDir(module.getProject()).toFile();
+      }
+
+      @Override
+      public int getCompilationServerPort() {
+        Project project = module.getProject();
+        int port = HaxeProjectSettings.getInstance(project).getCompilationServerPort();
+        return HaxeCompilationServer.getInstance(project).connect(port, getSdkHomePath(), getHaxeSdkData());
+      }
     };
   }
 
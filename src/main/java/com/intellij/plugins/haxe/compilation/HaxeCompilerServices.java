@@ -15,8 +15,7 @@
  */
 package com.intellij.plugins.haxe.compilation;
 
-import com.google.common.base.Joiner;
-import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.LogLevel;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
@@ -26,21 +25,25 @@ import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.config.HaxeConfiguration;
 import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.config.OpenFLTarget;
+import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
 import com.intellij.plugins.haxe.haxelib.*;
+import com.intellij.plugins.haxe.haxelib.definitions.ProjectXmlConfiguration;
+import com.intellij.plugins.haxe.haxelib.definitions.ProjectXmlEvaluator;
 import com.intellij.plugins.haxe.ide.completion.HaxeCompilerCompletionItem;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.plugins.haxe.util.*;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiFileFactory;
-import com.intellij.psi.xml.XmlAttribute;
-import com.intellij.psi.xml.XmlDocument;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.xml.XmlFile;
-import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.LineSeparator;
 import com.intellij.util.text.StringTokenizer;
 import lombok.CustomLog;
@@ -100,6 +103,17 @@ public class HaxeCompilerServices {
         }
         VirtualFile compileRoot = HaxeCompilerUtil.findCompileRoot(module);
 
+        // Plain project files are evaluated in process; lime is only started for what we can't evaluate ourselves.
+        if (projectFile != null && !useDebugConfig && StringUtil.isEmptyOrSpaces(moduleSettings.getOpenFLFlags())) {
+            List<String> evaluated = evaluateLimeProjectFile(module, projectFile, moduleSettings.getOpenFLTarget());
+            if (evaluated != null) {
+                if (null != timeLog) {
+                    timeLog.stamp("Evaluated " + projectFile.getName() + " in process.");
+                }
+                return evaluated;
+            }
+        }
+
         List<String> compilerArgsFromProjectFile = openFLDisplayArguments.get(module, projectFile != null ? projectFile.getUrl() : "", targetFlag);
         if (compilerArgsFromProjectFile == null) {
             ArrayList<String> limeArguments = new ArrayList<String>();
@@ -138,6 +152,43 @@ public class HaxeCompilerServices {
     }
 
 
+    /**
+     * @return the compiler arguments for the project file, in the format {@code lime display} uses, or null when
+     * the file uses something only lime can evaluate.
+     */
+    @Nullable
+    private static List<String> evaluateLimeProjectFile(@NotNull Module module, @NotNull VirtualFile projectFile,
+                                                        @NotNull OpenFLTarget target) {
+        return ReadAction.compute(() -> {
+            PsiFile psiFile = PsiManager.getInstance(module.getProject()).findFile(projectFile);
+            if (!(psiFile instanceof XmlFile xmlFile)) return null;
+
+            HaxeTarget outputTarget = target.getOutputTarget();
+            ProjectLibraryCacheManager libraryCacheManager = HaxelibProjectUpdater.INSTANCE.getLibraryCacheManager(module);
+            ModuleLibraryCache libraries = libraryCacheManager == null ? null : libraryCacheManager.getLibraryManager(module);
+            ProjectXmlConfiguration configuration = ProjectXmlEvaluator.evaluate(
+              xmlFile, ProjectXmlEvaluator.getInitialDefinitions(target.getFlags(), outputTarget, false), libraries);
+            if (!configuration.isSupported()) {
+                log.debug("Asking lime for the configuration of " + projectFile.getPath() + ": " + configuration.getUnsupportedReason());
+                return null;
+            }
+
+            List<String> arguments = new ArrayList<>(configuration.toCompilerArguments());
+            if (outputTarget.isNoOutput()) {
+                arguments.add(outputTarget.getCompilerFlag());
+            }
+            else {
+                String output = "bin/" + outputTarget.getDefaultOutputSubdirectory();
+                if (!outputTarget.isOutputToDirectory()) {
+                    output += "/" + outputTarget.getTargetFileNameWithExtension("display");
+                }
+                arguments.add(outputTarget.getCompilerFlag() + " " + output);
+            }
+            arguments.add("--no-output");
+            return arguments;
+        });
+    }
+
     @NotNull
     public List<HaxeCompilerCompletionItem> getPossibleCompletions(@NotNull PsiFile file,
                                                                    @NotNull PsiElement element,
@@ -319,19 +370,11 @@ public class HaxeCompilerServices {
         commandLineArguments.add(file.getVirtualFile().getPath() + "@" + Integer.toString(offset));
 
         timeLog.stamp("Calling compiler");
-        List<String> stderr = new ArrayList<String>();
-        List<String> stdout = new ArrayList<String>();
-        int status = HaxeCompilerUtil.runInterruptibleCompileProcess(commandLineArguments, false,
-                                                                     HaxeCompilerUtil.findCompileRoot(file),
-                                                                     HaxeSdkUtilBase.getSdkData(moduleForFile),
-                                                                     stdout, stderr, timeLog);
-
-        timeLog.stamp("Compiler finished. Output found on " + (stdout.isEmpty() ? "" : "stdout ") + (stderr.isEmpty() ? "" : "stderr"));
-        // LOG.debug("Compiler finished. Output found on " + (stdout.isEmpty() ? "" : "stdout ") + (stderr.isEmpty() ? "" : "stderr"));
-        if (0 != status) {
-            return handleCompilerError(project, stderr);
-        }
-        return parseCompletionFromXml(project, stderr);
+        List<HaxeCompilerCompletionItem> completions = runDisplayQuery(project, commandLineArguments,
+                                                                       HaxeCompilerUtil.findCompileRoot(file),
+                                                                       HaxeSdkUtilBase.getSdkData(moduleForFile), timeLog);
+        timeLog.stamp("Compiler finished.");
+        return completions;
     }
 
     @NotNull
@@ -384,16 +427,11 @@ public class HaxeCompilerServices {
             commandLineArguments.add(nmeTarget);
 
             timeLog.stamp("Calling NME");
-            List<String> stderr = new ArrayList<String>();
-            int status = HaxeCompilerUtil.runInterruptibleCompileProcess(commandLineArguments, false,
-                                                                         HaxeCompilerUtil.findCompileRoot(file),
-                                                                         HaxeSdkUtilBase.getSdkData(moduleForFile),
-                                                                         null, stderr, timeLog);
+            List<HaxeCompilerCompletionItem> completions = runDisplayQuery(project, commandLineArguments,
+                                                                           HaxeCompilerUtil.findCompileRoot(file),
+                                                                           HaxeSdkUtilBase.getSdkData(moduleForFile), timeLog);
             timeLog.stamp("NME finished");
-            if (0 != status) {
-                return handleCompilerError(project, stderr);
-            }
-            return parseCompletionFromXml(project, stderr);
+            return completions;
         } catch (IOException e) {
             advertiseError("Completion failed: Could not create temporary file."); // TODO: Externalize string.
         } finally {
@@ -404,158 +442,110 @@ public class HaxeCompilerServices {
         return HaxeCompilerCompletionItem.EMPTY_LIST;
     }
 
+    /**
+     * Runs a {@code --display} query, reading the response from the compiler's error output as it is produced.
+     * Errors are only reported when the compiler failed without giving a response.
+     */
     @NotNull
-    private List<HaxeCompilerCompletionItem> handleCompilerError(Project project, List<String> stderr) {
-        List<String> completionList = new ArrayList<String>();
-        if (findCompletionXmlInErrorOutput(stderr, completionList)) {
-            return parseCompletionFromXml(project, completionList);
+    private List<HaxeCompilerCompletionItem> runDisplayQuery(Project project, List<String> commandLineArguments,
+                                                             VirtualFile compileRoot, HaxeSdkAdditionalDataBase sdkData,
+                                                             HaxeDebugTimeLog timeLog) {
+        String projectPath = project.getBaseDir().getPath();
+        List<HaxeCompilerError> errors = new ArrayList<>();
+        Ref<HaxeDisplayResponseParser.Response> response = Ref.create();
+        int status;
+        try {
+            status = HaxeCompilerUtil.runInterruptibleCompileProcess(
+                commandLineArguments, compileRoot, sdkData,
+                stderr -> response.set(HaxeDisplayResponseParser.parse(
+                    stderr, line -> errors.add(HaxeCompilerError.create(projectPath, line)))),
+                timeLog);
+        }
+        catch (ProcessCanceledException e) {
+            advertiseError("Haxe compiler completion canceled.");  // TODO: Externalize string.
+            log.debug("Haxe compiler completion canceled.", e);
+            throw e;
+        }
+
+        if (!response.isNull()) {
+            return toCompletionItems(response.get());
+        }
+        if (0 != status) {
+            reportErrors(projectPath, errors);
+        }
+        else {
+            log.warn("Empty compiler output from completion query.");
         }
-        reportErrors(project, stderr);
         return HaxeCompilerCompletionItem.EMPTY_LIST;
     }
 
-    private void reportErrors(Project project, List<String> errors) {
-        for (String error : errors) {
+    private void reportErrors(String projectPath, List<HaxeCompilerError> errors) {
+        for (HaxeCompilerError compilerError : errors) {
 
             StringBuilder msg = new StringBuilder();
             msg.append("Compiler completion");        // TODO: Externalize string.
 
             // Could be a syntax warning.
-            String projectPath = project.getBaseDir().getPath();
-            HaxeCompilerError compilerError = HaxeCompilerError.create(projectPath, error);
-            if (null != compilerError) {
-                if (compilerError.isErrorMessage()) {
-                    msg.append(" error");                   // TODO: Externalize and don't build the string.
-                }
-                msg.append(": ");
-
-                msg.append(compilerError.getErrorMessage());
-                msg.append(" @ ");
-
-                // XXX: We can make a link show up in the tooltip by enabling this, but
-                //      clicking on it does nothing.
-                //msg.append("<a href=\"");
-                //msg.append(compilerError.getUrl());
-                //msg.append("\">");
-
-                String path = compilerError.getPath();
-                if (null != path) {
-                    if (path.startsWith(projectPath)) {
-                        msg.append(path.subSequence(projectPath.length(), path.length()));
-                    }
-                    else {
-                        msg.append(path);
-                    }
-                }
-                msg.append(" (");
-                msg.append(compilerError.getLine());
-                msg.append(":");
-                msg.append(compilerError.getColumn());
-                msg.append(")");
-
-                //msg.append("</a>");
-            }
-            else {
-                msg.append(": ");
-                msg.append(error);
+            if (compilerError.isErrorMessage()) {
+                msg.append(" error");                   // TODO: Externalize and don't build the string.
             }
-            advertiseError(msg.toString());
-        }
-    }
+            msg.append(": ");
 
-    private boolean findCompletionXmlInErrorOutput(List<String> compilerOutput, List<String> xml) {
-        if (null == compilerOutput || compilerOutput.isEmpty()) {
-            return false;
-        }
+            msg.append(compilerError.getErrorMessage());
+            msg.append(" @ ");
 
-        boolean foundStart = false;
-        boolean foundEnd = false;
-        String endTag = null;
-        for (String s : compilerOutput) {
-            if (!foundStart) {
-                if (s.equals("<list>")) {
-                    foundStart = true;
-                    endTag = "</list>";
-                    xml.add(s);
-                } else if (s.equals("<type>")) {
-                    foundStart = true;
-                    endTag = "</type>";
-                    xml.add(s);
+            // XXX: We can make a link show up in the tooltip by enabling this, but
+            //      clicking on it does nothing.
+            //msg.append("<a href=\"");
+            //msg.append(compilerError.getUrl());
+            //msg.append("\">");
+
+            String path = compilerError.getPath();
+            if (null != path) {
+                if (path.startsWith(projectPath)) {
+                    msg.append(path.subSequence(projectPath.length(), path.length()));
                 }
-                // Otherwise, ignored.
-            } else {
-                xml.add(s);
-                if (s.equals(endTag)) {
-                    foundEnd = true;
-                    break;
+                else {
+                    msg.append(path);
                 }
             }
-        }
+            msg.append(" (");
+            msg.append(compilerError.getLine());
+            msg.append(":");
+            msg.append(compilerError.getColumn());
+            msg.append(")");
 
-        return foundStart && foundEnd;
+            //msg.append("</a>");
+            advertiseError(msg.toString());
+        }
     }
 
-    private List<HaxeCompilerCompletionItem> parseCompletionFromXml(Project project, List<String> stderr) {
+    @NotNull
+    private List<HaxeCompilerCompletionItem> toCompletionItems(@NotNull HaxeDisplayResponseParser.Response response) {
         List<HaxeCompilerCompletionItem> completions = new ArrayList<HaxeCompilerCompletionItem>();
-        try {
-            log.debug(stderr.toString());
-            String s = Joiner.on("").join(stderr);
-
-            if (s.isEmpty()) {
-                log.warn("Empty compiler output from completion query.");
-                return completions;
-            }
-
-            PsiFile fileFromText = PsiFileFactory.getInstance(project).createFileFromText("data.xml", XmlFileType.INSTANCE, s);
-
-            XmlFile xmlFile = (XmlFile)fileFromText;
-            XmlDocument document = xmlFile.getDocument();
-            XmlTag rootTag = null != document ? document.getRootTag() : null;
-
-            if (null == rootTag) {
-                log.warn("Failure to parse XML: " + s);
-                return completions;
-            }
-
-            if ("list".equals(rootTag.getName())) {
-                XmlTag[] xmlTags = rootTag.findSubTags("i");
-                for (XmlTag xmlTag : xmlTags) {
-                    XmlAttribute nAttr = xmlTag.getAttribute("n");
-                    XmlAttribute kAttr = xmlTag.getAttribute("k");
-                    String name = null == nAttr ? null : nAttr.getValue();
-                    String memberType = null == kAttr ? null : kAttr.getValue();
-                    XmlTag typeTag = xmlTag.findFirstSubTag("t");
-                    XmlTag docTag = xmlTag.findFirstSubTag("d");
-
-
-                    HaxeCompilerCompletionItem item = new HaxeCompilerCompletionItem(name);
-                    item.setMemberType(memberType);
-                    if (typeTag != null) {
-                        String formattedType = getFormattedText(typeTag.getValue().getText());
-                        parseFunctionParams(formattedType, /*modifies*/ item);
-                    }
-                    if (docTag != null) {
-                        String text1 = getFormattedText(docTag.getValue().getText());
-                        item.setDocumentation(text1);
-                    }
-                    completions.add(item);
+        if ("list".equals(response.kind())) {
+            for (HaxeDisplayResponseParser.Item entry : response.items()) {
+                HaxeCompilerCompletionItem item = new HaxeCompilerCompletionItem(entry.name());
+                item.setMemberType(entry.kind());
+                if (entry.type() != null) {
+                    String formattedType = getFormattedText(entry.type());
+                    parseFunctionParams(formattedType, /*modifies*/ item);
+                }
+                if (entry.documentation() != null) {
+                    item.setDocumentation(getFormattedText(entry.documentation()));
                 }
-            } else if ("type".equals(rootTag.getName())) {
-                String type = getFormattedText(rootTag.getValue().getTrimmedText());
-                HaxeCompilerCompletionItem item = new HaxeCompilerCompletionItem("Type");
-                parseFunctionParams(type, item);
                 completions.add(item);
             }
-            // TODO: Add other completion types here. (e.g. Call argument completion "type").
-            else {
-                log.warn("Failure to parse XML: " + s );
-                return completions;
-            }
         }
-        catch (ProcessCanceledException e) {
-            advertiseError("Haxe compiler completion canceled.");  // TODO: Externalize string.
-            log.debug("Haxe compiler completion canceled.", e);
-            throw e;
+        else if ("type".equals(response.kind())) {
+            String type = getFormattedText(response.type());
+            HaxeCompilerCompletionItem item = new HaxeCompilerCompletionItem("Type");
+            parseFunctionParams(type, item);
+            completions.add(item);
+        }
+        // TODO: Add other completion types here. (e.g. Call argument completion "type").
+        else {
+            log.warn("Unsupported compiler completion response: <" + response.kind() + ">");
         }
         return completions;
     }
@@ -565,8 +555,6 @@ public class HaxeCompilerServices {
             return null;
         text1 = text1.replaceAll("\t", "");
         text1 = text1.replaceAll("\n", "");
-        text1 = text1.replaceAll("&lt;", "<");
-        text1 = text1.replaceAll("&gt;", ">");
         text1 = text1.trim();
         return text1;
     }
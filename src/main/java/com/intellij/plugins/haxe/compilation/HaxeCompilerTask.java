@@ -20,6 +20,8 @@ package com.intellij.plugins.haxe.compilation;
 import com.intellij.openapi.compiler.CompileContext;
 import com.intellij.openapi.compiler.CompileTask;
 import com.intellij.openapi.compiler.FileProcessingCompiler;
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
 
 /**
  * Created by as3boyan on 03.08.14.
@@ -28,12 +30,16 @@ public class HaxeCompilerTask implements CompileTask {
 
   static HaxeCompiler haxeCompiler;
 
+  // Scope user data is handed to the external build as builder parameters.
+  private static final Key<String> BUILT_BY_IDE = Key.create(HaxeCommonCompilerUtil.BUILT_BY_IDE_PARAMETER);
+
   @Override
   public boolean execute(CompileContext context) {
     if (haxeCompiler == null) {
       haxeCompiler = new HaxeCompiler();
     }
-    
+    context.getCompileScope().putUserData(BUILT_BY_IDE, Boolean.TRUE.toString());
+
     FileProcessingCompiler.ProcessingItem[] processingItems = haxeCompiler.getProcessingItems(context);
     haxeCompiler.process(context, processingItems);
     return true;
@@ -156,8 +156,11 @@ public class HaxeCompilerUtil
     public static void fillContext(CompileContext context, String errorRoot,
                                    String[] errors)
     {
-        for (String error : errors) {
-            addErrorToContext(error, context, errorRoot);
+        // Modules may be compiled in parallel; keep the lines of one chunk of output together.
+        synchronized (context) {
+            for (String error : errors) {
+                addErrorToContext(error, context, errorRoot);
+            }
         }
     }
 
@@ -263,6 +266,17 @@ public class HaxeCompilerUtil
         return HaxeProcessUtil.runProcess(command, mixedOutput, dir, sdkData, stdout, stderr, timeLog, true);
     }
 
+    /**
+     * Runs the compiler, streaming its error output to {@code stderrProcessor} as it is produced.
+     */
+    public static int runInterruptibleCompileProcess(List<String> command,
+                                                     VirtualFile dir,
+                                                     HaxeSdkAdditionalDataBase sdkData,
+                                                     HaxeProcessUtil.ErrorStreamProcessor stderrProcessor,
+                                                     HaxeDebugTimeLog timeLog) {
+        return HaxeProcessUtil.runProcess(command, dir, sdkData, stderrProcessor, timeLog);
+    }
+
 
     public static String calculateCompilerOutput(@NotNull Module module) {
         HaxeCommonCompilerUtil.CompilationContext context = HaxeCompiler.createDummyCompilationContext(module);
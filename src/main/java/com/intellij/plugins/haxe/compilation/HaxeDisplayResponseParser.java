@@ -0,0 +1,205 @@
+package com.intellij.plugins.haxe.compilation;
+
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the response of the compiler to a {@code --display} query from its error output while the compiler runs.
+ * <p>
+ * The response is an XML document, {@code <list>} of {@code <i n="name" k="kind"><t>type</t><d>doc</d></i>} for
+ * field completion or {@code <type>} for call argument completion, which may be preceded or followed by warnings and
+ * errors.  Those other lines are handed on one at a time; the XML is streamed straight into a StAX reader, so
+ * neither is kept in memory as text.
+ */
+@CustomLog
+public class HaxeDisplayResponseParser {
+
+  public record Item(@Nullable String name, @Nullable String kind, @Nullable String type, @Nullable String documentation) {}
+
+  /**
+   * @param kind  name of the root element: {@code list} or {@code type}, or whatever else the compiler returned.
+   * @param items the entries of a {@code list} response.
+   * @param type  the text of a {@code type} response.
+   */
+  public record Response(@NotNull String kind, @NotNull List<Item> items, @Nullable String type) {}
+
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private HaxeDisplayResponseParser() {
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * Reads {@code output} to the end.
+   *
+   * @param otherLines receives the lines before and after the response, as they are read.
+   * @return the first response found, or null if there was none or it could not be parsed.
+   */
+  @Nullable
+  public static Response parse(@NotNull Reader output, @NotNull Consumer<String> otherLines) throws IOException {
+    BufferedReader lines = output instanceof BufferedReader ? (BufferedReader)output : new BufferedReader(output);
+    Response response = null;
+    boolean parsed = false;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      String tag = line.strip();
+      if (!parsed && (tag.equals("<list>") || tag.equals("<type>"))) {
+        parsed = true;
+        ResponseReader xml = new ResponseReader(lines, line, "</" + tag.substring(1));
+        response = parseResponse(xml);
+        xml.skipToEnd();
+      }
+      else if (!line.isBlank()) {
+        otherLines.accept(line);
+      }
+    }
+    return response;
+  }
+
+  @Nullable
+  private static Response parseResponse(@NotNull Reader xml) {
+    XMLStreamReader reader = null;
+    try {
+      reader = FACTORY.createXMLStreamReader(xml);
+      reader.nextTag();
+      String kind = reader.getLocalName();
+      if ("type".equals(kind)) {
+        return new Response(kind, List.of(), reader.getElementText());
+      }
+      List<Item> items = new ArrayList<>();
+      if ("list".equals(kind)) {
+        while (nextChild(reader)) {
+          if ("i".equals(reader.getLocalName())) {
+            items.add(readItem(reader));
+          }
+          else {
+            skipElement(reader);
+          }
+        }
+      }
+      return new Response(kind, items, null);
+    }
+    catch (XMLStreamException e) {
+      log.warn("Failure to parse the compiler completion response: " + e.getMessage());
+      return null;
+    }
+    finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        }
+        catch (XMLStreamException ignored) {
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private static Item readItem(@NotNull XMLStreamReader reader) throws XMLStreamException {
+    String name = reader.getAttributeValue(null, "n");
+    String kind = reader.getAttributeValue(null, "k");
+    String type = null;
+    String documentation = null;
+    while (nextChild(reader)) {
+      switch (reader.getLocalName()) {
+        case "t" -> type = reader.getElementText();
+        case "d" -> documentation = reader.getElementText();
+        default -> skipElement(reader);
+      }
+    }
+    return new Item(name, kind, type, documentation);
+  }
+
+  /**
+   * Moves to the next child element of the current element.
+   *
+   * @return false when the end of the current element was reached instead.
+   */
+  private static boolean nextChild(@NotNull XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamReader.START_ELEMENT) return true;
+      if (event == XMLStreamReader.END_ELEMENT) return false;
+    }
+    return false;
+  }
+
+  private static void skipElement(@NotNull XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0 && reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamReader.START_ELEMENT) depth++;
+      else if (event == XMLStreamReader.END_ELEMENT) depth--;
+    }
+  }
+
+  /**
+   * The lines of the response, from the start tag up to and including the line with the matching end tag.
+   */
+  private static class ResponseReader extends Reader {
+    private final BufferedReader lines;
+    private final String endTag;
+    private String current;
+    private int position;
+    private boolean ended;
+
+    ResponseReader(@NotNull BufferedReader lines, @NotNull String startLine, @NotNull String endTag) {
+      this.lines = lines;
+      this.endTag = endTag;
+      this.current = startLine + "\n";
+    }
+
+    @Override
+    public int read(char @NotNull [] buffer, int offset, int length) throws IOException {
+      if (length == 0) return 0;
+      while (position >= current.length()) {
+        if (ended) return -1;
+        String line = lines.readLine();
+        if (line == null) {
+          ended = true;
+          return -1;
+        }
+        ended = line.strip().equals(endTag);
+        current = line + "\n";
+        position = 0;
+      }
+      int count = Math.min(length, current.length() - position);
+      current.getChars(position, position + count, buffer, offset);
+      position += count;
+      return count;
+    }
+
+    /**
+     * Consumes the rest of the response, so that reading goes on after it even if it could not be parsed.
+     */
+    void skipToEnd() throws IOException {
+      char[] buffer = new char[1024];
+      while (read(buffer, 0, buffer.length) >= 0) {
+        // Discard.
+      }
+    }
+
+    @Override
+    public void close() {
+      // The underlying reader belongs to the caller.
+    }
+  }
+}
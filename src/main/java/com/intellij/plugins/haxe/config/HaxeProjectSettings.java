@@ -21,6 +21,7 @@ package com.intellij.plugins.haxe.config;
 import com.intellij.openapi.components.*;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.util.HaxeModificationTracker;
 import com.intellij.plugins.haxe.util.HaxeTrackedModifiable;
@@ -43,8 +44,18 @@ public class HaxeProjectSettings implements PersistentStateComponent<Element>, H
   public static final String HAXE_SETTINGS = "HaxeProjectSettings";
   public static final String DEFINES = "defines";
   public static final String AUTO_DETECT = "auto_detect_defines";
+  public static final String PARALLEL_BUILD = "parallel_module_build";
+  public static final String COMPILATION_SERVER_PORT = "compilation_server_port";
+  public static final String HIGHLIGHTING_WARM_UP_THREADS = "highlighting_warm_up_threads";
+  // Off until highlighting with and without the warm-up has been measured on real projects.
+  public static final int DEFAULT_HIGHLIGHTING_WARM_UP_THREADS = 0;
+  public static final String PROJECT_TYPE_CHECK = "project_type_check";
   private String userCompilerDefinitions = "";
   private boolean autoDetectDefinitions = true;
+  private boolean parallelModuleBuild = true;
+  private int compilationServerPort = 0;
+  private int highlightingWarmUpThreads = DEFAULT_HIGHLIGHTING_WARM_UP_THREADS;
+  private boolean projectTypeCheck = false;
   private HaxeModificationTracker tracker = new HaxeModificationTracker(getClass().getName());
 
   public Set<String> getUserCompilerDefinitionsAsSet() {
@@ -100,6 +111,11 @@ public class HaxeProjectSettings implements PersistentStateComponent<Element>, H
     }else {
       autoDetectDefinitions = Boolean.parseBoolean(value);
     }
+    parallelModuleBuild = Boolean.parseBoolean(state.getAttributeValue(PARALLEL_BUILD, "true"));
+    compilationServerPort = StringUtil.parseInt(state.getAttributeValue(COMPILATION_SERVER_PORT), 0);
+    highlightingWarmUpThreads = StringUtil.parseInt(state.getAttributeValue(HIGHLIGHTING_WARM_UP_THREADS),
+                                                    DEFAULT_HIGHLIGHTING_WARM_UP_THREADS);
+    projectTypeCheck = Boolean.parseBoolean(state.getAttributeValue(PROJECT_TYPE_CHECK, "false"));
     tracker.notifyUpdated();
   }
 
@@ -108,6 +124,10 @@ public class HaxeProjectSettings implements PersistentStateComponent<Element>, H
     final Element element = new Element(HAXE_SETTINGS);
     element.setAttribute(DEFINES, userCompilerDefinitions);
     element.setAttribute(AUTO_DETECT, String.valueOf(autoDetectDefinitions));
+    element.setAttribute(PARALLEL_BUILD, String.valueOf(parallelModuleBuild));
+    element.setAttribute(COMPILATION_SERVER_PORT, String.valueOf(compilationServerPort));
+    element.setAttribute(HIGHLIGHTING_WARM_UP_THREADS, String.valueOf(highlightingWarmUpThreads));
+    element.setAttribute(PROJECT_TYPE_CHECK, String.valueOf(projectTypeCheck));
     return element;
   }
 
@@ -121,11 +141,64 @@ public class HaxeProjectSettings implements PersistentStateComponent<Element>, H
     return tracker.isModifiedSince(s);
   }
 
+  /**
+   * @return a tracker that changes whenever the definitions or their auto-detection are changed.
+   */
+  public ModificationTracker getModificationTracker() {
+    return tracker;
+  }
+
   public boolean getAutoDetectDefinitions() {
     return autoDetectDefinitions;
   }
 
   public void setAutoDetectDefinitions(boolean selected) {
     autoDetectDefinitions = selected;
+    tracker.notifyUpdated();
+  }
+
+  /**
+   * @return whether independent modules are compiled at the same time.
+   */
+  public boolean isParallelModuleBuild() {
+    return parallelModuleBuild;
+  }
+
+  public void setParallelModuleBuild(boolean selected) {
+    parallelModuleBuild = selected;
+  }
+
+  /**
+   * @return the port of the shared compilation server that builds go through, or 0 when builds run the compiler directly.
+   */
+  public int getCompilationServerPort() {
+    return compilationServerPort;
+  }
+
+  public void setCompilationServerPort(int port) {
+    compilationServerPort = port;
+  }
+
+  /**
+   * @return how many threads evaluate the types of a file opened in an editor ahead of highlighting, or 0 when files
+   * are not evaluated ahead.
+   */
+  public int getHighlightingWarmUpThreads() {
+    return highlightingWarmUpThreads;
+  }
+
+  public void setHighlightingWarmUpThreads(int threads) {
+    highlightingWarmUpThreads = Math.max(0, threads);
+  }
+
+  /**
+   * @return whether every Haxe file of the project is type checked in the background, not only the open ones.
+   */
+  public boolean isProjectTypeCheck() {
+    return projectTypeCheck;
+  }
+
+  public void setProjectTypeCheck(boolean selected) {
+    projectTypeCheck = selected;
   }
 }
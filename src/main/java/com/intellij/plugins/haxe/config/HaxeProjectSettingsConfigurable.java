@@ -22,6 +22,7 @@ import com.intellij.openapi.options.SearchableConfigurable;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.HaxeBundle;
 import com.intellij.plugins.haxe.config.ui.HaxeProjectSettingsForm;
+import com.intellij.plugins.haxe.ide.annotator.semantics.HaxeProjectTypeCheck;
 import com.intellij.plugins.haxe.util.HaxeUtil;
 import org.jetbrains.annotations.NotNull;
 
@@ -69,6 +70,7 @@ public class HaxeProjectSettingsConfigurable implements SearchableConfigurable {
       mySettingsPane.applyEditorTo(getSettings());
       if (modified) {
         HaxeUtil.reparseProjectFiles(myProject);
+        HaxeProjectTypeCheck.getInstance(myProject).settingsChanged();
       }
     }
   }
@@ -34,6 +34,15 @@ public class HaxeProjectSettingsForm {
   private JPanel myPanel;
   private MyAddDeleteListPanel myAddDeleteListPanel;
   private JCheckBox autoDetectDefinitionsFromCheckBox;
+  private JCheckBox parallelModuleBuildCheckBox;
+  private JCheckBox compilationServerCheckBox;
+  private JSpinner compilationServerPortSpinner;
+  private JCheckBox highlightingWarmUpCheckBox;
+  private JSpinner highlightingWarmUpThreadsSpinner;
+  private JCheckBox projectTypeCheckCheckBox;
+
+  private static final int DEFAULT_COMPILATION_SERVER_PORT = 6000;
+  private static final int SUGGESTED_HIGHLIGHTING_WARM_UP_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
   public JComponent getPanel() {
     return myPanel;
@@ -48,16 +57,41 @@ public class HaxeProjectSettingsForm {
     final boolean autoDetectNew = autoDetectDefinitionsFromCheckBox.isSelected();
     boolean checkboxChanged = autoDetectOld != autoDetectNew;
 
-    return !listEqual || checkboxChanged;
+    boolean buildSettingsChanged = settings.isParallelModuleBuild() != parallelModuleBuildCheckBox.isSelected()
+                                   || settings.getCompilationServerPort() != getCompilationServerPort();
+    boolean warmUpChanged = settings.getHighlightingWarmUpThreads() != getHighlightingWarmUpThreads();
+    boolean typeCheckChanged = settings.isProjectTypeCheck() != projectTypeCheckCheckBox.isSelected();
+
+    return !listEqual || checkboxChanged || buildSettingsChanged || warmUpChanged || typeCheckChanged;
+  }
+
+  private int getHighlightingWarmUpThreads() {
+    return highlightingWarmUpCheckBox.isSelected() ? (Integer)highlightingWarmUpThreadsSpinner.getValue() : 0;
+  }
+
+  private int getCompilationServerPort() {
+    return compilationServerCheckBox.isSelected() ? (Integer)compilationServerPortSpinner.getValue() : 0;
   }
 
   public void applyEditorTo(HaxeProjectSettings settings) {
     settings.setUserCompilerDefinitions(myAddDeleteListPanel.getItems());
     settings.setAutoDetectDefinitions(autoDetectDefinitionsFromCheckBox.isSelected());
+    settings.setParallelModuleBuild(parallelModuleBuildCheckBox.isSelected());
+    settings.setCompilationServerPort(getCompilationServerPort());
+    settings.setHighlightingWarmUpThreads(getHighlightingWarmUpThreads());
+    settings.setProjectTypeCheck(projectTypeCheckCheckBox.isSelected());
   }
 
   public void resetEditorFrom(HaxeProjectSettings settings) {
     autoDetectDefinitionsFromCheckBox.setSelected(settings.getAutoDetectDefinitions());
+    parallelModuleBuildCheckBox.setSelected(settings.isParallelModuleBuild());
+    int port = settings.getCompilationServerPort();
+    compilationServerCheckBox.setSelected(port > 0);
+    compilationServerPortSpinner.setValue(port > 0 ? port : DEFAULT_COMPILATION_SERVER_PORT);
+    int warmUpThreads = settings.getHighlightingWarmUpThreads();
+    highlightingWarmUpCheckBox.setSelected(warmUpThreads > 0);
+    highlightingWarmUpThreadsSpinner.setValue(warmUpThreads > 0 ? warmUpThreads : SUGGESTED_HIGHLIGHTING_WARM_UP_THREADS);
+    projectTypeCheckCheckBox.setSelected(settings.isProjectTypeCheck());
     myAddDeleteListPanel.removeALlItems();
     for (String item : settings.getUserCompilerDefinitions()) {
       myAddDeleteListPanel.addItem(item);
@@ -66,6 +100,10 @@ public class HaxeProjectSettingsForm {
 
   private void createUIComponents() {
     myAddDeleteListPanel = new MyAddDeleteListPanel(HaxeBundle.message("haxe.conditional.compilation.defined.macros"));
+    compilationServerPortSpinner = new JSpinner(new SpinnerNumberModel(DEFAULT_COMPILATION_SERVER_PORT, 1, 65535, 1));
+    compilationServerPortSpinner.setEditor(new JSpinner.NumberEditor(compilationServerPortSpinner, "#"));
+    highlightingWarmUpThreadsSpinner = new JSpinner(
+      new SpinnerNumberModel(SUGGESTED_HIGHLIGHTING_WARM_UP_THREADS, 1, Runtime.getRuntime().availableProcessors(), 1));
   }
 
   private class MyAddDeleteListPanel extends AddDeleteListPanel<String> {
@@ -36,14 +36,12 @@ import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.plugins.haxe.buildsystem.hxml.HXMLFileType;
-import com.intellij.plugins.haxe.buildsystem.hxml.psi.HXMLPsiImplUtil;
+import com.intellij.plugins.haxe.buildsystem.hxml.model.HXMLProjectModel;
 import com.intellij.plugins.haxe.config.HaxeTarget;
-import com.intellij.plugins.haxe.hxml.psi.HXMLClasspath;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.io.URLUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
@@ -366,15 +364,8 @@ public class HaxelibClasspathUtils {
       return Collections.EMPTY_LIST;
     }
 
-    List<String> strings1;
-    strings1 = new ArrayList<String>();
     PsiFile psiFile = PsiFileFactory.getInstance(project).createFileFromText(HXMLFileType.INSTANCE, "data.hxml", text, 0, text.length() - 1);
-
-    Collection<HXMLClasspath> hxmlClasspaths = PsiTreeUtil.findChildrenOfType(psiFile, HXMLClasspath.class);
-    for (HXMLClasspath hxmlClasspath : hxmlClasspaths) {
-      strings1.add(HXMLPsiImplUtil.getValue(hxmlClasspath));
-    }
-    return strings1;
+    return new HXMLProjectModel(psiFile).getClasspath();
   }
 
   /**
@@ -42,13 +42,17 @@ import com.intellij.openapi.startup.StartupManager;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.plugins.haxe.buildsystem.hxml.HXMLFileType;
 import com.intellij.plugins.haxe.buildsystem.hxml.model.HXMLProjectModel;
 import com.intellij.plugins.haxe.buildsystem.nmml.NMMLFileType;
 import com.intellij.plugins.haxe.config.HaxeConfiguration;
+import com.intellij.plugins.haxe.config.NMETarget;
+import com.intellij.plugins.haxe.config.OpenFLTarget;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkType;
 import com.intellij.plugins.haxe.haxelib.definitions.HaxeDefineDetectionManager;
+import com.intellij.plugins.haxe.haxelib.definitions.ProjectXmlEvaluator;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.plugins.haxe.ide.projectStructure.autoimport.HaxelibAutoImport;
@@ -62,6 +66,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.io.LocalFileFinder;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -571,8 +576,6 @@ public class HaxelibProjectUpdater {
     // TODO: Walk the command line looking for libs, too.
 
     if (hxmlPath != null && !hxmlPath.isEmpty()) {
-      doWriteAction(()->VirtualFileManager.getInstance().syncRefresh());
-      //VirtualFileManager.getInstance().syncRefresh();
       VirtualFile file = LocalFileFinder.findFile(hxmlPath);
 
       if (file != null && file.getFileType().equals(HXMLFileType.INSTANCE)) {
@@ -583,8 +586,7 @@ public class HaxelibProjectUpdater {
             if (file != null && file.getFileType().equals(HXMLFileType.INSTANCE)) {
               PsiFile hxmlFile = PsiManager.getInstance(project).findFile(file);
               if (hxmlFile != null) {
-                HXMLProjectModel hxml = new HXMLProjectModel(hxmlFile);
-                return hxml.getLibraries();
+                return HXMLProjectModel.getCachedModel(hxmlFile).getLibraries();
               }
             }
             return List.of();
@@ -633,8 +635,6 @@ public class HaxelibProjectUpdater {
 
     String openFLXmlPath = settings.getOpenFLPath();
     if (openFLXmlPath != null && !openFLXmlPath.isEmpty()) {
-      doWriteAction(()->VirtualFileManager.getInstance().syncRefresh());
-      //VirtualFileManager.getInstance().syncRefresh();
       VirtualFile file = LocalFileFinder.findFile(openFLXmlPath);
 
       if (file != null && file.getFileType().equals(XmlFileType.INSTANCE)) {
@@ -645,7 +645,9 @@ public class HaxelibProjectUpdater {
             if (file != null && file.getFileType().equals(XmlFileType.INSTANCE)) {
               PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
               if (psiFile instanceof XmlFile xmlFile) {
-                return HaxelibUtil.getHaxelibDataFromXmlFile(xmlFile);
+                OpenFLTarget target = settings.getOpenFLTarget();
+                Map<String, String> definitions = ProjectXmlEvaluator.getInitialDefinitions(target.getFlags(), target.getOutputTarget(), false);
+                return ProjectXmlEvaluator.evaluate(xmlFile, definitions, libManager).getHaxelibs();
               }
             }
             return List.of();
@@ -707,8 +709,6 @@ public class HaxelibProjectUpdater {
 
     String nmmlPath = settings.getNmmlPath();
     if (nmmlPath != null && !nmmlPath.isEmpty()) {
-      doWriteAction(()->VirtualFileManager.getInstance().syncRefresh());
-      //VirtualFileManager.getInstance().syncRefresh();
       List<HaxelibUtil.HaxeLibData> data = ApplicationManager.getApplication().runReadAction(new Computable<>() {
         @Override
         public List<HaxelibUtil.HaxeLibData> compute() {
@@ -716,7 +716,9 @@ public class HaxelibProjectUpdater {
           if (file != null && file.getFileType().equals(NMMLFileType.INSTANCE)) {
             PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
             if (psiFile instanceof XmlFile xmlFile) {
-              return HaxelibUtil.getHaxelibDataFromXmlFile(xmlFile);
+              NMETarget target = settings.getNmeTarget();
+              Map<String, String> definitions = ProjectXmlEvaluator.getInitialDefinitions(target.getFlags(), target.getOutputTarget(), false);
+              return ProjectXmlEvaluator.evaluate(xmlFile, definitions, libManager).getHaxelibs();
             }
           }
           return List.of();
@@ -758,12 +760,89 @@ public class HaxelibProjectUpdater {
 
 
   public void synchronizeClasspaths(@NotNull ProjectTracker tracker) {
+    synchronizeClasspaths(tracker, null);
+  }
+
+  /**
+   * Refreshes the files the sync reads, then synchronizes the project and module classpaths in a background task.
+   *
+   * @param tracker    for the project being updated.
+   * @param onFinished run (on the AWT thread) once the sync is done, if not null.
+   */
+  public void synchronizeClasspaths(@NotNull ProjectTracker tracker, @Nullable Runnable onFinished) {
+    final Project project = tracker.getProject();
+    refreshSyncFiles(tracker, () -> {
+      if (project.isDisposed()) return;
+      // TODO: Put this string in a resource bundle.
+      new Task.Backgroundable(project, "Synchronizing with haxelib libraries...", false, PerformInBackgroundOption.ALWAYS_BACKGROUND) {
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+          synchronizeRefreshedClasspaths(tracker);
+        }
+
+        @Override
+        public void onFinished() {
+          if (onFinished != null) onFinished.run();
+        }
+      }.queue();
+    });
+  }
+
+  /**
+   * The synchronous part of {@link #synchronizeClasspaths}: expects the project files and haxelib roots to be
+   * refreshed already (see {@link #refreshSyncFiles}).
+   */
+  private void synchronizeRefreshedClasspaths(@NotNull ProjectTracker tracker) {
     ProgressManager progressManager = ProgressManager.getInstance();
     progressManager.executeProcessUnderProgress(()-> syncProjectClasspath(tracker, true), progressManager.getProgressIndicator());
     progressManager.executeProcessUnderProgress(()-> syncModuleClasspaths(tracker, true), progressManager.getProgressIndicator());
     recalculateDefinitions(tracker);
   }
 
+  /**
+   * Asynchronously refreshes, in one batch, only what a sync reads from disk: the project files of the Haxe modules
+   * (.hxml, project.xml, .nmml) and the haxelib repository roots with their library directories.  The rest of the
+   * VFS is left to the platform's own refresh.
+   *
+   * @param tracker  for the project being updated.
+   * @param callback run on the AWT thread once the refresh has completed.
+   */
+  private static void refreshSyncFiles(@NotNull ProjectTracker tracker, @NotNull Runnable callback) {
+    Set<Path> paths = new LinkedHashSet<>();
+    Project project = tracker.getProject();
+    if (!project.isDisposed()) {
+      for (Module module : ModuleUtil.getModulesOfType(project, HaxeModuleType.getInstance())) {
+        if (module.isDisposed()) continue;
+        HaxeModuleSettings settings = HaxeModuleSettings.getInstance(module);
+        if (!settings.isKeepSynchronizedWithProjectFile()) continue;
+        String projectFile = switch (settings.getBuildConfiguration()) {
+          case HXML -> settings.getHxmlPath();
+          case OPENFL -> settings.getOpenFLPath();
+          case NMML -> settings.getNmmlPath();
+          default -> null;
+        };
+        if (projectFile != null && !projectFile.isEmpty()) {
+          paths.add(Path.of(projectFile));
+        }
+
+        VirtualFile haxelibRoot = tracker.getLibraryManager().getLibraryManager(module).getRepositoryPath();
+        if (haxelibRoot != null && haxelibRoot.isInLocalFileSystem()) {
+          paths.add(haxelibRoot.toNioPath());
+          for (VirtualFile library : haxelibRoot.getChildren()) {
+            if (library.isDirectory()) paths.add(library.toNioPath());
+          }
+        }
+      }
+    }
+
+    if (paths.isEmpty()) {
+      ApplicationManager.getApplication().invokeLater(callback);
+    }
+    else {
+      LocalFileSystem.getInstance().refreshNioFiles(paths, true, false, callback);
+    }
+  }
+
   private void recalculateDefinitions(ProjectTracker tracker) {
 
     Project project = tracker.myProject;
@@ -1592,10 +1671,10 @@ public class HaxelibProjectUpdater {
       final ProjectTracker tracker = getUpdatingProject();
       final Project project = tracker == null ? null : tracker.getProject();
 
-      if (myTestInForeground) {
+      if (myTestInForeground || tracker == null) {
         doUpdateWork();
       } else {
-        ApplicationManager.getApplication().invokeLater(() -> ProgressManager.getInstance().run(
+        refreshSyncFiles(tracker, () -> ProgressManager.getInstance().run(
           // TODO: Put this string in a resource bundle.
           new Task.Backgroundable(project, "Synchronizing with haxelib libraries...", false, PerformInBackgroundOption.ALWAYS_BACKGROUND) {
             @Override
@@ -1620,7 +1699,7 @@ public class HaxelibProjectUpdater {
         log.warn("Attempt to load libraries, after project has been disposed.");
         return;
       }
-      synchronizeClasspaths(tracker);
+      synchronizeRefreshedClasspaths(tracker);
       finishUpdate(tracker);
     }
 
@@ -34,9 +34,6 @@ import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.plugins.haxe.util.HaxeEventLogUtil;
 import com.intellij.plugins.haxe.util.HaxeFileUtil;
 import com.intellij.plugins.haxe.util.HaxeStringUtil;
-import com.intellij.psi.xml.XmlDocument;
-import com.intellij.psi.xml.XmlFile;
-import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.Processor;
 import lombok.CustomLog;
 
@@ -350,33 +347,6 @@ public class HaxelibUtil {
   }
 
 
-  /**
-   * Retrieves the list of dependent haxe libraries from an XML-based
-   * configuration file.
-   *
-   * @param xmlFile name of the configuration file to read
-   * @return a list of dependent libraries; may be empty, won't have duplicates.
-   */
-  @NotNull
-  public static List<HaxeLibData> getHaxelibDataFromXmlFile(@NotNull XmlFile xmlFile) {
-    List<HaxeLibraryReference> haxelibNewItems = new ArrayList<HaxeLibraryReference>();
-    List<HaxeLibData> haxeLibData = new ArrayList<>();
-    XmlDocument document = xmlFile.getDocument();
-
-    if (document != null) {
-      XmlTag rootTag = document.getRootTag();
-      if (rootTag != null) {
-        XmlTag[] haxelibTags = rootTag.findSubTags("haxelib");
-        for (XmlTag haxelibTag : haxelibTags) {
-          String name = haxelibTag.getAttributeValue("name");
-          String ver = haxelibTag.getAttributeValue("version");
-          HaxelibSemVer semver = HaxelibSemVer.create(ver);
-          haxeLibData.add(new HaxeLibData(name, ver, semver));
-        }
-      }
-    }
-    return haxeLibData;
-  }
   @NotNull
   public static HaxeLibraryList createHaxelibsFromHaxeLibData(@NotNull Module module, @NotNull List<HaxeLibData> haxeLibData, ModuleLibraryCache libraryManager) {
     List<HaxeLibraryReference> haxelibNewItems = new ArrayList<>();
@@ -23,6 +23,8 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.plugins.haxe.haxelib.definitions.ProjectXmlEvaluator;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -37,7 +39,7 @@ import java.util.*;
  * since modules may share SDK but have different installed libraries we have to keep a cache for each module.
  */
 @CustomLog
-public final class ModuleLibraryCache {
+public final class ModuleLibraryCache implements ProjectXmlEvaluator.LibraryLocator {
 
   static {
     log.setLevel(LogLevel.DEBUG);
@@ -129,6 +131,13 @@ public final class ModuleLibraryCache {
     return null;
   }
 
+  @Nullable
+  @Override
+  public VirtualFile findLibraryRoot(@NotNull String name, @Nullable HaxelibSemVer version) {
+    HaxeLibrary library = getLibrary(name, version);
+    return library == null ? null : VirtualFileManager.getInstance().findFileByUrl(library.getLibraryRoot().getUrl());
+  }
+
   @NotNull
   public Sdk getSdk() {
     return mySdk;
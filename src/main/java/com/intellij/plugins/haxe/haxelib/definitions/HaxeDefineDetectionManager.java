@@ -7,20 +7,19 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.plugins.haxe.buildsystem.hxml.psi.HXMLFile;
 import com.intellij.plugins.haxe.config.HaxeProjectSettings;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.haxelib.*;
-import com.intellij.plugins.haxe.haxelib.definitions.tags.ProjectXmlDefineValue;
-import com.intellij.plugins.haxe.haxelib.definitions.tags.ProjectXmlHaxedefValue;
-import com.intellij.plugins.haxe.haxelib.definitions.tags.ProjectXmlHaxelibValue;
-import com.intellij.plugins.haxe.haxelib.definitions.tags.ProjectXmlUndefineValue;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
+import com.intellij.plugins.haxe.util.HaxeModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -45,6 +44,8 @@ public class HaxeDefineDetectionManager implements Disposable {
   }
 
   private  Project myProject;
+  private final HaxeModificationTracker tracker = new HaxeModificationTracker(getClass().getName());
+
   public HaxeDefineDetectionManager(Project project) {
     myProject = project;
   }
@@ -55,10 +56,19 @@ public class HaxeDefineDetectionManager implements Disposable {
 
   public void removeDetectedDefinitions(@NotNull Module module) {
     moduleDefinitionsMap.remove(module);
+    tracker.notifyUpdated();
   }
 
   private void setDetectedDefinitions(@NotNull Module module, @NotNull Map<String, String> definitions) {
     moduleDefinitionsMap.put(module, definitions);
+    tracker.notifyUpdated();
+  }
+
+  /**
+   * @return a tracker that changes whenever the detected definitions of a module are set or removed.
+   */
+  public ModificationTracker getModificationTracker() {
+    return tracker;
   }
 
 
@@ -176,41 +186,21 @@ public class HaxeDefineDetectionManager implements Disposable {
   private static void processProjectXml(Module module, Map<String, String> detectedDefines, XmlFile projectXml) {
     if (projectXml == null) return;
 
-    //TODO rewrite to include <sections> and then parse its children (copy if/unless into children)
-
-    List<ProjectXmlDefineValue> defines = getDefinesFromProjectXmlFile(projectXml);
-    defines.forEach( value -> {
-      if (value.getEnabled(detectedDefines)) {
-        detectedDefines.put(value.getName(), "true");
-      }
-    });
-    List<ProjectXmlHaxedefValue> haxedef = getHaxeDefFromProjectXmlFile(projectXml);
-    haxedef.forEach( value -> {
-      if (value.getEnabled(detectedDefines)) {
-        detectedDefines.put(value.getName(), "true");
-      }
-    });
-
-    List<ProjectXmlUndefineValue> undefines = getUndefinesFromProjectXmlFile(projectXml);
-    undefines.forEach( value -> {
-      if (value.getEnabled(detectedDefines)) {
-        detectedDefines.put(value.getName(), "*UNSET*");
-      }
-    });
-
     ProjectLibraryCacheManager manager = HaxelibProjectUpdater.INSTANCE.getLibraryCacheManager(module);
-    ModuleLibraryCache libraryManager = manager.getLibraryManager(module);
+    ModuleLibraryCache libraryManager = manager == null ? null : manager.getLibraryManager(module);
 
-    List<ProjectXmlHaxelibValue> libs = getLibsFromProjectXmlFile(projectXml);
-    libs.forEach( lib -> {
-      if (lib.getEnabled(detectedDefines)) {
-        detectedDefines.put(lib.getName(), Optional.ofNullable(lib.getVersion()).orElse(findVersion(lib.getName(), libraryManager)));
-      }
+    ProjectXmlConfiguration configuration = ProjectXmlEvaluator.evaluate(projectXml, detectedDefines, libraryManager);
+    // Only what lime passes to the compiler: <haxedef>/<define> values, and the -lib of every library, which the
+    // compiler defines with the library's version.  <set> values only drive the project file's own conditions.
+    detectedDefines.putAll(configuration.getHaxeDefinitions());
+
+    configuration.getHaxelibs().forEach(lib -> {
+      detectedDefines.put(lib.name(), Optional.ofNullable(lib.version()).orElse(findVersion(lib.name(), libraryManager)));
     });
   }
 
-  private static String findVersion(String name, ModuleLibraryCache manager) {
-    HaxeLibrary library = manager.getLibrary(name, HaxelibSemVer.ANY_VERSION);
+  private static String findVersion(String name, @Nullable ModuleLibraryCache manager) {
+    HaxeLibrary library = manager == null ? null : manager.getLibrary(name, HaxelibSemVer.ANY_VERSION);
     if (library != null) {
       HaxelibSemVer version = library.getVersion();
       return version.toString();
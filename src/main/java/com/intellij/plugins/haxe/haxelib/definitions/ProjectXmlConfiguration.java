@@ -0,0 +1,102 @@
+package com.intellij.plugins.haxe.haxelib.definitions;
+
+import com.intellij.plugins.haxe.haxelib.HaxelibUtil;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The result of evaluating a Lime/OpenFL project file (see {@link ProjectXmlEvaluator}) for one target.
+ */
+public class ProjectXmlConfiguration {
+
+  final Map<String, String> definitions = new LinkedHashMap<>();
+  final Map<String, String> haxeDefinitions = new LinkedHashMap<>();
+  final List<HaxelibUtil.HaxeLibData> haxelibs = new ArrayList<>();
+  final List<String> classpaths = new ArrayList<>();
+  final List<String> haxeFlags = new ArrayList<>();
+  final Set<PsiFile> involvedFiles = new LinkedHashSet<>();
+  String mainClass;
+  String unsupportedReason;
+  boolean hasUnresolvedIncludes;
+
+  /**
+   * @return the defines visible to the project file's conditions; undefined names have the value {@code *UNSET*}.
+   */
+  @NotNull
+  public Map<String, String> getDefinitions() {
+    return Collections.unmodifiableMap(definitions);
+  }
+
+  /**
+   * @return the defines passed to the Haxe compiler ({@code <haxedef>} and {@code <define>}).
+   */
+  @NotNull
+  public Map<String, String> getHaxeDefinitions() {
+    return Collections.unmodifiableMap(haxeDefinitions);
+  }
+
+  @NotNull
+  public List<HaxelibUtil.HaxeLibData> getHaxelibs() {
+    return Collections.unmodifiableList(haxelibs);
+  }
+
+  /**
+   * @return absolute class paths from {@code <classpath>} and {@code <source>}.
+   */
+  @NotNull
+  public List<String> getClasspaths() {
+    return Collections.unmodifiableList(classpaths);
+  }
+
+  @NotNull
+  public List<String> getHaxeFlags() {
+    return Collections.unmodifiableList(haxeFlags);
+  }
+
+  @Nullable
+  public String getMainClass() {
+    return mainClass;
+  }
+
+  /**
+   * @return the project file and every file it includes.
+   */
+  @NotNull
+  public Collection<PsiFile> getInvolvedFiles() {
+    return Collections.unmodifiableSet(involvedFiles);
+  }
+
+  /**
+   * @return whether the project file only uses constructs the evaluator understands.  When it does not,
+   * callers should ask lime for the configuration instead.
+   */
+  public boolean isSupported() {
+    return unsupportedReason == null;
+  }
+
+  @Nullable
+  public String getUnsupportedReason() {
+    return unsupportedReason;
+  }
+
+  /**
+   * @return the compiler arguments for the configuration, one per line in the format {@code lime display} prints.
+   */
+  @NotNull
+  public List<String> toCompilerArguments() {
+    List<String> arguments = new ArrayList<>();
+    classpaths.forEach(path -> arguments.add("-cp " + path));
+    for (HaxelibUtil.HaxeLibData lib : haxelibs) {
+      arguments.add("-lib " + (lib.version() == null || lib.version().isEmpty() ? lib.name() : lib.name() + ":" + lib.version()));
+    }
+    haxeDefinitions.forEach((name, value) -> arguments.add("true".equals(value) ? "-D " + name : "-D " + name + "=" + value));
+    if (mainClass != null) {
+      arguments.add("-main " + mainClass);
+    }
+    arguments.addAll(haxeFlags);
+    return arguments;
+  }
+}
@@ -0,0 +1,311 @@
+package com.intellij.plugins.haxe.haxelib.definitions;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.haxelib.HaxelibSemVer;
+import com.intellij.plugins.haxe.haxelib.HaxelibUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.xml.XmlDocument;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.containers.ContainerUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates Lime/OpenFL project files (project.xml) in process, the way {@code lime display} would for a target:
+ * {@code <include>}s are followed, {@code <section>}s and {@code if}/{@code unless} conditions are evaluated against
+ * the defines seen so far, and {@code <haxelib>}, {@code <classpath>}/{@code <source>}, {@code <haxedef>},
+ * {@code <define>}/{@code <set>}, {@code <undefine>}/{@code <unset>}, {@code <haxeflag>} and {@code <app main>}
+ * are collected.
+ * <p>
+ * The {@code include.xml} of every {@code <haxelib>} is evaluated too, as lime does, when a {@link LibraryLocator}
+ * is given to find the library.
+ * <p>
+ * Results are cached on the file, per initial defines and library locator, until the project file or any of the
+ * files it includes change.  Constructs that need lime itself (libraries that can't be located, {@code ${...}}
+ * substitutions) mark the result as unsupported, see {@link ProjectXmlConfiguration#isSupported()}.
+ */
+@CustomLog
+public class ProjectXmlEvaluator {
+
+  private static final Key<Map<EvaluationKey, CachedValue<ProjectXmlConfiguration>>> CONFIGURATIONS =
+    Key.create("HAXE_PROJECT_XML_CONFIGURATIONS");
+  /** More than this many define sets for one file are not expected; past it, the file's results are dropped. */
+  private static final int MAX_CONFIGURATIONS_PER_FILE = 16;
+
+  /**
+   * Finds installed haxelib libraries, for their {@code include.xml}.
+   */
+  public interface LibraryLocator {
+    /**
+     * @return the root directory of the library, or null if no matching version is installed.
+     */
+    @Nullable
+    VirtualFile findLibraryRoot(@NotNull String name, @Nullable HaxelibSemVer version);
+  }
+
+  private record EvaluationKey(@NotNull Map<String, String> definitions, @Nullable LibraryLocator libraries) {
+  }
+
+  private ProjectXmlEvaluator() {
+  }
+
+  /**
+   * @return the defines lime sets before reading the project file: the target flags, the defines of the Haxe
+   * target they compile to, and {@code debug} or {@code release}.
+   */
+  @NotNull
+  public static Map<String, String> getInitialDefinitions(@NotNull String[] targetFlags, @Nullable HaxeTarget outputTarget,
+                                                          boolean debug) {
+    Map<String, String> definitions = new LinkedHashMap<>();
+    for (String flag : targetFlags) {
+      String name = StringUtil.trimLeading(flag, '-');
+      if (!name.isEmpty()) definitions.put(name, "true");
+    }
+    if (outputTarget != null) {
+      outputTarget.getDefinitions().forEach(definition -> definitions.put(definition, "true"));
+    }
+    definitions.put(debug ? "debug" : "release", "true");
+    return definitions;
+  }
+
+  /**
+   * Evaluates the file without looking into libraries: any {@code <haxelib>} makes the result unsupported.
+   *
+   * @param initialDefinitions defines set before the file is read (see {@link #getInitialDefinitions}).
+   */
+  @NotNull
+  public static ProjectXmlConfiguration evaluate(@NotNull XmlFile projectXml, @NotNull Map<String, String> initialDefinitions) {
+    return evaluate(projectXml, initialDefinitions, null);
+  }
+
+  /**
+   * @param initialDefinitions defines set before the file is read (see {@link #getInitialDefinitions}).
+   * @param libraries          finds the libraries whose {@code include.xml} is evaluated along with the file.
+   */
+  @NotNull
+  public static ProjectXmlConfiguration evaluate(@NotNull XmlFile projectXml, @NotNull Map<String, String> initialDefinitions,
+                                                 @Nullable LibraryLocator libraries) {
+    // A copy: the caller's map may change afterwards, while the cached value can be computed again from it.
+    Map<String, String> definitions = Collections.unmodifiableMap(new LinkedHashMap<>(initialDefinitions));
+    EvaluationKey key = new EvaluationKey(definitions, libraries);
+
+    Map<EvaluationKey, CachedValue<ProjectXmlConfiguration>> configurations = projectXml.getUserData(CONFIGURATIONS);
+    if (configurations == null) {
+      configurations = ((UserDataHolderEx)projectXml).putUserDataIfAbsent(CONFIGURATIONS, new ConcurrentHashMap<>());
+    }
+    CachedValue<ProjectXmlConfiguration> cachedValue = configurations.get(key);
+    if (cachedValue == null) {
+      if (configurations.size() >= MAX_CONFIGURATIONS_PER_FILE) {
+        configurations.clear();
+      }
+      cachedValue = CachedValuesManager.getManager(projectXml.getProject()).createCachedValue(() -> {
+        ProjectXmlConfiguration configuration = new ProjectXmlConfiguration();
+        configuration.definitions.putAll(definitions);
+        evaluateFile(projectXml, configuration, libraries, new HashSet<>());
+
+        List<Object> dependencies = new ArrayList<>(configuration.involvedFiles);
+        if (configuration.hasUnresolvedIncludes) {
+          dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+        }
+        return CachedValueProvider.Result.create(configuration, dependencies.toArray());
+      }, false);
+      CachedValue<ProjectXmlConfiguration> existing = configurations.putIfAbsent(key, cachedValue);
+      if (existing != null) cachedValue = existing;
+    }
+    return cachedValue.getValue();
+  }
+
+  private static void evaluateFile(@NotNull XmlFile file, @NotNull ProjectXmlConfiguration configuration,
+                                   @Nullable LibraryLocator libraries, @NotNull Set<XmlFile> visiting) {
+    if (!visiting.add(file)) {
+      log.warn("Recursive include of " + file.getName() + " ignored.");
+      return;
+    }
+    configuration.involvedFiles.add(file);
+    XmlDocument document = file.getDocument();
+    XmlTag rootTag = document == null ? null : document.getRootTag();
+    if (rootTag != null) {
+      evaluateChildren(file, rootTag, configuration, libraries, visiting);
+    }
+    visiting.remove(file);
+  }
+
+  private static void evaluateChildren(@NotNull XmlFile file, @NotNull XmlTag parent, @NotNull ProjectXmlConfiguration configuration,
+                                       @Nullable LibraryLocator libraries, @NotNull Set<XmlFile> visiting) {
+    for (XmlTag tag : parent.getSubTags()) {
+      if (!isEnabled(tag, configuration.definitions)) continue;
+
+      switch (tag.getName()) {
+        case "section" -> evaluateChildren(file, tag, configuration, libraries, visiting);
+        case "include" -> evaluateInclude(file, tag, configuration, libraries, visiting);
+        case "set", "define" -> {
+          String name = value(tag, "name", configuration);
+          if (name == null) continue;
+          String defineValue = StringUtil.notNullize(value(tag, "value", configuration), "true");
+          configuration.definitions.put(name, defineValue);
+          if (tag.getName().equals("define")) configuration.haxeDefinitions.put(name, defineValue);
+        }
+        case "unset", "undefine" -> {
+          String name = value(tag, "name", configuration);
+          if (name == null) continue;
+          configuration.definitions.put(name, "*UNSET*");
+          configuration.haxeDefinitions.remove(name);
+        }
+        case "haxedef" -> {
+          String name = value(tag, "name", configuration);
+          if (name != null) configuration.haxeDefinitions.put(name, StringUtil.notNullize(value(tag, "value", configuration), "true"));
+        }
+        case "haxelib" -> {
+          String name = value(tag, "name", configuration);
+          if (name == null) continue;
+          String version = value(tag, "version", configuration);
+          if (ContainerUtil.exists(configuration.haxelibs, lib -> name.equals(lib.name()))) continue;
+          HaxelibSemVer semVer = HaxelibSemVer.create(version);
+          configuration.haxelibs.add(new HaxelibUtil.HaxeLibData(name, version, semVer));
+          // lime defines every included library for the conditions that follow.
+          configuration.definitions.putIfAbsent(name, "true");
+          evaluateLibraryInclude(file, name, semVer, configuration, libraries, visiting);
+        }
+        case "classpath", "source" -> {
+          String path = value(tag, "path", configuration);
+          if (path == null) path = value(tag, "name", configuration);
+          if (StringUtil.isEmpty(path)) continue;
+          VirtualFile directory = resolve(file, path);
+          configuration.classpaths.add(directory != null ? directory.getPath() : path);
+        }
+        case "haxeflag" -> {
+          String name = value(tag, "name", configuration);
+          if (name == null) continue;
+          String flagValue = value(tag, "value", configuration);
+          configuration.haxeFlags.add(flagValue == null ? name : name + " " + flagValue);
+        }
+        case "app", "meta" -> {
+          String main = value(tag, "main", configuration);
+          if (main != null) configuration.mainClass = main;
+        }
+        default -> {
+          // everything else (assets, icons, window, ...) does not affect the compiler arguments.
+        }
+      }
+    }
+  }
+
+  private static void evaluateInclude(@NotNull XmlFile file, @NotNull XmlTag tag, @NotNull ProjectXmlConfiguration configuration,
+                                      @Nullable LibraryLocator libraries, @NotNull Set<XmlFile> visiting) {
+    if (tag.getAttributeValue("haxelib") != null) {
+      markUnsupported(configuration, "<include haxelib=\"...\"> in " + file.getName());
+      return;
+    }
+    String path = value(tag, "path", configuration);
+    if (path == null) return;
+
+    VirtualFile included = resolve(file, path);
+    if (included != null && included.isDirectory()) {
+      included = included.findChild("include.xml");
+    }
+    PsiFile psi = included == null ? null : file.getManager().findFile(included);
+    if (psi instanceof XmlFile xmlFile) {
+      evaluateFile(xmlFile, configuration, libraries, visiting);
+    }
+    else {
+      configuration.hasUnresolvedIncludes = true;
+      if (!"true".equals(tag.getAttributeValue("noerror"))) {
+        markUnsupported(configuration, "unresolved include " + path + " in " + file.getName());
+      }
+    }
+  }
+
+  /**
+   * Lime reads the {@code include.xml} at the root of every library the project uses, when there is one.
+   */
+  private static void evaluateLibraryInclude(@NotNull XmlFile file, @NotNull String name, @NotNull HaxelibSemVer version,
+                                             @NotNull ProjectXmlConfiguration configuration, @Nullable LibraryLocator libraries,
+                                             @NotNull Set<XmlFile> visiting) {
+    if (libraries == null) {
+      markUnsupported(configuration, "<haxelib name=\"" + name + "\"> in " + file.getName() + " without a library manager");
+      return;
+    }
+    VirtualFile root = libraries.findLibraryRoot(name, version);
+    if (root == null) {
+      // Installing the library changes the result.
+      configuration.hasUnresolvedIncludes = true;
+      markUnsupported(configuration, "haxelib " + name + " is not installed");
+      return;
+    }
+    VirtualFile include = root.findChild("include.xml");
+    PsiFile psi = include == null ? null : file.getManager().findFile(include);
+    if (psi instanceof XmlFile xmlFile) {
+      evaluateFile(xmlFile, configuration, libraries, visiting);
+    }
+  }
+
+  /**
+   * Lime conditions: {@code ||} separates alternatives, spaces (or {@code &&}) separate defines that must all be
+   * set, and a leading {@code !} negates a define.
+   */
+  static boolean isEnabled(@NotNull XmlTag tag, @NotNull Map<String, String> definitions) {
+    String ifCondition = tag.getAttributeValue("if");
+    if (ifCondition != null && !evaluateCondition(ifCondition, definitions)) return false;
+    String unlessCondition = tag.getAttributeValue("unless");
+    return unlessCondition == null || !evaluateCondition(unlessCondition, definitions);
+  }
+
+  static boolean evaluateCondition(@NotNull String condition, @NotNull Map<String, String> definitions) {
+    for (String alternative : condition.split("\\|\\|")) {
+      boolean all = true;
+      for (String term : alternative.split("&&|\\s+")) {
+        if (term.isEmpty()) continue;
+        boolean negated = term.startsWith("!");
+        String name = negated ? term.substring(1) : term;
+        if (isDefined(name, definitions) == negated) {
+          all = false;
+          break;
+        }
+      }
+      if (all) return true;
+    }
+    return false;
+  }
+
+  private static boolean isDefined(@NotNull String name, @NotNull Map<String, String> definitions) {
+    String value = definitions.get(name);
+    return value != null && !"*UNSET*".equals(value) && !"false".equalsIgnoreCase(value);
+  }
+
+  @Nullable
+  private static String value(@NotNull XmlTag tag, @NotNull String attribute, @NotNull ProjectXmlConfiguration configuration) {
+    String value = tag.getAttributeValue(attribute);
+    if (value != null && value.contains("${")) {
+      markUnsupported(configuration, "substitution in " + tag.getName() + " " + attribute + "=\"" + value + "\"");
+    }
+    return value;
+  }
+
+  private static void markUnsupported(@NotNull ProjectXmlConfiguration configuration, @NotNull String reason) {
+    if (configuration.unsupportedReason == null) {
+      configuration.unsupportedReason = reason;
+    }
+  }
+
+  @Nullable
+  private static VirtualFile resolve(@NotNull XmlFile from, @NotNull String path) {
+    VirtualFile file = from.getOriginalFile().getVirtualFile();
+    VirtualFile directory = file == null ? null : file.getParent();
+    VirtualFile resolved = directory == null ? null : directory.findFileByRelativePath(path.replace('\\', '/'));
+    return resolved != null ? resolved : LocalFileSystem.getInstance().findFileByPath(path);
+  }
+}
@@ -24,6 +24,7 @@ import com.intellij.openapi.editor.DefaultLanguageHighlighterColors;
 import com.intellij.openapi.util.text.HtmlBuilder;
 import com.intellij.openapi.util.text.HtmlChunk;
 import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.ide.lookup.HaxeIndexedClassElement;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.*;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
@@ -416,6 +417,9 @@ public class HaxeDocumentationProvider implements DocumentationProvider {
 
   @Override
   public PsiElement getDocumentationElementForLookupItem(PsiManager psiManager, Object object, PsiElement element) {
+    if (object instanceof HaxeIndexedClassElement indexedClassElement) {
+      return indexedClassElement.resolvePsiElement();
+    }
     return null;
   }
 
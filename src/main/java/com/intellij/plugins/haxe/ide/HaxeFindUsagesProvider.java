@@ -18,12 +18,17 @@
  */
 package com.intellij.plugins.haxe.ide;
 
+import com.intellij.lang.cacheBuilder.DefaultWordsScanner;
 import com.intellij.lang.cacheBuilder.WordsScanner;
 import com.intellij.lang.findUsages.FindUsagesProvider;
 import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.lang.lexer.HaxeLexer;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.TokenSet;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 
@@ -33,9 +38,16 @@ import org.jetbrains.annotations.NotNull;
 @CustomLog
 public class HaxeFindUsagesProvider implements FindUsagesProvider {
 
+  private static final TokenSet IDENTIFIERS = TokenSet.create(HaxeTokenTypes.ID);
+
   @Override
   public WordsScanner getWordsScanner() {
-    return null;
+    // The id index itself is built by HaxeIdIndexer; this scanner is used for the word lookups done around it
+    // (e.g. extracting the words to search for).  Scanners hold lexer state, so each caller gets its own.
+    DefaultWordsScanner scanner =
+      new DefaultWordsScanner(new HaxeLexer(null), IDENTIFIERS, HaxeTokenTypeSets.ONLY_COMMENTS, HaxeTokenTypeSets.STRINGS);
+    scanner.setMayHaveFileRefsInLiterals(true);
+    return scanner;
   }
 
   @Override
@@ -17,32 +17,40 @@
  */
 package com.intellij.plugins.haxe.ide;
 
-import com.intellij.navigation.ChooseByNameContributor;
+import com.intellij.navigation.ChooseByNameContributorEx;
 import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
-import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolInfo;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-
-public class HaxeSymbolContributor implements ChooseByNameContributor {
-  @NotNull
+/**
+ * Go to Symbol.  Names and items come straight from {@link HaxeSymbolIndex}; files are only loaded once the user
+ * picks an item.
+ */
+public class HaxeSymbolContributor implements ChooseByNameContributorEx {
   @Override
-  public String[] getNames(@NotNull final Project project, final boolean includeNonProjectItems) {
-    final GlobalSearchScope scope = includeNonProjectItems ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
-    return HaxeSymbolIndex.getAllSymbols(scope);
+  public void processNames(@NotNull Processor<? super String> processor, @NotNull GlobalSearchScope scope, @Nullable IdFilter filter) {
+    HaxeSymbolIndex.processAllSymbols(processor, scope, filter);
   }
 
-  @NotNull
   @Override
-  public NavigationItem[] getItemsByName(@NotNull final String name,
-                                         @NotNull final String pattern,
-                                         @NotNull final Project project,
-                                         final boolean includeNonProjectItems) {
-    final GlobalSearchScope scope = includeNonProjectItems ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
-    final Collection<HaxeComponentName> result = HaxeSymbolIndex.getItemsByName(name, project, scope);
-    return result.toArray(new NavigationItem[0]);
+  public void processElementsWithName(@NotNull String name,
+                                      @NotNull Processor<? super NavigationItem> processor,
+                                      @NotNull FindSymbolParameters parameters) {
+    final Project project = parameters.getProject();
+    HaxeSymbolIndex.processSymbols(name, parameters.getSearchScope(), parameters.getIdFilter(), (file, symbols) -> {
+      for (HaxeSymbolInfo symbol : symbols) {
+        if (!processor.process(new HaxeSymbolNavigationItem(project, file, name, symbol))) {
+          return false;
+        }
+      }
+      return true;
+    });
   }
 }
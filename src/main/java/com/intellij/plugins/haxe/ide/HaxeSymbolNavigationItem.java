@@ -0,0 +1,104 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.PsiElementNavigationItem;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolInfo;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Objects;
+
+/**
+ * A Go to Symbol entry built from {@link HaxeSymbolInfo}.  Presenting and opening it only needs the index value;
+ * the declaration's PSI is looked up when someone asks for {@link #getTargetElement()}.
+ */
+public class HaxeSymbolNavigationItem implements PsiElementNavigationItem, ItemPresentation {
+  @NotNull private final Project myProject;
+  @NotNull private final VirtualFile myFile;
+  @NotNull private final String myName;
+  @NotNull private final HaxeSymbolInfo mySymbol;
+
+  public HaxeSymbolNavigationItem(@NotNull Project project, @NotNull VirtualFile file, @NotNull String name, @NotNull HaxeSymbolInfo symbol) {
+    myProject = project;
+    myFile = file;
+    myName = name;
+    mySymbol = symbol;
+  }
+
+  @Nullable
+  @Override
+  public PsiElement getTargetElement() {
+    if (!myFile.isValid()) return null;
+    final PsiFile psiFile = PsiManager.getInstance(myProject).findFile(myFile);
+    if (psiFile == null) return null;
+    final HaxeComponentName componentName =
+      PsiTreeUtil.getParentOfType(psiFile.findElementAt(mySymbol.getOffset()), HaxeComponentName.class, false);
+    return componentName != null && myName.equals(componentName.getName()) ? componentName : null;
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return myName;
+  }
+
+  @NotNull
+  @Override
+  public ItemPresentation getPresentation() {
+    return this;
+  }
+
+  @Override
+  public void navigate(boolean requestFocus) {
+    new OpenFileDescriptor(myProject, myFile, mySymbol.getOffset()).navigate(requestFocus);
+  }
+
+  @Override
+  public boolean canNavigate() {
+    return myFile.isValid();
+  }
+
+  @Override
+  public boolean canNavigateToSource() {
+    return canNavigate();
+  }
+
+  @NotNull
+  @Override
+  public String getPresentableText() {
+    return mySymbol.getPresentableText();
+  }
+
+  @NotNull
+  @Override
+  public String getLocationString() {
+    return mySymbol.getContainerName();
+  }
+
+  @Nullable
+  @Override
+  public Icon getIcon(boolean unused) {
+    return mySymbol.getIcon();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof HaxeSymbolNavigationItem other)) return false;
+    return myFile.equals(other.myFile) && mySymbol.getOffset() == other.mySymbol.getOffset();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(myFile, mySymbol.getOffset());
+  }
+}
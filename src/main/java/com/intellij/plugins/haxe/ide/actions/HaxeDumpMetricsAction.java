@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.actions;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.datatransfer.StringSelection;
+
+/**
+ * Shows a snapshot of the resolver/evaluator/annotator metrics collected by {@link HaxeMetrics}.
+ * The snapshot is also written to the IDE log so that it can be attached to bug reports.
+ */
+@CustomLog
+public class HaxeDumpMetricsAction extends AnAction implements DumbAware {
+  private static final int CLOSE = 0;
+  private static final int COPY = 1;
+  private static final int RESET = 2;
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    String snapshot = HaxeMetrics.snapshot();
+    log.info("Haxe metrics snapshot:\n" + snapshot);
+
+    String[] options = {HaxeBundle.message("action.metrics.dump.close"), HaxeBundle.message("action.metrics.dump.copy"),
+      HaxeBundle.message("action.metrics.dump.reset")};
+    int choice = Messages.showDialog(event.getProject(), snapshot, HaxeBundle.message("action.metrics.dump.title"), options, CLOSE,
+                                     Messages.getInformationIcon());
+    if (choice == COPY) {
+      CopyPasteManager.getInstance().setContents(new StringSelection(snapshot));
+    }
+    else if (choice == RESET) {
+      HaxeMetrics.reset();
+    }
+  }
+}
@@ -17,10 +17,49 @@
  */
 package com.intellij.plugins.haxe.ide.annotator;
 
-public class HaxeSemanticAnnotatorConfig {
-  // @TODO: Add a proper UI configuration checkbox
-  //static public boolean ENABLE_EXPERIMENTAL_BODY_CHECK = true;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.TestOnly;
 
+public class HaxeSemanticAnnotatorConfig {
+  /** Forces the method body check on, regardless of the inspection settings. */
   //TODO  see comment in test com.intellij.plugins.haxe.ide.HaxeSemanticBodyAnnotatorTest
   static public boolean ENABLE_EXPERIMENTAL_BODY_CHECK = false;
+
+  private static volatile boolean bodyCheckInTests;
+
+  /**
+   * The method body check is controlled from the inspection settings.  Highlighting tests expect the output of the
+   * per-expression checks only, so it stays off in unit tests unless {@link #ENABLE_EXPERIMENTAL_BODY_CHECK} is set
+   * or a test asks for it with {@link #enableBodyCheckInTests}.
+   */
+  public static boolean isBodyCheckEnabled(@NotNull PsiElement element) {
+    if (ENABLE_EXPERIMENTAL_BODY_CHECK) return true;
+    if (ApplicationManager.getApplication().isUnitTestMode() && !bodyCheckInTests) return false;
+    return HaxeSemanticAnnotatorInspections.METHOD_BODY_CHECK.isEnabled(element);
+  }
+
+  /**
+   * The project-wide type check (see {@code HaxeProjectTypeCheck}) is switched on in the project settings.  It runs the
+   * method body check on files that are not open, so in unit tests it also waits for {@link #enableBodyCheckInTests}.
+   */
+  public static boolean isProjectTypeCheckEnabled(@NotNull Project project) {
+    if (ApplicationManager.getApplication().isUnitTestMode() && !bodyCheckInTests) return false;
+    return HaxeProjectSettings.getInstance(project).isProjectTypeCheck();
+  }
+
+  /**
+   * Lets the method body check follow the inspection settings in unit tests, and lets the project-wide type check run,
+   * until {@code parentDisposable} is disposed.
+   */
+  @TestOnly
+  public static void enableBodyCheckInTests(@NotNull Disposable parentDisposable) {
+    bodyCheckInTests = true;
+    Disposer.register(parentDisposable, () -> bodyCheckInTests = false);
+  }
 }
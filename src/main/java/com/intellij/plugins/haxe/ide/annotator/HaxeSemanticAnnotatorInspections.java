@@ -37,6 +37,7 @@ public enum HaxeSemanticAnnotatorInspections {
   INVALID_TYPE_NAME(new InvalidTypeNameInspection()),
   IS_TYPE_INSPECTION(new IsTypeExpressionInspection()),
   IS_TYPE_INSPECTION_4dot1_COMPATIBLE(new IsTypeExpressionInspection4dot1Compatible()),
+  METHOD_BODY_CHECK(new MethodBodyInspection()),
   METHOD_OVERRIDE_CHECK(new MethodOverrideInspection()),
   METHOD_SIGNATURE_COMPATIBILITY(new MethodSignatureCompatiblityInspection()),
   MISSING_INTERFACE_METHODS(new MissingInterfaceMethodInspection()),
@@ -176,6 +177,13 @@ public enum HaxeSemanticAnnotatorInspections {
     }
   }
 
+  public static class MethodBodyInspection extends HaxeAnnotatorInspection {
+    public MethodBodyInspection() {
+      super("haxe.inspections.method.body.name",
+            "haxe.inspections.method.body.description");
+    }
+  }
+
   public static class MethodOverrideInspection extends HaxeAnnotatorInspection {
     public MethodOverrideInspection() {
       super("haxe.inspections.method.override.name",
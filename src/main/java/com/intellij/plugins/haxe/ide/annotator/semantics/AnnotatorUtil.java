@@ -1,9 +1,13 @@
 package com.intellij.plugins.haxe.ide.annotator.semantics;
 
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.ide.index.HaxeMetadataClassIndex;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
 import com.intellij.plugins.haxe.model.HaxeClassModel;
 import com.intellij.plugins.haxe.model.HaxeClassReferenceModel;
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -16,6 +20,7 @@ public class AnnotatorUtil {
 
   public static boolean hasMacroForCodeGeneration(@NotNull HaxeClassModel clazz) {
     if (clazz.hasCompileTimeMeta(HaxeMeta.BUILD)) return true;
+    if (!mayInheritAutoBuild(clazz)) return false;
 
     List<HaxeClassModel> classModels = clazz.getExtendingTypes().stream()
       .map(HaxeClassReferenceModel::getHaxeClassModel)
@@ -43,5 +48,14 @@ public class AnnotatorUtil {
     return false;
   }
 
+  /**
+   * @return false when no class in the project or its libraries has {@code @:autoBuild}, so that the supertypes
+   * don't have to be walked.
+   */
+  private static boolean mayInheritAutoBuild(@NotNull HaxeClassModel clazz) {
+    Project project = clazz.haxeClass.getProject();
+    if (DumbService.isDumb(project)) return true;
+    return HaxeMetadataClassIndex.hasClasses(HaxeMeta.AUTO_BUILD, project, GlobalSearchScope.allScope(project));
+  }
 
 }
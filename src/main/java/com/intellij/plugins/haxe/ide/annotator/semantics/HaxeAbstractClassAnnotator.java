@@ -26,7 +26,7 @@ public class HaxeAbstractClassAnnotator implements Annotator {
     }
   }
 
-  private void checkClass(@NotNull HaxeClass aClass, @NotNull AnnotationHolder holder) {
+  static void checkClass(@NotNull HaxeClass aClass, @NotNull AnnotationHolder holder) {
     HaxeClassModel classModel = aClass.getModel();
     boolean isAbstractClass = classModel.isAbstractClass();
     ;
@@ -59,7 +59,7 @@ public class HaxeAbstractClassAnnotator implements Annotator {
     }
   }
 
-  private void checkMethod(@NotNull HaxeMethod method, @NotNull AnnotationHolder holder) {
+  static void checkMethod(@NotNull HaxeMethod method, @NotNull AnnotationHolder holder) {
     HaxeMethodModel methodModel = method.getModel();
     if (methodModel != null) {
       if (methodModel.isAbstract()) {
@@ -20,7 +20,7 @@ import java.util.List;
 
 import static com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorInspections.ASSIGNMENT_TYPE_COMPATIBILITY_CHECK;
 import static com.intellij.plugins.haxe.ide.annotator.HaxeStandardAnnotation.typeMismatch;
-import static com.intellij.plugins.haxe.lang.psi.HaxeResolver.typeHintKey;
+import static com.intellij.plugins.haxe.lang.psi.HaxeResolver.putTypeHint;
 
 public class HaxeAssignExpressionAnnotator implements Annotator {
   public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
@@ -48,7 +48,7 @@ public class HaxeAssignExpressionAnnotator implements Annotator {
       SpecificHaxeClassReference type = lhsType.getClassType();
       if(type != null && type.getHaxeClass() != null) {
         String qualifiedName = type.getHaxeClass().getQualifiedName();
-        rhs.putUserData(typeHintKey, qualifiedName);
+        putTypeHint(rhs, qualifiedName);
       }
     }
     ResultHolder rhsType = HaxeTypeResolver.getPsiElementType(rhs, psi, rhsResolver);
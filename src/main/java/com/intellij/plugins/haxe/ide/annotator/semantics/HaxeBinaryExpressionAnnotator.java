@@ -14,24 +14,25 @@ import org.jetbrains.annotations.NotNull;
 public class HaxeBinaryExpressionAnnotator implements Annotator {
   @Override
   public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+    if (element instanceof HaxeBinaryExpression expression && isChecked(expression)) {
+      check(expression, holder);
+    }
+  }
 
-    if (element instanceof HaxeAssignExpression) {
+  static boolean isChecked(@NotNull HaxeBinaryExpression expression) {
+    if (expression instanceof HaxeAssignExpression) {
       // HaxeAssignExpression -> assign is handle by localVarAnnotator etc.
       //HaxeCompareExpression : problem with Class<myClass> being detected as compare  (X < Y)
-      return;
+      return false;
     }
     // TODO make IS operator check (require ,  ref is Type combo)
 
-    if (element instanceof HaxeBinaryExpression expression
-        // TODO mlo, make a better check to see if element is part of @:op(...)
-
-        && !(expression.getParent() instanceof HaxeCompiletimeMetaArg )) {
-      //  ignore if part of switch case expression
-      if (PsiTreeUtil.getParentOfType(element, HaxeSwitchCaseExpr.class) == null) {
-
-        check(expression, holder);
-      }
+    // TODO mlo, make a better check to see if element is part of @:op(...)
+    if (expression.getParent() instanceof HaxeCompiletimeMetaArg) {
+      return false;
     }
+    //  ignore if part of switch case expression
+    return PsiTreeUtil.getParentOfType(expression, HaxeSwitchCaseExpr.class) == null;
   }
 
   public static void check(final HaxeBinaryExpression binaryExpression, final AnnotationHolder holder) {
@@ -15,6 +15,12 @@ import static com.intellij.plugins.haxe.ide.annotator.semantics.HaxeCallExpressi
 public class HaxeCallExpressionAnnotator implements Annotator {
   @Override
   public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+    if (element instanceof HaxeCallExpression || element instanceof HaxeNewExpression) {
+      check(element, holder);
+    }
+  }
+
+  static void check(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
     if (element instanceof HaxeCallExpression expression) {
       if (expression.getExpression() instanceof HaxeReference reference) {
         final PsiElement resolved = reference.resolve();
@@ -71,7 +77,7 @@ public class HaxeCallExpressionAnnotator implements Annotator {
     }
   }
 
-  private void createAnnotations(@NotNull AnnotationHolder holder, CallExpressionValidation validation) {
+  private static void createAnnotations(@NotNull AnnotationHolder holder, CallExpressionValidation validation) {
     if (!validation.errors.isEmpty())createErrorAnnotations(validation, holder);
     if (!validation.warnings.isEmpty())createWarningAnnotations(validation, holder);
   }
@@ -85,12 +91,12 @@ public class HaxeCallExpressionAnnotator implements Annotator {
            && info.memberName.equals("trace");
   }
 
-  private void createErrorAnnotations(@NotNull CallExpressionValidation validation, @NotNull AnnotationHolder holder) {
+  private static void createErrorAnnotations(@NotNull CallExpressionValidation validation, @NotNull AnnotationHolder holder) {
     validation.errors.forEach(record -> holder.newAnnotation(HighlightSeverity.ERROR, record.message())
       .range(record.range())
       .create());
   }
-  private void createWarningAnnotations(@NotNull CallExpressionValidation validation, @NotNull AnnotationHolder holder) {
+  private static void createWarningAnnotations(@NotNull CallExpressionValidation validation, @NotNull AnnotationHolder holder) {
     validation.warnings.forEach(record -> holder.newAnnotation(HighlightSeverity.WEAK_WARNING, record.message())
       .range(record.range())
       .create());
@@ -29,7 +29,16 @@ public class HaxeCallExpressionUtil {
   public static CallExpressionValidation checkMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method) {
     return checkMethodCall(callExpression, method, false);
   }
+  /**
+   * Validation results are cached until the call site or a declaration it depends on changes; every caller gets a
+   * copy of its own.
+   */
   public static CallExpressionValidation checkMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method, boolean isFirstRef) {
+    return HaxeCallExpressionValidationCache.getValidation(callExpression, List.of(method, isFirstRef),
+                                                           () -> validateMethodCall(callExpression, method, isFirstRef));
+  }
+
+  private static CallExpressionValidation validateMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method, boolean isFirstRef) {
     CallExpressionValidation validation  = new CallExpressionValidation();
     validation.isMethod = true;
 
@@ -473,7 +482,15 @@ public class HaxeCallExpressionUtil {
   }
 
 
+  /**
+   * Shared like {@link #checkMethodCall(HaxeCallExpression, HaxeMethod, boolean)}.
+   */
   public static CallExpressionValidation checkConstructor(HaxeNewExpression newExpression) {
+    return HaxeCallExpressionValidationCache.getValidation(newExpression, HaxeNewExpression.class,
+                                                           () -> validateConstructor(newExpression));
+  }
+
+  private static CallExpressionValidation validateConstructor(HaxeNewExpression newExpression) {
     CallExpressionValidation validation  = new CallExpressionValidation();
     validation.isConstructor = true;
 
@@ -1013,6 +1030,39 @@ public class HaxeCallExpressionUtil {
     boolean isFunction = false;
     boolean isMethod = false;
 
+    /**
+     * @return a validation that can be changed without changing this one: the maps, lists, type holders and resolver
+     * are copied.
+     */
+    public CallExpressionValidation copy() {
+      CallExpressionValidation copy = new CallExpressionValidation();
+      copy.unknownCallie = unknownCallie;
+      copy.argumentToParameterIndex.putAll(argumentToParameterIndex);
+      copyTypes(argumentIndexToType, copy.argumentIndexToType);
+      copyTypes(parameterIndexToType, copy.parameterIndexToType);
+      copyTypes(originalParameterIndexToType, copy.originalParameterIndexToType);
+      copy.ParameterNames.addAll(ParameterNames);
+      copy.returnType = copyType(returnType);
+      copy.errors.addAll(errors);
+      copy.warnings.addAll(warnings);
+      copy.resolver = resolver.copy();
+      copy.completed = completed;
+      copy.memberMacroFunction = memberMacroFunction;
+      copy.isStaticExtension = isStaticExtension;
+      copy.isConstructor = isConstructor;
+      copy.isFunction = isFunction;
+      copy.isMethod = isMethod;
+      return copy;
+    }
+
+    private static void copyTypes(Map<Integer, ResultHolder> from, Map<Integer, ResultHolder> to) {
+      from.forEach((index, type) -> to.put(index, copyType(type)));
+    }
+
+    private static ResultHolder copyType(ResultHolder type) {
+      return type == null ? null : type.withOrigin(type.getOrigin());
+    }
+
     public void reResolveParameters() {
       HaxeGenericResolver genericResolver = resolver.withoutUnknowns();
       for (Map.Entry<Integer, ResultHolder> entry : originalParameterIndexToType.entrySet()) {
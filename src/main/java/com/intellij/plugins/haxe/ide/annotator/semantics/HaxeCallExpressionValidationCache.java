@@ -0,0 +1,128 @@
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.lang.psi.HaxeLocalFunctionDeclaration;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.util.HaxeDeclarationSignatureUtil;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ConcurrencyUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares the validation of a call site between the resolver, the evaluator, the annotators, inlay hints and
+ * completion, which would otherwise each match the arguments to the parameters again.
+ * <p>
+ * A validation is cached on the call (or {@code new}) expression, per callee.  It stays valid for as long as the
+ * body around the call site has the same text and every file the validation looked into, the callee's included,
+ * keeps the same declaration signature (see {@link HaxeDeclarationSignatureUtil}).  Callers get a copy of the cached
+ * validation, which they are free to change.
+ */
+final class HaxeCallExpressionValidationCache {
+
+  private static final Key<Map<Object, CachedValidation>> VALIDATIONS = Key.create("HAXE_CALL_EXPRESSION_VALIDATIONS");
+
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("semantics.callValidation.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("semantics.callValidation.cache.miss");
+
+  /**
+   * @param siteStamp  hash and length of the text of the body around the call site.
+   * @param signatures declaration signature stamps of the files the validation depends on.
+   */
+  private record CachedValidation(long siteStamp, Map<PsiFile, Long> signatures,
+                                  HaxeDependencyRecorder.Recorded<HaxeCallExpressionUtil.CallExpressionValidation> validation) {
+
+    boolean isUpToDate(long currentSiteStamp) {
+      if (siteStamp != currentSiteStamp) return false;
+      for (Map.Entry<PsiFile, Long> dependency : signatures.entrySet()) {
+        PsiFile file = dependency.getKey();
+        if (!file.isValid() || HaxeDeclarationSignatureUtil.getSignatureStamp(file) != dependency.getValue()) return false;
+      }
+      return true;
+    }
+  }
+
+  private HaxeCallExpressionValidationCache() {
+  }
+
+  /**
+   * @param callSite the call or {@code new} expression.
+   * @param key      identifies what the call site was validated against (the callee and the options), with
+   *                 {@code equals}.
+   */
+  @NotNull
+  static HaxeCallExpressionUtil.CallExpressionValidation getValidation(@NotNull PsiElement callSite, @NotNull Object key,
+                                                                       @NotNull Supplier<HaxeCallExpressionUtil.CallExpressionValidation> validate) {
+    Map<Object, CachedValidation> validations = ConcurrencyUtil.computeIfAbsent(callSite, VALIDATIONS, ConcurrentHashMap::new);
+    long siteStamp = getSiteStamp(callSite);
+
+    CachedValidation cached = validations.get(key);
+    if (cached != null && cached.isUpToDate(siteStamp)) {
+      cacheHits.increment();
+      // Whoever is recording depends on what the validation depended on.
+      return HaxeDependencyRecorder.replay(cached.validation()).copy();
+    }
+
+    cacheMisses.increment();
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    HaxeDependencyRecorder.Recorded<HaxeCallExpressionUtil.CallExpressionValidation> recorded = HaxeDependencyRecorder.recorded(() -> {
+      HaxeDependencyRecorder.record(callSite);
+      return validate.get();
+    });
+    // A cancelled validation may be incomplete, as may one that ran into a recursion guard; don't cache them.
+    ProgressManager.checkCanceled();
+    if (!stamp.mayCacheNow()) return recorded.value();
+
+    // Entries for callees that were reparsed away would only hold on to their old PSI.
+    validations.keySet().removeIf(HaxeCallExpressionValidationCache::refersToInvalidPsi);
+
+    Map<PsiFile, Long> signatures = new HashMap<>();
+    for (PsiFile file : recorded.dependencies()) {
+      signatures.put(file, HaxeDeclarationSignatureUtil.getSignatureStamp(file));
+    }
+    validations.put(key, new CachedValidation(siteStamp, signatures, recorded));
+    return recorded.value().copy();
+  }
+
+  private static boolean refersToInvalidPsi(@NotNull Object key) {
+    if (key instanceof PsiElement element) return !element.isValid();
+    if (key instanceof List<?> parts) return ContainerUtil.exists(parts, HaxeCallExpressionValidationCache::refersToInvalidPsi);
+    return false;
+  }
+
+  /**
+   * Arguments can refer to anything declared in the enclosing method, so its body is what the call site depends on.
+   * Local functions are methods too: the body is that of the class member around them, which holds what they capture.
+   * Outside of methods (initializers, for instance), the whole file is.
+   */
+  private static long getSiteStamp(@NotNull PsiElement callSite) {
+    HaxeMethod method = PsiTreeUtil.getParentOfType(callSite, HaxeMethod.class);
+    while (method instanceof HaxeLocalFunctionDeclaration) {
+      method = PsiTreeUtil.getParentOfType(method, HaxeMethod.class);
+    }
+    PsiElement body = method != null ? method.getModel().getBodyPsi() : null;
+    PsiElement site = body != null ? body : callSite.getContainingFile();
+    return CachedValuesManager.getCachedValue(site, () -> CachedValueProvider.Result.create(computeStamp(site), site.getContainingFile()));
+  }
+
+  private static long computeStamp(@Nullable PsiElement site) {
+    if (site == null || site.getNode() == null) return 0;
+    CharSequence text = site.getNode().getChars();
+    return ((long)text.length() << 32) | (StringUtil.stringHashCode(text) & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,210 @@
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
+import com.intellij.plugins.haxe.lang.psi.HaxeFieldDeclaration;
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.lang.psi.HaxeVarInit;
+import com.intellij.plugins.haxe.model.type.HaxeTypeResolver;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the method bodies and field initializers of Haxe files opened in an editor in the background, when they
+ * are opened and after they are edited, so that the highlighting pass that follows finds most types (and method body
+ * checks, see {@link HaxeMethodBodyAnnotator}) ready instead of evaluating them one by one on the daemon thread.
+ * <p>
+ * The warm-up is off unless {@link HaxeProjectSettings#getHighlightingWarmUpThreads()} is set.  A file's declarations
+ * are collected once and split over that many threads, inside a non-blocking read action: it gives way to write
+ * actions and starts over once a write action is done, and a newer warm-up of the same file replaces the one still
+ * running.  Edits are collected until typing pauses, so that a file is warmed up once per pause and not once per PSI
+ * change.
+ */
+@CustomLog
+public class HaxeHighlightingWarmUp implements Disposable {
+
+  private static final HaxeMetrics.Counter evaluatedDeclarations = HaxeMetrics.counter("highlighting.warmUp.declarations");
+
+  private static final int EDIT_DELAY_MS = 500;
+
+  private final Project project;
+  private final Set<PsiFile> editedFiles = ConcurrentHashMap.newKeySet();
+  private final Alarm editAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+
+  public HaxeHighlightingWarmUp(@NotNull Project project) {
+    this.project = project;
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        PsiFile file = event.getFile();
+        if (file instanceof HaxeFile && isEnabled() && isOpenInEditor(file)) {
+          editedFiles.add(file);
+          editAlarm.cancelAllRequests();
+          editAlarm.addRequest(HaxeHighlightingWarmUp.this::scheduleEditedFiles, EDIT_DELAY_MS);
+        }
+      }
+    }, this);
+  }
+
+  public static HaxeHighlightingWarmUp getInstance(@NotNull Project project) {
+    return project.getService(HaxeHighlightingWarmUp.class);
+  }
+
+  /**
+   * Starts the warm-up of the file when it is opened in an editor.
+   */
+  public static class FileOpenedListener implements FileEditorManagerListener {
+    private final Project project;
+
+    public FileOpenedListener(@NotNull Project project) {
+      this.project = project;
+    }
+
+    @Override
+    public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+      if (ApplicationManager.getApplication().isUnitTestMode() || project.isDisposed()) return;
+      PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+      if (psiFile instanceof HaxeFile) {
+        getInstance(project).schedule(psiFile);
+      }
+    }
+  }
+
+  private boolean isEnabled() {
+    return HaxeProjectSettings.getInstance(project).getHighlightingWarmUpThreads() > 0;
+  }
+
+  private boolean isOpenInEditor(@NotNull PsiFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    return virtualFile != null && FileEditorManager.getInstance(project).isFileOpen(virtualFile);
+  }
+
+  private void scheduleEditedFiles() {
+    for (PsiFile file : new ArrayList<>(editedFiles)) {
+      editedFiles.remove(file);
+      schedule(file);
+    }
+  }
+
+  /**
+   * Evaluates the declarations of the file in the background, replacing a warm-up of the file that is still running.
+   */
+  public void schedule(@NotNull PsiFile file) {
+    if (ApplicationManager.getApplication().isUnitTestMode()) return;
+    int threads = HaxeProjectSettings.getInstance(project).getHighlightingWarmUpThreads();
+    if (threads <= 0) return;
+    ReadAction.nonBlocking(() -> warmUp(file, threads))
+      .inSmartMode(project)
+      .expireWith(this)
+      .expireWhen(() -> !file.isValid())
+      .coalesceBy(this, file)
+      .submit(AppExecutorUtil.getAppExecutorService());
+  }
+
+  /**
+   * Evaluates the declarations of the file, split over {@code threads} lists that are evaluated concurrently.
+   */
+  static void warmUp(@NotNull PsiFile file, int threads) {
+    long start = HaxeMetrics.startTimer();
+    try {
+      List<List<PsiElement>> partitions = partition(collectDeclarations(file), threads);
+      JobLauncher.getInstance().invokeConcurrentlyUnderProgress(partitions, ProgressManager.getInstance().getProgressIndicator(), partition -> {
+        for (PsiElement declaration : partition) {
+          ProgressManager.checkCanceled();
+          boolean completed = ApplicationManagerEx.getApplicationEx().tryRunReadAction(() -> warmUp(declaration));
+          // A write action is waiting: give up, the read action starts over once it is done.
+          if (!completed) throw new ProcessCanceledException();
+          evaluatedDeclarations.increment();
+        }
+        return true;
+      });
+    }
+    finally {
+      HaxeMetrics.recordTime("highlighting.warmUp", start);
+    }
+  }
+
+  @NotNull
+  private static List<PsiElement> collectDeclarations(@NotNull PsiFile file) {
+    List<PsiElement> declarations = new ArrayList<>();
+    PsiTreeUtil.processElements(file, element -> {
+      if (element instanceof HaxeMethod || element instanceof HaxeFieldDeclaration) {
+        declarations.add(element);
+      }
+      return true;
+    });
+    return declarations;
+  }
+
+  /**
+   * @return the declarations dealt round-robin into at most {@code count} lists.
+   */
+  @NotNull
+  private static List<List<PsiElement>> partition(@NotNull List<PsiElement> declarations, int count) {
+    List<List<PsiElement>> partitions = new ArrayList<>();
+    for (int i = 0; i < Math.min(count, declarations.size()); i++) {
+      partitions.add(new ArrayList<>());
+    }
+    for (int i = 0; i < declarations.size(); i++) {
+      partitions.get(i % partitions.size()).add(declarations.get(i));
+    }
+    return partitions;
+  }
+
+  private static void warmUp(@NotNull PsiElement declaration) {
+    if (!declaration.isValid()) return;
+    try {
+      if (declaration instanceof HaxeMethod method) {
+        if (HaxeSemanticAnnotatorConfig.isBodyCheckEnabled(method)) {
+          HaxeMethodBodyAnnotator.warmUp(method);
+        }
+        else {
+          HaxeTypeResolver.getFieldOrMethodReturnType(method, null);
+        }
+      }
+      else if (declaration instanceof HaxeFieldDeclaration field) {
+        PsiElement initializer = getInitializerExpression(field.getVarInit());
+        if (initializer != null) {
+          HaxeTypeResolver.getPsiElementType(initializer, null);
+        }
+      }
+    }
+    catch (RuntimeException e) {
+      if (e instanceof ProcessCanceledException) throw e;
+      // Highlighting will evaluate (and report on) the declaration again; warming up is best effort.
+      log.debug("Could not evaluate " + declaration, e);
+    }
+  }
+
+  @Nullable
+  private static PsiElement getInitializerExpression(@Nullable HaxeVarInit init) {
+    return init == null ? null : init.getExpression();
+  }
+
+  @Override
+  public void dispose() {
+  }
+}
@@ -1,43 +1,193 @@
 package com.intellij.plugins.haxe.ide.annotator.semantics;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.AnnotationSession;
 import com.intellij.lang.annotation.Annotator;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
 import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
 import com.intellij.plugins.haxe.model.HaxeGenericParamModel;
 import com.intellij.plugins.haxe.model.HaxeMethodModel;
+import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorContext;
+import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorProblem;
 import com.intellij.plugins.haxe.model.type.HaxeGenericResolver;
 import com.intellij.plugins.haxe.model.type.HaxeTypeResolver;
 import com.intellij.plugins.haxe.model.type.ResultHolder;
 import com.intellij.plugins.haxe.model.type.SpecificHaxeClassReference;
 import com.intellij.plugins.haxe.model.type.resolver.ResolveSource;
+import com.intellij.plugins.haxe.util.HaxeDeclarationSignatureUtil;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.*;
+
+/**
+ * Evaluates whole method bodies to catch code that sets type parameters of variables and later uses them with
+ * a different type.
+ * <p>
+ * Evaluating a body is expensive, so the problems found are cached on the body together with the text of the body
+ * and the declaration signatures (see {@link HaxeDeclarationSignatureUtil}) of every file the evaluation looked into.
+ * A method is only evaluated again when its body or one of those declarations changed.  The first stale method in
+ * a highlighting pass triggers the evaluation of all stale methods of the file, spread over the available cores.
+ */
 @CustomLog
 public class HaxeMethodBodyAnnotator implements Annotator {
+
+  private static final Key<BodyCheck> BODY_CHECK = Key.create("HAXE_METHOD_BODY_CHECK");
+  private static final Key<Boolean> STALE_METHODS_CHECKED = Key.create("HAXE_METHOD_BODY_STALE_METHODS_CHECKED");
+
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("annotator.HaxeMethodBodyAnnotator.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("annotator.HaxeMethodBodyAnnotator.cache.miss");
+
   /**
-   * Very slow annotator that evaluates all parts of a method block to catches code that sets variables type parameters and annotate
-   * if any other part of the code tries to reassign or use a diffrent type parameter
-   *
-   * @param element to annotate.
-   * @param holder  the container which receives annotations created by the plugin.
+   * @param bodyStamp    hash and length of the body text.
+   * @param dependencies declaration signature stamps of the files the evaluation depends on.
    */
+  private record BodyCheck(long bodyStamp, Map<PsiFile, Long> dependencies, List<HaxeExpressionEvaluatorProblem> problems) {
+
+    boolean isUpToDate(long currentBodyStamp) {
+      if (bodyStamp != currentBodyStamp) return false;
+      for (Map.Entry<PsiFile, Long> dependency : dependencies.entrySet()) {
+        PsiFile file = dependency.getKey();
+        if (!file.isValid() || HaxeDeclarationSignatureUtil.getSignatureStamp(file) != dependency.getValue()) return false;
+      }
+      return true;
+    }
+  }
+
   @Override
   public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
     if (element instanceof HaxeMethod haxeMethod) {
-      if (HaxeSemanticAnnotatorConfig.ENABLE_EXPERIMENTAL_BODY_CHECK) {
+      if (HaxeSemanticAnnotatorConfig.isBodyCheckEnabled(haxeMethod)) {
         checkBody(haxeMethod, holder);
       }
     }
   }
 
-
   public static void checkBody(HaxeMethod psi, AnnotationHolder holder) {
+    PsiElement body = psi.getModel().getBodyPsi();
+    if (body == null) return;
+
+    BodyCheck check = getUpToDateCheck(body);
+    if (check != null) {
+      cacheHits.increment();
+    }
+    else {
+      AnnotationSession session = holder.getCurrentAnnotationSession();
+      if (session.getUserData(STALE_METHODS_CHECKED) == null) {
+        session.putUserData(STALE_METHODS_CHECKED, Boolean.TRUE);
+        checkStaleMethods(psi.getContainingFile());
+        check = getUpToDateCheck(body);
+      }
+      if (check == null) {
+        check = evaluateBody(psi, body);
+      }
+    }
+
+    TextRange methodRange = psi.getTextRange();
+    for (HaxeExpressionEvaluatorProblem problem : check.problems()) {
+      if (problem.element().isValid() && methodRange.contains(problem.element().getTextRange())) {
+        problem.annotate(holder);
+      }
+    }
+  }
+
+  /**
+   * Evaluates, in parallel, the bodies of all methods in the file that have no up-to-date result.
+   */
+  private static void checkStaleMethods(@NotNull PsiFile file) {
+    List<HaxeMethod> staleMethods = new ArrayList<>();
+    for (HaxeMethod method : PsiTreeUtil.findChildrenOfType(file, HaxeMethod.class)) {
+      PsiElement body = method.getModel().getBodyPsi();
+      if (body != null && getUpToDateCheck(body) == null) {
+        staleMethods.add(method);
+      }
+    }
+    if (staleMethods.size() < 2) return;
+
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(staleMethods, ProgressManager.getInstance().getProgressIndicator(), method -> {
+      ProgressManager.checkCanceled();
+      boolean completed = ApplicationManagerEx.getApplicationEx().tryRunReadAction(() -> warmUp(method));
+      // A write action is waiting: give up, highlighting will be restarted once it is done.
+      if (!completed) throw new ProcessCanceledException();
+      return true;
+    });
+  }
+
+  /**
+   * Evaluates the body of the method, unless an up-to-date result is cached, so that highlighting finds it ready.
+   */
+  public static void warmUp(@NotNull HaxeMethod method) {
+    PsiElement body = method.isValid() ? method.getModel().getBodyPsi() : null;
+    if (body != null && getUpToDateCheck(body) == null) {
+      evaluateBody(method, body);
+    }
+  }
+
+  /**
+   * @param dependencies receives the files the evaluation of the body depends on.
+   * @return the problems found in the body of the method, evaluating it unless an up-to-date result is cached.
+   */
+  @NotNull
+  static List<HaxeExpressionEvaluatorProblem> getProblems(@NotNull HaxeMethod method, @NotNull Set<PsiFile> dependencies) {
+    PsiElement body = method.getModel().getBodyPsi();
+    if (body == null) return List.of();
+    BodyCheck check = getUpToDateCheck(body);
+    if (check == null) {
+      check = evaluateBody(method, body);
+    }
+    else {
+      cacheHits.increment();
+    }
+    dependencies.addAll(check.dependencies().keySet());
+    return check.problems();
+  }
+
+  @Nullable
+  private static BodyCheck getUpToDateCheck(@NotNull PsiElement body) {
+    BodyCheck check = body.getUserData(BODY_CHECK);
+    return check != null && check.isUpToDate(getBodyStamp(body)) ? check : null;
+  }
+
+  @NotNull
+  private static BodyCheck evaluateBody(@NotNull HaxeMethod psi, @NotNull PsiElement body) {
+    cacheMisses.increment();
+    long bodyStamp = getBodyStamp(body);
+    List<HaxeExpressionEvaluatorProblem> problems = new ArrayList<>();
+    Set<PsiFile> files = new LinkedHashSet<>();
+    files.add(psi.getContainingFile().getOriginalFile());
+
     final HaxeMethodModel method = psi.getModel();
-    // Note: getPsiElementType runs a number of checks while determining the type.
-    HaxeTypeResolver.getPsiElementType(method.getBodyPsi(), holder, generateConstraintResolver(method));
+    // Note: evaluating the function runs a number of checks while determining the type.
+    HaxeDependencyRecorder.recordDependencies(files, () -> HaxeTypeResolver.evaluateFunction(
+      new HaxeExpressionEvaluatorContext(body, problems), generateConstraintResolver(method)));
+    // A cancelled evaluation may have missed problems; don't let it into the cache.
+    ProgressManager.checkCanceled();
+
+    Map<PsiFile, Long> dependencies = new HashMap<>();
+    for (PsiFile file : files) {
+      dependencies.put(file, HaxeDeclarationSignatureUtil.getSignatureStamp(file));
+    }
+    BodyCheck check = new BodyCheck(bodyStamp, dependencies, List.copyOf(problems));
+    body.putUserData(BODY_CHECK, check);
+    return check;
+  }
+
+  private static long getBodyStamp(@NotNull PsiElement body) {
+    CharSequence text = body.getNode().getChars();
+    return ((long)text.length() << 32) | (StringUtil.stringHashCode(text) & 0xFFFFFFFFL);
   }
 
   @NotNull
@@ -52,4 +202,4 @@ public class HaxeMethodBodyAnnotator implements Annotator {
     }
     return resolver;
   }
-}
\ No newline at end of file
+}
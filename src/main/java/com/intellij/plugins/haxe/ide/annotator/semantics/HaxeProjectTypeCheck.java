@@ -0,0 +1,512 @@
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.analysis.problemsView.FileProblem;
+import com.intellij.analysis.problemsView.ProblemsCollector;
+import com.intellij.analysis.problemsView.ProblemsProvider;
+import com.intellij.icons.AllIcons;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.ProjectActivity;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorProblem;
+import com.intellij.plugins.haxe.util.HaxeDeclarationSignatureUtil;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.*;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import org.jdom.Element;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Type checks every Haxe file of the project in the background, not only those open in an editor, and lists the
+ * problems found in the "Project Errors" tab of the Problems view.
+ * <p>
+ * The check is switched on in the project settings.  It is the method body evaluation of
+ * {@link HaxeMethodBodyAnnotator} (as enabled by its inspection), whose problems are collected as
+ * {@link HaxeExpressionEvaluatorProblem}s; the declaration checks of {@link HaxeSemanticAnnotator} only run with
+ * highlighting.
+ * <p>
+ * Results are kept per file, together with a stamp of the file's content and the declaration signature stamps (see
+ * {@link HaxeDeclarationSignatureUtil}) of the files the check looked into, and are persisted in the project's cache
+ * file.  The first scan (on start) looks at every file; after that, a scan only looks at the files that were edited
+ * and at the files that depend on them, and checks those whose content or dependency stamps changed.  Files being
+ * added, removed or moved make the next scan look at every file again.
+ */
+@State(name = "HaxeProjectTypeCheck", storages = @Storage(StoragePathMacros.CACHE_FILE))
+public class HaxeProjectTypeCheck implements PersistentStateComponent<Element>, Disposable {
+
+  private static final int SCAN_DELAY_MS = 3000;
+  private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("projectTypeCheck.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("projectTypeCheck.cache.miss");
+
+  private record StoredProblem(int line, int column, boolean error, @NotNull String message) {
+  }
+
+  /**
+   * @param contentStamp hash and length of the file's text.
+   * @param dependencies declaration signature stamps of the other files the check depends on, by URL.
+   */
+  private record FileResult(long contentStamp, @NotNull Map<String, Long> dependencies, @NotNull List<StoredProblem> problems) {
+  }
+
+  private final Project project;
+  private final Map<String, FileResult> results = new ConcurrentHashMap<>();
+  private final Map<String, List<TypeCheckProblem>> reported = new HashMap<>();
+  private final AtomicLong changeCount = new AtomicLong();
+  // Edited files, by URL, with the change count of their last edit.
+  private final Map<String, Long> changedFiles = new ConcurrentHashMap<>();
+  // The change count at which a scan of every file was requested, or 0.
+  private final AtomicLong fullScanRequest = new AtomicLong(changeCount.incrementAndGet());
+  private final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Haxe Project Type Check", THREADS);
+  private final Alarm scanAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+  private final ProblemsProvider provider = new ProblemsProvider() {
+    @NotNull
+    @Override
+    public Project getProject() {
+      return project;
+    }
+
+    @Override
+    public void dispose() {
+    }
+  };
+
+  public HaxeProjectTypeCheck(@NotNull Project project) {
+    this.project = project;
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+
+      @Override
+      public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        changed(event);
+      }
+    }, this);
+  }
+
+  private void changed(@NotNull PsiTreeChangeEvent event) {
+    PsiFile file = event.getFile();
+    if (file != null) {
+      VirtualFile virtualFile = file.getVirtualFile();
+      if (!(file instanceof HaxeFile) || virtualFile == null) return;
+      changedFiles.put(virtualFile.getUrl(), changeCount.incrementAndGet());
+    }
+    else if (event.getChild() instanceof HaxeFile || event.getOldChild() instanceof HaxeFile
+             || event.getNewChild() instanceof HaxeFile || event.getElement() instanceof HaxeFile) {
+      fullScanRequest.set(changeCount.incrementAndGet());
+    }
+    else {
+      return;
+    }
+    scheduleScan();
+  }
+
+  public static HaxeProjectTypeCheck getInstance(@NotNull Project project) {
+    return project.getService(HaxeProjectTypeCheck.class);
+  }
+
+  /**
+   * Starts the first scan once indexing is done.
+   */
+  public static class ScanOnStartup implements ProjectActivity {
+    @Nullable
+    @Override
+    public Object execute(@NotNull Project project, @NotNull Continuation<? super Unit> continuation) {
+      if (HaxeSemanticAnnotatorConfig.isProjectTypeCheckEnabled(project)) {
+        DumbService.getInstance(project).runWhenSmart(() -> getInstance(project).scheduleScan());
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Checks the files that have no up-to-date result, after a short delay that lets consecutive edits settle.
+   */
+  public void scheduleScan() {
+    if (!HaxeSemanticAnnotatorConfig.isProjectTypeCheckEnabled(project)) return;
+    scanAlarm.cancelAllRequests();
+    scanAlarm.addRequest(this::scan, SCAN_DELAY_MS);
+  }
+
+  /**
+   * Follows the project setting: switching the check on scans every file, switching it off removes the problems it
+   * listed.  Stored results are kept for when it is switched on again.
+   */
+  public void settingsChanged() {
+    if (HaxeSemanticAnnotatorConfig.isProjectTypeCheckEnabled(project)) {
+      fullScanRequest.set(changeCount.incrementAndGet());
+      scheduleScan();
+    }
+    else {
+      scanAlarm.cancelAllRequests();
+      for (String url : reportedUrls()) {
+        report(url, null, null);
+      }
+    }
+  }
+
+  @NotNull
+  private synchronized List<String> reportedUrls() {
+    return new ArrayList<>(reported.keySet());
+  }
+
+  private void scan() {
+    long fullScan = fullScanRequest.get();
+    Map<String, Long> changed = Map.copyOf(changedFiles);
+    ReadAction.nonBlocking(() -> findStaleFiles(fullScan != 0, changed.keySet()))
+      .inSmartMode(project)
+      .expireWith(this)
+      .coalesceBy(this)
+      .submit(executor)
+      .onSuccess(staleFiles -> {
+        scanned(fullScan, changed);
+        staleFiles.forEach(this::check);
+      });
+  }
+
+  /**
+   * Scans and checks the stale files on the calling thread, instead of waiting for a scheduled scan.
+   */
+  @TestOnly
+  void scanNow() {
+    scanAlarm.cancelAllRequests();
+    long fullScan = fullScanRequest.get();
+    Map<String, Long> changed = Map.copyOf(changedFiles);
+    List<VirtualFile> staleFiles = ReadAction.compute(() -> findStaleFiles(fullScan != 0, changed.keySet()));
+    scanned(fullScan, changed);
+    for (VirtualFile file : staleFiles) {
+      checked(file, ReadAction.compute(() -> checkFile(file)));
+    }
+  }
+
+  /**
+   * Forgets the changes a scan has looked at, unless there were newer ones in the meantime.
+   */
+  private void scanned(long fullScan, @NotNull Map<String, Long> changed) {
+    fullScanRequest.compareAndSet(fullScan, 0);
+    changed.forEach(changedFiles::remove);
+  }
+
+  @NotNull
+  private List<VirtualFile> findStaleFiles(boolean fullScan, @NotNull Set<String> changed) {
+    return fullScan ? findAllStaleFiles() : findStaleFiles(changed);
+  }
+
+  @NotNull
+  private List<VirtualFile> findAllStaleFiles() {
+    Set<String> urls = new HashSet<>();
+    List<VirtualFile> staleFiles = new ArrayList<>();
+    for (VirtualFile file : FileTypeIndex.getFiles(HaxeFileType.INSTANCE, GlobalSearchScope.projectScope(project))) {
+      ProgressManager.checkCanceled();
+      urls.add(file.getUrl());
+      if (isStale(file)) {
+        staleFiles.add(file);
+      }
+    }
+    // Files that were deleted or are no longer part of the project.
+    for (String url : new ArrayList<>(results.keySet())) {
+      if (!urls.contains(url)) {
+        results.remove(url);
+        report(url, null, null);
+      }
+    }
+    return staleFiles;
+  }
+
+  /**
+   * @return those of the changed files, and of the files depending on them, whose results are not up to date.
+   */
+  @NotNull
+  private List<VirtualFile> findStaleFiles(@NotNull Set<String> changed) {
+    if (changed.isEmpty()) return List.of();
+    Set<String> candidates = new LinkedHashSet<>(changed);
+    for (Map.Entry<String, FileResult> entry : results.entrySet()) {
+      for (String dependency : entry.getValue().dependencies().keySet()) {
+        if (changed.contains(dependency)) {
+          candidates.add(entry.getKey());
+          break;
+        }
+      }
+    }
+
+    GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+    List<VirtualFile> staleFiles = new ArrayList<>();
+    for (String url : candidates) {
+      ProgressManager.checkCanceled();
+      VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(url);
+      if (file == null || !scope.contains(file)) {
+        if (results.remove(url) != null) report(url, null, null);
+      }
+      else if (isStale(file)) {
+        staleFiles.add(file);
+      }
+    }
+    return staleFiles;
+  }
+
+  private boolean isStale(@NotNull VirtualFile file) {
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    FileResult result = results.get(file.getUrl());
+    if (psiFile != null && result != null && isUpToDate(result, psiFile)) {
+      cacheHits.increment();
+      report(file.getUrl(), file, result);
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isUpToDate(@NotNull FileResult result, @NotNull PsiFile file) {
+    if (result.contentStamp() != HaxeDeclarationSignatureUtil.getContentStamp(file)) return false;
+    PsiManager psiManager = PsiManager.getInstance(project);
+    for (Map.Entry<String, Long> dependency : result.dependencies().entrySet()) {
+      VirtualFile virtualFile = VirtualFileManager.getInstance().findFileByUrl(dependency.getKey());
+      PsiFile dependencyFile = virtualFile == null ? null : psiManager.findFile(virtualFile);
+      if (dependencyFile == null || HaxeDeclarationSignatureUtil.getSignatureStamp(dependencyFile) != dependency.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void check(@NotNull VirtualFile file) {
+    ReadAction.nonBlocking(() -> checkFile(file))
+      .inSmartMode(project)
+      .expireWith(this)
+      .expireWhen(() -> !file.isValid())
+      .coalesceBy(this, file)
+      .submit(executor)
+      .onSuccess(result -> checked(file, result));
+  }
+
+  private void checked(@NotNull VirtualFile file, @Nullable FileResult result) {
+    if (result != null) {
+      results.put(file.getUrl(), result);
+      // A check that was running when the setting was switched off doesn't list anything.
+      if (HaxeSemanticAnnotatorConfig.isProjectTypeCheckEnabled(project)) report(file.getUrl(), file, result);
+    }
+  }
+
+  @Nullable
+  private FileResult checkFile(@NotNull VirtualFile file) {
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    if (!(psiFile instanceof HaxeFile)) return null;
+    cacheMisses.increment();
+    long start = HaxeMetrics.startTimer();
+    try {
+      Document document = PsiDocumentManager.getInstance(project).getDocument(psiFile);
+      Set<PsiFile> dependencies = new LinkedHashSet<>();
+      List<StoredProblem> problems = new ArrayList<>();
+      for (HaxeMethod method : PsiTreeUtil.findChildrenOfType(psiFile, HaxeMethod.class)) {
+        ProgressManager.checkCanceled();
+        if (!HaxeSemanticAnnotatorConfig.isBodyCheckEnabled(method)) continue;
+        for (HaxeExpressionEvaluatorProblem problem : HaxeMethodBodyAnnotator.getProblems(method, dependencies)) {
+          if (problem.element().isValid()) {
+            addProblem(problems, problem.severity(), problem.message(), problem.element().getTextRange().getStartOffset(), document);
+          }
+        }
+      }
+
+      Map<String, Long> dependencyStamps = new HashMap<>();
+      for (PsiFile dependency : dependencies) {
+        VirtualFile virtualFile = dependency.getOriginalFile().getVirtualFile();
+        if (virtualFile != null && !virtualFile.equals(file)) {
+          dependencyStamps.put(virtualFile.getUrl(), HaxeDeclarationSignatureUtil.getSignatureStamp(dependency));
+        }
+      }
+      return new FileResult(HaxeDeclarationSignatureUtil.getContentStamp(psiFile), dependencyStamps, List.copyOf(problems));
+    }
+    finally {
+      HaxeMetrics.recordTime("projectTypeCheck.file", start);
+    }
+  }
+
+  private static void addProblem(@NotNull List<StoredProblem> problems, @NotNull HighlightSeverity severity, @Nullable String message,
+                                 int offset, @Nullable Document document) {
+    if (message == null || severity.compareTo(HighlightSeverity.WARNING) < 0) return;
+    int line = -1;
+    int column = -1;
+    if (document != null) {
+      offset = Math.min(offset, document.getTextLength());
+      line = document.getLineNumber(offset);
+      column = offset - document.getLineStartOffset(line);
+    }
+    StoredProblem problem = new StoredProblem(line, column, severity.compareTo(HighlightSeverity.ERROR) >= 0, message);
+    if (!problems.contains(problem)) {
+      problems.add(problem);
+    }
+  }
+
+  /**
+   * Replaces the problems listed for the file with those of the result; a null result removes them.
+   */
+  private synchronized void report(@NotNull String url, @Nullable VirtualFile file, @Nullable FileResult result) {
+    List<TypeCheckProblem> problems = new ArrayList<>();
+    if (file != null && result != null) {
+      for (StoredProblem problem : result.problems()) {
+        problems.add(new TypeCheckProblem(provider, file, problem));
+      }
+    }
+    List<TypeCheckProblem> previous = problems.isEmpty() ? reported.remove(url) : reported.put(url, problems);
+    if (previous == null && problems.isEmpty()) return;
+
+    ProblemsCollector collector = project.getService(ProblemsCollector.class);
+    if (previous != null) {
+      for (TypeCheckProblem problem : previous) {
+        if (!problems.contains(problem)) collector.problemDisappeared(problem);
+      }
+    }
+    for (TypeCheckProblem problem : problems) {
+      if (previous == null || !previous.contains(problem)) collector.problemAppeared(problem);
+    }
+  }
+
+  private record TypeCheckProblem(@NotNull ProblemsProvider provider, @NotNull VirtualFile file, @NotNull StoredProblem problem)
+    implements FileProblem {
+
+    @NotNull
+    @Override
+    public ProblemsProvider getProvider() {
+      return provider;
+    }
+
+    @NotNull
+    @Override
+    public VirtualFile getFile() {
+      return file;
+    }
+
+    @Override
+    public int getLine() {
+      return problem.line();
+    }
+
+    @Override
+    public int getColumn() {
+      return problem.column();
+    }
+
+    @NotNull
+    @Override
+    public String getText() {
+      return problem.message();
+    }
+
+    @Nullable
+    @Override
+    public String getGroup() {
+      return null;
+    }
+
+    @Nullable
+    @Override
+    public String getDescription() {
+      return null;
+    }
+
+    @NotNull
+    @Override
+    public Icon getIcon() {
+      return problem.error() ? AllIcons.General.Error : AllIcons.General.Warning;
+    }
+  }
+
+  @Override
+  public Element getState() {
+    Element state = new Element("state");
+    for (Map.Entry<String, FileResult> entry : results.entrySet()) {
+      FileResult result = entry.getValue();
+      Element fileElement = new Element("file")
+        .setAttribute("url", entry.getKey())
+        .setAttribute("stamp", String.valueOf(result.contentStamp()));
+      result.dependencies().forEach((url, stamp) -> fileElement.addContent(
+        new Element("dependency").setAttribute("url", url).setAttribute("stamp", String.valueOf(stamp))));
+      for (StoredProblem problem : result.problems()) {
+        fileElement.addContent(new Element("problem")
+                                 .setAttribute("line", String.valueOf(problem.line()))
+                                 .setAttribute("column", String.valueOf(problem.column()))
+                                 .setAttribute("error", String.valueOf(problem.error()))
+                                 .setAttribute("message", problem.message()));
+      }
+      state.addContent(fileElement);
+    }
+    return state;
+  }
+
+  @Override
+  public void loadState(@NotNull Element state) {
+    results.clear();
+    for (Element fileElement : state.getChildren("file")) {
+      String url = fileElement.getAttributeValue("url");
+      if (url == null) continue;
+      Map<String, Long> dependencies = new HashMap<>();
+      for (Element dependency : fileElement.getChildren("dependency")) {
+        String dependencyUrl = dependency.getAttributeValue("url");
+        if (dependencyUrl != null) {
+          dependencies.put(dependencyUrl, StringUtil.parseLong(dependency.getAttributeValue("stamp"), 0));
+        }
+      }
+      List<StoredProblem> problems = new ArrayList<>();
+      for (Element problem : fileElement.getChildren("problem")) {
+        problems.add(new StoredProblem(StringUtil.parseInt(problem.getAttributeValue("line"), -1),
+                                       StringUtil.parseInt(problem.getAttributeValue("column"), -1),
+                                       Boolean.parseBoolean(problem.getAttributeValue("error")),
+                                       StringUtil.notNullize(problem.getAttributeValue("message"))));
+      }
+      results.put(url, new FileResult(StringUtil.parseLong(fileElement.getAttributeValue("stamp"), 0), dependencies, problems));
+    }
+  }
+
+  @Override
+  public void dispose() {
+    executor.shutdownNow();
+  }
+}
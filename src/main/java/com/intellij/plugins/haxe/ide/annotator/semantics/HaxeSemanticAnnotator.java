@@ -0,0 +1,104 @@
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.Annotator;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs all semantic checks for Haxe in a single annotator.
+ * <p>
+ * Instead of every semantic annotator being called for every element and doing its own {@code instanceof} tests,
+ * the checks are registered once against the PSI type they apply to, and each concrete PSI class is mapped to the
+ * checks that apply to it the first time it is seen.  The time spent in each check is recorded under
+ * {@code annotator.<check>}.
+ * <p>
+ * The individual annotator classes remain usable on their own; this class only replaces their registration.
+ */
+public class HaxeSemanticAnnotator implements Annotator, DumbAware {
+
+  @FunctionalInterface
+  private interface Check<T extends PsiElement> {
+    void check(@NotNull T element, @NotNull AnnotationHolder holder);
+  }
+
+  private record Registration<T extends PsiElement>(@NotNull String metricName, @NotNull Class<T> type, boolean dumbAware,
+                                                    @NotNull Check<? super T> check) {
+    void run(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+      long start = HaxeMetrics.startTimer();
+      try {
+        check.check(type.cast(element), holder);
+      }
+      finally {
+        HaxeMetrics.recordTime(metricName, start);
+      }
+    }
+  }
+
+  private static final HaxeStringAnnotator STRING_ANNOTATOR = new HaxeStringAnnotator();
+  private static final HaxeIsTypeExpressionAnnotator IS_TYPE_ANNOTATOR = new HaxeIsTypeExpressionAnnotator();
+
+  // Registration order is the order the separate annotators used to run in.
+  private static final List<Registration<?>> CHECKS = List.of(
+    dumbAware("HaxeStringAnnotator", HaxeStringLiteralExpression.class, STRING_ANNOTATOR::check),
+    smart("HaxeLocalVarAnnotator", HaxeLocalVarDeclaration.class, HaxeLocalVarAnnotator::check),
+    smart("HaxeFieldAnnotator", HaxeFieldDeclaration.class, HaxeFieldAnnotator::check),
+    smart("HaxeTypeAnnotator", HaxeType.class, HaxeTypeAnnotator::check),
+    smart("HaxeAbstractClassAnnotator", HaxeClass.class, HaxeAbstractClassAnnotator::checkClass),
+    smart("HaxeAbstractClassAnnotator", HaxeMethod.class, HaxeAbstractClassAnnotator::checkMethod),
+    smart("HaxeClassAnnotator", HaxeClass.class, HaxeClassAnnotator::check),
+    smart("HaxeMethodAnnotator", HaxeMethod.class, HaxeMethodAnnotator::check),
+    dumbAware("HaxeIsTypeExpressionAnnotator", HaxeIsTypeExpression.class, IS_TYPE_ANNOTATOR::check),
+    smart("HaxeAssignExpressionAnnotator", HaxeAssignExpression.class, HaxeAssignExpressionAnnotator::check),
+    smart("HaxeCallExpressionAnnotator", HaxeCallExpression.class, HaxeCallExpressionAnnotator::check),
+    smart("HaxeCallExpressionAnnotator", HaxeNewExpression.class, HaxeCallExpressionAnnotator::check),
+    smart("HaxePackageAnnotator", HaxePackageStatement.class, HaxePackageAnnotator::check),
+    smart("HaxeTypeCheckExprAnnotator", HaxeTypeCheckExpr.class, HaxeTypeCheckExprAnnotator::check),
+    smart("HaxeBinaryExpressionAnnotator", HaxeBinaryExpression.class, (expression, holder) -> {
+      if (HaxeBinaryExpressionAnnotator.isChecked(expression)) HaxeBinaryExpressionAnnotator.check(expression, holder);
+    }),
+    smart("HaxeDefaultTypeParameterAnnotator", HaxeGenericListPart.class, HaxeDefaultTypeParameterAnnotator::check)
+  );
+
+  private static final Registration<?>[] NO_CHECKS = new Registration<?>[0];
+
+  private static final ClassValue<Registration<?>[]> DISPATCH = new ClassValue<>() {
+    @Override
+    protected Registration<?>[] computeValue(Class<?> elementClass) {
+      List<Registration<?>> applicable = new ArrayList<>();
+      for (Registration<?> registration : CHECKS) {
+        if (registration.type().isAssignableFrom(elementClass)) {
+          applicable.add(registration);
+        }
+      }
+      return applicable.isEmpty() ? NO_CHECKS : applicable.toArray(NO_CHECKS);
+    }
+  };
+
+  private static <T extends PsiElement> Registration<T> smart(String name, Class<T> type, Check<? super T> check) {
+    return new Registration<>("annotator." + name, type, false, check);
+  }
+
+  private static <T extends PsiElement> Registration<T> dumbAware(String name, Class<T> type, Check<? super T> check) {
+    return new Registration<>("annotator." + name, type, true, check);
+  }
+
+  @Override
+  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+    Registration<?>[] checks = DISPATCH.get(element.getClass());
+    if (checks.length == 0) return;
+
+    boolean dumb = DumbService.isDumb(element.getProject());
+    for (Registration<?> registration : checks) {
+      if (dumb && !registration.dumbAware()) continue;
+      registration.run(element, holder);
+    }
+  }
+}
@@ -1,6 +1,5 @@
 package com.intellij.plugins.haxe.ide.completion;
 
-import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResult;
 import com.intellij.codeInsight.completion.PrioritizedLookupElement;
 import com.intellij.codeInsight.lookup.LookupElement;
@@ -12,37 +11,58 @@ import com.intellij.plugins.haxe.model.*;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
 import com.intellij.plugins.haxe.model.type.*;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static com.intellij.plugins.haxe.ide.completion.HaxeCommonCompletionPattern.identifierInNewExpression;
 import static com.intellij.plugins.haxe.ide.lookup.HaxeCompletionPriorityData.*;
 
 public class HaxeCompletionPriorityUtil {
 
-  public static Set<CompletionResult> calculatePriority(Set<CompletionResult> completions, CompletionParameters parameters) {
-    // ignore any completion that does not implement boost
-    List<HaxeLookupElement> lookupList =
-      completions.stream().filter(result -> result.getLookupElement() instanceof HaxeLookupElement)
-        .map(result -> (HaxeLookupElement)result.getLookupElement())
-        .toList();
+  /**
+   * Adjusts the priority of one lookup element for the completion position the ranker was created for.
+   */
+  interface Ranker {
+    /**
+     * @param evaluateTypes false once the time budget for ranking has been spent: the element's type is then not
+     *                      evaluated, and only the adjustments that don't depend on it are made.
+     */
+    void rank(@NotNull HaxeLookupElement element, boolean evaluateTypes);
+  }
+
+  /**
+   * @return whether the position is the class name of a {@code new} expression, where only constructors are offered.
+   */
+  public static boolean isConstructorPosition(@NotNull PsiElement position) {
+    return identifierInNewExpression.accepts(position);
+  }
 
-    PsiElement position = parameters.getPosition();
-    if (identifierInNewExpression.accepts(position)) {
-      return prioritizeConstructorsRemoveOtherMembers(completions);
+  /**
+   * Works out, once per completion position, how lookup elements should be ranked there.  The returned rankers are
+   * applied to each element separately, so elements can be ranked lazily as the lookup sorts them.
+   */
+  @NotNull
+  static List<Ranker> createRankers(@NotNull PsiElement position) {
+    if (isConstructorPosition(position)) {
+      return List.of((element, evaluateTypes) -> prioritizeConstructors(element));
     }
     // is argument (get parameter type)
-    boolean sorted = false;
-    if (!sorted) sorted = trySortForExtends(position, lookupList);
-    if (!sorted) sorted = trySortForArgument(position, lookupList); // NOTE TO SELF: function keyword if parameter is function typ
-    if (!sorted) sorted = trySortForAssign(position, lookupList);
-    if (!sorted) sorted = trySortForLoops(position, lookupList);
-    if (!sorted) sorted = trySortForIf(position, lookupList);
-    if (!sorted) sorted = trySortForBlock(position, lookupList);
+    Ranker exclusive = extendsRanker(position);
+    if (exclusive == null) exclusive = argumentRanker(position); // NOTE TO SELF: function keyword if parameter is function typ
+    if (exclusive != null) return List.of(exclusive);
+
+    List<Ranker> rankers = new ArrayList<>();
+    rankers.add(assignRanker(position));
+    Ranker context = loopRanker(position);
+    if (context == null) context = ifRanker(position);
+    if (context == null) context = blockRanker(position);
+    if (context != null) rankers.add(context);
 
     //TODO WiP
     //TODO support functionType reference ?
@@ -50,10 +70,54 @@ public class HaxeCompletionPriorityUtil {
     // is switch block (find expression type, prioritize type)
     //  - if enumvalue  compare  declaring class with type
 
-    return completions;
+    return rankers;
+  }
+
+  /**
+   * The result type of a member.  Types of class fields and methods are cached per declaring class until the next
+   * PSI change, so the members of a class are only evaluated once however many completions list them.
+   */
+  @NotNull
+  static ResultHolder getResultType(@NotNull HaxeBaseMemberModel model) {
+    return getCachedType(model, "", () -> model.getResultType(null));
+  }
+
+  /**
+   * The function type of a method; cached like {@link #getResultType(HaxeBaseMemberModel)}.
+   */
+  @NotNull
+  static ResultHolder getFunctionType(@NotNull HaxeMethodModel model) {
+    return getCachedType(model, "()", () -> model.getFunctionType(null).createHolder());
+  }
+
+  @NotNull
+  private static ResultHolder getCachedType(@NotNull HaxeBaseMemberModel model, @NotNull String kind,
+                                            @NotNull Supplier<ResultHolder> evaluate) {
+    // Local variables and parameters are not unique by name within a class.
+    HaxeClassModel declaringClass = model instanceof HaxeFieldModel || model instanceof HaxeMethodModel
+                                    ? model.getDeclaringClass() : null;
+    PsiElement classPsi = declaringClass != null ? declaringClass.getBasePsi() : null;
+    if (classPsi == null) return evaluate.get();
+
+    Map<String, ResultHolder> types =
+      CachedValuesManager.getProjectPsiDependentCache(classPsi, HaxeCompletionPriorityUtil::createMemberTypeCache);
+    String key = model.getName() + kind;
+    ResultHolder type = types.get(key);
+    if (type == null) {
+      type = evaluate.get();
+      if (type != null) type = Objects.requireNonNullElse(types.putIfAbsent(key, type), type);
+    }
+    // Callers may change the holder they get; the cached one is shared by every completion.
+    return type != null ? type.duplicate() : null;
+  }
+
+  @NotNull
+  private static Map<String, ResultHolder> createMemberTypeCache(@NotNull PsiElement classPsi) {
+    return new ConcurrentHashMap<>();
   }
 
-  private static boolean trySortForAssign(PsiElement position, List<HaxeLookupElement> list) {
+  @NotNull
+  private static Ranker assignRanker(PsiElement position) {
     HaxeReferenceExpression reference = PsiTreeUtil.getParentOfType(position, HaxeReferenceExpression.class);
     ResultHolder assignToType = null;
 
@@ -71,69 +135,81 @@ public class HaxeCompletionPriorityUtil {
       }
     }
 
-    for (HaxeLookupElement element : list) {
+    ResultHolder finalAssignToType = assignToType;
+    return (element, evaluateTypes) -> {
       if (element instanceof HaxeMemberLookupElement memberLookup) {
         HaxeBaseMemberModel model = memberLookup.getModel();
         if (model != null) {
-          if (assignToType != null && !assignToType.isUnknown()) {
-            SpecificTypeReference lookupType;
-            if (memberLookup.isFunctionType() && model instanceof HaxeMethodModel methodModel) {
-              lookupType = methodModel.getFunctionType(null);
-            }else {
-              lookupType = model.getResultType(null).getType();
+          if (finalAssignToType != null && !finalAssignToType.isUnknown()) {
+            if (evaluateTypes) {
+              rankAssignable(memberLookup, model, finalAssignToType);
             }
-            if (lookupType.canAssign(assignToType)) {
-              memberLookup.getPriority().type += 0.5;
-              if (lookupType.isAny() || lookupType.isDynamic()){
-                memberLookup.getPriority().type -=0.1;// prefer more concrete types
-              }
-            }
-            if (memberLookup.isFunctionType() && assignToType.isFunctionType()) {
+            if (memberLookup.isFunctionType() && finalAssignToType.isFunctionType()) {
               element.getPriority().type += FUNCTION_TYPE;
             }
           }
 
-          if (model instanceof HaxeLocalVarModel || model instanceof HaxeParameterModel) {
-            element.getPriority().type += LOCAL_VAR;
-          }
-
-          if (model instanceof HaxeFieldModel) {
-            element.getPriority().type += FIELD;
-          }
-
-          if (model instanceof HaxeMethodModel) {
-            element.getPriority().type += METHOD;
-          }
+          rankMemberKind(element, model);
         }
       }
+    };
+  }
+
+  private static void rankAssignable(@NotNull HaxeMemberLookupElement memberLookup, @NotNull HaxeBaseMemberModel model,
+                                     @NotNull ResultHolder assignToType) {
+    SpecificTypeReference lookupType;
+    if (memberLookup.isFunctionType() && model instanceof HaxeMethodModel methodModel) {
+      lookupType = getFunctionType(methodModel).getType();
+    }else {
+      lookupType = getResultType(model).getType();
+    }
+    if (lookupType.canAssign(assignToType)) {
+      memberLookup.getPriority().type += 0.5;
+      if (lookupType.isAny() || lookupType.isDynamic()){
+        memberLookup.getPriority().type -=0.1;// prefer more concrete types
+      }
+    }
+  }
+
+  private static void rankMemberKind(@NotNull HaxeLookupElement element, @NotNull HaxeBaseMemberModel model) {
+    if (model instanceof HaxeLocalVarModel || model instanceof HaxeParameterModel) {
+      element.getPriority().type += LOCAL_VAR;
+    }
+
+    if (model instanceof HaxeFieldModel) {
+      element.getPriority().type += FIELD;
+    }
+
+    if (model instanceof HaxeMethodModel) {
+      element.getPriority().type += METHOD;
     }
-    return false;
   }
 
-  private static boolean trySortForBlock(PsiElement position, List<HaxeLookupElement> list) {
+  @Nullable
+  private static Ranker blockRanker(PsiElement position) {
     HaxeReferenceExpression reference = PsiTreeUtil.getParentOfType(position, HaxeReferenceExpression.class);
-    if (reference != null && reference.getParent() instanceof HaxeBlockStatement blockStatement) {
-      for (HaxeLookupElement element : list) {
+    if (reference != null && reference.getParent() instanceof HaxeBlockStatement) {
+      return (element, evaluateTypes) -> {
         if (element instanceof HaxeMemberLookupElement memberLookup) {
           if (memberLookup.isFunctionType()) {
             // its less likely we want a functionType and more likely we want the call expression
             memberLookup.getPriority().type -= 0.5;
           }
         }
-      }
-      return true;
+      };
     }
-    return false;
+    return null;
   }
 
-  private static boolean trySortForIf(PsiElement position, List<HaxeLookupElement> list) {
+  @Nullable
+  private static Ranker ifRanker(PsiElement position) {
     HaxeReferenceExpression reference = PsiTreeUtil.getParentOfType(position, HaxeReferenceExpression.class);
     if (reference != null && reference.getParent() instanceof HaxeGuard) {
-      for (HaxeLookupElement element : list) {
-        if (element instanceof  HaxeMemberLookupElement memberLookup) {
+      return (element, evaluateTypes) -> {
+        if (evaluateTypes && element instanceof  HaxeMemberLookupElement memberLookup) {
           HaxeBaseMemberModel model = memberLookup.getModel();
           if (model != null) {
-            ResultHolder type = model.getResultType(null);
+            ResultHolder type = getResultType(model);
             if (type.isClassType()) {
               if (type.getClassType().isBool()) {
                 memberLookup.getPriority().assignable += 3;
@@ -141,20 +217,20 @@ public class HaxeCompletionPriorityUtil {
             }
           }
         }
-      }
-      return true;
+      };
     }
-    return false;
+    return null;
   }
 
-  private static boolean trySortForLoops(PsiElement position, List<HaxeLookupElement> list) {
+  @Nullable
+  private static Ranker loopRanker(PsiElement position) {
     HaxeIterable iterable = PsiTreeUtil.getParentOfType(position, HaxeIterable.class);
     if (iterable != null) {
-      for (HaxeLookupElement element : list) {
-        if (element instanceof  HaxeMemberLookupElement memberLookup) {
+      return (element, evaluateTypes) -> {
+        if (evaluateTypes && element instanceof  HaxeMemberLookupElement memberLookup) {
           HaxeBaseMemberModel model = memberLookup.getModel();
           if (model != null) {
-            ResultHolder type = model.getResultType(null);
+            ResultHolder type = getResultType(model);
             if (type.isClassType()) {
               SpecificHaxeClassReference classType = type.getClassType();
               ResultHolder iterableType = classType.getIterableElementType(null);
@@ -164,10 +240,9 @@ public class HaxeCompletionPriorityUtil {
             }
           }
         }
-      }
-      return true;
+      };
     }
-    return false;
+    return null;
   }
 
   private boolean hasIterator(HaxeReference reference) {
@@ -190,48 +265,48 @@ public class HaxeCompletionPriorityUtil {
    *   - if part of an interface, prioritize other interfaces to extend
    *   - if part of class,  prioritize classes if in extends, and interfaces in implements lists
    */
-  private static boolean trySortForExtends(PsiElement position, List<HaxeLookupElement> list) {
+  @Nullable
+  private static Ranker extendsRanker(PsiElement position) {
     HaxeInheritList inheritList = PsiTreeUtil.getParentOfType(position, HaxeInheritList.class);
     if (inheritList != null) {
       HaxeClassDeclaration classDeclaration = PsiTreeUtil.getParentOfType(inheritList, HaxeClassDeclaration.class);
       if (classDeclaration != null) {
         HaxeExtendsDeclaration extendsDeclaration = PsiTreeUtil.getParentOfType(position, HaxeExtendsDeclaration.class);
         if (extendsDeclaration != null) {
-          list.stream()
-            .filter(element -> element instanceof  HaxePsiLookupElement lookupElement && lookupElement.getType() == HaxeComponentType.CLASS)
-            .forEach(element -> element.getPriority().type += 1);
-          return true;
+          return componentTypeRanker(HaxeComponentType.CLASS);
         }
         HaxeImplementsDeclaration implementsDeclaration = PsiTreeUtil.getParentOfType(position, HaxeImplementsDeclaration.class);
         if (implementsDeclaration != null) {
-          list.stream()
-            .filter(element -> element instanceof  HaxePsiLookupElement lookupElement && lookupElement.getType() == HaxeComponentType.INTERFACE)
-            .forEach(element -> element.getPriority().type += 1);
-          return true;
+          return componentTypeRanker(HaxeComponentType.INTERFACE);
         }
       }else {
-        list.stream()
-          .filter(element -> element instanceof  HaxePsiLookupElement lookupElement && lookupElement.getType() == HaxeComponentType.INTERFACE)
-          .forEach(element -> element.getPriority().type += 1);
-        return true;
+        return componentTypeRanker(HaxeComponentType.INTERFACE);
       }
     }
-    return false;
+    return null;
   }
 
-  private static Set<CompletionResult> prioritizeConstructorsRemoveOtherMembers(Set<CompletionResult> completions) {
-    Stream<CompletionResult>  constructors =  completions.stream()
-      .filter(result -> result.getLookupElement() instanceof HaxeConstructorLookupElement)
-      .peek(result -> ((HaxeConstructorLookupElement)result.getLookupElement()).getPriority().type += 1);
-    Stream<CompletionResult> others =  completions.stream().filter(result -> !(result.getLookupElement() instanceof HaxeLookupElement));
-    return Stream.concat(constructors, others).collect(Collectors.toSet());
+  @NotNull
+  private static Ranker componentTypeRanker(@NotNull HaxeComponentType componentType) {
+    return (element, evaluateTypes) -> {
+      if (element instanceof  HaxePsiLookupElement lookupElement && lookupElement.getType() == componentType) {
+        element.getPriority().type += 1;
+      }
+    };
   }
 
-  private static boolean trySortForArgument(PsiElement position, List<HaxeLookupElement> lookupElements) {
+  private static void prioritizeConstructors(HaxeLookupElement element) {
+    if (element instanceof HaxeConstructorLookupElement constructorLookupElement) {
+      constructorLookupElement.getPriority().type += 1;
+    }
+  }
+
+  @Nullable
+  private static Ranker argumentRanker(PsiElement position) {
     HaxeCallExpression callExpression = PsiTreeUtil.getParentOfType(position, HaxeCallExpression.class, true, HaxeNewExpression.class);
     HaxeNewExpression newExpression = PsiTreeUtil.getParentOfType(position, HaxeNewExpression.class, true, HaxeCallExpression.class);
 
-    if (newExpression == null &&  callExpression == null) return false;
+    if (newExpression == null &&  callExpression == null) return null;
 
     int argumentIndex = 0;
     HaxeCallExpressionUtil.CallExpressionValidation validation = null;
@@ -248,10 +323,9 @@ public class HaxeCompletionPriorityUtil {
       boolean completeType = newExpression.getType().textMatches(position);
       // if completing type name
       if (completeType) {
-        lookupElements.stream()
-          .filter(element -> element instanceof HaxeClassLookupElement)
-          .forEach(e -> e.getPriority().type += 1);
-        return true;
+        return (element, evaluateTypes) -> {
+          if (element instanceof HaxeClassLookupElement) element.getPriority().type += 1;
+        };
       }else {
         // else if completing parameters
         validation = HaxeCallExpressionUtil.checkConstructor(newExpression);
@@ -261,14 +335,17 @@ public class HaxeCompletionPriorityUtil {
     if (validation!= null) {
       List<ResultHolder> parameterTypes = List.copyOf(validation.getParameterIndexToType().values());
       List<String> names = validation.getParameterNames();
+      int finalArgumentIndex = argumentIndex;
 
-
-      for (int i = 0; i < lookupElements.size(); i++) {
-        HaxeLookupElement element = lookupElements.get(i);
-
+      return (element, evaluateTypes) -> {
         if (element instanceof HaxePackageLookupElement lookupElement) lookupElement.getPriority().type -= 0.1;
         if (element instanceof HaxeMemberLookupElement memberLookupElement) {
-          memberCalculation(memberLookupElement, names, parameterTypes, argumentIndex);
+          if (evaluateTypes) {
+            memberCalculation(memberLookupElement, names, parameterTypes, finalArgumentIndex);
+          }
+          else if (memberLookupElement.getModel() != null) {
+            rankMemberKind(element, memberLookupElement.getModel());
+          }
           element.getPriority().type += 1;
 
         }
@@ -276,12 +353,9 @@ public class HaxeCompletionPriorityUtil {
           staticMemberAssignCalculation(staticMemberLookupElement, parameterTypes);
           element.getPriority().type += 0.5;
         }
-      }
-
-
-      return true;
+      };
     }
-    return false;
+    return null;
   }
 
 
@@ -316,22 +390,12 @@ public class HaxeCompletionPriorityUtil {
     HaxeBaseMemberModel model = element.getModel();
     if (model == null) return;
 
-    ResultHolder lookupType = model.getResultType(null);
+    ResultHolder lookupType = getResultType(model);
+    rankMemberKind(element, model);
 
-    if(model instanceof HaxeLocalVarModel || model instanceof  HaxeParameterModel) {
-      element.getPriority().type += LOCAL_VAR;
-    }
-
-    if(model instanceof HaxeFieldModel ) {
-      element.getPriority().type += FIELD;
-    }
-
-    if (model instanceof HaxeMethodModel methodModel) {
-      element.getPriority().type += METHOD;
-      // update lookupType with  functionType instead of return type
-      if (element.isFunctionType()) {
-        lookupType = methodModel.getFunctionType(null).createHolder();
-      }
+    // update lookupType with  functionType instead of return type
+    if (model instanceof HaxeMethodModel methodModel && element.isFunctionType()) {
+      lookupType = getFunctionType(methodModel);
     }
 
     if (parameterTypes.size() <= argumentIndex) return;
@@ -402,11 +466,4 @@ public class HaxeCompletionPriorityUtil {
     return result;
   }
 
-  public static CompletionResult convertToPrioritized(CompletionResult result) {
-    if (result.getLookupElement() instanceof HaxeLookupElement element) {
-      return CompletionResult.wrap(element.toPrioritized(), result.getPrefixMatcher(), result.getSorter());
-    }
-    return result;
-  }
-
 }
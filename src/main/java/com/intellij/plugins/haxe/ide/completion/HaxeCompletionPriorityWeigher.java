@@ -0,0 +1,64 @@
+package com.intellij.plugins.haxe.ide.completion;
+
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementWeigher;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.NotNullLazyValue;
+import com.intellij.plugins.haxe.ide.lookup.HaxeLookupElement;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders lookup elements by their {@link HaxeLookupElement#getPriority() priority}, ranking each element the first
+ * time the lookup asks for its weight rather than ranking all of them before any can be shown.  Elements from other
+ * contributors keep the priority they were given with {@link PrioritizedLookupElement}.
+ * <p>
+ * Ranking against the expected type evaluates the type of every member, so it is given a time budget per completion.
+ * Elements weighed after the budget is spent are ranked without evaluating their types.
+ */
+public class HaxeCompletionPriorityWeigher extends LookupElementWeigher {
+
+  private static final Key<Double> PRIORITY = Key.create("haxe.completion.priority");
+  private static final long RANKING_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+  private final NotNullLazyValue<List<HaxeCompletionPriorityUtil.Ranker>> rankers;
+  private final AtomicLong rankingNanos = new AtomicLong();
+
+  public HaxeCompletionPriorityWeigher(@NotNull PsiElement position) {
+    super("haxePriority");
+    rankers = NotNullLazyValue.atomicLazy(() -> HaxeCompletionPriorityUtil.createRankers(position));
+  }
+
+  @Override
+  public Comparable weigh(@NotNull LookupElement element) {
+    // Higher priorities sort first.
+    if (element instanceof HaxeLookupElement haxeElement) {
+      return -getPriority(element, haxeElement);
+    }
+    PrioritizedLookupElement<?> prioritized = element.as(PrioritizedLookupElement.CLASS_CONDITION_KEY);
+    return prioritized != null ? -prioritized.getPriority() : 0.0;
+  }
+
+  private double getPriority(@NotNull LookupElement element, @NotNull HaxeLookupElement haxeElement) {
+    // Rankers add to the priority of the element, so they must only run once per element.
+    synchronized (element) {
+      Double priority = element.getUserData(PRIORITY);
+      if (priority == null) {
+        boolean evaluateTypes = rankingNanos.get() < RANKING_BUDGET_NANOS;
+        long start = System.nanoTime();
+        rankers.getValue().forEach(ranker -> ranker.rank(haxeElement, evaluateTypes));
+        if (evaluateTypes) {
+          rankingNanos.addAndGet(System.nanoTime() - start);
+        }
+        priority = haxeElement.getPriority().calculate();
+        element.putUserData(PRIORITY, priority);
+      }
+      return priority;
+    }
+  }
+}
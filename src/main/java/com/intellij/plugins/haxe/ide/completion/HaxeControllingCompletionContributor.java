@@ -17,25 +17,25 @@
  */
 package com.intellij.plugins.haxe.ide.completion;
 
-import com.google.common.collect.Sets;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElement;
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkUtil;
-import com.intellij.plugins.haxe.ide.lookup.HaxeIndexedClassElement;
+import com.intellij.plugins.haxe.ide.lookup.HaxeConstructorLookupElement;
 import com.intellij.plugins.haxe.ide.lookup.HaxeLookupElement;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Runs all of the completion contributors and filters/massages the results.  Note that this
@@ -56,57 +56,52 @@ public class HaxeControllingCompletionContributor extends CompletionContributor
                                            ProcessingContext context,
                                            @NotNull CompletionResultSet result) {
 
-               // Run all of the providers so that we can capture all of their results.
-               LinkedHashSet<CompletionResult> unfilteredCompletions = result.runRemainingContributors(parameters, false);
-               // Now filter out duplicates, etc.
-               Set<CompletionResult> filteredCompletions = filter(parameters, unfilteredCompletions);
-
-
-               filteredCompletions =  HaxeCompletionPriorityUtil.calculatePriority(filteredCompletions, parameters);
-               filteredCompletions.stream()
-                 .map(HaxeCompletionPriorityUtil::convertToPrioritized)
-                 .forEach(result::passResult); // Add everything we want to keep to the result set.
-
-               // resolving PSI elements for index items is too slow for us to get correct item sorting (involves file parsing)
-               // we still want the PsiReference for documentation lookups, but we dont strictly need it
-               // for the sorting even tho it would be nice to also get the proximity sorting.
-               updatePsiElementValues(filteredCompletions);
+               // Items are handed to the lookup as soon as a contributor produces them, so that slow contributors
+               // (index scans, compiler completion) don't hold back the others.  Ranking is done by the weigher when
+               // the lookup sorts the items, and PSI for indexed classes is only resolved when documentation is shown.
+               PsiElement position = parameters.getPosition();
+               CompletionSorter sorter = CompletionSorter.defaultSorter(parameters, result.getPrefixMatcher())
+                 .weighBefore("priority", new HaxeCompletionPriorityWeigher(position));
+               CompletionResultSet sortedResult = result.withRelevanceSorter(sorter);
+
+               boolean removeDuplicates = shouldRemoveDuplicateCompletions(parameters.getOriginalFile());
+               boolean constructorsOnly = HaxeCompletionPriorityUtil.isConstructorPosition(position);
+               Set<String> seenNames = ConcurrentHashMap.newKeySet();
+
+               // Since we run all of the providers here, don't let them be repeated.
+               sortedResult.runRemainingContributors(parameters, completion -> {
+                 LookupElement element = completion.getLookupElement();
+                 if (constructorsOnly && element instanceof HaxeLookupElement && !(element instanceof HaxeConstructorLookupElement)) {
+                   return;
+                 }
+                 if (removeDuplicates && isDuplicate(completion, seenNames)) {
+                   return;
+                 }
+                 sortedResult.passResult(completion);
+               }, true, sorter);
 
                // TODO mlo: suggest lambda / function when expected type is  functionType
 
                //TODO mlo: mechanism for filtering getters and setters ( get_X / set_x)  when properties exists ? (could be that noCompletion solves this)
-
-               // Since we've already run all of the providers, don't let them be repeated.
-
-               result.stopHere();
              }
            });
   }
 
-  private static void updatePsiElementValues(Set<CompletionResult> filteredCompletions) {
-    ReadAction.run(() -> {
-      filteredCompletions.stream()
-        .filter(r -> r.getLookupElement() instanceof HaxeIndexedClassElement)
-        .map(r -> (HaxeIndexedClassElement)r.getLookupElement())
-        .forEach(HaxeIndexedClassElement::updatePsiElement);
-    });
-  }
-
-  private static Set<CompletionResult> filter(@NotNull CompletionParameters parameters,
-                                              Set<CompletionResult> unfilteredCompletions) {
-
-    if (null == unfilteredCompletions || unfilteredCompletions.size() <= 1) {
-      // Nothing to filter.
-      return unfilteredCompletions;
-    }
-
-    Set<CompletionResult> filtered = unfilteredCompletions;
-
-    if (shouldRemoveDuplicateCompletions(parameters.getOriginalFile())) {
-      filtered = removeDuplicateCompletions(unfilteredCompletions);
-    }
-
-    return filtered;
+  /**
+   * Drops results whose name was already offered.
+   * <p>
+   * We don't want to filter away classes with similar names: classes from different packages and/or libs are
+   * told apart by their fully qualified name.  HaxeLookupElements are never dropped; it is primarily results from
+   * the compiler that need to be removed, and de-duping only on name would remove same-named members, too.
+   */
+  private static boolean isDuplicate(@NotNull CompletionResult candidate, @NotNull Set<String> seenNames) {
+    String name = getDedupeName(candidate);
+    if (name == null) return false;
+    boolean first = seenNames.add(name);
+    //TODO
+    // In the long run, it's probably not good enough just to check the name.  Multiple argument types may
+    // be present, and we may be able to filter based on the local variables available.
+    return !first && !(candidate.getLookupElement() instanceof HaxeLookupElement);
   }
 
   private static String getDedupeName(CompletionResult candidate) {
@@ -137,58 +132,4 @@ public class HaxeControllingCompletionContributor extends CompletionContributor
     }
     return true;
   }
-
-  private static Set<CompletionResult> removeDuplicateCompletions(Set<CompletionResult> unfilteredCompletions) {
-    //TODO not sure if this is preferred now that resolving works better, but if compiler data contains all necessary data then maybe
-
-    // We sort the elements according to name, giving preference to compiler-provided results
-    // if the two names are identical.
-    CompletionResult sorted[] = unfilteredCompletions.toArray(new CompletionResult[]{});
-    Arrays.sort(sorted, new Comparator<CompletionResult>() {
-      @Override
-      public int compare(CompletionResult o1, CompletionResult o2) {
-        LookupElement el1 = o1.getLookupElement();
-        LookupElement el2 = o2.getLookupElement();
-        String fnName1 = null != el1 ? el1.getLookupString() : null;
-        String fnName2 = null != el2 ? el2.getLookupString() : null;
-
-        // Can't really throw a null pointer exception... It would be thrown past sort.
-        if (null == fnName1) return -1;
-        if (null == fnName2) return 1;
-
-        int comp = fnName1.compareTo(fnName2);
-        if (0 == comp) {
-          Object obj1 = el1.getObject();
-          Object obj2 = el2.getObject();
-
-          comp = obj1 instanceof HaxeCompilerCompletionItem
-                 ? (obj2 instanceof HaxeCompilerCompletionItem ? 0 : -1)
-                 : (obj2 instanceof HaxeCompilerCompletionItem ? 1 : 0);
-        }
-        return comp;
-      }
-    });
-
-    // Now remove duplicates by looping over the list, dropping any that match the entry prior.
-    ArrayList<CompletionResult> deduped = new ArrayList<CompletionResult>();
-    String lastName = null;
-    for (CompletionResult next : sorted) {
-
-      String nextName = getDedupeName(next);
-      // In the long run, it's probably not good enough just to check the name.  Multiple argument types may
-      // be present, and we may be able to filter based on the local variables available.
-      if (null == lastName || !lastName.equals(nextName)) {
-        deduped.add(next);
-      }
-      //TODO
-      // avoiding de-duping HaxeLookupElement here, its primarily results from  compiler that needs to be removed
-      // de-duping only based on name here will remove classes with same name different package, and we want to avoid that.
-      // we need a better way to solve the compiler results issue
-      if (next.getLookupElement() instanceof HaxeLookupElement) {
-        deduped.add(next);
-      }
-      lastName = nextName;
-    }
-    return Sets.newCopyOnWriteArraySet(deduped);
-  }
 }
@@ -0,0 +1,52 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.plugins.haxe.lang.lexer.HaxeLexer;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
+import com.intellij.psi.impl.cache.impl.BaseFilterLexer;
+import com.intellij.psi.impl.cache.impl.OccurrenceConsumer;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Feeds the id and todo indices from the Haxe lexer, so that reference searches only open files that actually
+ * contain the searched name.
+ * <p>
+ * The lexer runs without a project: index content may only depend on the file itself, and words inside
+ * conditional compilation blocks that are inactive for the current defines must still be found.
+ */
+public class HaxeFilterLexer extends BaseFilterLexer {
+
+  public HaxeFilterLexer(@NotNull OccurrenceConsumer occurrenceConsumer) {
+    this(new HaxeLexer(null), occurrenceConsumer);
+  }
+
+  public HaxeFilterLexer(@NotNull Lexer originalLexer, @NotNull OccurrenceConsumer occurrenceConsumer) {
+    super(originalLexer, occurrenceConsumer);
+  }
+
+  @Override
+  public void advance() {
+    IElementType tokenType = myDelegate.getTokenType();
+
+    if (tokenType == HaxeTokenTypes.ID) {
+      addOccurrenceInToken(UsageSearchContext.IN_CODE);
+    }
+    else if (HaxeTokenTypeSets.STRINGS.contains(tokenType)) {
+      scanWordsInToken(UsageSearchContext.IN_STRINGS | UsageSearchContext.IN_FOREIGN_LANGUAGES, true, true);
+    }
+    else if (HaxeTokenTypeSets.ONLY_COMMENTS.contains(tokenType)) {
+      scanWordsInToken(UsageSearchContext.IN_COMMENTS, false, false);
+      advanceTodoItemCountsInToken();
+    }
+    // Metadata (@:build, @:using, ...) and conditions are single tokens whose words can name declarations.
+    else if (tokenType == HaxeTokenTypeSets.PPBODY || tokenType == HaxeTokenTypeSets.PPEXPRESSION
+             || tokenType == HaxeTokenTypes.EMBEDDED_META || tokenType == HaxeTokenTypes.CONDITIONAL_STATEMENT_ID) {
+      scanWordsInToken(UsageSearchContext.IN_CODE, false, false);
+    }
+
+    myDelegate.advance();
+  }
+}
@@ -0,0 +1,21 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.impl.cache.impl.OccurrenceConsumer;
+import com.intellij.psi.impl.cache.impl.id.LexerBasedIdIndexer;
+import org.jetbrains.annotations.NotNull;
+
+public class HaxeIdIndexer extends LexerBasedIdIndexer {
+  private static final int VERSION = 1;
+
+  @NotNull
+  @Override
+  public Lexer createLexer(@NotNull OccurrenceConsumer consumer) {
+    return new HaxeFilterLexer(consumer);
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+}
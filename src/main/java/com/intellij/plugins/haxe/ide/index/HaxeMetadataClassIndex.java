@@ -0,0 +1,111 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
+import com.intellij.plugins.haxe.metadata.psi.impl.HaxeMetadataTypeName;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Classes carrying compile-time metadata that other classes are affected by without naming it themselves, keyed by
+ * metadata name, so that "is there any class with {@code @:autoBuild}?" doesn't require visiting every class.
+ * <p>
+ * Metadata that only matters to the class carrying it ({@code @:build}, {@code @:using}, {@code @:forward}) is read
+ * from that class and not indexed.
+ */
+public class HaxeMetadataClassIndex extends FileBasedIndexExtension<String, List<HaxeClassInfo>> {
+  public static final ID<String, List<HaxeClassInfo>> HAXE_METADATA_CLASS_INDEX = ID.create("HaxeMetadataClassIndex");
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 2;
+  private static final List<HaxeMetadataTypeName> INDEXED_METADATA = List.of(HaxeMeta.AUTO_BUILD);
+  private final DataIndexer<String, List<HaxeClassInfo>, FileContent> myIndexer = new MyDataIndexer();
+  private final DataExternalizer<List<HaxeClassInfo>> myExternalizer = new HaxeClassInfoListExternalizer();
+
+  @NotNull
+  @Override
+  public ID<String, List<HaxeClassInfo>> getName() {
+    return HAXE_METADATA_CLASS_INDEX;
+  }
+
+  @Override
+  public int getVersion() {
+    return INDEX_VERSION;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<HaxeClassInfo>> getValueExternalizer() {
+    return myExternalizer;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return HaxeSdkInputFilter.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<HaxeClassInfo>, FileContent> getIndexer() {
+    return myIndexer;
+  }
+
+  /**
+   * @return whether any class in the scope carries the (compile-time) metadata; only the metadata in
+   * {@link #INDEXED_METADATA} is indexed.
+   */
+  public static boolean hasClasses(@NotNull HaxeMetadataTypeName meta, @NotNull Project project, @NotNull GlobalSearchScope scope) {
+    HaxeIndexUtil.warnIfDumbMode(project);
+    return !FileBasedIndex.getInstance().processValues(HAXE_METADATA_CLASS_INDEX, meta.name, null,
+                                                       (file, infos) -> infos.isEmpty(), scope);
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, List<HaxeClassInfo>, FileContent> {
+    @Override
+    @NotNull
+    public Map<String, List<HaxeClassInfo>> map(final FileContent inputData) {
+      final PsiFile psiFile = inputData.getPsiFile();
+      final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
+      if (classes.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      final Map<String, List<HaxeClassInfo>> result = new HashMap<>();
+      for (HaxeClass haxeClass : classes) {
+        if (haxeClass.getName() == null) {
+          continue;
+        }
+        HaxeClassInfo info = null;
+        for (HaxeMetadataTypeName meta : INDEXED_METADATA) {
+          if (!haxeClass.hasCompileTimeMeta(meta)) continue;
+          if (info == null) {
+            final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(haxeClass.getQualifiedName());
+            info = new HaxeClassInfo(packageAndName.getSecond(), packageAndName.getFirst(), HaxeComponentType.typeOf(haxeClass));
+          }
+          result.computeIfAbsent(meta.name, k -> new ArrayList<>()).add(info);
+        }
+      }
+      return result;
+    }
+  }
+}
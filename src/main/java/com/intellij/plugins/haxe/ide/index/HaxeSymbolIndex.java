@@ -18,20 +18,20 @@
  */
 package com.intellij.plugins.haxe.ide.index;
 
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.openapi.util.Pair;
+import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.plugins.haxe.util.HaxePresentableUtil;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.CommonProcessors;
+import com.intellij.util.Processor;
 import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import org.jetbrains.annotations.NotNull;
@@ -39,14 +39,19 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
-public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
-  public static final ID<String, Void> HAXE_SYMBOL_INDEX = ID.create("HaxeSymbolIndex");
-  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 8;
-  private DataIndexer<String, Void, FileContent> myDataIndexer = new MyDataIndexer();
+/**
+ * Maps symbol names (types and their members) to everything Go to Symbol needs to present and open them,
+ * so that looking up a name never has to load the files it is declared in.
+ */
+public class HaxeSymbolIndex extends FileBasedIndexExtension<String, List<HaxeSymbolInfo>> {
+  public static final ID<String, List<HaxeSymbolInfo>> HAXE_SYMBOL_INDEX = ID.create("HaxeSymbolIndex");
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 9;
+  private final DataIndexer<String, List<HaxeSymbolInfo>, FileContent> myDataIndexer = new MyDataIndexer();
+  private final DataExternalizer<List<HaxeSymbolInfo>> myExternalizer = new HaxeSymbolInfoListExternalizer();
 
   @NotNull
   @Override
-  public ID<String, Void> getName() {
+  public ID<String, List<HaxeSymbolInfo>> getName() {
     return HAXE_SYMBOL_INDEX;
   }
 
@@ -57,7 +62,7 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
 
   @NotNull
   @Override
-  public DataIndexer<String, Void, FileContent> getIndexer() {
+  public DataIndexer<String, List<HaxeSymbolInfo>, FileContent> getIndexer() {
     return myDataIndexer;
   }
 
@@ -67,6 +72,12 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
     return new EnumeratorStringDescriptor();
   }
 
+  @NotNull
+  @Override
+  public DataExternalizer<List<HaxeSymbolInfo>> getValueExternalizer() {
+    return myExternalizer;
+  }
+
   @NotNull
   @Override
   public FileBasedIndex.InputFilter getInputFilter() {
@@ -79,84 +90,85 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
   }
 
   public static String[] getAllSymbols(@NotNull final GlobalSearchScope scope) {
-    HaxeIndexUtil.warnIfDumbMode(scope.getProject());
     final CommonProcessors.CollectProcessor<String> processor = new CommonProcessors.CollectProcessor<String>();
-    FileBasedIndex.getInstance().processAllKeys(HAXE_SYMBOL_INDEX, processor, scope, null);
+    processAllSymbols(processor, scope, null);
     return ArrayUtil.toStringArray(processor.getResults());
   }
 
-  public static List<HaxeComponentName> getItemsByName(@NotNull final String name,
-                                                       @NotNull final Project project,
-                                                       @NotNull final GlobalSearchScope searchScope) {
-    HaxeIndexUtil.warnIfDumbMode(project);
-    final Collection<VirtualFile> files =
-      FileBasedIndex.getInstance().getContainingFiles(HAXE_SYMBOL_INDEX, name, searchScope);
-    final Set<HaxeComponentName> result = new HashSet<>();
-    for (VirtualFile vFile : files) {
-      final PsiFile psiFile = PsiManager.getInstance(project).findFile(vFile);
-      if (psiFile == null || psiFile.getFileType() != HaxeFileType.INSTANCE) {
-        continue;
-      }
-      processComponents(psiFile, subComponent -> {
-        if (name.equals(subComponent.getName())) {
-          result.add(subComponent.getComponentName());
-        }
-        return true;
-      });
-    }
-    return new ArrayList<>(result);
+  public static boolean processAllSymbols(@NotNull Processor<? super String> processor,
+                                          @NotNull GlobalSearchScope scope,
+                                          @Nullable IdFilter filter) {
+    HaxeIndexUtil.warnIfDumbMode(scope.getProject());
+    return FileBasedIndex.getInstance().processAllKeys(HAXE_SYMBOL_INDEX, processor, scope, filter);
   }
 
-  private static class MyDataIndexer implements DataIndexer<String, Void, FileContent> {
+  /**
+   * Feeds every indexed declaration of {@code name} in {@code scope} to the processor, one call per file.
+   */
+  public static boolean processSymbols(@NotNull String name,
+                                       @NotNull GlobalSearchScope scope,
+                                       @Nullable IdFilter filter,
+                                       @NotNull FileBasedIndex.ValueProcessor<? super List<HaxeSymbolInfo>> processor) {
+    HaxeIndexUtil.warnIfDumbMode(scope.getProject());
+    return FileBasedIndex.getInstance().processValues(HAXE_SYMBOL_INDEX, name, null, processor, scope, filter);
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, List<HaxeSymbolInfo>, FileContent> {
     @Override
     @NotNull
-    public Map<String, Void> map(@NotNull final FileContent inputData) {
+    public Map<String, List<HaxeSymbolInfo>> map(@NotNull final FileContent inputData) {
       final PsiFile psiFile = inputData.getPsiFile();
       final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
       if (classes.isEmpty()) {
         return Collections.emptyMap();
       }
-      final Map<String, Void> result = new HashMap<>();
+      final Map<String, List<HaxeSymbolInfo>> result = new HashMap<>();
       for (HaxeClass haxeClass : classes) {
         final String className = haxeClass.getName();
         if (className == null) {
           continue;
         }
-        result.put(className, null);
+        final String qualifiedName = haxeClass.getQualifiedName();
+        final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(qualifiedName);
+        addSymbol(result, className, haxeClass, packageAndName.getFirst(), className);
         for (HaxeNamedComponent namedComponent : getNamedComponents(haxeClass)) {
-          result.put(namedComponent.getName(), null);
+          final String name = namedComponent.getName();
+          if (name == null) {
+            continue;
+          }
+          addSymbol(result, name, namedComponent, qualifiedName, getPresentableText(namedComponent, name));
         }
       }
       return result;
     }
-  }
 
-  private static void processComponents(PsiFile psiFile, PsiElementProcessor<HaxeNamedComponent> processor) {
-    // top-level components
-    final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
-    for (HaxeClass cls : classes) {
-      if (!processSubComponent(processor, cls)) {
-        return;
-      }
+    private static void addSymbol(@NotNull Map<String, List<HaxeSymbolInfo>> result, @NotNull String name,
+                                  @NotNull HaxeNamedComponent component, @NotNull String containerName,
+                                  @NotNull String presentableText) {
+      final HaxeComponentName componentName = component.getComponentName();
+      final int offset = componentName != null ? componentName.getTextOffset() : component.getTextOffset();
+      final HaxeSymbolInfo info = new HaxeSymbolInfo(HaxeComponentType.typeOf(component), offset, containerName, presentableText);
+      result.computeIfAbsent(name, key -> new ArrayList<>(1)).add(info);
     }
   }
 
-  private static boolean processSubComponent(PsiElementProcessor<HaxeNamedComponent> processor, HaxeComponent component) {
-    final String componentName = component.getName();
-    if (componentName == null) {
-      return true;
-    }
-    if (!processor.execute(component)) {
-      return false;
+  /**
+   * Same text as the component's own presentation, built from syntax only (indexing may not resolve anything).
+   */
+  @NotNull
+  private static String getPresentableText(@NotNull HaxeNamedComponent component, @NotNull String name) {
+    final StringBuilder result = new StringBuilder(name);
+    if (component instanceof HaxeMethod || component instanceof HaxeEnumValueDeclarationConstructor) {
+      result.append('(').append(HaxePresentableUtil.getPresentableParameterList(component)).append(')');
     }
-    if (component instanceof HaxeClass haxeClass) {
-      for (HaxeNamedComponent subComponent : getNamedComponents(haxeClass)) {
-        if (!processor.execute(subComponent)) {
-          return false;
-        }
+    final HaxeTypeTag typeTag = PsiTreeUtil.getChildOfType(component, HaxeTypeTag.class);
+    if (typeTag != null) {
+      final String typeName = HaxePresentableUtil.buildTypeText(component, typeTag);
+      if (!typeName.isEmpty()) {
+        result.append(':').append(typeName);
       }
     }
-    return true;
+    return result.toString();
   }
 
   private static final Class[] BODY_TYPES =
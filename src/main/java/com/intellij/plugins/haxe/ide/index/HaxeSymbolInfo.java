@@ -0,0 +1,35 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * What Go to Symbol needs to show and open a symbol without loading the file it is declared in.
+ */
+@Getter
+@EqualsAndHashCode
+public class HaxeSymbolInfo {
+  @Nullable private final HaxeComponentType type;
+  /** Offset of the symbol's name in its file. */
+  private final int offset;
+  /** Qualified name of the declaring class for members, package for top-level types. */
+  @NotNull private final String containerName;
+  @NotNull private final String presentableText;
+
+  public HaxeSymbolInfo(@Nullable HaxeComponentType type, int offset, @NotNull String containerName, @NotNull String presentableText) {
+    this.type = type;
+    this.offset = offset;
+    this.containerName = containerName;
+    this.presentableText = presentableText;
+  }
+
+  @Nullable
+  public Icon getIcon() {
+    return type == null ? null : type.getIcon();
+  }
+}
@@ -0,0 +1,43 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeSymbolInfoListExternalizer implements DataExternalizer<List<HaxeSymbolInfo>> {
+  private final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(IOUtil::allocReadWriteUTFBuffer);
+
+  @Override
+  public void save(@NotNull DataOutput out, List<HaxeSymbolInfo> value) throws IOException {
+    DataInputOutputUtil.writeINT(out, value.size());
+    for (HaxeSymbolInfo info : value) {
+      final HaxeComponentType type = info.getType();
+      out.writeByte(type == null ? -1 : type.getKey());
+      DataInputOutputUtil.writeINT(out, info.getOffset());
+      IOUtil.writeUTFFast(buffer.get(), out, info.getContainerName());
+      IOUtil.writeUTFFast(buffer.get(), out, info.getPresentableText());
+    }
+  }
+
+  @Override
+  public List<HaxeSymbolInfo> read(@NotNull DataInput in) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final List<HaxeSymbolInfo> result = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) {
+      final HaxeComponentType type = HaxeComponentType.valueOf(in.readByte());
+      final int offset = DataInputOutputUtil.readINT(in);
+      final String containerName = IOUtil.readUTFFast(buffer.get(), in);
+      final String presentableText = IOUtil.readUTFFast(buffer.get(), in);
+      result.add(new HaxeSymbolInfo(type, offset, containerName, presentableText));
+    }
+    return result;
+  }
+}
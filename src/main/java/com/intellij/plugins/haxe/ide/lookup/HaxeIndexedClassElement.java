@@ -34,8 +34,8 @@ public class HaxeIndexedClassElement extends LookupElement implements HaxePsiLoo
 
   // we need a psi element  when resolving qname (making sure we get data from the right project etc)
   private final PsiElement helperPsi;
-  // findClassByQName is too slow for "normal" use, so we delay  the resolve so we can get  docs lookup
-  private PsiElement myElement = null;
+  // findClassByQName is too slow for "normal" use, so we only resolve when docs are looked up for this item
+  private volatile PsiElement myElement = null;
 
   private String presentableText;
   private String tailText;
@@ -56,8 +56,17 @@ public class HaxeIndexedClassElement extends LookupElement implements HaxePsiLoo
     icon = componentType.getCompletionIcon();
 
   }
-  public void updatePsiElement() {
-    myElement = HaxeResolveUtil.findClassByQName(qname, helperPsi);
+  /**
+   * Resolves the indexed class, which involves parsing its file.  Only call this for an item the user is looking at.
+   */
+  @Nullable
+  public PsiElement resolvePsiElement() {
+    PsiElement element = myElement;
+    if (element == null || !element.isValid()) {
+      element = HaxeResolveUtil.findClassByQName(qname, helperPsi);
+      myElement = element;
+    }
+    return element;
   }
 
   @Override
@@ -70,6 +79,10 @@ public class HaxeIndexedClassElement extends LookupElement implements HaxePsiLoo
 
 
 
+  /**
+   * @return the class if it was already resolved by {@link #resolvePsiElement()}.  Not resolved here, because the
+   * lookup asks every item for its element while sorting.
+   */
   @Override
   public @Nullable PsiElement getPsiElement() {
     return myElement;
@@ -74,12 +74,14 @@ public class HaxelibAutoImport implements ExternalSystemProjectAware, Disposable
       HaxelibProjectUpdater.ProjectTracker tracker = instance.findProjectTracker(project);
       clearHaxelibCaches();
 
+      Runnable reloadFinished = () -> myListeners.forEach(l -> l.onProjectReloadFinish(ExternalSystemRefreshStatus.SUCCESS));
       if (tracker != null) {
         tracker.getCache().clear();
-        instance.synchronizeClasspaths(tracker);
+        instance.synchronizeClasspaths(tracker, reloadFinished);
+      }
+      else {
+        reloadFinished.run();
       }
-
-      myListeners.forEach(l -> l.onProjectReloadFinish(ExternalSystemRefreshStatus.SUCCESS));
     }
   }
 
@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.lang.psi;
 
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
 import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.psi.impl.AnyPsiChangeListener;
 import com.intellij.psi.impl.PsiManagerImpl;
 import com.intellij.util.containers.ContainerUtil;
@@ -33,6 +34,9 @@ import java.util.concurrent.ConcurrentMap;
  * @author: Fedor.Korotkov
  */
 public class HaxeClassResolveCache {
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("classResolve.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("classResolve.cache.miss");
+
   private final ConcurrentMap<HaxeClass, HaxeResolveResult> myMap = ContainerUtil.createConcurrentWeakMap();
 
   public static HaxeClassResolveCache getInstance(Project project) {
@@ -58,6 +62,8 @@ public class HaxeClassResolveCache {
 
   @Nullable
   public HaxeResolveResult get(HaxeClass haxeClass) {
-    return myMap.get(haxeClass);
+    HaxeResolveResult result = myMap.get(haxeClass);
+    (result != null ? cacheHits : cacheMisses).increment();
+    return result;
   }
 }
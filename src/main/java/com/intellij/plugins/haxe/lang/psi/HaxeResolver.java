@@ -19,14 +19,18 @@
  */
 package com.intellij.plugins.haxe.lang.psi;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.RecursionGuard;
 import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.ide.annotator.semantics.HaxeCallExpressionUtil;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.impl.HaxeClassWrapperForTypeParameter;
+import com.intellij.plugins.haxe.lang.psi.impl.HaxePsiCompositeElementImpl;
 import com.intellij.plugins.haxe.lang.psi.impl.HaxeReferenceExpressionImpl;
 import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
 import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataCompileTimeMeta;
@@ -37,6 +41,8 @@ import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorContext;
 import com.intellij.plugins.haxe.model.type.*;
 import com.intellij.plugins.haxe.util.HaxeAbstractForwardUtil;
 import com.intellij.plugins.haxe.util.HaxeDebugUtil;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.*;
@@ -49,7 +55,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator.findObjectLiteralType;
 import static com.intellij.plugins.haxe.util.HaxeDebugLogUtil.traceAs;
@@ -62,7 +68,7 @@ import static com.intellij.plugins.haxe.util.HaxeStringUtil.elide;
 @CustomLog
 public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference, List<? extends PsiElement>> {
   public static final int MAX_DEBUG_MESSAGE_LENGTH = 200;
-  public static final Key<String> typeHintKey = new Key<>("typeHint");
+  private static final Key<String> typeHintKey = new Key<>("typeHint");
   private static final Key<Boolean> skipCacheKey = new Key<>("skipCache");
 
   //static {  // Remove when finished debugging.
@@ -72,19 +78,23 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
 
   public static final HaxeResolver INSTANCE = new HaxeResolver();
 
-  public static ThreadLocal<Stack<PsiElement>> referencesProcessing = ThreadLocal.withInitial(Stack::new);
+  public static ThreadLocal<ReferenceStack> referencesProcessing = ThreadLocal.withInitial(ReferenceStack::new);
 
+  /** Set once any type hint has been recorded, so that references are not probed for hints before that. */
+  private static volatile boolean typeHintsRecorded;
 
-
-  private static boolean reportCacheMetrics = false;   // Should always be false when checked in.
-  private static AtomicInteger dumbRequests = new AtomicInteger(0);
-  private static AtomicInteger requests = new AtomicInteger(0);
-  private static AtomicInteger resolves = new AtomicInteger(0);
-  private final static int REPORT_FREQUENCY = 100;
+  private static final HaxeMetrics.Counter dumbRequests = HaxeMetrics.counter("resolve.dumbRequests");
+  private static final HaxeMetrics.Counter uncachedRequests = HaxeMetrics.counter("resolve.uncachedRequests");
+  private static final HaxeMetrics.Counter cachedRequests = HaxeMetrics.counter("resolve.cache.requests");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("resolve.cache.miss");
+  private static final HaxeMetrics.Counter unresolved = HaxeMetrics.counter("resolve.strategy.none");
+  private static final Map<String, HaxeMetrics.Counter> strategyCounters = new ConcurrentHashMap<>();
 
   public static final List<? extends PsiElement> EMPTY_LIST = Collections.emptyList();
 
   private final RecursionGuard<PsiElement> resolveInnerRecursionGuard = RecursionManager.createGuard("resolveInnerRecursionGuard");
+  // kept in a field so that cached lookups don't allocate a new method reference every time
+  private final ResolveCache.AbstractResolver<HaxeReference, List<? extends PsiElement>> cachedResolver = this::doCachedResolve;
 
   public static void prohibitResultCaching(@NotNull PsiElement element) {
     INSTANCE.resolveInnerRecursionGuard.prohibitResultCaching(element);
@@ -95,12 +105,6 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
        /** See docs on {@link HaxeDebugUtil#isCachingDisabled} for how to set this flag. */
        boolean skipCachingForDebug = HaxeDebugUtil.isCachingDisabled();
 
-       //// Kill circular resolutions -- before checking the cache.
-       //if (isResolving(reference)) {
-       //  recursiveLookupFailures.get().incrementAndGet();
-       //  return null;
-       //}
-
        // If we are in dumb mode (e.g. we are still indexing files and resolving may
        // fail until the indices are complete), we don't want to cache the (likely incorrect)
        // results.
@@ -108,34 +112,33 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
        boolean hasTypeHint = checkForTypeHint(reference);
        boolean skipCaching = skipCachingForDebug || isDumb || hasTypeHint;
 
+        if (isDumb) {
+          dumbRequests.increment();
+        } else if (skipCaching) {
+          uncachedRequests.increment();
+        } else {
+          cachedRequests.increment();
+        }
+
         List<? extends PsiElement>  elements  = skipCaching ? doResolve(reference, incompleteCode)
                          : ResolveCache.getInstance(reference.getProject())
-                       .resolveWithCaching(reference, this::doResolve, false, incompleteCode);
-
-       if (reportCacheMetrics) {
-         if (skipCachingForDebug) {
-           log.debug("Resolve cache is disabled.  No metrics computed.");
-           reportCacheMetrics = false;
-         }
-         else {
-           int dumb = isDumb ? dumbRequests.incrementAndGet() : dumbRequests.get();
-           int requestCount = isDumb ? requests.get() : requests.incrementAndGet();
-           if ((dumb + requestCount) % REPORT_FREQUENCY == 0) {
-             int res = resolves.get();
-             Formatter formatter = new Formatter();
-             formatter.format("Resolve requests: %d; cache misses: %d; (%2.2f%% effective); Dumb requests: %d",
-                              requestCount, res,
-                              (1.0 - (Float.intBitsToFloat(res) / Float.intBitsToFloat(requestCount))) * 100,
-                              dumb);
-             log.debug(formatter.toString());
-           }
-         }
-       }
+                       .resolveWithCaching(reference, cachedResolver, false, incompleteCode);
+
+       HaxeDependencyRecorder.record(elements);
        return elements == null ? EMPTY_LIST : elements;
   }
 
+  /**
+   * Records the expected type of an expression, used to pick between candidates (e.g. enum values with the same name).
+   */
+  public static void putTypeHint(@NotNull PsiElement element, @Nullable String qualifiedName) {
+    typeHintsRecorded = true;
+    element.putUserData(typeHintKey, qualifiedName);
+  }
+
   //TODO until we have type hints everywhere we need to skip caching for those refrences that rely on typeHints
   private boolean checkForTypeHint(HaxeReference reference) {
+    if (!typeHintsRecorded) return false;
     if (reference.getUserData(typeHintKey) != null ) return true;
     if (reference.getParent() instanceof  HaxeCallExpression expression) {
       if (expression.getUserData(typeHintKey) != null ) return true;
@@ -143,31 +146,31 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
     return false;
   }
 
-  private boolean isResolving(@NotNull HaxeReference reference) {
-    Stack<PsiElement> stack = referencesProcessing.get();
-    return stack.contains(reference);
-  }
 
+  @Nullable
+  private List<? extends PsiElement> doCachedResolve(@NotNull HaxeReference reference, boolean incompleteCode) {
+    cacheMisses.increment();
+    return doResolve(reference, incompleteCode);
+  }
 
   @Nullable
   private List<? extends PsiElement> doResolve(@NotNull HaxeReference reference, boolean incompleteCode) {
-    Stack<PsiElement> stack = referencesProcessing.get();
+    ReferenceStack stack = referencesProcessing.get();
     boolean traceEnabled = log.isTraceEnabled();
 
-    String referenceText = reference.getText();
     stack.push(reference);
     try {
       if (traceEnabled) {
         log.trace(traceMsg("-----------------------------------------"));
-        log.trace(traceMsg("Resolving reference: " + referenceText));
+        log.trace(traceMsg("Resolving reference: " + reference.getText()));
       }
 
        List<? extends PsiElement> foundElements = resolveInnerRecursionGuard
-         .computePreventingRecursion( reference, true, () ->  doResolveInner(reference, incompleteCode, referenceText));
+         .computePreventingRecursion( reference, true, () ->  doResolveInner(reference, incompleteCode));
 
 
       if (traceEnabled) {
-        log.trace(traceMsg("Finished  reference: " + referenceText));
+        log.trace(traceMsg("Finished  reference: " + reference.getText()));
         log.trace(traceMsg("-----------------------------------------"));
       }
 
@@ -178,11 +181,8 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
     }
   }
 
-  private List<? extends PsiElement> doResolveInner(@NotNull HaxeReference reference, boolean incompleteCode, String referenceText) {
+  private List<? extends PsiElement> doResolveInner(@NotNull HaxeReference reference, boolean incompleteCode) {
     RecursionManager.markStack();
-    if (reportCacheMetrics) {
-      resolves.incrementAndGet();
-    }
 
     if (reference instanceof HaxeLiteralExpression || reference instanceof HaxeConstantExpression) {
       if (!(reference instanceof HaxeRegularExpression || reference instanceof HaxeStringLiteralExpression)) {
@@ -190,38 +190,38 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
       }
     }
     boolean isType = reference.getParent() instanceof HaxeType ||  PsiTreeUtil.getParentOfType(reference, HaxeTypeTag.class) != null;
-    List<? extends PsiElement> result = checkIsTypeParameter(reference);
-
-    if (result == null) result = checkIsAlias(reference);
-    if (result == null) result = checkEnumMemberHints(reference);
-    if (result == null) result = checkIsType(reference);
-    if (result == null) result = checkIsFullyQualifiedStatement(reference);
-    if (result == null) result = checkIsSuperExpression(reference);
-    if (result == null) result = checkMacroIdentifier(reference);
-    if (result == null) result = checkIsChain(reference);
-    if (result == null) result = checkIsAccessor(reference);
-    if (result == null) result = checkIsSwitchVar(reference);
-    if (result == null) result = checkByTreeWalk(reference);  // Beware: This will also locate constraints in scope.
+    List<? extends PsiElement> result = countStrategy("checkIsTypeParameter", checkIsTypeParameter(reference));
+
+    if (result == null) result = countStrategy("checkIsAlias", checkIsAlias(reference));
+    if (result == null) result = countStrategy("checkEnumMemberHints", checkEnumMemberHints(reference));
+    if (result == null) result = countStrategy("checkIsType", checkIsType(reference));
+    if (result == null) result = countStrategy("checkIsFullyQualifiedStatement", checkIsFullyQualifiedStatement(reference));
+    if (result == null) result = countStrategy("checkIsSuperExpression", checkIsSuperExpression(reference));
+    if (result == null) result = countStrategy("checkMacroIdentifier", checkMacroIdentifier(reference));
+    if (result == null) result = countStrategy("checkIsChain", checkIsChain(reference));
+    if (result == null) result = countStrategy("checkIsAccessor", checkIsAccessor(reference));
+    if (result == null) result = countStrategy("checkIsSwitchVar", checkIsSwitchVar(reference));
+    if (result == null) result = countStrategy("checkByTreeWalk", checkByTreeWalk(reference));  // Beware: This will also locate constraints in scope.
 
     HaxeFileModel fileModel = HaxeFileModel.fromElement(reference);
     // search same file first (avoids incorrect resolve of common named Classes and member with same name in local file)
-    if (result == null)result =  searchInSameFile(reference, fileModel, isType);
-    if (result == null) result = checkIsClassName(reference);
-    if (result == null) result = checkCaptureVar(reference);
-    if (result == null) result = checkCaptureVarReference(reference);
-    if (result == null) result = checkSwitchOnEnum(reference);
-    if (result == null) result = checkEnumExtractor(reference);
-    if (result == null) result = checkMemberReference(reference); // must be after resolvers that can find identifier inside a method
+    if (result == null)result = countStrategy("searchInSameFile", searchInSameFile(reference, fileModel, isType));
+    if (result == null) result = countStrategy("checkIsClassName", checkIsClassName(reference));
+    if (result == null) result = countStrategy("checkCaptureVar", checkCaptureVar(reference));
+    if (result == null) result = countStrategy("checkCaptureVarReference", checkCaptureVarReference(reference));
+    if (result == null) result = countStrategy("checkSwitchOnEnum", checkSwitchOnEnum(reference));
+    if (result == null) result = countStrategy("checkEnumExtractor", checkEnumExtractor(reference));
+    if (result == null) result = countStrategy("checkMemberReference", checkMemberReference(reference)); // must be after resolvers that can find identifier inside a method
     if (result == null) {
 
 
       if (fileModel != null) {
+          String referenceText = reference.getText();
           List<PsiElement> matchesInImport = HaxeResolveUtil.searchInImports(fileModel, referenceText);
         // Remove enumValues if we are resolving typeTag as typeTags should not be EnumValues
         // We also have to remove resolved fields as abstract enums is a thing
         if (isType) {
-          matchesInImport = matchesInImport.stream().filter(element ->  !(element instanceof HaxeEnumValueDeclaration)).toList();
-          matchesInImport = matchesInImport.stream().filter(element ->  !(element instanceof HaxeFieldDeclaration)).toList();
+          matchesInImport = withoutValueDeclarations(matchesInImport);
         }
         if (!matchesInImport.isEmpty()) {
             // one file may contain multiple enums and have enumValues with the same name; trying to match any argument list
@@ -240,7 +240,7 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
                   String data = typeHintPsi.getUserData(typeHintKey);
                   if (currentQname != null && currentQname.equals(data)) {
                     LogResolution(reference, "via import & typeHintKey");
-                    return List.of(element);
+                    return countStrategy("searchInImports", List.of(element));
                   }
                 }
               }
@@ -248,7 +248,7 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
               for (PsiElement importElement : matchesInImport) {
                 if (importElement instanceof HaxeEnumValueDeclarationConstructor enumValueDeclaration) {
                   boolean isValidConstructor = testAsEnumValueConstructor(enumValueDeclaration, reference);
-                  if (isValidConstructor) return List.of(importElement);
+                  if (isValidConstructor) return countStrategy("searchInImports", List.of(importElement));
                 }
               }
               // fallback, check method parameters (needs work , optional are not handled)
@@ -258,18 +258,18 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
                     Optional.of(enumValueDeclaration.getParameterList()).map(p -> p.getParameterList().size()).orElse(0);
                   if (expectedSize == currentSize) {
                     LogResolution(reference, "via import  & enum value declaration");
-                    return List.of(element);
+                    return countStrategy("searchInImports", List.of(element));
                   }
                 }
               }
             }
-            return matchesInImport.isEmpty() ? null : matchesInImport;
+            return countStrategy("searchInImports", matchesInImport);
           }
         PsiElement target = HaxeResolveUtil.searchInSamePackage(fileModel, referenceText, true);
 
         if (target != null) {
           LogResolution(reference, "via import.");
-          return asList(target);
+          return countStrategy("searchInSamePackage", asList(target));
         }
       }
 
@@ -278,26 +278,75 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
           HaxeProjectModel.fromElement(reference).resolve(new FullyQualifiedInfo(reference.getText()), reference.getResolveScope());
         if (resolvedPackage != null && !resolvedPackage.isEmpty() && resolvedPackage.get(0) instanceof HaxePackageModel) {
           LogResolution(reference, "via project qualified name.");
-          return Collections.singletonList(resolvedPackage.get(0).getBasePsi());
+          return countStrategy("qualifiedPackageName", Collections.singletonList(resolvedPackage.get(0).getBasePsi()));
         }
       }
     }
-    if (result == null) result = checkIsForwardedName(reference);
-    if (result == null) result = checkGlobalAlias(reference);
+    if (result == null) result = countStrategy("checkIsForwardedName", checkIsForwardedName(reference));
+    if (result == null) result = countStrategy("checkGlobalAlias", checkGlobalAlias(reference));
 
     if (result == null) {
+      unresolved.increment();
       LogResolution(reference, "failed after exhausting all options.");
       return EMPTY_LIST; // empty list means cache not found
     }
 
     if (log.isTraceEnabled()) {
-      String message = "caching result for :" + referenceText;
+      String message = "caching result for :" + reference.getText();
       traceAs(log, HaxeDebugUtil.getCallerStackFrame(), message);
     }
     return result;
 
   }
 
+  /**
+   * Removes enum values and fields, keeping the list itself when there is nothing to remove.
+   */
+  private static List<PsiElement> withoutValueDeclarations(@NotNull List<PsiElement> elements) {
+    List<PsiElement> filtered = null;
+    for (int i = 0; i < elements.size(); i++) {
+      PsiElement element = elements.get(i);
+      boolean isValue = element instanceof HaxeEnumValueDeclaration || element instanceof HaxeFieldDeclaration;
+      if (isValue) {
+        if (filtered == null) filtered = new ArrayList<>(elements.subList(0, i));
+      }
+      else if (filtered != null) {
+        filtered.add(element);
+      }
+    }
+    return filtered == null ? elements : filtered;
+  }
+
+  /**
+   * @return the text of the reference; for a plain identifier this is the text of its token, so no new string is built.
+   */
+  @NotNull
+  private static CharSequence getReferenceText(@NotNull HaxeReference reference) {
+    PsiElement nameElement = reference.getReferenceNameElement();
+    if (nameElement != null) {
+      int length = reference.getTextLength();
+      ASTNode leaf = nameElement.getNode();
+      while (leaf.getFirstChildNode() != null) {
+        leaf = leaf.getFirstChildNode();
+      }
+      if (leaf.getTextLength() == length) {
+        return leaf.getChars();
+      }
+    }
+    return reference.getText();
+  }
+
+  /**
+   * Records which resolve strategy produced a result; returns the result unchanged.
+   */
+  @Nullable
+  private static List<? extends PsiElement> countStrategy(@NotNull String strategy, @Nullable List<? extends PsiElement> result) {
+    if (result != null) {
+      strategyCounters.computeIfAbsent(strategy, name -> HaxeMetrics.counter("resolve.strategy." + name)).increment();
+    }
+    return result;
+  }
+
   private static boolean testAsEnumValueConstructor(@NotNull HaxeEnumValueDeclarationConstructor enumValueDeclaration, @NotNull HaxeReference reference) {
       if (reference.getParent() instanceof HaxeCallExpression haxeCallExpression) {
         HaxeMethod method = enumValueDeclaration.getModel().getMethod();
@@ -740,13 +789,16 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
 
   @Nullable
   private static List<HaxeComponentName> findTypeParameterPsi(HaxeReference reference, List<HaxeGenericParamModel> params) {
-    Optional<HaxeGenericListPart> first = params.stream()
-      .filter(p -> p.getName().equals(reference.getText()))
-      .map(HaxeGenericParamModel::getPsi)
-      .findFirst();
-    if (first.isPresent()) {
+    CharSequence name = getReferenceText(reference);
+    HaxeGenericListPart part = null;
+    for (HaxeGenericParamModel param : params) {
+      if (StringUtil.equals(param.getName(), name)) {
+        part = param.getPsi();
+        break;
+      }
+    }
+    if (part != null) {
       LogResolution(reference, "via TypeParameter Psi");
-      HaxeGenericListPart part = first.get();
       HaxeComponentName componentName = part.getComponentName();
       if (componentName != null) {
         return List.of(componentName);
@@ -1275,9 +1327,8 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
    * @return
    */
   private List<? extends PsiElement> checkByTreeWalk(HaxeReference reference,  @Nullable PsiElement maxScope) {
-    final List<PsiElement> result = new ArrayList<>();
-    PsiTreeUtil.treeWalkUp(new ResolveScopeProcessor(result, reference.getText(), reference), reference, maxScope, new ResolveState());
-    if (result.isEmpty()) return null;
+    List<? extends PsiElement> result = walkUpScopes(reference, getReferenceText(reference), reference, maxScope);
+    if (result == null) return null;
     LogResolution(reference, "via tree walk.");
     return result;
   }
@@ -1286,13 +1337,44 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
   }
 
   private List<? extends PsiElement> checkByTreeWalk(HaxeReference scope, String name) {
-    final List<PsiElement> result = new ArrayList<>();
-    PsiTreeUtil.treeWalkUp(new ResolveScopeProcessor(result, name, null), scope, null, new ResolveState());
-    if (result.isEmpty()) return null;
+    List<? extends PsiElement> result = walkUpScopes(scope, name, null, null);
+    if (result == null) return null;
     LogResolution(scope, "via tree walk.");
     return result;
   }
 
+  /**
+   * Equivalent of {@link PsiTreeUtil#treeWalkUp} with a {@link ResolveScopeProcessor}, but Haxe scopes are
+   * answered from their cached {@link com.intellij.plugins.haxe.lang.psi.impl.HaxeScopeSymbolTable}, so a local
+   * name resolves with one hash lookup per enclosing scope instead of re-processing every scope's declarations.
+   */
+  @Nullable
+  private static List<? extends PsiElement> walkUpScopes(@NotNull PsiElement entrance, @NotNull CharSequence name,
+                                                         @Nullable PsiElement target, @Nullable PsiElement maxScope) {
+    PsiElement lastParent = entrance;
+    PsiElement scope = entrance;
+    List<PsiElement> result = null;
+    while (scope != null) {
+      ProgressManager.checkCanceled();
+      if (scope instanceof HaxePsiCompositeElementImpl haxeScope) {
+        PsiElement found = haxeScope.lookupDeclaration(name, lastParent, target);
+        if (found != null) return List.of(found);
+      }
+      else {
+        if (result == null) result = new ArrayList<>(1);
+        if (!scope.processDeclarations(new ResolveScopeProcessor(result, name.toString(), target), ResolveState.initial(), lastParent, entrance)) {
+          return result.isEmpty() ? null : result;
+        }
+      }
+      if (scope == maxScope) break;
+      lastParent = scope;
+      scope = scope.getContext();
+      // As in treeWalkUp: a context outside the tree (code fragments, injections) may have been invalidated.
+      if (scope != null && scope != lastParent.getParent() && !scope.isValid()) break;
+    }
+    return result == null || result.isEmpty() ? null : result;
+  }
+
   private List<? extends PsiElement> checkIsAccessor(HaxeReference reference) {
     if (reference instanceof HaxePropertyAccessor) {
       final HaxeAccessorType accessorType = HaxeAccessorType.fromPsi(reference);
@@ -1968,4 +2050,34 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
     public void handleEvent(Event event, @Nullable Object associated) {
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Unsynchronized, array backed stack of the references being resolved on one thread.
+   */
+  public static final class ReferenceStack {
+    private PsiElement[] elements = new PsiElement[16];
+    private int size;
+
+    public void push(@NotNull PsiElement element) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, size * 2);
+      }
+      elements[size++] = element;
+    }
+
+    public void pop() {
+      elements[--size] = null;
+    }
+
+    public boolean contains(@NotNull PsiElement element) {
+      for (int i = size - 1; i >= 0; i--) {
+        if (elements[i] == element) return true;
+      }
+      return false;
+    }
+
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.util.Key;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.metadata.HaxeMetadataList;
 import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
@@ -38,6 +39,9 @@ import com.intellij.psi.ResolveState;
 import com.intellij.psi.impl.source.tree.CompositeElement;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.PsiUtilCore;
 import org.jetbrains.annotations.NonNls;
@@ -59,6 +63,8 @@ import java.util.*;
 
 public class HaxePsiCompositeElementImpl extends ASTWrapperPsiElement implements HaxePsiCompositeElement, HaxeModifierListOwner,
                                                                                  HaxeMetadataListOwner {
+  private static final Key<CachedValue<HaxeScopeSymbolTable>> SCOPE_SYMBOL_TABLE = Key.create("haxe.scopeSymbolTable");
+
   private HaxeMetadataListOwner metaImpl;
 
   public HaxePsiCompositeElementImpl(@NotNull ASTNode node) {
@@ -129,6 +135,56 @@ public class HaxePsiCompositeElementImpl extends ASTWrapperPsiElement implements
     return super.processDeclarations(processor, state, lastParent, place);
   }
 
+  /**
+   * Looks up a declaration by name the same way a name-matching scope processor passed to
+   * {@link #processDeclarations} would, using a symbol table that is cached until the file changes.
+   *
+   * @param lastParent the child through which a tree walk arrived at this element.
+   * @param target     the reference being resolved, if any.
+   * @return the matching component name (or reference for extractor captures), or null if this scope has none.
+   */
+  @Nullable
+  public PsiElement lookupDeclaration(@NotNull CharSequence name, @Nullable PsiElement lastParent, @Nullable PsiElement target) {
+    return getScopeSymbolTable().lookup(this, name, lastParent, target);
+  }
+
+  @NotNull
+  public HaxeScopeSymbolTable getScopeSymbolTable() {
+    // The cached value is kept in user data (rather than using CachedValuesManager.getCachedValue) so that
+    // lookups don't allocate a provider every time.
+    CachedValue<HaxeScopeSymbolTable> cachedValue = getUserData(SCOPE_SYMBOL_TABLE);
+    if (cachedValue == null) {
+      // Most elements on the way up declare nothing; they get the shared empty table instead of one of their own.
+      if (!mayDeclareNames()) return HaxeScopeSymbolTable.EMPTY;
+      cachedValue = CachedValuesManager.getManager(getProject()).createCachedValue(() -> CachedValueProvider.Result.create(
+        HaxeScopeSymbolTable.build(this, getDeclarationElementToProcess(null)), this), false);
+      cachedValue = putUserDataIfAbsent(SCOPE_SYMBOL_TABLE, cachedValue);
+    }
+    return cachedValue.getValue();
+  }
+
+  /**
+   * @return false when {@link #getDeclarationElementToProcess} is bound to come back empty for this element, judging
+   * from its kind and its direct children only.
+   */
+  private boolean mayDeclareNames() {
+    if (this instanceof HaxeForStatement || this instanceof HaxeSwitchCase || this instanceof HaxeSwitchCaseCaptureVar
+        || this instanceof HaxeEnumExtractedValueReference || this instanceof HaxeCatchStatement) {
+      return true;
+    }
+    for (PsiElement child = getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof HaxeFieldDeclaration || child instanceof HaxeLocalVarDeclarationList
+          || child instanceof HaxeMethodDeclaration || child instanceof HaxeLocalFunctionDeclaration
+          || child instanceof HaxeClassDeclaration || child instanceof HaxeExternClassDeclaration
+          || child instanceof HaxeEnumDeclaration || child instanceof HaxeInterfaceDeclaration
+          || child instanceof HaxeTypedefDeclaration || child instanceof HaxeParameterList
+          || child instanceof HaxeOpenParameterList || child instanceof HaxeGenericParam) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private List<PsiElement> getDeclarationElementToProcess(PsiElement lastParent) {
     final boolean isBlock = this instanceof HaxeBlockStatement || this instanceof HaxeSwitchCaseBlock;
     final PsiElement stopper = isBlock ? lastParent : null;
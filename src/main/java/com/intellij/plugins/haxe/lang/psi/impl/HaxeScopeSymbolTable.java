@@ -0,0 +1,161 @@
+package com.intellij.plugins.haxe.lang.psi.impl;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Name lookup table for the declarations a single scope element contributes to a tree walk
+ * (locals, parameters, catch vars, for/switch captures, type parameters and members).
+ * <p>
+ * The table holds exactly what {@link HaxePsiCompositeElementImpl#processDeclarations} would feed a name-matching
+ * scope processor, in the same order, so that a walk up the scopes can be done as a chain of hash lookups instead of
+ * re-running every scope's declaration processing for every reference.  Visibility that depends on where the
+ * lookup comes from (declarations after the reference in a block, for-loop iterators seen from the iterable,
+ * the local function being declared) is applied at lookup time.
+ * <p>
+ * Tables are cached on the scope element (see {@link HaxePsiCompositeElementImpl#getScopeSymbolTable()}) and are
+ * dropped whenever the containing file changes; elements that can't declare anything share {@link #EMPTY} and keep no
+ * table of their own.  Names are kept in an open addressing table so that lookups can be
+ * done with the reference's own {@link CharSequence}, without building a string for it.
+ */
+public final class HaxeScopeSymbolTable {
+
+  static final HaxeScopeSymbolTable EMPTY = new HaxeScopeSymbolTable(false, Collections.emptyMap());
+
+  private final boolean isBlock;
+  private final String[] names;
+  private final Entry[][] entries;
+
+  /**
+   * @param result        the element reported when the name matches.
+   * @param anchor        the direct child of the scope that declares the name, when its visibility depends on position.
+   * @param isIterator    whether this is a for-loop variable (not visible from the loop's own iterable).
+   * @param skipForTarget whether the declaration is itself a reference that must not resolve to itself.
+   */
+  private record Entry(@NotNull PsiElement result, @Nullable PsiElement anchor, boolean isIterator, boolean skipForTarget) {
+  }
+
+  private HaxeScopeSymbolTable(boolean isBlock, Map<String, List<Entry>> collected) {
+    this.isBlock = isBlock;
+    int capacity = Integer.highestOneBit(Math.max(1, collected.size()) * 2) * 2;
+    this.names = new String[capacity];
+    this.entries = new Entry[capacity][];
+    int mask = capacity - 1;
+    collected.forEach((name, list) -> {
+      int slot = name.hashCode() & mask;
+      while (names[slot] != null) slot = (slot + 1) & mask;
+      names[slot] = name;
+      entries[slot] = list.toArray(new Entry[0]);
+    });
+  }
+
+  @NotNull
+  static HaxeScopeSymbolTable build(@NotNull HaxePsiCompositeElementImpl scope, @NotNull List<PsiElement> declarations) {
+    if (declarations.isEmpty()) return EMPTY;
+
+    boolean isBlock = scope instanceof HaxeBlockStatement || scope instanceof HaxeSwitchCaseBlock;
+    Map<String, List<Entry>> collected = new HashMap<>();
+    for (PsiElement declaration : declarations) {
+      PsiElement result = getMatchingElement(declaration);
+      if (result == null) continue;
+      Entry entry = new Entry(result, findAnchor(scope, declaration), isIterator(scope, declaration),
+                              declaration instanceof HaxeExtractorMatchAssignExpression);
+      collected.computeIfAbsent(result.getText(), name -> new ArrayList<>(1)).add(entry);
+    }
+    return new HaxeScopeSymbolTable(isBlock, collected);
+  }
+
+  /**
+   * Finds the first declaration named {@code name} that is visible when the scope is entered from {@code lastParent}.
+   *
+   * @param scope      the element this table was built for.
+   * @param lastParent the child of the scope through which the lookup arrives (the previous scope of the walk).
+   * @param target     the element being resolved, if any.
+   */
+  @Nullable
+  PsiElement lookup(@NotNull PsiElement scope, @NotNull CharSequence name, @Nullable PsiElement lastParent, @Nullable PsiElement target) {
+    // A local function can be referenced from inside its own body.
+    if (lastParent instanceof HaxeLocalFunctionDeclaration localFunction) {
+      HaxeComponentName componentName = localFunction.getComponentName();
+      if (componentName != null && componentName.textMatches(name)) return componentName;
+    }
+
+    Entry[] candidates = find(name);
+    if (candidates == null) return null;
+
+    // In blocks, only declarations placed before the child we arrive from are visible.
+    int stopOffset = isBlock && lastParent != null && lastParent.getParent() == scope ? lastParent.getStartOffsetInParent() : -1;
+
+    for (Entry entry : candidates) {
+      if (entry.skipForTarget && entry.result == target) continue;
+      if (entry.isIterator && (lastParent instanceof HaxeIterable || entry.anchor == lastParent)) continue;
+      if (stopOffset >= 0 && entry.anchor != null && entry.anchor.getStartOffsetInParent() >= stopOffset) continue;
+      return entry.result;
+    }
+    return null;
+  }
+
+  @Nullable
+  private Entry[] find(@NotNull CharSequence name) {
+    int mask = names.length - 1;
+    int hash = StringUtil.stringHashCode(name);
+    for (int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask) {
+      if (names[slot].hashCode() == hash && StringUtil.equals(names[slot], name)) return entries[slot];
+    }
+    return null;
+  }
+
+  /**
+   * Mirrors the element matching of the resolver's scope processor: returns the element that is reported
+   * as the resolve result when the declaration's name matches.
+   */
+  @Nullable
+  private static PsiElement getMatchingElement(@NotNull PsiElement declaration) {
+    if (declaration.getParent() instanceof HaxeEnumObjectLiteralElement) {
+      return declaration;
+    }
+    if (declaration instanceof HaxeComponentName) {
+      return declaration;
+    }
+    if (declaration instanceof HaxeNamedComponent namedComponent) {
+      return namedComponent.getComponentName();
+    }
+    if (declaration instanceof HaxeOpenParameterList parameterList) {
+      return parameterList.getUntypedParameter().getComponentName();
+    }
+    if (declaration instanceof HaxeExtractorMatchAssignExpression assignExpression) {
+      return assignExpression.getReferenceExpression();
+    }
+    return null;
+  }
+
+  /**
+   * @return the direct child of a block that hides this declaration from references placed before it,
+   * or the iterator element for for-loop variables.
+   */
+  @Nullable
+  private static PsiElement findAnchor(@NotNull PsiElement scope, @NotNull PsiElement declaration) {
+    if (declaration instanceof HaxeLocalVarDeclaration && declaration.getParent() instanceof HaxeLocalVarDeclarationList list
+        && list.getParent() == scope) {
+      return list;
+    }
+    if (declaration instanceof HaxeLocalFunctionDeclaration && declaration.getParent() == scope) {
+      return declaration;
+    }
+    if (scope instanceof HaxeForStatement) {
+      if (declaration instanceof HaxeValueIterator) return declaration;
+      if (declaration.getParent() instanceof HaxeKeyValueIterator keyValueIterator) return keyValueIterator;
+    }
+    return null;
+  }
+
+  private static boolean isIterator(@NotNull PsiElement scope, @NotNull PsiElement declaration) {
+    return scope instanceof HaxeForStatement
+           && (declaration instanceof HaxeValueIterator || declaration.getParent() instanceof HaxeKeyValueIterator);
+  }
+}
@@ -0,0 +1,136 @@
+package com.intellij.plugins.haxe.metadata.util;
+
+import com.intellij.plugins.haxe.lang.psi.HaxeExpression;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataCompileTimeMeta;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataType;
+import com.intellij.plugins.haxe.metadata.psi.impl.HaxeMetadataTypeName;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The metadata associated with a declaration, collected once and kept until the containing file changes.
+ * <p>
+ * Besides the metadata elements themselves, the summary keeps their names (so that lookups don't have to go back to
+ * the PSI text), a bit set of the well-known names that are queried most, and the parsed arguments of compile-time
+ * metadata.
+ */
+final class HaxeMetadataSummary {
+
+  /**
+   * Metadata that is looked up on (nearly) every resolve or annotation pass.  Anything else is still found, just by
+   * comparing names instead of testing a bit.
+   */
+  private static final List<HaxeMetadataTypeName> WELL_KNOWN = List.of(
+    HaxeMeta.BUILD, HaxeMeta.AUTO_BUILD, HaxeMeta.GENERIC_BUILD, HaxeMeta.USING, HaxeMeta.NO_USING,
+    HaxeMeta.FORWARD, HaxeMeta.FORWARD_STATICS, HaxeMeta.OP, HaxeMeta.ARRAY_ACCESS, HaxeMeta.FROM, HaxeMeta.TO,
+    HaxeMeta.GENERIC, HaxeMeta.CORE_API, HaxeMeta.CORE_TYPE, HaxeMeta.ENUM, HaxeMeta.MULTI_TYPE, HaxeMeta.NATIVE,
+    HaxeMeta.OVERLOAD, HaxeMeta.OPTIONAL, HaxeMeta.COMMUTATIVE, HaxeMeta.CALLABLE, HaxeMeta.IS_VAR, HaxeMeta.FINAL,
+    HaxeMeta.MACRO, HaxeMeta.DEPRECATED, HaxeMeta.STRUCT_INIT
+  );
+  private static final Map<String, Integer> WELL_KNOWN_BITS = new HashMap<>();
+
+  static {
+    for (int i = 0; i < WELL_KNOWN.size(); i++) {
+      WELL_KNOWN_BITS.put(WELL_KNOWN.get(i).name, i);
+    }
+  }
+
+  static final HaxeMetadataSummary EMPTY = new HaxeMetadataSummary(List.of());
+
+  private final List<HaxeMeta> metas;
+  private final String[] names;
+  private final BitSet wellKnown = new BitSet(WELL_KNOWN.size());
+  private final Map<HaxeMeta, List<HaxeExpression>> arguments = new HashMap<>();
+
+  private HaxeMetadataSummary(@NotNull List<HaxeMeta> metas) {
+    this.metas = metas;
+    this.names = new String[metas.size()];
+    for (int i = 0; i < metas.size(); i++) {
+      HaxeMeta meta = metas.get(i);
+      HaxeMetadataType type = meta.getType();
+      names[i] = null == type ? "" : type.getText();
+      Integer bit = WELL_KNOWN_BITS.get(names[i]);
+      if (null != bit) {
+        wellKnown.set(bit);
+      }
+      if (meta instanceof HaxeMetadataCompileTimeMeta) {
+        arguments.put(meta, HaxeMetadataUtils.getCompileTimeExpressions(meta.getContent()));
+      }
+    }
+  }
+
+  @NotNull
+  static HaxeMetadataSummary of(@NotNull PsiElement element) {
+    return CachedValuesManager.getCachedValue(element, () -> {
+      List<HaxeMeta> found = new ArrayList<>();
+      HaxeMetadataUtils.findPrevMeta(element, found::add);
+      HaxeMetadataSummary summary = found.isEmpty() ? EMPTY : new HaxeMetadataSummary(List.copyOf(found));
+      PsiFile file = element.getContainingFile();
+      return CachedValueProvider.Result.create(summary, null != file ? file : PsiModificationTracker.MODIFICATION_COUNT);
+    });
+  }
+
+  boolean isEmpty() {
+    return metas.isEmpty();
+  }
+
+  /**
+   * @return the metadata, in order of appearance, that is of the given class and has the given name; either may be
+   * null to match everything.
+   */
+  @NotNull
+  List<HaxeMeta> find(@Nullable Class<? extends HaxeMeta> clazz, @Nullable HaxeMetadataTypeName metaName) {
+    if (metas.isEmpty() || !mayContain(metaName)) return List.of();
+    if (null == clazz && null == metaName) return metas;
+    List<HaxeMeta> result = new ArrayList<>(metas.size());
+    for (int i = 0; i < metas.size(); i++) {
+      if (matches(i, clazz, metaName)) {
+        result.add(metas.get(i));
+      }
+    }
+    return result;
+  }
+
+  boolean contains(@Nullable Class<? extends HaxeMeta> clazz, @NotNull HaxeMetadataTypeName metaName) {
+    if (metas.isEmpty() || !mayContain(metaName)) return false;
+    for (int i = 0; i < metas.size(); i++) {
+      if (matches(i, clazz, metaName)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the arguments of all compile-time metadata with the given name, in order of appearance.
+   */
+  @NotNull
+  List<HaxeExpression> getArguments(@NotNull HaxeMetadataTypeName metaName) {
+    if (metas.isEmpty() || !mayContain(metaName)) return List.of();
+    List<HaxeExpression> result = new ArrayList<>();
+    for (int i = 0; i < metas.size(); i++) {
+      List<HaxeExpression> metaArguments = arguments.get(metas.get(i));
+      if (null != metaArguments && metaName.matches(names[i])) {
+        result.addAll(metaArguments);
+      }
+    }
+    return result;
+  }
+
+  private boolean mayContain(@Nullable HaxeMetadataTypeName metaName) {
+    if (null == metaName) return true;
+    Integer bit = WELL_KNOWN_BITS.get(metaName.name);
+    return null == bit || wellKnown.get(bit);
+  }
+
+  private boolean matches(int index, @Nullable Class<? extends HaxeMeta> clazz, @Nullable HaxeMetadataTypeName metaName) {
+    return (null == clazz || clazz.isInstance(metas.get(index)))
+           && (null == metaName || metaName.matches(names[index]));
+  }
+}
@@ -33,7 +33,6 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -100,34 +99,27 @@ public class HaxeMetadataUtils {
                                                  @Nullable HaxeMetadataTypeName metaName) {
     // Runtime metadata is associated with the element that follows it, typically.  However, we don't left associate
     // it (e.g. add the meta as a child element in the PSI) because that means that *everything* then needs a getRuntimeMeta() method.
-    // Instead, we will check for previous siblings that might be meta and return them.
-
-    // Note that we want them in the list in order of appearance, but we are walking backward, so we use the stack to help us, instead
-    // of reversing the array when finished, or pushing elements into the beginning of the array.
+    // Instead, previous siblings that are meta are collected (once per element, see HaxeMetadataSummary) and returned.
     HaxeMetadataList list = new HaxeMetadataList();
-    if (null == clazz && null == metaName) {
-      findPrevMeta(element, list::add);
-    } else {
-      findPrevMeta(element, (HaxeMeta foundMeta) -> {
-        if (metaClassMatches(clazz, foundMeta)
-        &&  metaTypeMatches(metaName, foundMeta)) {
-          list.add(foundMeta);
-        }
-      } );
+    if (null != element) {
+      list.addAll(HaxeMetadataSummary.of(element).find(clazz, metaName));
     }
     return list;
   }
 
-  private static boolean metaClassMatches(@Nullable Class<? extends HaxeMeta> clazz, @Nullable HaxeMeta meta) {
-    return null == clazz || clazz.isInstance(meta);
-  }
-
-  private static boolean metaTypeMatches(@Nullable HaxeMetadataTypeName meta, @Nullable HaxeMeta foundMeta) {
-    return null != foundMeta && (null == meta || foundMeta.isType(meta));
+  /**
+   * Retrieve the arguments of the compile-time metadata of the given type associated with the element, if any.
+   *
+   * @return the arguments of all matching metadata, in order of appearance; empty list if none present.
+   */
+  @NotNull
+  public static List<HaxeExpression> getCompileTimeArguments(@Nullable PsiElement element, @NotNull HaxeMetadataTypeName metaName) {
+    if (null == element) return Collections.emptyList();
+    return HaxeMetadataSummary.of(element).getArguments(metaName);
   }
 
-  @Nullable
-  private static void findPrevMeta(PsiElement self, Consumer<HaxeMeta> lambda) {
+  // Walks backward, but hands the metadata to the lambda in order of appearance.
+  static void findPrevMeta(PsiElement self, Consumer<HaxeMeta> lambda) {
     if (null == self || null == lambda) return;
     PsiElement prev = UsefulPsiTreeUtil.getPrevSiblingSkipWhiteSpacesAndComments(self, true);
     // Workaround for getting metadata from  module members when metadata is not included in the module
@@ -180,21 +172,7 @@ public class HaxeMetadataUtils {
   public static boolean hasMeta(PsiElement element, Class<? extends HaxeMeta> metadataType, HaxeMetadataTypeName meta) {
     if (null == element) return false;
     if (null == meta) return false;
-    final AtomicBoolean hasMeta = new AtomicBoolean(false);
-    if (null == metadataType) {
-      findPrevMeta(element, (foundMeta) -> {
-        if (foundMeta.isType(meta)) {
-          hasMeta.set(true);
-        }
-      });
-    } else {
-      findPrevMeta(element, (foundMeta) -> {
-        if (metadataType.isInstance(foundMeta) && foundMeta.isType(meta)) {
-          hasMeta.set(true);
-        }
-      });
-    }
-    return hasMeta.get();
+    return HaxeMetadataSummary.of(element).contains(metadataType, meta);
   }
 
   @NotNull
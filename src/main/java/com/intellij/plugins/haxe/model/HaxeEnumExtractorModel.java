@@ -4,6 +4,7 @@ import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.type.HaxeGenericResolver;
 import com.intellij.plugins.haxe.model.type.ResultHolder;
 import com.intellij.plugins.haxe.model.type.SpecificHaxeClassReference;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValuesManager;
@@ -34,7 +35,8 @@ public class HaxeEnumExtractorModel implements HaxeModel {
 
   @Nullable
   private PsiElement resolveEnumValueCached() {
-    return CachedValuesManager.getProjectPsiDependentCache(extractor, HaxeEnumExtractorModel::computeResolveEnumValue);
+    return HaxeDependencyRecorder.replay(
+      CachedValuesManager.getProjectPsiDependentCache(extractor, e -> HaxeDependencyRecorder.recorded(() -> computeResolveEnumValue(e))));
   }
 
 
@@ -34,6 +34,9 @@ import com.intellij.util.ObjectUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.intellij.plugins.haxe.lang.psi.HaxePsiModifier.*;
 import static com.intellij.plugins.haxe.metadata.psi.HaxeMeta.OP;
 import static com.intellij.plugins.haxe.metadata.psi.HaxeMeta.OPTIONAL;
@@ -75,20 +78,34 @@ abstract public class HaxeMemberModel extends HaxeBaseMemberModel {
     return getNamedComponentPsi().hasCompileTimeMetadata(OPTIONAL);
   }
   public boolean isOperator(String operator) {
-    HaxeMetadataList list = getNamedComponentPsi().getMetadataList(HaxeMetadataCompileTimeMeta.class);
-    return list.getCompileTimeMeta().stream()
-      .filter(meta -> meta.isType(OP))
-      .anyMatch(meta ->  hasOperatorMeta(meta.getContent(), operator));
+    return getOperators().contains(operator);
+  }
 
+  /**
+   * @return the binary operators this member overloads through {@code @:op(A <operator> B)} metadata.
+   */
+  @NotNull
+  public List<String> getOperators() {
+    HaxeMetadataList list = getNamedComponentPsi().getMetadataList(HaxeMetadataCompileTimeMeta.class);
+    List<String> operators = new ArrayList<>();
+    for (HaxeMetadataCompileTimeMeta meta : list.getCompileTimeMeta()) {
+      if (!meta.isType(OP)) continue;
+      String operator = getOperator(meta.getContent());
+      if (operator != null) {
+        operators.add(operator);
+      }
+    }
+    return operators;
   }
 
-  private boolean hasOperatorMeta(HaxeMetadataContent content, String operator) {
+  @Nullable
+  private static String getOperator(HaxeMetadataContent content) {
     HaxeBinaryExpression binaryExpression = PsiTreeUtil.findChildOfType(content, HaxeBinaryExpression.class);
-    if (binaryExpression == null) return false;
+    if (binaryExpression == null) return null;
 
     @NotNull PsiElement[] children = binaryExpression.getChildren();
-    if (children.length < 2) return false;
-    return children[1].textMatches(operator);
+    if (children.length < 2) return null;
+    return children[1].getText();
   }
 
   private boolean isOverriddenPublicMethod() {
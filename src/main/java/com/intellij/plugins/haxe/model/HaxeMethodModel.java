@@ -29,6 +29,7 @@ import com.intellij.plugins.haxe.metadata.util.HaxeMetadataUtils;
 import com.intellij.plugins.haxe.model.type.*;
 import com.intellij.plugins.haxe.model.type.SpecificFunctionReference.Argument;
 import com.intellij.plugins.haxe.model.type.resolver.ResolveSource;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
 import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValueProvider;
@@ -164,7 +165,8 @@ public class HaxeMethodModel extends HaxeMemberModel implements HaxeExposableMod
     if ((resolver == null || resolver.isEmpty()) // must not use resolver
         && haxeMethod.getReturnType() !=null // must have type tag
         && haxeMethod.getGenericParam() != null) { // must not have generics
-      return CachedValuesManager.getProjectPsiDependentCache(haxeMethod,  HaxeMethodModel::getReturnTypeCacheProvider);
+      return HaxeDependencyRecorder.replay(
+        CachedValuesManager.getProjectPsiDependentCache(haxeMethod, HaxeMethodModel::getReturnTypeCacheProvider));
     }else {
       Boolean data = haxeMethod.getUserData(isVoidReturn);
       if (data == Boolean.TRUE) {
@@ -180,8 +182,8 @@ public class HaxeMethodModel extends HaxeMemberModel implements HaxeExposableMod
     }
   }
 
-  private static ResultHolder getReturnTypeCacheProvider(HaxeMethod haxeMethod) {
-    return HaxeTypeResolver.getFieldOrMethodReturnType(haxeMethod, null);
+  private static HaxeDependencyRecorder.Recorded<ResultHolder> getReturnTypeCacheProvider(HaxeMethod haxeMethod) {
+    return HaxeDependencyRecorder.recorded(() -> HaxeTypeResolver.getFieldOrMethodReturnType(haxeMethod, null));
   }
 
   public SpecificFunctionReference getFunctionType(@Nullable HaxeGenericResolver resolver) {
@@ -5,10 +5,13 @@ import com.intellij.openapi.util.RecursionManager;
 import com.intellij.plugins.haxe.model.type.HaxeGenericResolver;
 import com.intellij.plugins.haxe.model.type.ResultHolder;
 import com.intellij.plugins.haxe.model.type.SpecificTypeReference;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator._handle;
@@ -21,7 +24,10 @@ import static com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator.
  */
 public class HaxeExpressionEvaluatorCacheService  {
 
-  private volatile  Map<EvaluationKey, ResultHolder> cacheMap = new ConcurrentHashMap<>();
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("evaluator.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("evaluator.cache.miss");
+
+  private volatile  Map<EvaluationKey, HaxeDependencyRecorder.Recorded<ResultHolder>> cacheMap = new ConcurrentHashMap<>();
   public static boolean skipCaching = false;// just convenience flag for debugging
 
 
@@ -35,15 +41,37 @@ public class HaxeExpressionEvaluatorCacheService  {
       return holder;
     }
 
+    // Contexts that report problems have to visit every element: a cached result would skip its checks.
+    if (context != null && context.isReportingErrors()) {
+      ResultHolder holder = _handle(element, context, resolver);
+      return holder == null ? SpecificTypeReference.getUnknown(element).createHolder() : holder;
+    }
+
     EvaluationKey key = new EvaluationKey(element, resolver == null ? "NO_RESOLVER" : resolver.toCacheString());
-    if (cacheMap.containsKey(key)) {
-      return cacheMap.get(key);
+    boolean recording = HaxeDependencyRecorder.isRecording();
+    HaxeDependencyRecorder.Recorded<ResultHolder> cached = cacheMap.get(key);
+    // Results evaluated while nothing was recording don't know their dependencies; evaluate again for a recording.
+    if (cached != null && (cached.complete() || !recording)) {
+      cacheHits.increment();
+      // The files the evaluation looked into are still what the result depends on.
+      return HaxeDependencyRecorder.replay(cached);
     }
     else {
-      ResultHolder holder = _handle(element, context, resolver);
+      cacheMisses.increment();
+      HaxeDependencyRecorder.Recorded<ResultHolder> evaluation;
+      if (recording) {
+        evaluation = HaxeDependencyRecorder.recorded(() -> {
+          HaxeDependencyRecorder.record(element);
+          return _handle(element, context, resolver);
+        });
+      }
+      else {
+        evaluation = new HaxeDependencyRecorder.Recorded<>(_handle(element, context, resolver), Set.of(), false);
+      }
+      ResultHolder holder = evaluation.value();
       if(holder == null) return SpecificTypeReference.getUnknown(element).createHolder();
       if (!holder.isUnknown() && !holder.containsUnknownTypeParameters()) {
-        cacheMap.put(key, holder);
+        cacheMap.put(key, evaluation);
       }
       return holder;
     }
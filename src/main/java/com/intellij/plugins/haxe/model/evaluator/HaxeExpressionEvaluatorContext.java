@@ -40,22 +40,36 @@ public class HaxeExpressionEvaluatorContext {
   private List<HaxeExpressionEvaluatorReturnInfo> returnInfos = new ArrayList<HaxeExpressionEvaluatorReturnInfo>();
 
   public AnnotationHolder holder;
+  /** When set, problems are recorded here instead of being reported to a holder. */
+  @Nullable private final List<HaxeExpressionEvaluatorProblem> problems;
   private HaxeScope<ResultHolder> scope = new HaxeScope<ResultHolder>();
   public final PsiElement root;
 
   public HaxeExpressionEvaluatorContext(@NotNull PsiElement body) {
-    this.root = body;
-    this.holder = null;
-    beginScope();
+    this(body, null, null);
   }
   public HaxeExpressionEvaluatorContext(@NotNull PsiElement body, @Nullable AnnotationHolder holder) {
+    this(body, holder, null);
+  }
+
+  /**
+   * Creates a context that collects the problems it finds into {@code problems}, so that they can be replayed
+   * later (see {@link HaxeExpressionEvaluatorProblem#annotate}).
+   */
+  public HaxeExpressionEvaluatorContext(@NotNull PsiElement body, @NotNull List<HaxeExpressionEvaluatorProblem> problems) {
+    this(body, null, problems);
+  }
+
+  private HaxeExpressionEvaluatorContext(@NotNull PsiElement body, @Nullable AnnotationHolder holder,
+                                         @Nullable List<HaxeExpressionEvaluatorProblem> problems) {
     this.root = body;
     this.holder = holder;
+    this.problems = problems;
     beginScope();
   }
 
   public HaxeExpressionEvaluatorContext createChild(PsiElement body) {
-    HaxeExpressionEvaluatorContext that = new HaxeExpressionEvaluatorContext(body, this.holder);
+    HaxeExpressionEvaluatorContext that = new HaxeExpressionEvaluatorContext(body, this.holder, this.problems);
     that.scope = this.scope;
     that.beginScope();
     return that;
@@ -116,6 +130,10 @@ public class HaxeExpressionEvaluatorContext {
 
   @NotNull
   public void addError(PsiElement element, String error, HaxeFixer... fixers) {
+    if (problems != null) {
+      problems.add(new HaxeExpressionEvaluatorProblem(element, HighlightSeverity.ERROR, error, null, fixers));
+      return;
+    }
     if (holder == null) return;
     AnnotationBuilder builder = holder.newAnnotation(HighlightSeverity.ERROR, error).range(element);
     for (HaxeFixer fixer : fixers) {
@@ -126,6 +144,10 @@ public class HaxeExpressionEvaluatorContext {
 
   @NotNull
   public void addWarning(PsiElement element, String error, HaxeFixer... fixers) {
+    if (problems != null) {
+      problems.add(new HaxeExpressionEvaluatorProblem(element, HighlightSeverity.WARNING, error, null, fixers));
+      return;
+    }
     if (holder == null) return ;
     AnnotationBuilder builder = holder.newAnnotation(HighlightSeverity.WARNING, error).range(element);
     for (HaxeFixer fixer : fixers) {
@@ -135,13 +157,18 @@ public class HaxeExpressionEvaluatorContext {
   }
 
   public boolean isReportingErrors() {
-    return holder != null;
+    return holder != null || problems != null;
   }
 
 
 
   @NotNull
   public void addUnreachable(PsiElement element) {
+    if (problems != null) {
+      problems.add(new HaxeExpressionEvaluatorProblem(element, HighlightSeverity.INFORMATION, null,
+                                                      HaxeSyntaxHighlighterColors.LINE_COMMENT, new HaxeFixer[0]));
+      return;
+    }
     if (holder == null) return ;
     holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
       .textAttributes(HaxeSyntaxHighlighterColors.LINE_COMMENT)
@@ -1,11 +1,9 @@
 package com.intellij.plugins.haxe.model.evaluator;
 
 import com.intellij.lang.ASTNode;
-import com.intellij.lang.annotation.AnnotationBuilder;
 import com.intellij.openapi.util.RecursionGuard;
 import com.intellij.openapi.util.RecursionManager;
 import com.intellij.plugins.haxe.HaxeBundle;
-import com.intellij.plugins.haxe.ide.annotator.HaxeStandardAnnotation;
 import com.intellij.plugins.haxe.ide.annotator.semantics.HaxeCallExpressionUtil;
 import com.intellij.plugins.haxe.lang.lexer.HaxeEmbeddedElementType;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets;
@@ -52,6 +50,7 @@ public class HaxeExpressionEvaluatorHandlers {
 
   private static final RecursionGuard<PsiElement>
     evaluatorHandlersRecursionGuard = RecursionManager.createGuard("EvaluatorHandlersRecursionGuard");
+  private static final HaxeMetrics.Counter recursionGuardTrips = HaxeMetrics.counter("evaluator.recursionGuard.trips");
 
   @Nullable
   static ResultHolder handleWithRecursionGuard(PsiElement element,
@@ -59,7 +58,14 @@ public class HaxeExpressionEvaluatorHandlers {
                                                HaxeGenericResolver resolver) {
 
     if (element == null ) return null;
-    return evaluatorHandlersRecursionGuard.doPreventingRecursion(element, true, () -> handle(element, context, resolver));
+    // handle() may return null itself, wrapping its result tells that apart from the guard preventing the call.
+    Optional<ResultHolder> result =
+      evaluatorHandlersRecursionGuard.doPreventingRecursion(element, true, () -> Optional.ofNullable(handle(element, context, resolver)));
+    if (result == null) {
+      recursionGuardTrips.increment();
+      return null;
+    }
+    return result.orElse(null);
   }
 
 
@@ -1554,16 +1560,15 @@ public class HaxeExpressionEvaluatorHandlers {
       // skipping `canAssign` check if we dont have a holder to add annotations to
       // this is probably just waste of time when resolving in files we dont have open.
       // TODO try to  see if we need this or can move it so its not executed unnessesary
-      if (context.holder != null) {
+      if (context.isReportingErrors()) {
         if (!leftResult.canAssign(rightResult)) {
 
-          List<HaxeExpressionConversionFixer> fixers = HaxeExpressionConversionFixer.createStdTypeFixers(right, rightValue, leftValue);
-          AnnotationBuilder builder = HaxeStandardAnnotation
-            .typeMismatch(context.holder, right, rightValue.toStringWithoutConstant(), leftValue.toStringWithoutConstant())
-            .withFix(new HaxeCastFixer(right, rightValue, leftValue));
-
-          fixers.forEach(builder::withFix);
-          builder.create();
+          List<HaxeFixer> fixers = new ArrayList<>();
+          fixers.add(new HaxeCastFixer(right, rightValue, leftValue));
+          fixers.addAll(HaxeExpressionConversionFixer.createStdTypeFixers(right, rightValue, leftValue));
+          context.addError(right, HaxeBundle.message("haxe.semantic.incompatible.type.0.should.be.1",
+                                                     rightValue.toStringWithoutConstant(), leftValue.toStringWithoutConstant()),
+                           fixers.toArray(new HaxeFixer[0]));
         }
       }
 
@@ -1879,7 +1884,7 @@ public class HaxeExpressionEvaluatorHandlers {
       HaxeExpression expression = parameterExpressions.get(n);
       ResultHolder value = handle(expression, context, resolver);
 
-      if (context.holder != null) {
+      if (context.isReportingErrors()) {
         if (!type.canAssign(value)) {
           context.addError(
             expression,
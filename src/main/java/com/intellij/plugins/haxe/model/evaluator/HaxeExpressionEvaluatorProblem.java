@@ -0,0 +1,37 @@
+package com.intellij.plugins.haxe.model.evaluator;
+
+import com.intellij.lang.annotation.AnnotationBuilder;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.plugins.haxe.model.fixer.HaxeFixer;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A problem found while evaluating an expression with a recording context
+ * (see {@link HaxeExpressionEvaluatorContext#HaxeExpressionEvaluatorContext(PsiElement, java.util.List)}),
+ * kept so that it can be reported again without re-evaluating the code.
+ *
+ * @param message null for silent annotations (e.g. unreachable code).
+ */
+public record HaxeExpressionEvaluatorProblem(@NotNull PsiElement element,
+                                             @NotNull HighlightSeverity severity,
+                                             @Nullable String message,
+                                             @Nullable TextAttributesKey textAttributes,
+                                             @NotNull HaxeFixer[] fixers) {
+
+  public void annotate(@NotNull AnnotationHolder holder) {
+    if (!element.isValid()) return;
+    AnnotationBuilder builder = message == null ? holder.newSilentAnnotation(severity) : holder.newAnnotation(severity, message);
+    builder = builder.range(element);
+    if (textAttributes != null) {
+      builder = builder.textAttributes(textAttributes);
+    }
+    for (HaxeFixer fixer : fixers) {
+      builder = builder.withFix(fixer);
+    }
+    builder.create();
+  }
+}
@@ -0,0 +1,430 @@
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.plugins.haxe.haxelib.definitions.HaxeDefineDetectionManager;
+import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.plugins.haxe.lang.psi.impl.HaxeClassWrapperForTypeParameter;
+import com.intellij.plugins.haxe.util.HaxeDeclarationSignatureUtil;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the types inferred for class fields and methods that have no type tag, so that they are not evaluated again
+ * (from their initializer or return statements) as long as neither their file nor the declarations they depend on
+ * change, including across IDE restarts.
+ * <p>
+ * A type is kept with the content stamp of its file, a stamp of the environment it was evaluated in (compiler
+ * definitions, SDKs and libraries) and the declaration signature stamps (see {@link HaxeDeclarationSignatureUtil}) of
+ * the files its evaluation looked into, and is written to a file in the system directory every few minutes and when
+ * the project is closed.  Only evaluations whose dependencies were all recorded (see {@link HaxeDependencyRecorder})
+ * are kept, and only types that can be rebuilt from qualified class names: class types, with type parameters that are
+ * class types themselves.  Functions, anonymous structures, type parameters, constants and unknowns are evaluated
+ * every time, as before.
+ */
+@CustomLog
+public class HaxeDeclarationTypeCache implements Disposable {
+
+  private static final int FORMAT_VERSION = 2;
+  private static final int SAVE_INTERVAL_MINUTES = 5;
+
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("declarationTypes.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("declarationTypes.cache.miss");
+
+  /**
+   * A class type, by qualified name, and its type parameters.
+   */
+  private record StoredType(@NotNull String qualifiedName, @NotNull List<StoredType> specifics) {
+  }
+
+  /**
+   * @param dependencies declaration signature stamps of the other files the type was inferred from, by URL.
+   */
+  private record StoredDeclaration(@NotNull StoredType type, @NotNull Map<String, Long> dependencies) {
+  }
+
+  /**
+   * @param contentStamp     hash and length of the file's text, see {@link HaxeDeclarationSignatureUtil#getContentStamp}.
+   * @param environmentStamp see {@link #getEnvironmentStamp}.
+   * @param declarations     by text offset of the declaration, which the content stamp keeps meaningful.
+   */
+  private record FileTypes(long contentStamp, long environmentStamp, @NotNull Map<Integer, StoredDeclaration> declarations) {
+  }
+
+  private final Project project;
+  private final Map<String, FileTypes> files = new ConcurrentHashMap<>();
+  private volatile boolean modified;
+  private final @Nullable ScheduledFuture<?> saveTask;
+
+  public HaxeDeclarationTypeCache(@NotNull Project project) {
+    this.project = project;
+    if (ApplicationManager.getApplication().isUnitTestMode()) {
+      saveTask = null;
+    }
+    else {
+      load();
+      // Written now and then as well, so that a crash or a killed IDE doesn't lose the whole session.
+      saveTask = AppExecutorUtil.getAppScheduledExecutorService()
+        .scheduleWithFixedDelay(this::saveIfModified, SAVE_INTERVAL_MINUTES, SAVE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+  }
+
+  public static HaxeDeclarationTypeCache getInstance(@NotNull Project project) {
+    return project.getService(HaxeDeclarationTypeCache.class);
+  }
+
+  /**
+   * @return whether the declaration's type is inferred, and independent of where it is used from: class fields with an
+   * initializer and methods (other than constructors), without a type tag, in a file on disk.
+   */
+  public static boolean isCacheable(@NotNull HaxeNamedComponent component) {
+    if (component instanceof HaxeMethodDeclaration method) {
+      if (method.getModel() == null || method.getModel().isConstructor()) return false;
+    }
+    else if (component instanceof HaxeFieldDeclaration field) {
+      if (field.getVarInit() == null) return false;
+    }
+    else {
+      return false;
+    }
+    if (PsiTreeUtil.getChildOfType(component, HaxeTypeTag.class) != null) return false;
+    PsiFile file = component.getContainingFile();
+    return file != null && file.getViewProvider().isPhysical() && file.getVirtualFile() != null;
+  }
+
+  /**
+   * @return the type kept for the declaration if it is still valid, or else the result of {@code evaluation}, which
+   * is kept when it can be.
+   */
+  @NotNull
+  public ResultHolder getType(@NotNull HaxeNamedComponent component, @NotNull Supplier<ResultHolder> evaluation) {
+    if (DumbService.isDumb(project)) return evaluation.get();
+    PsiFile file = component.getContainingFile();
+    String url = file.getVirtualFile().getUrl();
+    long contentStamp = HaxeDeclarationSignatureUtil.getContentStamp(file);
+    long environmentStamp = getEnvironmentStamp();
+    int offset = component.getTextOffset();
+
+    FileTypes fileTypes = files.get(url);
+    StoredDeclaration stored = fileTypes != null && fileTypes.contentStamp() == contentStamp && fileTypes.environmentStamp() == environmentStamp
+                               ? fileTypes.declarations().get(offset)
+                               : null;
+    if (stored != null) {
+      List<PsiFile> dependencies = findDependencies(stored);
+      ResultHolder type = dependencies == null ? null : toResultHolder(stored.type(), component);
+      if (type != null) {
+        cacheHits.increment();
+        Set<PsiFile> replayed = new HashSet<>(dependencies);
+        replayed.add(file.getOriginalFile());
+        return HaxeDependencyRecorder.replay(new HaxeDependencyRecorder.Recorded<>(type, replayed));
+      }
+    }
+    cacheMisses.increment();
+
+    int skippedRecursions = HaxeTypeResolver.getSkippedRecursions();
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    HaxeDependencyRecorder.Recorded<ResultHolder> evaluated = HaxeDependencyRecorder.recorded(evaluation);
+    ResultHolder type = evaluated.value();
+    if (!stamp.mayCacheNow() || skippedRecursions != HaxeTypeResolver.getSkippedRecursions()) return type;
+    // A type kept across sessions is only checked against the dependencies that were recorded.
+    if (!evaluated.complete()) return type;
+
+    StoredType storedType = toStoredType(type, component);
+    if (storedType != null) {
+      Map<String, Long> dependencyStamps = new HashMap<>();
+      for (PsiFile dependency : evaluated.dependencies()) {
+        VirtualFile virtualFile = dependency.getVirtualFile();
+        if (virtualFile != null && !virtualFile.getUrl().equals(url)) {
+          dependencyStamps.put(virtualFile.getUrl(), HaxeDeclarationSignatureUtil.getSignatureStamp(dependency));
+        }
+      }
+      FileTypes current = files.compute(url, (key, existing) ->
+        existing != null && existing.contentStamp() == contentStamp && existing.environmentStamp() == environmentStamp
+        ? existing
+        : new FileTypes(contentStamp, environmentStamp, new ConcurrentHashMap<>()));
+      current.declarations().put(offset, new StoredDeclaration(storedType, Map.copyOf(dependencyStamps)));
+      modified = true;
+    }
+    return type;
+  }
+
+  /**
+   * @return a stamp of what decides how the project's code reads besides its files: the compiler definitions (which
+   * select conditional compilation branches), and the SDKs and libraries with their versions and roots.
+   */
+  private long getEnvironmentStamp() {
+    HaxeDefineDetectionManager defineManager = HaxeDefineDetectionManager.getInstance(project);
+    long stamp = CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+      computeDefinitionsStamp(project), HaxeProjectSettings.getInstance(project).getModificationTracker(),
+      defineManager.getModificationTracker()));
+    return 31 * stamp + CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+      computeRootsStamp(project), ProjectRootManager.getInstance(project)));
+  }
+
+  private static long computeDefinitionsStamp(@NotNull Project project) {
+    long stamp = 0;
+    for (Map.Entry<String, String> definition : new TreeMap<>(HaxeDefineDetectionManager.getInstance(project).getAllDefinitions()).entrySet()) {
+      stamp = hash(hash(stamp, definition.getKey()), definition.getValue());
+    }
+    return stamp;
+  }
+
+  private static long computeRootsStamp(@NotNull Project project) {
+    List<String> roots = new ArrayList<>();
+    for (Module module : ModuleManager.getInstance(project).getModules()) {
+      Sdk sdk = ModuleRootManager.getInstance(module).getSdk();
+      if (sdk != null) {
+        roots.add(sdk.getName() + "|" + sdk.getVersionString() + "|" + sdk.getHomePath());
+      }
+    }
+    OrderEnumerator.orderEntries(project).librariesOnly().forEachLibrary(library -> {
+      roots.add(String.valueOf(library.getName()));
+      roots.addAll(Arrays.asList(library.getUrls(OrderRootType.CLASSES)));
+      return true;
+    });
+    Collections.sort(roots);
+    long stamp = roots.size();
+    for (String root : roots) {
+      stamp = hash(stamp, root);
+    }
+    return stamp;
+  }
+
+  private static long hash(long hash, @Nullable String text) {
+    if (text == null) return 31 * hash;
+    for (int i = 0; i < text.length(); i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    return 31 * hash + text.length();
+  }
+
+  /**
+   * @return the files the declaration depends on, or null if one of them is gone or has different declarations now.
+   */
+  @Nullable
+  private List<PsiFile> findDependencies(@NotNull StoredDeclaration stored) {
+    PsiManager psiManager = PsiManager.getInstance(project);
+    List<PsiFile> dependencies = new ArrayList<>(stored.dependencies().size());
+    for (Map.Entry<String, Long> dependency : stored.dependencies().entrySet()) {
+      VirtualFile virtualFile = VirtualFileManager.getInstance().findFileByUrl(dependency.getKey());
+      PsiFile dependencyFile = virtualFile == null ? null : psiManager.findFile(virtualFile);
+      if (dependencyFile == null || HaxeDeclarationSignatureUtil.getSignatureStamp(dependencyFile) != dependency.getValue()) {
+        return null;
+      }
+      dependencies.add(dependencyFile);
+    }
+    return dependencies;
+  }
+
+  @Nullable
+  private static StoredType toStoredType(@Nullable ResultHolder holder, @NotNull PsiElement context) {
+    if (holder == null || holder.isUnknown() || holder.isTypeParameter()) return null;
+    SpecificHaxeClassReference classType = holder.getClassType();
+    if (classType == null || classType.getConstant() != null || classType.getRangeConstraint() != null) return null;
+    if (classType.getHaxeClassReference().isTypeParameter()) return null;
+
+    HaxeClass haxeClass = classType.getHaxeClass();
+    if (haxeClass == null || haxeClass instanceof HaxeAnonymousType || haxeClass instanceof HaxeClassWrapperForTypeParameter) {
+      return null;
+    }
+    String qualifiedName = haxeClass.getQualifiedName();
+    // The type has to come back as the same class when it is read again.
+    if (qualifiedName == null || qualifiedName.isEmpty() || HaxeResolveUtil.findClassByQName(qualifiedName, context) != haxeClass) {
+      return null;
+    }
+
+    ResultHolder[] specifics = classType.getSpecifics();
+    List<StoredType> storedSpecifics = new ArrayList<>(specifics.length);
+    for (ResultHolder specific : specifics) {
+      StoredType storedSpecific = toStoredType(specific, context);
+      if (storedSpecific == null) return null;
+      storedSpecifics.add(storedSpecific);
+    }
+    return new StoredType(qualifiedName, List.copyOf(storedSpecifics));
+  }
+
+  @Nullable
+  private static ResultHolder toResultHolder(@NotNull StoredType type, @NotNull PsiElement context) {
+    HaxeClass haxeClass = HaxeResolveUtil.findClassByQName(type.qualifiedName(), context);
+    if (haxeClass == null || haxeClass.getModel() == null) return null;
+    ResultHolder[] specifics = new ResultHolder[type.specifics().size()];
+    for (int i = 0; i < specifics.length; i++) {
+      specifics[i] = toResultHolder(type.specifics().get(i), context);
+      if (specifics[i] == null) return null;
+    }
+    HaxeClassReference reference = new HaxeClassReference(haxeClass.getModel(), context);
+    return SpecificHaxeClassReference.withGenerics(reference, specifics).createHolder();
+  }
+
+  @NotNull
+  private Path getCacheFile() {
+    return PathManager.getSystemDir().resolve("haxe").resolve("declaration-types").resolve(project.getLocationHash() + ".dat");
+  }
+
+  private void load() {
+    Path path = getCacheFile();
+    if (!Files.exists(path)) return;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      read(in);
+    }
+    catch (IOException | RuntimeException e) {
+      // A damaged cache only costs the evaluations it would have saved.
+      log.warn("Could not read the Haxe declaration type cache " + path, e);
+      files.clear();
+    }
+  }
+
+  /**
+   * Replaces the kept types with those of the stream, unless it was written in another format.
+   */
+  void read(@NotNull DataInput in) throws IOException {
+    files.clear();
+    if (DataInputOutputUtil.readINT(in) != FORMAT_VERSION) return;
+    String[] urls = new String[DataInputOutputUtil.readINT(in)];
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = IOUtil.readUTF(in);
+    }
+    for (int fileCount = DataInputOutputUtil.readINT(in); fileCount > 0; fileCount--) {
+      String url = urls[DataInputOutputUtil.readINT(in)];
+      long contentStamp = DataInputOutputUtil.readLONG(in);
+      long environmentStamp = DataInputOutputUtil.readLONG(in);
+      Map<Integer, StoredDeclaration> declarations = new ConcurrentHashMap<>();
+      for (int declarationCount = DataInputOutputUtil.readINT(in); declarationCount > 0; declarationCount--) {
+        int offset = DataInputOutputUtil.readINT(in);
+        StoredType type = readType(in);
+        Map<String, Long> dependencies = new HashMap<>();
+        for (int dependencyCount = DataInputOutputUtil.readINT(in); dependencyCount > 0; dependencyCount--) {
+          dependencies.put(urls[DataInputOutputUtil.readINT(in)], DataInputOutputUtil.readLONG(in));
+        }
+        declarations.put(offset, new StoredDeclaration(type, Map.copyOf(dependencies)));
+      }
+      files.put(url, new FileTypes(contentStamp, environmentStamp, declarations));
+    }
+  }
+
+  private void saveIfModified() {
+    if (modified && !project.isDisposed()) {
+      save();
+    }
+  }
+
+  private synchronized void save() {
+    // Cleared first: types kept while writing are written next time.
+    modified = false;
+    Path path = getCacheFile();
+    // Drop the files that are gone, their URLs would only grow the table.
+    files.keySet().removeIf(url -> VirtualFileManager.getInstance().findFileByUrl(url) == null);
+    try {
+      Files.createDirectories(path.getParent());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+        write(out);
+      }
+    }
+    catch (IOException e) {
+      log.warn("Could not write the Haxe declaration type cache " + path, e);
+    }
+  }
+
+  void write(@NotNull DataOutput out) throws IOException {
+    // A snapshot, as types are kept by other threads while this runs.
+    Map<String, FileTypes> snapshot = new LinkedHashMap<>();
+    files.forEach((url, fileTypes) -> snapshot.put(url, new FileTypes(fileTypes.contentStamp(), fileTypes.environmentStamp(),
+                                                                       Map.copyOf(fileTypes.declarations()))));
+    Map<String, Integer> urlIndexes = new LinkedHashMap<>();
+    snapshot.forEach((url, fileTypes) -> {
+      urlIndexes.putIfAbsent(url, urlIndexes.size());
+      fileTypes.declarations().values().forEach(declaration -> declaration.dependencies().keySet()
+        .forEach(dependency -> urlIndexes.putIfAbsent(dependency, urlIndexes.size())));
+    });
+
+    DataInputOutputUtil.writeINT(out, FORMAT_VERSION);
+    DataInputOutputUtil.writeINT(out, urlIndexes.size());
+    for (String url : urlIndexes.keySet()) {
+      IOUtil.writeUTF(out, url);
+    }
+    DataInputOutputUtil.writeINT(out, snapshot.size());
+    for (Map.Entry<String, FileTypes> entry : snapshot.entrySet()) {
+      DataInputOutputUtil.writeINT(out, urlIndexes.get(entry.getKey()));
+      DataInputOutputUtil.writeLONG(out, entry.getValue().contentStamp());
+      DataInputOutputUtil.writeLONG(out, entry.getValue().environmentStamp());
+      Map<Integer, StoredDeclaration> declarations = entry.getValue().declarations();
+      DataInputOutputUtil.writeINT(out, declarations.size());
+      for (Map.Entry<Integer, StoredDeclaration> declaration : declarations.entrySet()) {
+        DataInputOutputUtil.writeINT(out, declaration.getKey());
+        writeType(out, declaration.getValue().type());
+        Map<String, Long> dependencies = declaration.getValue().dependencies();
+        DataInputOutputUtil.writeINT(out, dependencies.size());
+        for (Map.Entry<String, Long> dependency : dependencies.entrySet()) {
+          DataInputOutputUtil.writeINT(out, urlIndexes.get(dependency.getKey()));
+          DataInputOutputUtil.writeLONG(out, dependency.getValue());
+        }
+      }
+    }
+  }
+
+  private static void writeType(@NotNull DataOutput out, @NotNull StoredType type) throws IOException {
+    IOUtil.writeUTF(out, type.qualifiedName());
+    DataInputOutputUtil.writeINT(out, type.specifics().size());
+    for (StoredType specific : type.specifics()) {
+      writeType(out, specific);
+    }
+  }
+
+  @NotNull
+  private static StoredType readType(@NotNull DataInput in) throws IOException {
+    String qualifiedName = IOUtil.readUTF(in);
+    int count = DataInputOutputUtil.readINT(in);
+    List<StoredType> specifics = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      specifics.add(readType(in));
+    }
+    return new StoredType(qualifiedName, List.copyOf(specifics));
+  }
+
+  @Override
+  public void dispose() {
+    if (saveTask != null) {
+      saveTask.cancel(false);
+    }
+    if (modified && !ApplicationManager.getApplication().isUnitTestMode()) {
+      save();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
+import com.intellij.plugins.haxe.model.HaxeBaseMemberModel;
+import com.intellij.plugins.haxe.model.HaxeClassModel;
+import com.intellij.plugins.haxe.model.HaxeMethodModel;
+import com.intellij.plugins.haxe.model.HaxeParameterModel;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The {@code @:op} overloads of a class, by operator, with the types of their parameters extracted once.
+ * <p>
+ * Both forms of overloads are kept: member methods, whose single parameter is the right operand ({@code this} being
+ * the left one), and static methods taking both operands.  An overload marked {@code @:commutative} is also entered
+ * with its operands swapped, as a two-operand overload.
+ */
+public final class HaxeOperatorOverloads {
+
+  private static final HaxeOperatorOverloads EMPTY = new HaxeOperatorOverloads(Map.of());
+
+  /**
+   * @param operandTypes the type of the right operand for member overloads, of both operands for static (and swapped
+   *                     commutative) ones.
+   */
+  public record Overload(@NotNull HaxeMethodModel method, @NotNull List<ResultHolder> operandTypes) {
+
+    public boolean isMemberForm() {
+      return operandTypes.size() == 1;
+    }
+
+    @Nullable
+    public SpecificTypeReference getReturnType() {
+      return method.getReturnType(null).getType();
+    }
+  }
+
+  private final Map<String, List<Overload>> overloads;
+
+  private HaxeOperatorOverloads(@NotNull Map<String, List<Overload>> overloads) {
+    this.overloads = overloads;
+  }
+
+  @NotNull
+  public static HaxeOperatorOverloads of(@Nullable HaxeClassModel classModel) {
+    HaxeClass haxeClass = classModel == null ? null : classModel.haxeClass;
+    if (haxeClass == null) return EMPTY;
+    return HaxeDependencyRecorder.replay(
+      CachedValuesManager.getProjectPsiDependentCache(haxeClass, c -> HaxeDependencyRecorder.recorded(() -> build(c.getModel()))));
+  }
+
+  @NotNull
+  public List<Overload> get(@NotNull String operator) {
+    return overloads.getOrDefault(operator, List.of());
+  }
+
+  @NotNull
+  private static HaxeOperatorOverloads build(@Nullable HaxeClassModel classModel) {
+    if (classModel == null) return EMPTY;
+    Map<String, List<Overload>> overloads = new HashMap<>();
+    for (HaxeBaseMemberModel member : classModel.getMembers(null)) {
+      if (!(member instanceof HaxeMethodModel method) || !method.hasOperatorMeta()) continue;
+      List<String> operators = method.getOperators();
+      if (operators.isEmpty()) continue;
+
+      List<ResultHolder> operandTypes = new ArrayList<>();
+      for (HaxeParameterModel parameter : method.getParameters()) {
+        operandTypes.add(parameter.getType());
+      }
+      List<Overload> forms = new ArrayList<>(2);
+      forms.add(new Overload(method, List.copyOf(operandTypes)));
+      if (method.getNamedComponentPsi().hasCompileTimeMetadata(HaxeMeta.COMMUTATIVE)) {
+        if (operandTypes.size() == 1) {
+          forms.add(new Overload(method, List.of(operandTypes.get(0), classModel.getInstanceType())));
+        }
+        else if (operandTypes.size() == 2) {
+          forms.add(new Overload(method, List.of(operandTypes.get(1), operandTypes.get(0))));
+        }
+      }
+      for (String operator : operators) {
+        overloads.computeIfAbsent(operator, k -> new ArrayList<>()).addAll(forms);
+      }
+    }
+    return overloads.isEmpty() ? EMPTY : new HaxeOperatorOverloads(overloads);
+  }
+}
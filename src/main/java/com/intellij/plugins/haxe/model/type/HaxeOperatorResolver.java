@@ -17,16 +17,32 @@
  */
 package com.intellij.plugins.haxe.model.type;
 
-import com.intellij.plugins.haxe.model.HaxeMethodModel;
-import com.intellij.plugins.haxe.model.HaxeParameterModel;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorContext;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HaxeOperatorResolver {
+
+  private static final Key<CachedValue<Map<OverloadKey, HaxeDependencyRecorder.Recorded<SpecificTypeReference>>>> OVERLOAD_RESULTS =
+    Key.create("HAXE_OPERATOR_OVERLOAD_RESULTS");
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("operator.overload.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("operator.overload.cache.miss");
+
   static public SpecificTypeReference getBinaryOperatorResult(
     PsiElement elementContext,
     SpecificTypeReference left,
@@ -120,7 +136,7 @@ public class HaxeOperatorResolver {
     }
 
     // check overloads
-    SpecificTypeReference overloadResult = checkOverloads(left, right, operator);
+    SpecificTypeReference overloadResult = checkOverloads(elementContext, left, right, operator);
     // if overload matched use result
     if (overloadResult != null) {
       result = overloadResult;
@@ -144,55 +160,112 @@ public class HaxeOperatorResolver {
     return result != null ? result : SpecificHaxeClassReference.getUnknown(elementContext);
   }
 
-  private static SpecificTypeReference checkOverloads(SpecificTypeReference type1,
-                                                    SpecificTypeReference type2,
+  /**
+   * Identifies the operand types of an overload lookup; classes are compared by PSI, so that classes with the same
+   * name in different packages are told apart.
+   */
+  private record OverloadKey(String operator, HaxeClass leftClass, String leftType, HaxeClass rightClass, String rightType) {
+    static OverloadKey create(String operator, SpecificTypeReference left, SpecificTypeReference right) {
+      return new OverloadKey(operator, getHaxeClass(left), left.toStringWithoutConstant(),
+                             getHaxeClass(right), right.toStringWithoutConstant());
+    }
+
+    private static HaxeClass getHaxeClass(SpecificTypeReference type) {
+      return type instanceof SpecificHaxeClassReference classReference ? classReference.getHaxeClass() : null;
+    }
+  }
+
+  @Nullable
+  private static SpecificTypeReference checkOverloads(@Nullable PsiElement elementContext,
+                                                      SpecificTypeReference type1,
+                                                      SpecificTypeReference type2,
                                                       String operator) {
-    List<HaxeMethodModel> overloads = new ArrayList<>();
+    List<HaxeOperatorOverloads.Overload> overloads = new ArrayList<>();
     if (type1 instanceof  SpecificHaxeClassReference classReference) {
-      overloads.addAll(classReference.getOperatorOverloads(operator));
+      overloads.addAll(classReference.getOperatorOverloadTable().get(operator));
     }
     if (type2 instanceof  SpecificHaxeClassReference classReference) {
-      overloads.addAll(classReference.getOperatorOverloads(operator));
+      overloads.addAll(classReference.getOperatorOverloadTable().get(operator));
     }
+    if (overloads.isEmpty()) return null;
+    if (elementContext == null) return findOverload(overloads, type1, type2);
+
+    // Math on abstracts (vectors, fixed point types) looks up the same few overloads over and over.
+    Map<OverloadKey, HaxeDependencyRecorder.Recorded<SpecificTypeReference>> results = getOverloadResults(elementContext.getProject());
+    OverloadKey key = OverloadKey.create(operator, type1, type2);
+    HaxeDependencyRecorder.Recorded<SpecificTypeReference> cached = results.get(key);
+    if (cached != null) {
+      cacheHits.increment();
+      return copy(HaxeDependencyRecorder.replay(cached));
+    }
+    cacheMisses.increment();
+
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    HaxeDependencyRecorder.Recorded<SpecificTypeReference> result =
+      HaxeDependencyRecorder.recorded(() -> findOverload(overloads, type1, type2));
+    // A return type inferred while a recursion guard kicked in may be incomplete.
+    if (stamp.mayCacheNow()) {
+      results.put(key, result);
+    }
+    return copy(result.value());
+  }
+
+  /**
+   * Memoized results are shared by every lookup of the same operand types; callers get their own copy.
+   */
+  @Nullable
+  private static SpecificTypeReference copy(@Nullable SpecificTypeReference type) {
+    return type == null ? null : type.withElementContext(type.getElementContext());
+  }
+
+  private static Map<OverloadKey, HaxeDependencyRecorder.Recorded<SpecificTypeReference>> getOverloadResults(@NotNull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, OVERLOAD_RESULTS, () -> {
+      Map<OverloadKey, HaxeDependencyRecorder.Recorded<SpecificTypeReference>> results = new ConcurrentHashMap<>();
+      return CachedValueProvider.Result.create(results, PsiModificationTracker.MODIFICATION_COUNT);
+    }, false);
+  }
+
+  @Nullable
+  private static SpecificTypeReference findOverload(List<HaxeOperatorOverloads.Overload> overloads,
+                                                    SpecificTypeReference type1,
+                                                    SpecificTypeReference type2) {
     // TODO we can have multiple overloads that are applicable but we neeed to chose the one that is the most specific
     // ex. int can be cast to float and used as a float arg, but if we have  both a float and int overload we should pick int.
     overloads = sortByMostSpecificType(overloads, type1, type2);
-      for (HaxeMethodModel overload : overloads) {
+      for (HaxeOperatorOverloads.Overload overload : overloads) {
+        List<ResultHolder> operandTypes = overload.operandTypes();
         // non-static methods takes 1 arg "this" is left, parameter is right
-        if (overload.getParameters().size() == 1) {
-          HaxeParameterModel param = overload.getParameters().get(0);
-          boolean rightMatches = param.getType().canAssign(type2.createHolder());
+        if (overload.isMemberForm()) {
+          boolean rightMatches = operandTypes.get(0).canAssign(type2.createHolder());
           if (rightMatches) {
-            return overload.getReturnType(null).getType();
+            return overload.getReturnType();
           }
           // static methods takes 2 args (Left operator Right)
-        }else if (overload.getParameters().size() == 2){
-          HaxeParameterModel leftParam = overload.getParameters().get(0);
-          HaxeParameterModel rightParam = overload.getParameters().get(1);
-          boolean leftMatches = leftParam.getType().canAssign(type1.createHolder());
-          boolean rightMatches = rightParam.getType().canAssign(type2.createHolder());
+        }else if (operandTypes.size() == 2){
+          boolean leftMatches = operandTypes.get(0).canAssign(type1.createHolder());
+          boolean rightMatches = operandTypes.get(1).canAssign(type2.createHolder());
           if (leftMatches && rightMatches) {
-            return  overload.getReturnType(null).getType();
+            return  overload.getReturnType();
           }
         }
       }
     return null;
   }
 
-  private static List<HaxeMethodModel> sortByMostSpecificType(List<HaxeMethodModel> overloads,
-                                                              SpecificTypeReference type1,
-                                                              SpecificTypeReference type2) {
+  private static List<HaxeOperatorOverloads.Overload> sortByMostSpecificType(List<HaxeOperatorOverloads.Overload> overloads,
+                                                                             SpecificTypeReference type1,
+                                                                             SpecificTypeReference type2) {
     //TODO mlo: implement properly
     //This is not really sorted by Most Specific type, it just looks for exact type match and move those to top of list.
     //hopefully this will work in most cases
     return overloads.stream().sorted(compareParam(type1, 0).thenComparing(compareParam(type2, 1))).toList();
   }
 
-  private static  Comparator<HaxeMethodModel> compareParam(SpecificTypeReference param, int paramIndex) {
-    return  (modelA, modelB) -> {
+  private static  Comparator<HaxeOperatorOverloads.Overload> compareParam(SpecificTypeReference param, int paramIndex) {
+    return  (overloadA, overloadB) -> {
 
-      boolean singleArgA = modelA.getParameters().size() == 1;
-      boolean singleArgB = modelB.getParameters().size() == 1;
+      boolean singleArgA = overloadA.isMemberForm();
+      boolean singleArgB = overloadB.isMemberForm();
       if (singleArgA && singleArgB) {
         return 0;// both have 1 argument overloads, so "first" argument is "this" and therefore the correct type.
       }else if (singleArgA) {
@@ -200,9 +273,12 @@ public class HaxeOperatorResolver {
       }else if (singleArgB) {
         return 1;
       }
+      if (overloadA.operandTypes().size() <= paramIndex || overloadB.operandTypes().size() <= paramIndex) {
+        return 0;
+      }
 
-      ResultHolder typeA = modelA.getParameters().get(paramIndex).getType();
-      ResultHolder typeB = modelB.getParameters().get(paramIndex).getType();
+      ResultHolder typeA = overloadA.operandTypes().get(paramIndex);
+      ResultHolder typeB = overloadB.operandTypes().get(paramIndex);
 
       // if model A matches but model B  does not, move A upwards
       if (typeA.getType().isSameType(param) && !typeB.getType().isSameType(param)) {
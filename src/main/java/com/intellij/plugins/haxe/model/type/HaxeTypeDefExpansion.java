@@ -0,0 +1,169 @@
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.plugins.haxe.lang.psi.HaxeAnonymousType;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.model.HaxeClassModel;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Expansions of typedef chains ({@code typedef A = B<C>; typedef B<T> = ...}), memoized by typedef declaration and a
+ * fingerprint of the type arguments it was given.
+ * <p>
+ * The table of a typedef lives as long as the typedef's file is unchanged; an entry also remembers the files its
+ * expansion depended on (see {@link HaxeDependencyRecorder}), including those of the typedefs in its chain and of the
+ * type it ends at, and is dropped as soon as one of them has changed.  Expanding a chain keeps the typedefs seen so far, so
+ * that a cycle ({@code typedef A = B; typedef B = A;}) ends the expansion instead of looping.
+ * <p>
+ * Callers get their own copy of an expansion, with their own element context.
+ */
+public final class HaxeTypeDefExpansion {
+
+  private static final HaxeMetrics.Counter cacheHits = HaxeMetrics.counter("typedef.expansion.cache.hit");
+  private static final HaxeMetrics.Counter cacheMisses = HaxeMetrics.counter("typedef.expansion.cache.miss");
+
+  /**
+   * Fingerprint of the expansions of {@link HaxeClassModel#getUnderlyingType()} chains, which take no type arguments.
+   */
+  private static final String UNDERLYING = "#underlying";
+
+  /**
+   * @param files the files the expansion depended on, with the modification stamps they had.
+   */
+  private record Expansion(@NotNull HaxeDependencyRecorder.Recorded<SpecificTypeReference> target, @NotNull Map<PsiFile, Long> files) {
+
+    boolean isValid() {
+      for (Map.Entry<PsiFile, Long> entry : files.entrySet()) {
+        PsiFile file = entry.getKey();
+        if (!file.isValid() || file.getModificationStamp() != entry.getValue()) return false;
+      }
+      return true;
+    }
+  }
+
+  private HaxeTypeDefExpansion() {
+  }
+
+  /**
+   * @param context the element the expansion is asked for from, which becomes the element context of the result.
+   * @return the memoized expansion of the typedef with the given type arguments (see {@link #fingerprint}), or else the
+   * result of {@code expansion}, which adds the typedefs it goes through to the set it is given and returns null when
+   * it can't finish.
+   */
+  @Nullable
+  static SpecificTypeReference getOrExpand(@NotNull HaxeClass typedef, @NotNull String fingerprint, @Nullable PsiElement context,
+                                           @NotNull Function<Set<HaxeClass>, SpecificTypeReference> expansion) {
+    Map<String, Expansion> table = getTable(typedef);
+    Expansion cached = table.get(fingerprint);
+    if (cached != null && cached.isValid()) {
+      cacheHits.increment();
+      return copy(HaxeDependencyRecorder.replay(cached.target()), context);
+    }
+    cacheMisses.increment();
+
+    Set<HaxeClass> chain = new LinkedHashSet<>();
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    HaxeDependencyRecorder.Recorded<SpecificTypeReference> target = HaxeDependencyRecorder.recorded(() -> expansion.apply(chain));
+    if (target.value() != null && stamp.mayCacheNow()) {
+      Set<PsiFile> files = new HashSet<>(target.dependencies());
+      // The chain and the target are kept as well, in case resolving them didn't record them.
+      if (target.value() instanceof SpecificHaxeClassReference classReference && classReference.getHaxeClass() != null) {
+        chain.add(classReference.getHaxeClass());
+      }
+      for (HaxeClass haxeClass : chain) {
+        PsiFile file = haxeClass.getContainingFile();
+        if (file != null) files.add(file.getOriginalFile());
+      }
+      Map<PsiFile, Long> stamps = new HashMap<>();
+      for (PsiFile file : files) {
+        stamps.put(file, file.getModificationStamp());
+      }
+      table.put(fingerprint, new Expansion(new HaxeDependencyRecorder.Recorded<>(target.value(), Set.copyOf(files), target.complete()),
+                                           Map.copyOf(stamps)));
+    }
+    return copy(target.value(), context);
+  }
+
+  @NotNull
+  private static Map<String, Expansion> getTable(@NotNull HaxeClass typedef) {
+    // Entries check the files they depend on themselves, so the table only has to go with the typedef's own file.
+    return CachedValuesManager.getCachedValue(typedef, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), typedef));
+  }
+
+  /**
+   * Memoized expansions are shared by every use of the typedef; callers get their own copy.
+   */
+  @Nullable
+  private static SpecificTypeReference copy(@Nullable SpecificTypeReference target, @Nullable PsiElement context) {
+    if (target == null) return null;
+    return target.withElementContext(context != null ? context : target.getElementContext());
+  }
+
+  /**
+   * @return a key for type arguments that identifies them across uses: qualified class names, nested the way the
+   * arguments are.  Null when one of them can't be told apart that way (type parameters, function and anonymous
+   * types, constants, unknowns); those expansions are not memoized.
+   */
+  @Nullable
+  static String fingerprint(@NotNull ResultHolder[] specifics) {
+    if (specifics.length == 0) return "";
+    StringBuilder builder = new StringBuilder();
+    return appendFingerprint(builder, specifics) ? builder.toString() : null;
+  }
+
+  private static boolean appendFingerprint(@NotNull StringBuilder builder, @NotNull ResultHolder[] specifics) {
+    builder.append('<');
+    for (int i = 0; i < specifics.length; i++) {
+      ResultHolder specific = specifics[i];
+      if (specific == null || specific.isUnknown() || specific.isTypeParameter()) return false;
+      SpecificHaxeClassReference classType = specific.getClassType();
+      if (classType == null || classType.getConstant() != null || classType.getHaxeClassReference().isTypeParameter()) return false;
+      HaxeClass haxeClass = classType.getHaxeClass();
+      if (haxeClass == null || haxeClass instanceof HaxeAnonymousType) return false;
+      String qualifiedName = haxeClass.getQualifiedName();
+      if (qualifiedName == null || qualifiedName.isEmpty()) return false;
+
+      if (i > 0) builder.append(',');
+      builder.append(qualifiedName);
+      if (classType.getSpecifics().length > 0 && !appendFingerprint(builder, classType.getSpecifics())) return false;
+    }
+    builder.append('>');
+    return true;
+  }
+
+  /**
+   * @return what the typedef's underlying type comes to once the typedefs it names are expanded in turn, without type
+   * arguments; null if the typedef has no underlying type or is part of a cycle.
+   */
+  @Nullable
+  public static SpecificTypeReference getUnderlyingTarget(@NotNull HaxeClassModel typedef) {
+    return getOrExpand(typedef.haxeClass, UNDERLYING, typedef.haxeClass, chain -> expandUnderlying(typedef, chain));
+  }
+
+  @Nullable
+  private static SpecificTypeReference expandUnderlying(@NotNull HaxeClassModel typedef, @NotNull Set<HaxeClass> chain) {
+    chain.add(typedef.haxeClass);
+    SpecificTypeReference resolved = typedef.getUnderlyingType();
+    while (resolved instanceof SpecificHaxeClassReference haxeClassReference) {
+      HaxeClassModel resolvedModel = haxeClassReference.getHaxeClassModel();
+      if (resolvedModel == null || !resolvedModel.isTypedef()) break;
+      if (!chain.add(resolvedModel.haxeClass)) return null;
+      SpecificTypeReference underlyingType = resolvedModel.getUnderlyingType();
+      if (underlyingType == null) break;
+      resolved = underlyingType;
+    }
+    return resolved;
+  }
+}
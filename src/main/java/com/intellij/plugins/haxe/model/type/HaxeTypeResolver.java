@@ -60,6 +60,10 @@ public class HaxeTypeResolver {
       return SpecificHaxeClassReference.getUnknown(comp).createHolder();
     }
 
+    if ((resolver == null || resolver.isEmpty()) && HaxeDeclarationTypeCache.isCacheable(comp)) {
+      return HaxeDeclarationTypeCache.getInstance(comp.getProject()).getType(comp, () -> _getFieldOrMethodReturnType(comp, resolver));
+    }
+
     // EMB - Skip the cache while debugging.  There may be a recursive issue.  There are definitely multi-threading issues.
     //long stamp = comp.getContainingFile().getModificationStamp();
     //if (comp._cachedType == null || comp._cachedTypeStamp != stamp) {
@@ -370,6 +374,7 @@ public class HaxeTypeResolver {
         CachedValuesManager.getCachedValue(methodBody, () -> HaxeTypeResolver.findReturnStatementsForMethod(methodBody));
       List<ResultHolder> returnTypes = returnStatementList.stream().map(statement ->  {
         if (processedElements.get().contains(statement)) {
+          skippedRecursions.get()[0]++;
           return null; // possible recursion, ignore this return statement
         }else {
           return getPsiElementType(statement, resolver);
@@ -692,7 +697,7 @@ public class HaxeTypeResolver {
 
     if (expectedType == null) return;
     for (HaxeExpressionEvaluatorReturnInfo retinfo : context.getReturnInfos()) {
-      if (context.holder != null) {
+      if (context.isReportingErrors()) {
         if (expectedType.canAssign(retinfo.type())) continue;
         context.addError(
           retinfo.element(),
@@ -711,12 +716,19 @@ public class HaxeTypeResolver {
   // @TODO: hack to avoid stack overflow, until a proper non-static fix is done
   //        At least, we've made it thread local, so the threads aren't stomping on each other any more.
   static private ThreadLocal<? extends Set<PsiElement>> processedElements = ThreadLocal.withInitial(HashSet::new);
+  // Counts the evaluations cut short by the above, results computed meanwhile may be incomplete.
+  static private final ThreadLocal<int[]> skippedRecursions = ThreadLocal.withInitial(() -> new int[1]);
+
+  static int getSkippedRecursions() {
+    return skippedRecursions.get()[0];
+  }
 
   @NotNull
   static public HaxeExpressionEvaluatorContext evaluateFunction(@NotNull HaxeExpressionEvaluatorContext context,
                                                                 HaxeGenericResolver resolver) {
     PsiElement element = context.root;
     if (processedElements.get().contains(element)) {
+      skippedRecursions.get()[0]++;
       context.result = SpecificHaxeClassReference.getUnknown(element).createHolder();
       return context;
     }
@@ -33,6 +33,7 @@ import com.intellij.plugins.haxe.model.*;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorContext;
 import com.intellij.plugins.haxe.model.type.resolver.ResolveSource;
 import com.intellij.plugins.haxe.util.HaxeDebugUtil;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.*;
 import lombok.CustomLog;
@@ -366,6 +367,7 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
         cache = CachedValuesManager.getCachedValue(model.haxeClass, key, SpecificHaxeClassReference::fromCachedValueProvider);
       }
       currentProcessingElement.remove();
+      recordClasses(cache);
 
       processedElements.get().clear();
       // create a new set to avoid  other code to tamper with the cached values
@@ -377,6 +379,15 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
     }
   }
 
+  /**
+   * A cached set was worked out from the declarations of the classes in it; a dependency of whatever uses it.
+   */
+  private static void recordClasses(@NotNull Set<SpecificHaxeClassReference> references) {
+    for (SpecificHaxeClassReference reference : references) {
+      HaxeDependencyRecorder.record(reference.getHaxeClass());
+    }
+  }
+
   private static CachedValueProvider.Result<Set<SpecificHaxeClassReference>> toCachedValueProvider() {
     SpecificHaxeClassReference reference = currentProcessingElement.get();
     Set<SpecificHaxeClassReference> result = simpleRemoveDuplicates(reference.getCompatibleTypesInternal(Compatibility.ASSIGNABLE_TO));
@@ -428,6 +439,7 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
       currentProcessingElement.set(this);
       Set<SpecificHaxeClassReference> result = CachedValuesManager.getCachedValue(model.haxeClass, INFER_TYPES_KEY, SpecificHaxeClassReference::inferTypesProvider);
       currentProcessingElement.remove();
+      recordClasses(result);
 
       processedElements.get().clear();
 
@@ -651,6 +663,16 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
     return fullyResolveTypeDefAndUnwrapNullTypeReference(false);
   }
   public SpecificTypeReference fullyResolveTypeDefAndUnwrapNullTypeReference(boolean unwrapExprOf) {
+    if (!unwrapExprOf && !isTypeParameter() && !isNullType() && !isTypeDefOfFunction() && isTypeDefOfClass()) {
+      HaxeClass typedef = getHaxeClass();
+      String fingerprint = HaxeTypeDefExpansion.fingerprint(specifics);
+      if (typedef != null && fingerprint != null) {
+        SpecificTypeReference result = HaxeTypeDefExpansion.getOrExpand(typedef, fingerprint, context, chain ->
+          fullyresolveRecursionGuard.computePreventingRecursion(this.context, true, () -> expandTypeDefOfClass(false, chain)));
+        return result == null ? this : result;
+      }
+    }
+
     SpecificTypeReference result = fullyresolveRecursionGuard.computePreventingRecursion(this.context, true, () ->
     {
       if (isTypeParameter()) return this;
@@ -667,68 +689,85 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
       }
 
       if (isTypeDefOfClass()) {
-        SpecificHaxeClassReference reference;
-        if (unwrapExprOf && this.isExprOf()) {
-          reference = this;
-        }
-        else {
-          reference = resolveTypeDefClass();
-        }
+        return expandTypeDefOfClass(unwrapExprOf, new HashSet<>());
+      }
+      return this;
+    });
+    return result == null ? this :  result;
+  }
 
+  /**
+   * Follows the chain of typedefs down to the first type that isn't one.
+   *
+   * @param chain the typedefs expanded so far; meeting one of them again means the chain is a cycle, which expands to
+   *              an unknown type.
+   */
+  @NotNull
+  private SpecificTypeReference expandTypeDefOfClass(boolean unwrapExprOf, @NotNull Set<HaxeClass> chain) {
+    SpecificHaxeClassReference reference;
+    if (unwrapExprOf && this.isExprOf()) {
+      reference = this;
+    }
+    else {
+      reference = resolveTypeDefClass();
+    }
 
-        HaxeClass haxeClass = getHaxeClass();
-        HaxeGenericResolver resolver = getGenericResolver();
 
-        while (haxeClass instanceof AbstractHaxeTypeDefImpl typeDef) {
-          HaxeFunctionType functionType = typeDef.getFunctionType();
-          if (functionType != null) {
-            SpecificFunctionReference reference1 = reference.resolveTypeDefFunction();
-            return resolver.resolve(reference1);
-          }
+    HaxeClass haxeClass = getHaxeClass();
+    HaxeGenericResolver resolver = getGenericResolver();
 
-          if (unwrapExprOf) {
-            if (reference.isExprOf()) {
-              SpecificTypeReference unwrapped = HaxeMacroTypeUtil.extractTypeFromExprOf(this);
-              if (unwrapped != null) {
-                if (unwrapped instanceof SpecificHaxeClassReference exprOfClass) {
-                  reference = exprOfClass;
-                  continue;
-                }
-                else {
-                  return unwrapped;
-                }
-              }
-            }
-          }
+    HaxeClass expanded = null;
+    while (haxeClass instanceof AbstractHaxeTypeDefImpl typeDef) {
+      if (typeDef != expanded && !chain.add(typeDef)) {
+        return SpecificTypeReference.getUnknown(context);
+      }
+      expanded = typeDef;
+      HaxeFunctionType functionType = typeDef.getFunctionType();
+      if (functionType != null) {
+        SpecificFunctionReference reference1 = reference.resolveTypeDefFunction();
+        return resolver.resolve(reference1);
+      }
 
-          SpecificHaxeClassReference targetClass = typeDef.getTargetClass(resolver);
-          if (targetClass != null) {
-            reference = targetClass;
-            if (reference.isTypeDefOfClass()) {
-              haxeClass = reference.getHaxeClass();
-              resolver = reference.getGenericResolver();
-            }
-            else if (reference.isNullType()) {
-              SpecificTypeReference unwrapped = reference.unwrapNullType();
-              if (unwrapped instanceof SpecificHaxeClassReference haxeClassReference) {
-                haxeClass = haxeClassReference.getHaxeClass();
-                resolver = haxeClassReference.getGenericResolver();
-                reference = haxeClassReference;
-              }
-              else if (unwrapped instanceof SpecificFunctionReference functionReference) {
-                return resolver.resolve(functionReference);
-              }
+      if (unwrapExprOf) {
+        if (reference.isExprOf()) {
+          SpecificTypeReference unwrapped = HaxeMacroTypeUtil.extractTypeFromExprOf(this);
+          if (unwrapped != null) {
+            if (unwrapped instanceof SpecificHaxeClassReference exprOfClass) {
+              reference = exprOfClass;
+              continue;
             }
             else {
-              break;
+              return unwrapped;
             }
           }
         }
-        return reference;
       }
-      return this;
-    });
-    return result == null ? this :  result;
+
+      SpecificHaxeClassReference targetClass = typeDef.getTargetClass(resolver);
+      if (targetClass == null) {
+        break;
+      }
+      reference = targetClass;
+      if (reference.isTypeDefOfClass()) {
+        haxeClass = reference.getHaxeClass();
+        resolver = reference.getGenericResolver();
+      }
+      else if (reference.isNullType()) {
+        SpecificTypeReference unwrapped = reference.unwrapNullType();
+        if (unwrapped instanceof SpecificHaxeClassReference haxeClassReference) {
+          haxeClass = haxeClassReference.getHaxeClass();
+          resolver = haxeClassReference.getGenericResolver();
+          reference = haxeClassReference;
+        }
+        else if (unwrapped instanceof SpecificFunctionReference functionReference) {
+          return resolver.resolve(functionReference);
+        }
+      }
+      else {
+        break;
+      }
+    }
+    return reference;
   }
 
   public SpecificTypeReference fullyResolveUnderlyingTypeUnwrapNullTypeReference() {
@@ -989,31 +1028,20 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
 
 
   public List<HaxeMethodModel> getOperatorOverloads(String operator) {
-    if (classReference.classModel == null) return List.of();
-    List<HaxeMethodModel> members = new ArrayList<>();
-    for (HaxeBaseMemberModel memberModel : classReference.classModel.getMembers(null)) {
-      if (memberModel instanceof HaxeMethodModel methodModel) {
-        members.add(methodModel);
-      }
-    }
-
-    List<HaxeMethodModel> list = new ArrayList<>();
-    for (HaxeMethodModel member : members) {
-      if (member.hasOperatorMeta()) {
-        list.add(member);
-      }
-    }
-
     List<HaxeMethodModel> result = new ArrayList<>();
-    for (HaxeMethodModel model : list) {
-      if (model.isOperator(operator)) {
-        result.add(model);
+    for (HaxeOperatorOverloads.Overload overload : getOperatorOverloadTable().get(operator)) {
+      if (!result.contains(overload.method())) {
+        result.add(overload.method());
       }
     }
-    
     return result;
   }
 
+  @NotNull
+  public HaxeOperatorOverloads getOperatorOverloadTable() {
+    return HaxeOperatorOverloads.of(classReference.classModel);
+  }
+
   @Override
   public SpecificTypeReference withElementContext(PsiElement element) {
     return new SpecificHaxeClassReference(classReference, specifics, constantValue, rangeConstraint, element);
@@ -83,9 +83,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -317,7 +320,10 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
       mModule = module;
       mDeferredQueue =
         new LinkedList<Pair<debugger.Command, MessageListener>>();
-      mListenerQueue = new LinkedList<MessageListener>();
+      mPendingCommands = new HxcppPendingCommands<MessageListener>();
+      mOutgoingCommands = new ConcurrentLinkedQueue<debugger.Command>();
+      mFlushScheduled = new AtomicBoolean(false);
+      mValueCache = new ValueCache();
       mServerSocket = new java.net.ServerSocket(port);
       mBreakpointHandlers = this.createBreakpointHandlers();
       mMap =
@@ -471,39 +477,49 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
                                    JavaProtocol.messageToString(message));
                                 return;
                               }
-                              getSession().positionReached
-                                (new SuspendContext(DebugProcess.this.mProject,
-                                                    DebugProcess.this.mModule,
-                                                    message));
+                              SuspendContext context =
+                                new SuspendContext(DebugProcess.this.mProject,
+                                                   DebugProcess.this.mModule,
+                                                   message);
+                              StackFrame currentFrame = context.getCurrentFrame();
+                              if (currentFrame != null) {
+                                mValueCache.frameReported(currentFrame.mFrameNumber);
+                              }
+                              getSession().positionReached(context);
+                              // Fetch the locals of the current frame while the UI is still
+                              // building the frames view, so they are ready when it asks.
+                              if (currentFrame != null) {
+                                currentFrame.prefetchChildren();
+                              }
                             }
                           });
     }
 
+    /**
+     * Queues a command for the debugged process.  Commands are written in
+     * batches by the write queue without waiting for the replies of earlier
+     * commands; the debugger answers in order, so each reply is matched to
+     * the oldest pending command (see {@link HxcppPendingCommands}).
+     */
     private void enqueueCommand(final debugger.Command command,
                                 MessageListener listener) {
-//            System.out.println("Writing command: " +
-//                               JavaProtocol.commandToString(command));
       try {
         synchronized (this) {
           if (mDebugSocket == null) {
             mDeferredQueue.add(Pair.create(command, listener));
             return;
           }
-          mListenerQueue.add(listener);
-          final OutputStream os = mDebugSocket.getOutputStream();
-          mWriteQueue.add(new Runnable() {
-            public void run() {
-              try {
-                JavaProtocol.writeCommand(os, command);
-              }
-              catch (RuntimeException e) {
-                DebugProcess.this.error
-                  ("Debugger protocol error: exception while writing " +
-                   "command " + JavaProtocol.commandToString(command) + ": " +
-                   e);
+          mValueCache.commandEnqueued(command);
+          mPendingCommands.add(command, listener);
+          mOutgoingCommands.add(command);
+          if (mFlushScheduled.compareAndSet(false, true)) {
+            final OutputStream os = mDebugSocket.getOutputStream();
+            mWriteQueue.add(new Runnable() {
+              public void run() {
+                DebugProcess.this.flushCommands(os);
               }
-            }
-          });
+            });
+          }
         }
       }
       catch (IOException e) {
@@ -514,6 +530,37 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
       }
     }
 
+    private void flushCommands(OutputStream os) {
+      // Clear the flag before draining: commands queued from now on
+      // either are picked up below or schedule another flush.
+      mFlushScheduled.set(false);
+      ByteArrayOutputStream batch = new ByteArrayOutputStream();
+      debugger.Command command;
+      while ((command = mOutgoingCommands.poll()) != null) {
+        try {
+          HxcppDebuggerCodec.writeCommand(batch, command);
+        }
+        catch (IOException | RuntimeException e) {
+          DebugProcess.this.error
+            ("Debugger protocol error: exception while writing " +
+             "command " + JavaProtocol.commandToString(command) + ": " +
+             e);
+          return;
+        }
+      }
+      if (batch.size() == 0) {
+        return;
+      }
+      try {
+        os.write(batch.toByteArray());
+        os.flush();
+      }
+      catch (IOException e) {
+        DebugProcess.this.error
+          ("Debugger protocol error: exception while writing commands: " + e);
+      }
+    }
+
     private void readLoop() throws IOException {
       java.net.ServerSocket serverSocket;
       synchronized (this) {
@@ -550,7 +597,7 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         if (debugSocket == null) {
           break;
         }
-        debugger.Message message = JavaProtocol.readMessage
+        debugger.Message message = HxcppDebuggerCodec.readMessage
           (debugSocket.getInputStream());
 //      System.out.println("Received message: " +
 //                         JavaProtocol.messageToString(message));
@@ -565,6 +612,7 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           // Console it out
         }
         else if (messageId == JavaProtocol.IdThreadStopped) {
+          mValueCache.invalidate(true);
           if (mStoppedOnce) {
             // Send a where to solicit current thread stack frame
             this.where();
@@ -581,21 +629,26 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           }
         }
         else {
-          MessageListener listener = null;
-          synchronized (this) {
-            if (!mListenerQueue.isEmpty()) {
-              listener = mListenerQueue.removeFirst();
-            }
+          HxcppPendingCommands.Match<MessageListener> match =
+            mPendingCommands.match(messageId);
+          // Commands the debugger skipped won't be answered any more: their
+          // listeners get an error instead, so that nothing waits for them.
+          for (HxcppPendingCommands.Pending<MessageListener> skipped :
+               match.skipped()) {
+            debugger.Message lost = debugger.Message.ErrorInternal
+              ("no reply to " +
+               JavaProtocol.commandToString(skipped.command()));
+            skipped.listener().handleMessage
+              (JavaProtocol.getMessageId(lost), lost);
           }
-          if (listener == null) {
-            DebugProcess.this.error
-              ("Debugger protocol error: unsolicited response: " +
+          if (match.reply() == null) {
+            // Keep reading: later replies still line up with their commands.
+            DebugProcess.this.warn
+              ("Debugger protocol error: ignoring unexpected reply " +
                JavaProtocol.messageToString(message));
-            break;
-          }
-          else {
-            listener.handleMessage(messageId, message);
+            continue;
           }
+          match.reply().listener().handleMessage(messageId, message);
         }
       }
     }
@@ -705,6 +758,132 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
                                          debugger.Message message);
     }
 
+    /**
+     * Replies to frame queries (variable lists and structured values) for
+     * the current suspension of the debugged process, keyed by the frame
+     * they were asked in.  Queries already in flight are joined instead of
+     * being sent again.  Everything is dropped when the process resumes or
+     * stops again, or when an expression is assigned.
+     * <p>
+     * Commands are executed in the order they are queued, so the frame a
+     * query is answered in is the frame selected by the last SetFrame queued
+     * before it (or the current frame reported after stopping).
+     */
+    private class ValueCache {
+      private final Map<String, debugger.Message> mReplies =
+        new HashMap<String, debugger.Message>();
+      private final Map<String, List<MessageListener>> mInFlight =
+        new HashMap<String, List<MessageListener>>();
+      private int mGeneration;
+      /** Frame the next queued command is executed in; -1 if unknown. */
+      private int mFrame = -1;
+
+      public void fetch(@NotNull debugger.Command command, @NotNull String key,
+                        @Nullable MessageListener listener) {
+        debugger.Message cached;
+        synchronized (DebugProcess.this) {
+          if (mFrame < 0) {
+            if (listener != null) {
+              DebugProcess.this.enqueueCommand(command, listener);
+            }
+            return;
+          }
+          final String frameKey = mFrame + ":" + key;
+          cached = mReplies.get(frameKey);
+          if (cached == null) {
+            List<MessageListener> waiting = mInFlight.get(frameKey);
+            if (waiting == null) {
+              final List<MessageListener> listeners = new ArrayList<MessageListener>();
+              final int generation = mGeneration;
+              mInFlight.put(frameKey, listeners);
+              DebugProcess.this.enqueueCommand(command, new MessageListener() {
+                public void handleMessage(int messageId, debugger.Message message) {
+                  ValueCache.this.complete(frameKey, generation, listeners,
+                                           messageId, message);
+                }
+              });
+              waiting = listeners;
+            }
+            if (listener != null) {
+              waiting.add(listener);
+            }
+            return;
+          }
+        }
+        if (listener != null) {
+          listener.handleMessage(JavaProtocol.getMessageId(cached), cached);
+        }
+      }
+
+      public boolean isCurrentFrame(int frameNumber) {
+        synchronized (DebugProcess.this) {
+          return mFrame >= 0 && mFrame == frameNumber;
+        }
+      }
+
+      /** Called when the current frame of a new suspension is known. */
+      public void frameReported(int frameNumber) {
+        synchronized (DebugProcess.this) {
+          // A SetFrame queued in the meantime takes precedence.
+          if (mFrame < 0) {
+            mFrame = frameNumber;
+          }
+        }
+      }
+
+      /** Called (in order) for every command that is queued. */
+      public void commandEnqueued(@NotNull debugger.Command command) {
+        switch (command.getTag()) {
+          case "SetFrame":
+            mFrame = (Integer)command.params[0];
+            break;
+          case "Up":
+          case "Down":
+            mFrame = -1;
+            break;
+          case "SetExpression":
+            invalidate(false);
+            break;
+          case "Continue":
+          case "Next":
+          case "Step":
+          case "Finish":
+            invalidate(true);
+            break;
+        }
+      }
+
+      public void invalidate(boolean resumed) {
+        synchronized (DebugProcess.this) {
+          mGeneration++;
+          mReplies.clear();
+          mInFlight.clear();
+          if (resumed) {
+            mFrame = -1;
+          }
+        }
+      }
+
+      private void complete(String frameKey, int generation,
+                            List<MessageListener> listeners,
+                            int messageId, debugger.Message message) {
+        List<MessageListener> toNotify;
+        synchronized (DebugProcess.this) {
+          if (generation == mGeneration) {
+            // Errors are passed on but not kept: asking again may succeed.
+            if (!HxcppPendingCommands.isError(messageId)) {
+              mReplies.put(frameKey, message);
+            }
+            mInFlight.remove(frameKey);
+          }
+          toNotify = new ArrayList<MessageListener>(listeners);
+        }
+        for (MessageListener listener : toNotify) {
+          listener.handleMessage(messageId, message);
+        }
+      }
+    }
+
     private class SuspendContext extends XSuspendContext {
       public SuspendContext(Project project, Module module,
                             debugger.Message threadsWhereMessages) {
@@ -719,6 +898,12 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
                 mExecutionStacks[0] : null);
       }
 
+      @Nullable
+      public StackFrame getCurrentFrame() {
+        return ((mExecutionStacks.length > 0) ?
+                ((ExecutionStack)mExecutionStacks[0]).mCurrentFrame : null);
+      }
+
       public XExecutionStack[] getExecutionStacks() {
         return mExecutionStacks;
       }
@@ -788,19 +973,24 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           return;
         }
 
-        mStackFrames.addElement(new StackFrame(project, module,
-                                               frameList));
+        StackFrame frame = new StackFrame(project, module, frameList);
+        if (frame.mIsCurrent && mCurrentFrame == null) {
+          mCurrentFrame = frame;
+        }
+        mStackFrames.addElement(frame);
 
         this.addFrameList(project, module, (debugger.FrameList)
           frameList.params[6]);
       }
 
       private Vector<XStackFrame> mStackFrames;
+      private StackFrame mCurrentFrame;
     }
 
     private class StackFrame extends XStackFrame {
       public StackFrame(final Project project, final Module module,
                         debugger.FrameList frameList) {
+        mIsCurrent = (Boolean)frameList.params[0];
         mFrameNumber = (Integer)frameList.params[1];
         mFileName = (String)frameList.params[4];
         mLineNumber = (((Integer)frameList.params[5]).intValue());
@@ -901,6 +1091,11 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
       @Override
       public void computeChildren(@NotNull final XCompositeNode node) {
+        if (mValueCache.isCurrentFrame(mFrameNumber)) {
+          // Already there; the variables may even have been prefetched.
+          this.computeChildrenCurrentFrame(node);
+          return;
+        }
         // Move to the stack frame
         DebugProcess.this.enqueueCommand
           (debugger.Command.SetFrame(mFrameNumber),
@@ -937,10 +1132,40 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         return AllIcons.Debugger.Frame;
       }
 
+      /**
+       * Queues the variable list of this frame and, as soon as it arrives,
+       * the first level values of the variables, so that expanding the
+       * frame finds them in the cache.
+       */
+      private void prefetchChildren() {
+        mValueCache.fetch
+          (debugger.Command.Variables(false), "Variables",
+           new MessageListener() {
+             public void handleMessage(int messageId,
+                                       debugger.Message message) {
+               if (messageId != JavaProtocol.IdVariables ||
+                   !mValueCache.isCurrentFrame(mFrameNumber)) {
+                 return;
+               }
+               debugger.StringList stringList =
+                 (debugger.StringList)message.params[0];
+               while (stringList != debugger.StringList.Terminator) {
+                 String name = (String)stringList.params[0];
+                 if (!isIntermediateVariableName(name)) {
+                   mValueCache.fetch
+                     (debugger.Command.GetStructured(false, name),
+                      "GetStructured:" + name, null);
+                 }
+                 stringList = (debugger.StringList)stringList.params[1];
+               }
+             }
+           });
+      }
+
       private void computeChildrenCurrentFrame
         (@NotNull final XCompositeNode node) {
-        DebugProcess.this.enqueueCommand
-          (debugger.Command.Variables(false),
+        mValueCache.fetch
+          (debugger.Command.Variables(false), "Variables",
            new MessageListener() {
              public void handleMessage(int messageId,
                                        debugger.Message message) {
@@ -1144,8 +1369,9 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         private void fetchValue(@NotNull final XValueNode node,
                                 @NotNull final XValuePlace place) {
           mWaitingForChildrenResults = true;
-          DebugProcess.this.enqueueCommand
+          mValueCache.fetch
             (debugger.Command.GetStructured(false, mExpression),
+             "GetStructured:" + mExpression,
              new MessageListener() {
                public void handleMessage(int messageId,
                                          debugger.Message message) {
@@ -1315,6 +1541,7 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         private boolean mChildrenComputationRequested;
       }
 
+      private boolean mIsCurrent;
       private int mFrameNumber;
       private String mFileName;
       private int mLineNumber;
@@ -1329,7 +1556,10 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
     private LinkedList<Pair<debugger.Command,
       MessageListener>> mDeferredQueue;
     private QueueProcessor<Runnable> mWriteQueue;
-    private LinkedList<MessageListener> mListenerQueue;
+    private HxcppPendingCommands<MessageListener> mPendingCommands;
+    private ConcurrentLinkedQueue<debugger.Command> mOutgoingCommands;
+    private AtomicBoolean mFlushScheduled;
+    private ValueCache mValueCache;
     private java.net.ServerSocket mServerSocket;
     private java.net.Socket mDebugSocket;
     private ExecutionResult mExecutionResult;
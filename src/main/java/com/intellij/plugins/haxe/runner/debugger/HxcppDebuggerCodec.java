@@ -0,0 +1,533 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import haxe.lang.ParamEnum;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes hxcpp debugger commands and messages without going through the generated
+ * {@code haxe.Serializer}/{@code haxe.Unserializer}.
+ * <p>
+ * The wire format is the one of {@code debugger.HaxeProtocol}: an 8 digit decimal length followed by a haxe
+ * serialized enum value.  Values are encoded straight from, and decoded straight into, the {@code debugger.*} enum
+ * classes, working on the raw bytes of a frame (the payload is always ASCII, strings are url-encoded).  The string
+ * cache and the object reference cache of the haxe format are kept as hash maps/lists instead of linear scans.
+ * <p>
+ * Values the debugger protocol never uses (floats, arrays, anonymous objects...) are handed to the generated
+ * serializer, which stays the reference implementation.
+ */
+public final class HxcppDebuggerCodec {
+
+  private static final int LENGTH_PREFIX_SIZE = 8;
+  private static final int MAX_MESSAGE_LENGTH = 2097152;
+
+  private static final HaxeMetrics.Counter fallbackCounter = HaxeMetrics.counter("debugger.codec.fallback");
+
+  private static final Map<Class<?>, EnumType> typesByClass = new HashMap<>();
+  private static final Map<String, EnumType> typesByName = new HashMap<>();
+
+  static {
+    register(debugger.BreakpointList.class, debugger.BreakpointList.__hx_constructs, debugger.BreakpointList::new);
+    register(debugger.BreakpointLocationList.class, debugger.BreakpointLocationList.__hx_constructs, debugger.BreakpointLocationList::new);
+    register(debugger.BreakpointStatusList.class, debugger.BreakpointStatusList.__hx_constructs, debugger.BreakpointStatusList::new);
+    register(debugger.ClassList.class, debugger.ClassList.__hx_constructs, debugger.ClassList::new);
+    register(debugger.Command.class, debugger.Command.__hx_constructs, debugger.Command::new);
+    register(debugger.FrameList.class, debugger.FrameList.__hx_constructs, debugger.FrameList::new);
+    register(debugger.Message.class, debugger.Message.__hx_constructs, debugger.Message::new);
+    register(debugger.StringList.class, debugger.StringList.__hx_constructs, debugger.StringList::new);
+    register(debugger.StructuredValue.class, debugger.StructuredValue.__hx_constructs, debugger.StructuredValue::new);
+    register(debugger.StructuredValueList.class, debugger.StructuredValueList.__hx_constructs, debugger.StructuredValueList::new);
+    register(debugger.StructuredValueListType.class, debugger.StructuredValueListType.__hx_constructs, debugger.StructuredValueListType::new);
+    register(debugger.StructuredValueType.class, debugger.StructuredValueType.__hx_constructs, debugger.StructuredValueType::new);
+    register(debugger.StructuredValueTypeList.class, debugger.StructuredValueTypeList.__hx_constructs, debugger.StructuredValueTypeList::new);
+    register(debugger.ThreadStatus.class, debugger.ThreadStatus.__hx_constructs, debugger.ThreadStatus::new);
+    register(debugger.ThreadWhereList.class, debugger.ThreadWhereList.__hx_constructs, debugger.ThreadWhereList::new);
+  }
+
+  private HxcppDebuggerCodec() {
+  }
+
+  /**
+   * Writes a length prefixed command frame, as {@code JavaProtocol.writeCommand} does, in a single write.
+   */
+  public static void writeCommand(@NotNull OutputStream output, @NotNull debugger.Command command) throws IOException {
+    output.write(encodeFrame(command));
+    output.flush();
+  }
+
+  /**
+   * Reads a length prefixed message frame, as {@code JavaProtocol.readMessage} does.
+   */
+  @NotNull
+  public static debugger.Message readMessage(@NotNull InputStream input) throws IOException {
+    byte[] prefix = new byte[LENGTH_PREFIX_SIZE];
+    readFully(input, prefix, LENGTH_PREFIX_SIZE);
+    int length = 0;
+    for (byte digit : prefix) {
+      if (digit < '0' || digit > '9') {
+        throw new IOException("Read bad message length: " + new String(prefix, StandardCharsets.ISO_8859_1));
+      }
+      length = length * 10 + (digit - '0');
+    }
+    if (length > MAX_MESSAGE_LENGTH) {
+      throw new IOException("Read bad message length: " + length + ".");
+    }
+
+    byte[] payload = new byte[length];
+    readFully(input, payload, length);
+    Object value = decode(payload, length);
+    if (!(value instanceof debugger.Message message)) {
+      throw new IOException("Expected Message, but got " + value);
+    }
+    return message;
+  }
+
+  @NotNull
+  static byte[] encodeFrame(@Nullable Object value) {
+    Encoder encoder = new Encoder();
+    encoder.size = LENGTH_PREFIX_SIZE;
+    try {
+      encoder.write(value);
+    }
+    catch (UnsupportedFormat e) {
+      fallbackCounter.increment();
+      encoder = new Encoder();
+      encoder.size = LENGTH_PREFIX_SIZE;
+      encoder.putAscii(haxe.Serializer.run(value));
+    }
+
+    int length = encoder.size - LENGTH_PREFIX_SIZE;
+    for (int i = LENGTH_PREFIX_SIZE - 1; i >= 0; i--) {
+      encoder.buffer[i] = (byte)('0' + length % 10);
+      length /= 10;
+    }
+    return Arrays.copyOf(encoder.buffer, encoder.size);
+  }
+
+  /**
+   * @return the haxe serialization of the value, identical to {@code haxe.Serializer.run(value)}.
+   */
+  @NotNull
+  static String encode(@Nullable Object value) {
+    byte[] frame = encodeFrame(value);
+    return new String(frame, LENGTH_PREFIX_SIZE, frame.length - LENGTH_PREFIX_SIZE, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @return the value of a haxe serialized payload, as {@code haxe.Unserializer.run} would return it.
+   */
+  @Nullable
+  static Object decode(@NotNull byte[] data, int length) {
+    try {
+      return new Decoder(data, length).read();
+    }
+    catch (UnsupportedFormat e) {
+      fallbackCounter.increment();
+      return haxe.Unserializer.run(new String(data, 0, length, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void readFully(@NotNull InputStream input, @NotNull byte[] buffer, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      int read = input.read(buffer, offset, length - offset);
+      if (read < 0) {
+        throw new EOFException("Debugger connection closed after " + offset + " of " + length + " bytes");
+      }
+      offset += read;
+    }
+  }
+
+  private static void register(@NotNull Class<? extends ParamEnum> enumClass, @NotNull String[] constructs,
+                               @NotNull EnumFactory factory) {
+    EnumType type = new EnumType(enumClass, constructs, factory);
+    typesByClass.put(enumClass, type);
+    typesByName.put(type.name, type);
+  }
+
+  @FunctionalInterface
+  private interface EnumFactory {
+    ParamEnum create(int index, Object[] params);
+  }
+
+  private static final class EnumType {
+    final String name;
+    final String[] constructs;
+    final Map<String, Integer> indexes;
+    /** Shared instances of the constructors without parameters (what {@code Type.createEnum} returns for them). */
+    final ParamEnum[] constants;
+    final EnumFactory factory;
+
+    EnumType(@NotNull Class<? extends ParamEnum> enumClass, @NotNull String[] constructs, @NotNull EnumFactory factory) {
+      this.name = enumClass.getName();
+      this.constructs = constructs;
+      this.factory = factory;
+      this.indexes = new HashMap<>(constructs.length * 2);
+      this.constants = new ParamEnum[constructs.length];
+      for (int i = 0; i < constructs.length; i++) {
+        indexes.put(constructs[i], i);
+        constants[i] = findConstant(enumClass, constructs[i]);
+      }
+    }
+
+    @Nullable
+    private static ParamEnum findConstant(@NotNull Class<? extends ParamEnum> enumClass, @NotNull String construct) {
+      try {
+        Field field = enumClass.getField(construct);
+        if (Modifier.isStatic(field.getModifiers()) && field.getType() == enumClass) {
+          return (ParamEnum)field.get(null);
+        }
+      }
+      catch (NoSuchFieldException | IllegalAccessException ignored) {
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Thrown when a value or token is outside of what the debugger protocol uses; the caller then retries with the
+   * generated serializer.
+   */
+  private static final class UnsupportedFormat extends RuntimeException {
+    static final UnsupportedFormat INSTANCE = new UnsupportedFormat();
+
+    private UnsupportedFormat() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final class Encoder {
+    /** Characters left alone by {@code StringTools.urlEncode}. */
+    private static final boolean[] URL_SAFE = new boolean[128];
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.ISO_8859_1);
+
+    static {
+      for (char c = '0'; c <= '9'; c++) URL_SAFE[c] = true;
+      for (char c = 'a'; c <= 'z'; c++) URL_SAFE[c] = true;
+      for (char c = 'A'; c <= 'Z'; c++) URL_SAFE[c] = true;
+      for (char c : "-_.*!'()~".toCharArray()) URL_SAFE[c] = true;
+    }
+
+    private byte[] buffer = new byte[256];
+    private int size;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    void write(@Nullable Object value) {
+      if (value == null) {
+        put('n');
+      }
+      else if (value instanceof Integer intValue) {
+        writeInt(intValue);
+      }
+      else if (value instanceof Boolean boolValue) {
+        put(boolValue ? 't' : 'f');
+      }
+      else if (value instanceof String string) {
+        writeString(string);
+      }
+      else if (value instanceof ParamEnum enumValue) {
+        writeEnum(enumValue);
+      }
+      else {
+        throw UnsupportedFormat.INSTANCE;
+      }
+    }
+
+    private void writeInt(int value) {
+      if (value == 0) {
+        put('z');
+      }
+      else {
+        put('i');
+        putDecimal(value);
+      }
+    }
+
+    private void writeEnum(@NotNull ParamEnum value) {
+      EnumType type = typesByClass.get(value.getClass());
+      if (type == null) throw UnsupportedFormat.INSTANCE;
+
+      put('w');
+      writeString(type.name);
+      writeString(type.constructs[value.index]);
+      put(':');
+      Object[] params = value.params;
+      if (params == null) {
+        put('0');
+        return;
+      }
+      putDecimal(params.length);
+      for (Object param : params) {
+        write(param);
+      }
+    }
+
+    private void writeString(@NotNull String value) {
+      Integer reference = strings.get(value);
+      if (reference != null) {
+        put('R');
+        putDecimal(reference);
+        return;
+      }
+      strings.put(value, strings.size());
+
+      put('y');
+      int length = value.length();
+      boolean safe = true;
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        if (c >= 128 || !URL_SAFE[c]) {
+          safe = false;
+          break;
+        }
+      }
+      if (safe) {
+        putDecimal(length);
+        put(':');
+        putAscii(value);
+        return;
+      }
+
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      int encodedLength = 0;
+      for (byte b : utf8) {
+        encodedLength += b >= 0 && URL_SAFE[b] ? 1 : 3;
+      }
+      putDecimal(encodedLength);
+      put(':');
+      ensureCapacity(encodedLength);
+      for (byte b : utf8) {
+        if (b >= 0 && URL_SAFE[b]) {
+          buffer[size++] = b;
+        }
+        else {
+          buffer[size++] = '%';
+          buffer[size++] = HEX[(b >> 4) & 0xF];
+          buffer[size++] = HEX[b & 0xF];
+        }
+      }
+    }
+
+    private void putDecimal(int value) {
+      ensureCapacity(11);
+      long remaining = value;
+      if (remaining < 0) {
+        buffer[size++] = '-';
+        remaining = -remaining;
+      }
+      int start = size;
+      do {
+        buffer[size++] = (byte)('0' + remaining % 10);
+        remaining /= 10;
+      }
+      while (remaining != 0);
+      for (int i = start, j = size - 1; i < j; i++, j--) {
+        byte digit = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = digit;
+      }
+    }
+
+    void putAscii(@NotNull String value) {
+      int length = value.length();
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        buffer[size++] = (byte)value.charAt(i);
+      }
+    }
+
+    private void put(char c) {
+      ensureCapacity(1);
+      buffer[size++] = (byte)c;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+  }
+
+  private static final class Decoder {
+    private final byte[] data;
+    private final int end;
+    private int pos;
+    private final ArrayList<String> strings = new ArrayList<>();
+    private final ArrayList<Object> objects = new ArrayList<>();
+
+    Decoder(@NotNull byte[] data, int length) {
+      this.data = data;
+      this.end = length;
+    }
+
+    @Nullable
+    Object read() {
+      switch (next()) {
+        case 'n':
+          return null;
+        case 'z':
+          return 0;
+        case 'i':
+          return readDigits();
+        case 't':
+          return Boolean.TRUE;
+        case 'f':
+          return Boolean.FALSE;
+        case 'y':
+          return readStringBody();
+        case 'R':
+          return readStringReference();
+        case 'r': {
+          int index = readDigits();
+          if (index < 0 || index >= objects.size()) throw UnsupportedFormat.INSTANCE;
+          return objects.get(index);
+        }
+        case 'w': {
+          EnumType type = readEnumType();
+          Integer index = type.indexes.get(readString());
+          if (index == null) throw UnsupportedFormat.INSTANCE;
+          return readEnumParams(type, index);
+        }
+        case 'j': {
+          EnumType type = readEnumType();
+          pos++;
+          int index = readDigits();
+          if (index < 0 || index >= type.constructs.length) throw UnsupportedFormat.INSTANCE;
+          return readEnumParams(type, index);
+        }
+        default:
+          throw UnsupportedFormat.INSTANCE;
+      }
+    }
+
+    @NotNull
+    private EnumType readEnumType() {
+      EnumType type = typesByName.get(readString());
+      if (type == null) throw UnsupportedFormat.INSTANCE;
+      return type;
+    }
+
+    @NotNull
+    private ParamEnum readEnumParams(@NotNull EnumType type, int index) {
+      if (next() != ':') throw UnsupportedFormat.INSTANCE;
+      int count = readDigits();
+      ParamEnum value;
+      if (count == 0) {
+        value = type.constants[index];
+        // the generated code refuses constructors called without their parameters
+        if (value == null) throw UnsupportedFormat.INSTANCE;
+      }
+      else {
+        Object[] params = new Object[count];
+        for (int i = 0; i < count; i++) {
+          params[i] = read();
+        }
+        value = type.factory.create(index, params);
+      }
+      objects.add(value);
+      return value;
+    }
+
+    @NotNull
+    private String readString() {
+      int token = next();
+      if (token == 'y') return readStringBody();
+      if (token == 'R') return readStringReference();
+      throw UnsupportedFormat.INSTANCE;
+    }
+
+    @NotNull
+    private String readStringReference() {
+      int index = readDigits();
+      if (index < 0 || index >= strings.size()) throw UnsupportedFormat.INSTANCE;
+      return strings.get(index);
+    }
+
+    @NotNull
+    private String readStringBody() {
+      int length = readDigits();
+      if (next() != ':' || length < 0 || end - pos < length) throw UnsupportedFormat.INSTANCE;
+      String value = urlDecode(pos, length);
+      pos += length;
+      strings.add(value);
+      return value;
+    }
+
+    /**
+     * Same result as {@code StringTools.urlDecode} ({@link java.net.URLDecoder} with UTF-8), without the intermediate strings.
+     */
+    @NotNull
+    private String urlDecode(int offset, int length) {
+      int limit = offset + length;
+      boolean plain = true;
+      for (int i = offset; i < limit; i++) {
+        byte b = data[i];
+        if (b < 0) throw UnsupportedFormat.INSTANCE;
+        if (b == '%' || b == '+') plain = false;
+      }
+      if (plain) {
+        return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+      }
+
+      byte[] decoded = new byte[length];
+      int size = 0;
+      for (int i = offset; i < limit; i++) {
+        byte b = data[i];
+        if (b == '+') {
+          decoded[size++] = ' ';
+        }
+        else if (b == '%') {
+          if (i + 2 >= limit) throw UnsupportedFormat.INSTANCE;
+          int high = Character.digit(data[i + 1], 16);
+          int low = Character.digit(data[i + 2], 16);
+          if (high < 0 || low < 0) throw UnsupportedFormat.INSTANCE;
+          decoded[size++] = (byte)((high << 4) | low);
+          i += 2;
+        }
+        else {
+          decoded[size++] = b;
+        }
+      }
+      return new String(decoded, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same as {@code Unserializer.readDigits}: an optional leading minus sign followed by decimal digits.
+     */
+    private int readDigits() {
+      int value = 0;
+      boolean negative = false;
+      int start = pos;
+      while (pos < end) {
+        byte c = data[pos];
+        if (c == '-') {
+          if (pos != start) break;
+          negative = true;
+          pos++;
+          continue;
+        }
+        if (c < '0' || c > '9') break;
+        value = value * 10 + (c - '0');
+        pos++;
+      }
+      return negative ? -value : value;
+    }
+
+    private int next() {
+      return pos < end ? data[pos++] : -1;
+    }
+  }
+}
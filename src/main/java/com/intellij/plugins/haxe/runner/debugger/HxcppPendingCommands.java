@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.runner.debugger;
+
+import debugger.Command;
+import haxe.root.JavaProtocol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commands sent to the hxcpp debugger that wait for their replies.  The debugger answers in order, so a reply
+ * normally belongs to the oldest pending command.
+ * <p>
+ * When it doesn't (the reply is not one the oldest command can get), the queue resynchronizes instead of giving
+ * up: if a later command waits for exactly that kind of reply, the commands before it are taken to have lost
+ * theirs and are returned as skipped; otherwise the reply is not matched to anything and the queue is left alone.
+ *
+ * @param <L> what is notified of a command's reply.
+ */
+final class HxcppPendingCommands<L> {
+
+  /**
+   * A command that has been sent and waits for its reply.
+   *
+   * @param expectedReplyId the reply for a successful command, or -1 if unknown.
+   */
+  record Pending<L>(long sequence, @NotNull Command command, int expectedReplyId, @NotNull L listener) {
+    boolean accepts(int messageId) {
+      // Errors can be the answer to any command.
+      return expectedReplyId < 0 || messageId == expectedReplyId || isError(messageId);
+    }
+  }
+
+  /**
+   * @param reply   the command the reply answers, or null when it answers none of the pending commands.
+   * @param skipped older commands that won't get a reply, oldest first.
+   */
+  record Match<L>(@Nullable Pending<L> reply, @NotNull List<Pending<L>> skipped) {
+  }
+
+  private final ArrayDeque<Pending<L>> myPending = new ArrayDeque<>();
+  private long myNextSequence;
+
+  synchronized void add(@NotNull Command command, @NotNull L listener) {
+    myPending.add(new Pending<>(myNextSequence++, command, getExpectedReplyId(command), listener));
+  }
+
+  /**
+   * Takes the command(s) a reply settles out of the queue.
+   */
+  @NotNull
+  synchronized Match<L> match(int messageId) {
+    Pending<L> oldest = myPending.peek();
+    if (oldest == null) return new Match<>(null, List.of());
+    if (oldest.accepts(messageId)) {
+      myPending.poll();
+      return new Match<>(oldest, List.of());
+    }
+
+    int skip = 0;
+    for (Pending<L> pending : myPending) {
+      if (pending.expectedReplyId() == messageId) break;
+      skip++;
+    }
+    if (skip == myPending.size()) return new Match<>(null, List.of());
+
+    List<Pending<L>> skipped = new ArrayList<>(skip);
+    for (int i = 0; i < skip; i++) {
+      skipped.add(myPending.poll());
+    }
+    return new Match<>(myPending.poll(), skipped);
+  }
+
+  static boolean isError(int messageId) {
+    return messageId <= JavaProtocol.IdErrorEvaluatingExpression;
+  }
+
+  /**
+   * @return the id of the message the debugger answers the command with
+   * when it succeeds, or -1 when any reply is acceptable.
+   */
+  static int getExpectedReplyId(@NotNull Command command) {
+    switch (command.getTag()) {
+      case "BreakNow":
+      case "Continue":
+      case "Next":
+      case "Step":
+      case "Finish":
+        return JavaProtocol.IdOK;
+      case "SetFrame":
+        return JavaProtocol.IdThreadLocation;
+      case "Variables":
+        return JavaProtocol.IdVariables;
+      case "GetStructured":
+        return JavaProtocol.IdStructured;
+      case "WhereCurrentThread":
+        return JavaProtocol.IdThreadsWhere;
+      case "Classes":
+        return JavaProtocol.IdClasses;
+      default:
+        return -1;
+    }
+  }
+}
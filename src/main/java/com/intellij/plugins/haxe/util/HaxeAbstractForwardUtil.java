@@ -23,9 +23,7 @@ import com.intellij.plugins.haxe.lang.psi.HaxeAbstractTypeDeclaration;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.lang.psi.HaxeExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
-import com.intellij.plugins.haxe.metadata.HaxeMetadataList;
 import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
-import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataContent;
 import com.intellij.plugins.haxe.metadata.util.HaxeMetadataUtils;
 import com.intellij.plugins.haxe.model.HaxeAbstractClassModel;
 import com.intellij.plugins.haxe.model.HaxeBaseMemberModel;
@@ -82,31 +80,17 @@ public class HaxeAbstractForwardUtil {
   @Nullable
   public static List<String> getAbstractForwardingFieldsNames(@Nullable HaxeClass clazz) {
     if (clazz == null) return null;
-    HaxeMetadataList forwardMetas = clazz.getCompileTimeMeta(HaxeMeta.FORWARD);
-    if (forwardMetas.isEmpty()) {
+    if (!clazz.hasCompileTimeMeta(HaxeMeta.FORWARD)) {
       return null;
     }
 
     // We need to return an empty list if the meta exists, but has no names.
     // This because an empty list is interpreted as "all" of the names. (In Haxe and in plugin code.)
-    List<String> forwardingFields = new ArrayList<>();
-    for (HaxeMeta meta: forwardMetas) {
-      HaxeMetadataContent content = meta.getContent();
-      if (null != content) {
-        forwardingFields.addAll(parseForwardingFieldsNames(content));
-      }
-    }
-    return forwardingFields;
-  }
-
-  @NotNull
-  private static Set<String> parseForwardingFieldsNames(@NotNull HaxeMetadataContent content) {
-    Set<String> names = new HashSet<String>();
-    List<HaxeExpression> expressions = HaxeMetadataUtils.getCompileTimeExpressions(content);
-    for (HaxeExpression expression : expressions) {
+    Set<String> names = new LinkedHashSet<>();
+    for (HaxeExpression expression : HaxeMetadataUtils.getCompileTimeArguments(clazz, HaxeMeta.FORWARD)) {
       addIfUnique(names, expression.getText());
     }
-    return names;
+    return new ArrayList<>(names);
   }
 
   private static void addIfUnique(Set<String> set, String name) {
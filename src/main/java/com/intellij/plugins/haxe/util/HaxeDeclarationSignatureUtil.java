@@ -0,0 +1,71 @@
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.lang.psi.HaxeTypeTag;
+import com.intellij.plugins.haxe.model.HaxeMethodModel;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Computes a stamp for what other files can see of a Haxe file: its text without the bodies of methods whose
+ * type does not depend on them (methods with a declared return type, and constructors).
+ * <p>
+ * Edits inside such bodies leave the stamp unchanged, which lets results that only depend on the file's
+ * declarations outlive them.
+ */
+public final class HaxeDeclarationSignatureUtil {
+
+  private HaxeDeclarationSignatureUtil() {
+  }
+
+  public static long getSignatureStamp(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () ->
+      CachedValueProvider.Result.create(computeSignatureStamp(file), file));
+  }
+
+  /**
+   * @return a stamp of the whole text of the file: its hash and length.
+   */
+  public static long getContentStamp(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      CharSequence text = file.getViewProvider().getContents();
+      long stamp = ((long)text.length() << 32) | (StringUtil.stringHashCode(text) & 0xFFFFFFFFL);
+      return CachedValueProvider.Result.create(stamp, file);
+    });
+  }
+
+  private static long computeSignatureStamp(@NotNull PsiFile file) {
+    CharSequence text = file.getViewProvider().getContents();
+    // Not seeded with the length of the text: that includes the skipped bodies.
+    long hash = 0;
+    int position = 0;
+    for (HaxeMethod method : PsiTreeUtil.findChildrenOfType(file, HaxeMethod.class)) {
+      TextRange body = getOpaqueBodyRange(method);
+      if (body == null || body.getStartOffset() < position) continue;
+      hash = hash(hash, text, position, body.getStartOffset());
+      position = body.getEndOffset();
+    }
+    return hash(hash, text, position, text.length());
+  }
+
+  private static TextRange getOpaqueBodyRange(@NotNull HaxeMethod method) {
+    HaxeMethodModel model = method.getModel();
+    if (model == null) return null;
+    if (!model.isConstructor() && PsiTreeUtil.getChildOfType(method, HaxeTypeTag.class) == null) return null;
+    PsiElement body = model.getBodyPsi();
+    return body == null ? null : body.getTextRange();
+  }
+
+  private static long hash(long hash, @NotNull CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,132 @@
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Records which files a computation looked into, so that its result can be cached for as long as those files keep
+ * their declarations (see {@link HaxeDeclarationSignatureUtil}).
+ * <p>
+ * Recording is per thread and only active inside {@link #recordDependencies}; the hooks in the resolver and the
+ * evaluator cost a thread local read otherwise.  Caches that skip such computations on a hit keep the dependencies
+ * next to their result ({@link #recorded}) and report them again when they hand it out ({@link #replay}); caches that
+ * can't do that mark the computation in progress as {@link #incomplete}, so that its dependencies aren't trusted for
+ * results kept beyond the session.
+ */
+public final class HaxeDependencyRecorder {
+
+  private static final ThreadLocal<Recording> recording = new ThreadLocal<>();
+
+  private static final class Recording {
+    final Set<PsiFile> files;
+    boolean complete = true;
+
+    Recording(@NotNull Set<PsiFile> files) {
+      this.files = files;
+    }
+  }
+
+  /**
+   * A cached result together with the files its computation depended on.
+   *
+   * @param complete false if some of the dependencies were missed, see {@link #incomplete}.
+   */
+  public record Recorded<T>(T value, @NotNull Set<PsiFile> dependencies, boolean complete) {
+
+    public Recorded(T value, @NotNull Set<PsiFile> dependencies) {
+      this(value, dependencies, true);
+    }
+  }
+
+  private HaxeDependencyRecorder() {
+  }
+
+  /**
+   * Runs {@code computation}, keeping the files it depends on with its result.  They are recorded for the
+   * computation in progress, if any, as well.
+   */
+  @NotNull
+  public static <T> Recorded<T> recorded(@NotNull Supplier<T> computation) {
+    Recording current = new Recording(new HashSet<>());
+    T value = runRecording(current, computation);
+    return new Recorded<>(value, Set.copyOf(current.files), current.complete);
+  }
+
+  /**
+   * @return whether a computation on this thread is recording its dependencies.
+   */
+  public static boolean isRecording() {
+    return recording.get() != null;
+  }
+
+  /**
+   * @return the value of a cached computation, recording its dependencies as if it had just run.
+   */
+  public static <T> T replay(@NotNull Recorded<T> recorded) {
+    Recording current = recording.get();
+    if (current != null) {
+      current.files.addAll(recorded.dependencies());
+      if (!recorded.complete()) current.complete = false;
+    }
+    return recorded.value();
+  }
+
+  /**
+   * Runs {@code computation}, adding every file it depends on to {@code dependencies}.
+   */
+  public static <T> T recordDependencies(@NotNull Set<PsiFile> dependencies, @NotNull Supplier<T> computation) {
+    return runRecording(new Recording(dependencies), computation);
+  }
+
+  private static <T> T runRecording(@NotNull Recording current, @NotNull Supplier<T> computation) {
+    Recording outer = recording.get();
+    recording.set(current);
+    try {
+      return computation.get();
+    }
+    finally {
+      recording.set(outer);
+      if (outer != null) {
+        outer.files.addAll(current.files);
+        if (!current.complete) outer.complete = false;
+      }
+    }
+  }
+
+  /**
+   * Marks the computation in progress as depending on files that were not recorded, as when a cache hands out a
+   * result without the dependencies of its computation.
+   */
+  public static void incomplete() {
+    Recording current = recording.get();
+    if (current != null) current.complete = false;
+  }
+
+  public static void record(@Nullable PsiElement element) {
+    Recording current = recording.get();
+    if (current == null || element == null) return;
+    addFile(current.files, element);
+  }
+
+  public static void record(@Nullable List<? extends PsiElement> elements) {
+    Recording current = recording.get();
+    if (current == null || elements == null) return;
+    for (int i = 0; i < elements.size(); i++) {
+      PsiElement element = elements.get(i);
+      if (element != null) addFile(current.files, element);
+    }
+  }
+
+  private static void addFile(@NotNull Set<PsiFile> files, @NotNull PsiElement element) {
+    if (!element.isValid()) return;
+    PsiFile file = element.getContainingFile();
+    if (file != null) files.add(file.getOriginalFile());
+  }
+}
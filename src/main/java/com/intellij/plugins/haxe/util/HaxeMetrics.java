@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on, low overhead counters and timing histograms for the resolver, the evaluator and the annotators.
+ * <p>
+ * Counters are striped ({@link LongAdder}) so that recording from many highlighting threads does not contend,
+ * and lookups by name do not allocate once a metric exists.  Use {@link #snapshot()} to get a readable dump
+ * and {@link #reset()} to start a new measuring period.
+ * <p>
+ * Cache metrics are kept as counters named {@code <cache>.miss} plus either {@code <cache>.hit} or
+ * {@code <cache>.requests}; the snapshot reports the hit ratio for every such pair.
+ */
+public final class HaxeMetrics {
+
+  private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  private HaxeMetrics() {
+  }
+
+  @NotNull
+  public static Counter counter(@NotNull String name) {
+    return counters.computeIfAbsent(name, Counter::new);
+  }
+
+  @NotNull
+  public static Histogram histogram(@NotNull String name) {
+    return histograms.computeIfAbsent(name, Histogram::new);
+  }
+
+  public static void increment(@NotNull String name) {
+    counter(name).increment();
+  }
+
+  public static long startTimer() {
+    return System.nanoTime();
+  }
+
+  public static void recordTime(@NotNull String name, long startNanos) {
+    histogram(name).record(System.nanoTime() - startNanos);
+  }
+
+  public static void reset() {
+    counters.values().forEach(Counter::reset);
+    histograms.values().forEach(Histogram::reset);
+  }
+
+  /**
+   * @return a human readable dump of all counters (with hit ratios for caches) and histograms.
+   */
+  @NotNull
+  public static String snapshot() {
+    StringBuilder builder = new StringBuilder();
+    Map<String, Counter> sortedCounters = new TreeMap<>(counters);
+    builder.append("Counters:\n");
+    for (Map.Entry<String, Counter> entry : sortedCounters.entrySet()) {
+      String name = entry.getKey();
+      long value = entry.getValue().get();
+      builder.append("  ").append(name).append(" = ").append(value);
+      if (name.endsWith(".miss")) {
+        String cacheName = name.substring(0, name.length() - ".miss".length());
+        Counter hits = sortedCounters.get(cacheName + ".hit");
+        Counter requests = sortedCounters.get(cacheName + ".requests");
+        long total = hits != null ? hits.get() + value : requests != null ? requests.get() : 0;
+        if (total > 0) {
+          builder.append(String.format(" (%2.2f%% hit ratio)", (total - value) * 100.0 / total));
+        }
+      }
+      builder.append('\n');
+    }
+    builder.append("Timings (ms):\n");
+    for (Histogram histogram : new TreeMap<>(histograms).values()) {
+      builder.append("  ").append(histogram).append('\n');
+    }
+    return builder.toString();
+  }
+
+  public static final class Counter {
+    private final String name;
+    private final LongAdder adder = new LongAdder();
+
+    private Counter(String name) {
+      this.name = name;
+    }
+
+    public void increment() {
+      adder.increment();
+    }
+
+    public void add(long delta) {
+      adder.add(delta);
+    }
+
+    public long get() {
+      return adder.sum();
+    }
+
+    private void reset() {
+      adder.reset();
+    }
+
+    @Override
+    public String toString() {
+      return name + " = " + get();
+    }
+  }
+
+  /**
+   * Histogram of durations using power-of-two buckets (in microseconds), so recording is a handful of adds.
+   */
+  public static final class Histogram {
+    private static final int BUCKETS = 32;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    private Histogram(String name) {
+      this.name = name;
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    public void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      long micros = Math.max(1, nanos / 1000);
+      int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+      buckets[bucket].increment();
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    /**
+     * @return the upper bound (in microseconds) of the bucket containing the given percentile (0-100).
+     */
+    public long percentileMicros(double percentile) {
+      long total = getCount();
+      if (total == 0) return 0;
+      long threshold = (long)Math.ceil(total * percentile / 100.0);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i].sum();
+        if (seen >= threshold) return 1L << (i + 1);
+      }
+      return 1L << BUCKETS;
+    }
+
+    private void reset() {
+      count.reset();
+      totalNanos.reset();
+      for (LongAdder bucket : buckets) {
+        bucket.reset();
+      }
+    }
+
+    @Override
+    public String toString() {
+      long calls = getCount();
+      double totalMs = getTotalNanos() / 1_000_000.0;
+      return String.format("%s: calls=%d total=%.2f avg=%.3f p50<%.3f p99<%.3f", name, calls, totalMs,
+                           calls == 0 ? 0.0 : totalMs / calls,
+                           percentileMicros(50) / 1000.0, percentileMicros(99) / 1000.0);
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.intellij.plugins.haxe.util;
 
 
 import com.intellij.openapi.externalSystem.autoimport.ExternalSystemProjectTracker;
+import com.intellij.openapi.util.ModificationTracker;
 import lombok.CustomLog;
 
 import javax.management.RuntimeErrorException;
@@ -39,7 +40,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Created by ebishton on 9/7/2017.
  */
 @CustomLog
-public class HaxeModificationTracker {
+public class HaxeModificationTracker implements ModificationTracker {
 
   // XXX: Maybe add a "disposed" state and set it true with the underlying object is no longer valid/used?
 
@@ -81,6 +82,11 @@ public class HaxeModificationTracker {
     updateCounter.incrementAndGet();
   }
 
+  @Override
+  public long getModificationCount() {
+    return updateCounter.get();
+  }
+
   public class Stamp implements HaxeTrackedModifiable.Stamp {
     private final int value;
     private final HaxeModificationTracker tracker;
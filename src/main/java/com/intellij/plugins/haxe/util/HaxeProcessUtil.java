@@ -20,17 +20,24 @@ import com.intellij.execution.configurations.GeneralCommandLine;
 import com.intellij.execution.process.ProcessOutput;
 import com.intellij.execution.util.ExecUtil;
 import com.intellij.openapi.diagnostic.LogLevel;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.containers.ContainerUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @CustomLog
 public class HaxeProcessUtil {
@@ -38,6 +45,13 @@ public class HaxeProcessUtil {
     log.setLevel(LogLevel.INFO);
   }  // Set to INFO when finished debugging.
 
+  /**
+   * Consumes the error output of a process while the process is running.
+   */
+  public interface ErrorStreamProcessor {
+    void process(@NotNull Reader stderr) throws IOException;
+  }
+
   /**
    * Records errors so that we only show them once.
    */
@@ -247,4 +261,65 @@ public class HaxeProcessUtil {
       return 255;
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Run an interruptible process with the Haxe SDK environment (if given), handing its error output to
+   * {@code stderrProcessor} as it is produced instead of collecting it.  Standard output is discarded.
+   * The process is killed when the current progress indicator is canceled.
+   *
+   * @param command         - Command and parameters.
+   * @param dir             - directory to run the command in.
+   * @param sdkData         - sdk to use to set the command environment.
+   * @param stderrProcessor - reads the error output; runs on the calling thread.
+   * @return The exit status of the command.
+   */
+  public static int runProcess(List<String> command,
+                               VirtualFile dir,
+                               HaxeSdkAdditionalDataBase sdkData,
+                               @NotNull ErrorStreamProcessor stderrProcessor,
+                               HaxeDebugTimeLog timeLog) {
+    GeneralCommandLine line = new GeneralCommandLine();
+    line.addParameters(command.subList(1, command.size()));
+    line.setExePath(command.get(0));
+    line.setWorkDirectory(dir.getPath());
+    if (null != sdkData) {
+      HaxeSdkUtilBase.patchEnvironment(line.getEnvironment(), sdkData);
+    }
+
+    Process process;
+    try {
+      if (null != timeLog) timeLog.stamp("Executing " + command);
+      log.info("Starting external process: " + command);
+      process = line.toProcessBuilder().redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+    }
+    catch (ExecutionException | IOException e) {
+      log.info("I/O exception running command " + command.get(0));
+      return 255;
+    }
+
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    ScheduledFuture<?> cancellationWatcher = null == indicator ? null :
+      AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(() -> {
+        if (indicator.isCanceled()) process.destroy();
+      }, 50, 50, TimeUnit.MILLISECONDS);
+    try (Reader stderr = new InputStreamReader(process.getErrorStream(), line.getCharset())) {
+      stderrProcessor.process(stderr);
+      return process.waitFor();
+    }
+    catch (IOException e) {
+      // Most likely the process was killed while we were reading.
+      ProgressManager.checkCanceled();
+      log.info("I/O exception reading the output of " + command.get(0) + ": " + e.getMessage());
+      return 255;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 255;
+    }
+    finally {
+      if (null != cancellationWatcher) cancellationWatcher.cancel(false);
+      if (process.isAlive()) process.destroy();
+      ProgressManager.checkCanceled();
+    }
+  }
+}
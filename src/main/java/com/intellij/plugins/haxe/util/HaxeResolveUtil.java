@@ -181,6 +181,7 @@ public class HaxeResolveUtil {
     List<HaxeModel> result = HaxeProjectModel.fromProject(psiManager.getProject()).resolve(qualifiedInfo, scope);
     if (result != null && !result.isEmpty()) {
       HaxeModel item = result.get(0);
+      HaxeDependencyRecorder.record(item.getBasePsi());
       if (item instanceof HaxeFileModel) {
         HaxeClassModel classModel = ((HaxeFileModel)item).getMainClassModel();
         return classModel != null ? classModel.haxeClass : null;
@@ -1397,21 +1398,7 @@ public class HaxeResolveUtil {
 
   private static @Nullable HaxeModel tryResolveTypeDefClass(HaxeClassModel classModel) {
     if (classModel.isTypedef()) {
-      SpecificTypeReference resolved = classModel.getUnderlyingType();
-      while (resolved instanceof  SpecificHaxeClassReference haxeClassReference) {
-        HaxeClassModel resolvedModel = haxeClassReference.getHaxeClassModel();
-        if (resolvedModel != null && resolvedModel.isTypedef()) {
-          SpecificTypeReference underlyingType = resolvedModel.getUnderlyingType();
-          if (underlyingType != null) {
-            resolved = underlyingType;
-          }else {
-            break;
-          }
-        }else {
-          break;
-        }
-      }
-
+      SpecificTypeReference resolved = HaxeTypeDefExpansion.getUnderlyingTarget(classModel);
       if (resolved instanceof SpecificHaxeClassReference classReference) {
         return classReference.getHaxeClassModel();
       }
@@ -0,0 +1,107 @@
+package com.intellij.plugins.haxe.buildsystem.hxml;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.buildsystem.hxml.model.HXMLBuildSection;
+import com.intellij.plugins.haxe.buildsystem.hxml.model.HXMLProjectModel;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+import java.util.List;
+import java.util.Map;
+
+public class HXMLProjectModelTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/hxml/";
+  }
+
+  public void testSingleBuild() {
+    PsiFile file = myFixture.addFileToProject("build.hxml", """
+      # comment
+      -cp src
+      -lib lime:8.0.0
+      -D analyzer-optimize
+      -D version=2
+      --macro include('app')
+      -main app.Main
+      -js bin/app.js
+      """);
+    HXMLProjectModel model = HXMLProjectModel.getCachedModel(file);
+    assertEquals(1, model.getSections().size());
+    assertEquals(List.of("src"), model.getClasspath());
+    assertEquals(List.of("lime:8.0.0"), model.getLibraries());
+    assertEquals(List.of("include('app')"), model.getMacros());
+    assertEquals("app.Main", model.getMainClass());
+    assertEquals(List.of(HaxeTarget.JAVA_SCRIPT), model.getTargets());
+
+    Map<String, String> definitions = model.getDefinitions(HaxeTarget.JAVA_SCRIPT);
+    assertEquals("true", definitions.get("analyzer-optimize"));
+    assertEquals("2", definitions.get("version"));
+    assertNull(definitions.get("js"));
+    assertEquals("bin/app.js", model.getSections().get(0).getOutput());
+  }
+
+  public void testEachAndNextSections() {
+    PsiFile file = myFixture.addFileToProject("each.hxml", """
+      -cp src
+      -main Main
+      --each
+      -js bin/main.js
+      --next
+      -D server
+      -neko bin/main.n
+      """);
+    List<HXMLBuildSection> sections = HXMLProjectModel.getCachedModel(file).getSections();
+    assertEquals(2, sections.size());
+    assertEquals(HaxeTarget.JAVA_SCRIPT, sections.get(0).getTarget());
+    assertEquals(HaxeTarget.NEKO, sections.get(1).getTarget());
+    for (HXMLBuildSection section : sections) {
+      assertEquals(List.of("src"), section.getClasspaths());
+      assertEquals("Main", section.getMainClass());
+    }
+    assertFalse(sections.get(0).getDefinitions().containsKey("server"));
+    assertTrue(sections.get(1).getDefinitions().containsKey("server"));
+  }
+
+  public void testDefinitionsOfTheConfiguredTarget() {
+    PsiFile file = myFixture.addFileToProject("targets.hxml", """
+      -D common
+      -js bin/main.js
+      --next
+      -D server
+      -neko bin/main.n
+      """);
+    HXMLProjectModel model = HXMLProjectModel.getCachedModel(file);
+    assertFalse(model.getDefinitions(HaxeTarget.JAVA_SCRIPT).containsKey("server"));
+    assertTrue(model.getDefinitions(HaxeTarget.NEKO).containsKey("server"));
+    assertTrue(model.getDefinitions(HaxeTarget.CPP).containsKey("common"));
+    assertFalse(model.getDefinitions(HaxeTarget.CPP).containsKey("server"));
+  }
+
+  public void testIncludedFilesAreInlinedAndTracked() {
+    PsiFile common = myFixture.addFileToProject("common.hxml", "-cp shared\n-D common\n");
+    PsiFile file = myFixture.addFileToProject("main.hxml", "common.hxml\n-cp src\n");
+
+    HXMLProjectModel model = HXMLProjectModel.getCachedModel(file);
+    assertEquals(List.of("shared", "src"), model.getClasspath());
+    assertTrue(model.getDefinitions(null).containsKey("common"));
+    assertSame(model, HXMLProjectModel.getCachedModel(file));
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(common);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("-cp other\n");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+    assertEquals(List.of("other", "src"), HXMLProjectModel.getCachedModel(file).getClasspath());
+  }
+
+  public void testRecursiveIncludesAreIgnored() {
+    myFixture.addFileToProject("a.hxml", "b.hxml\n-cp from_a\n");
+    PsiFile b = myFixture.addFileToProject("b.hxml", "a.hxml\n-cp from_b\n");
+    assertEquals(List.of("from_a", "from_b"), HXMLProjectModel.getCachedModel(b).getClasspath());
+  }
+}
@@ -0,0 +1,76 @@
+package com.intellij.plugins.haxe.compiler;
+
+import com.intellij.plugins.haxe.compilation.HaxeBuildScheduler;
+import com.intellij.testFramework.UsefulTestCase;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HaxeBuildSchedulerTest extends UsefulTestCase {
+
+  private static final HaxeBuildScheduler.Listener<String> NO_LISTENER = new HaxeBuildScheduler.Listener<>() {};
+
+  private static HaxeBuildScheduler<String> scheduler(Map<String, List<String>> dependencies, int parallelism) {
+    return new HaxeBuildScheduler<>(new ArrayList<>(dependencies.keySet()), item -> dependencies.get(item), parallelism);
+  }
+
+  private static Map<String, List<String>> graph(String... edges) {
+    Map<String, List<String>> graph = new LinkedHashMap<>();
+    for (String edge : edges) {
+      String[] parts = edge.split(":");
+      graph.put(parts[0], parts.length > 1 ? List.of(parts[1].split(",")) : List.of());
+    }
+    return graph;
+  }
+
+  public void testDependenciesAreBuiltFirst() {
+    List<String> order = new CopyOnWriteArrayList<>();
+    List<String> built = scheduler(graph("app:core,ui", "ui:core", "core", "tools"), 4)
+      .build(item -> order.add(item), NO_LISTENER, null);
+
+    assertSameElements(built, "app", "ui", "core", "tools");
+    assertTrue(order.indexOf("core") < order.indexOf("ui"));
+    assertTrue(order.indexOf("ui") < order.indexOf("app"));
+  }
+
+  public void testIndependentItemsRunConcurrently() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    scheduler(graph("a", "b", "c", "d"), 2).build(item -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(100);
+      }
+      catch (InterruptedException e) {
+        return false;
+      }
+      running.decrementAndGet();
+      return true;
+    }, NO_LISTENER, null);
+
+    assertEquals(2, maxRunning.get());
+  }
+
+  public void testDependentsOfFailedItemsAreSkipped() {
+    Map<String, String> skipped = new ConcurrentHashMap<>();
+    List<String> built = scheduler(graph("core", "ui:core", "app:ui", "tools"), 4).build(
+      item -> !item.equals("core"),
+      new HaxeBuildScheduler.Listener<>() {
+        @Override
+        public void skipped(String item, String failedDependency) {
+          skipped.put(item, failedDependency);
+        }
+      },
+      null);
+
+    assertEquals(List.of("tools"), built);
+    assertEquals(Map.of("ui", "core", "app", "core"), skipped);
+  }
+
+  public void testCyclesAreBroken() {
+    List<String> built = scheduler(graph("a:b", "b:a", "c:a"), 1).build(item -> true, NO_LISTENER, null);
+    assertSameElements(built, "a", "b", "c");
+  }
+}
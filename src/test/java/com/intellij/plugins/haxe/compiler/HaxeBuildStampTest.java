@@ -0,0 +1,133 @@
+package com.intellij.plugins.haxe.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.util.HaxeBuildStamp;
+import com.intellij.testFramework.UsefulTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class HaxeBuildStampTest extends UsefulTestCase {
+
+  private static final List<List<String>> COMMAND_LINES = List.of(List.of("haxe", "build.hxml"));
+
+  private File stateDirectory;
+  private File sourceRoot;
+  private File workingDirectory;
+  private File output;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    stateDirectory = FileUtil.createTempDirectory("state", null);
+    sourceRoot = FileUtil.createTempDirectory("src", null);
+    workingDirectory = FileUtil.createTempDirectory("module", null);
+    FileUtil.writeToFile(new File(sourceRoot, "Main.hx"), "class Main {}");
+    FileUtil.writeToFile(new File(sourceRoot, "notes.txt"), "not an input");
+    output = new File(stateDirectory, "main.js");
+    FileUtil.writeToFile(output, "// built");
+  }
+
+  private HaxeBuildStamp stamp(List<List<String>> commandLines) {
+    return stamp(commandLines, null);
+  }
+
+  private HaxeBuildStamp stamp(List<List<String>> commandLines, String projectFile) {
+    return HaxeBuildStamp.compute(stateDirectory, "module-release", commandLines, List.of(sourceRoot.getPath()), projectFile,
+                                  workingDirectory);
+  }
+
+  private static void assertChangesStamp(HaxeBuildStamp before, File input, String text) throws IOException {
+    assertTrue(before.getInputs().contains(input));
+    before.save();
+    FileUtil.writeToFile(input, text);
+    assertTrue(input.setLastModified(input.lastModified() + 2000));
+  }
+
+  public void testUnchangedInputsAreUpToDate() {
+    stamp(COMMAND_LINES).save();
+    assertTrue(stamp(COMMAND_LINES).isUpToDate(output.getPath()));
+    // build.hxml doesn't exist: creating it changes the stamp.
+    assertEquals(List.of(new File(workingDirectory, "build.hxml"), new File(sourceRoot, "Main.hx")), stamp(COMMAND_LINES).getInputs());
+  }
+
+  public void testChangedSourcesAreNotUpToDate() throws IOException {
+    stamp(COMMAND_LINES).save();
+    FileUtil.writeToFile(new File(sourceRoot, "Other.hx"), "class Other {}");
+    assertFalse(stamp(COMMAND_LINES).isUpToDate(output.getPath()));
+  }
+
+  public void testChangedCommandLinesAreNotUpToDate() {
+    stamp(COMMAND_LINES).save();
+    assertFalse(stamp(List.of(List.of("haxe", "build.hxml", "-debug"))).isUpToDate(output.getPath()));
+  }
+
+  public void testMissingOutputIsNotUpToDate() {
+    stamp(COMMAND_LINES).save();
+    assertFalse(stamp(COMMAND_LINES).isUpToDate(new File(stateDirectory, "missing.js").getPath()));
+  }
+
+  public void testClearedStampIsNotUpToDate() {
+    HaxeBuildStamp stamp = stamp(COMMAND_LINES);
+    stamp.save();
+    stamp.clear();
+    assertFalse(stamp(COMMAND_LINES).isUpToDate(output.getPath()));
+  }
+
+  public void testHxmlIncludesAndClassPathsAreInputs() throws IOException {
+    File other = new File(workingDirectory, "other/Other.hx");
+    File common = new File(workingDirectory, "common.hxml");
+    FileUtil.writeToFile(other, "class Other {}");
+    FileUtil.writeToFile(common, "-cp other\n-D shared");
+    FileUtil.writeToFile(new File(workingDirectory, "build.hxml"), "common.hxml\n-main Main\n-js out.js");
+
+    HaxeBuildStamp stamp = stamp(COMMAND_LINES, "build.hxml");
+    assertTrue(stamp.getInputs().contains(new File(workingDirectory, "build.hxml")));
+    assertChangesStamp(stamp, common, "-cp other\n-D changed");
+    assertFalse(stamp(COMMAND_LINES, "build.hxml").isUpToDate(output.getPath()));
+
+    stamp(COMMAND_LINES, "build.hxml").save();
+    assertChangesStamp(stamp(COMMAND_LINES, "build.hxml"), other, "class Other { var changed; }");
+    assertFalse(stamp(COMMAND_LINES, "build.hxml").isUpToDate(output.getPath()));
+  }
+
+  public void testProjectXmlIncludesAndAssetsAreInputs() throws IOException {
+    File included = new File(workingDirectory, "extra/include.xml");
+    File asset = new File(workingDirectory, "assets/logo.png");
+    FileUtil.writeToFile(included, "<project><source path=\"../lib\"/></project>");
+    FileUtil.writeToFile(new File(workingDirectory, "lib/Lib.hx"), "class Lib {}");
+    FileUtil.writeToFile(asset, "png");
+    FileUtil.writeToFile(new File(workingDirectory, "project.xml"), """
+      <project>
+        <section if="html5"><include path="extra"/></section>
+        <assets path="assets" rename="images"/>
+      </project>
+      """);
+
+    HaxeBuildStamp stamp = stamp(COMMAND_LINES, "project.xml");
+    assertTrue(stamp.getInputs().contains(new File(workingDirectory, "lib/Lib.hx")));
+    assertChangesStamp(stamp, asset, "new png");
+    assertFalse(stamp(COMMAND_LINES, "project.xml").isUpToDate(output.getPath()));
+
+    stamp(COMMAND_LINES, "project.xml").save();
+    assertChangesStamp(stamp(COMMAND_LINES, "project.xml"), included, "<project/>");
+    assertFalse(stamp(COMMAND_LINES, "project.xml").isUpToDate(output.getPath()));
+  }
+
+  public void testHaxelibSourcesAreInputs() throws IOException {
+    File library = new File(workingDirectory, ".haxelib/tink_core/1,2,0");
+    File dependency = new File(workingDirectory, ".haxelib/tink_macro/git");
+    FileUtil.writeToFile(new File(workingDirectory, ".haxelib/tink_core/.current"), "1.2.0");
+    FileUtil.writeToFile(new File(library, "haxelib.json"), "{\"classPath\": \"src\", \"dependencies\": {\"tink_macro\": \"\"}}");
+    FileUtil.writeToFile(new File(library, "src/tink/Core.hx"), "package tink; class Core {}");
+    FileUtil.writeToFile(new File(workingDirectory, ".haxelib/tink_macro/.dev"), dependency.getPath());
+    FileUtil.writeToFile(new File(dependency, "Macro.hx"), "class Macro {}");
+
+    List<List<String>> commandLines = List.of(List.of("haxe", "-lib", "tink_core", "-main", "Main"));
+    HaxeBuildStamp stamp = stamp(commandLines);
+    assertTrue(stamp.getInputs().contains(new File(library, "src/tink/Core.hx")));
+    assertChangesStamp(stamp, new File(dependency, "Macro.hx"), "class Macro { var changed; }");
+    assertFalse(stamp(commandLines).isUpToDate(output.getPath()));
+  }
+}
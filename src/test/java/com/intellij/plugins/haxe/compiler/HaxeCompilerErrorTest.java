@@ -113,4 +113,19 @@ public class HaxeCompilerErrorTest extends UsefulTestCase {
     String expected = "Unexpected %";
     doTest(compilerOutput, CompilerMessageCategory.ERROR, expected, "Missing file: /Test.hx", 4, 6);
   }
+
+  @Test
+  public void testRanges() throws Throwable {
+    HaxeCompilerError characters = HaxeCompilerError.create("", "src/Test.hx:12: characters 3-9 : Warning : Unused variable", false);
+    assertEquals(CompilerMessageCategory.WARNING, characters.getCategory());
+    assertEquals("Unused variable", characters.getErrorMessage());
+    assertEquals("/src/Test.hx", characters.getPath());
+    assertEquals(12, characters.getLine());
+    assertEquals(3, characters.getColumn());
+
+    HaxeCompilerError lines = HaxeCompilerError.create("", "C:/src/Test.hx:4: lines 4-10 : Missing return", false);
+    assertEquals("C:/src/Test.hx", lines.getPath());
+    assertEquals(4, lines.getLine());
+    assertEquals(-1, lines.getColumn());
+  }
 }
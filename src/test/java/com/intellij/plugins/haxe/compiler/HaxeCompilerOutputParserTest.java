@@ -0,0 +1,76 @@
+package com.intellij.plugins.haxe.compiler;
+
+import com.intellij.openapi.compiler.CompilerMessageCategory;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerOutputParser;
+import com.intellij.plugins.haxe.compilation.HaxeDisplayResponseParser;
+import com.intellij.testFramework.UsefulTestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeCompilerOutputParserTest extends UsefulTestCase {
+
+  public void testLinesSplitAcrossChunks() {
+    List<String> lines = new ArrayList<>();
+    HaxeCompilerOutputParser parser = new HaxeCompilerOutputParser(lines::add);
+    parser.append("Test.hx:4: charac");
+    assertEmpty(lines);
+    parser.append("ters 6-7 : Unexpected %\r\n\nGenerating out/Main.cpp : done\nError: Bu");
+    assertEquals(List.of("Test.hx:4: characters 6-7 : Unexpected %", "Generating out/Main.cpp : done"), lines);
+    parser.append("ild failed");
+    parser.flush();
+    assertEquals("Error: Build failed", lines.get(2));
+  }
+
+  public void testDiagnostics() {
+    List<HaxeCompilerError> errors = new ArrayList<>();
+    HaxeCompilerOutputParser parser = new HaxeCompilerOutputParser(line -> errors.add(HaxeCompilerError.create("/project", line, false)));
+    parser.append("src/Main.hx:3: characters 1-4 : Unknown identifier : foo\nError: Build failed\n");
+
+    assertSize(2, errors);
+    assertEquals("/project/src/Main.hx", errors.get(0).getPath());
+    assertEquals("Unknown identifier : foo", errors.get(0).getErrorMessage());
+    assertEquals(1, errors.get(0).getColumn());
+    assertEquals(CompilerMessageCategory.ERROR, errors.get(1).getCategory());
+  }
+
+  public void testListResponse() throws IOException {
+    String output = """
+      src/Main.hx:3: characters 1-4 : Warning : Unused variable
+      <list>
+      <i n="length" k="var"><t>Int</t><d>
+      The number of &lt;items&gt;.
+      </d></i>
+      <i n="push" k="method"><t>x : T -&gt; Int</t><d></d></i>
+      </list>
+      trailing line
+      """;
+    List<String> otherLines = new ArrayList<>();
+    HaxeDisplayResponseParser.Response response = HaxeDisplayResponseParser.parse(new StringReader(output), otherLines::add);
+
+    assertNotNull(response);
+    assertEquals("list", response.kind());
+    assertEquals(List.of(new HaxeDisplayResponseParser.Item("length", "var", "Int", "\nThe number of <items>.\n"),
+                         new HaxeDisplayResponseParser.Item("push", "method", "x : T -> Int", "")),
+                 response.items());
+    assertEquals(List.of("src/Main.hx:3: characters 1-4 : Warning : Unused variable", "trailing line"), otherLines);
+  }
+
+  public void testTypeResponse() throws IOException {
+    HaxeDisplayResponseParser.Response response =
+      HaxeDisplayResponseParser.parse(new StringReader("<type>\nString -&gt; Void\n</type>\n"), line -> fail(line));
+
+    assertNotNull(response);
+    assertEquals("type", response.kind());
+    assertEquals("\nString -> Void\n", response.type());
+  }
+
+  public void testNoResponse() throws IOException {
+    List<String> otherLines = new ArrayList<>();
+    assertNull(HaxeDisplayResponseParser.parse(new StringReader("Main.hx:1: lines 1-3 : Missing ;\n"), otherLines::add));
+    assertEquals(List.of("Main.hx:1: lines 1-3 : Missing ;"), otherLines);
+  }
+}
@@ -0,0 +1,122 @@
+package com.intellij.plugins.haxe.haxelib.definitions;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.haxelib.HaxelibUtil;
+import com.intellij.psi.xml.XmlFile;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProjectXmlEvaluatorTest extends HaxeCodeInsightFixtureTestCase {
+
+  /**
+   * Libraries are the directories under {@code libs/} in the test's temp directory.
+   */
+  private final ProjectXmlEvaluator.LibraryLocator myLibraries = (name, version) -> myFixture.findFileInTempDir("libs/" + name);
+
+  @Override
+  protected String getBasePath() {
+    return "/haxelib/definitions/";
+  }
+
+  private void installLibraries(String... names) {
+    for (String name : names) {
+      myFixture.addFileToProject("libs/" + name + "/haxelib.json", "{\"name\": \"" + name + "\"}");
+    }
+  }
+
+  private ProjectXmlConfiguration evaluate(String text, Map<String, String> definitions) {
+    XmlFile file = (XmlFile)myFixture.configureByText("project.xml", text);
+    return ProjectXmlEvaluator.evaluate(file, definitions, myLibraries);
+  }
+
+  private static List<String> libraryNames(ProjectXmlConfiguration configuration) {
+    return configuration.getHaxelibs().stream().map(HaxelibUtil.HaxeLibData::name).toList();
+  }
+
+  public void testConditions() {
+    Map<String, String> definitions = Map.of("html5", "true", "js", "true");
+    assertTrue(ProjectXmlEvaluator.evaluateCondition("html5", definitions));
+    assertTrue(ProjectXmlEvaluator.evaluateCondition("flash || html5", definitions));
+    assertTrue(ProjectXmlEvaluator.evaluateCondition("html5 js", definitions));
+    assertFalse(ProjectXmlEvaluator.evaluateCondition("html5 && !js", definitions));
+    assertFalse(ProjectXmlEvaluator.evaluateCondition("cpp", definitions));
+  }
+
+  public void testSectionsAndDefinesFollowConditions() {
+    installLibraries("lime", "touch", "mouse", "lime-extras");
+    ProjectXmlConfiguration configuration = evaluate(
+      """
+        <project>
+          <app main="Main"/>
+          <set name="mobile" if="ios || android"/>
+          <haxelib name="lime"/>
+          <section if="mobile">
+            <haxelib name="touch"/>
+          </section>
+          <section unless="mobile">
+            <haxelib name="mouse" version="1.0.0"/>
+            <haxedef name="desktop"/>
+          </section>
+          <haxelib name="lime-extras" if="lime"/>
+        </project>
+        """,
+      ProjectXmlEvaluator.getInitialDefinitions(new String[]{"html5"}, HaxeTarget.JAVA_SCRIPT, false));
+
+    assertTrue(configuration.isSupported());
+    assertEquals(List.of("lime", "mouse", "lime-extras"), libraryNames(configuration));
+    assertEquals("Main", configuration.getMainClass());
+    assertEquals("true", configuration.getHaxeDefinitions().get("desktop"));
+    assertTrue(configuration.toCompilerArguments().contains("-lib mouse:1.0.0"));
+  }
+
+  public void testIncludesAreFollowed() {
+    installLibraries("included");
+    myFixture.addFileToProject("extra/include.xml", "<project><haxelib name=\"included\"/></project>");
+    ProjectXmlConfiguration configuration = evaluate("<project><include path=\"extra\"/></project>", Map.of());
+
+    assertTrue(configuration.isSupported());
+    assertEquals(List.of("included"), libraryNames(configuration));
+    assertEquals(2, configuration.getInvolvedFiles().size());
+  }
+
+  public void testSubstitutionsAreNotSupported() {
+    ProjectXmlConfiguration configuration = evaluate("<project><source path=\"${SOURCE_DIR}\"/></project>", Map.of());
+    assertFalse(configuration.isSupported());
+  }
+
+  public void testLibraryIncludesAreEvaluated() {
+    installLibraries("lime");
+    myFixture.addFileToProject("libs/openfl/include.xml", """
+      <project>
+        <haxelib name="lime"/>
+        <haxedef name="openfl-native" unless="html5"/>
+      </project>
+      """);
+    ProjectXmlConfiguration configuration = evaluate("<project><haxelib name=\"openfl\"/></project>", Map.of());
+
+    assertTrue(configuration.getUnsupportedReason(), configuration.isSupported());
+    assertEquals(List.of("openfl", "lime"), libraryNames(configuration));
+    assertEquals("true", configuration.getHaxeDefinitions().get("openfl-native"));
+    assertEquals(2, configuration.getInvolvedFiles().size());
+  }
+
+  public void testLibrariesNeedToBeLocated() {
+    XmlFile file = (XmlFile)myFixture.configureByText("project.xml", "<project><haxelib name=\"openfl\"/></project>");
+    assertFalse(ProjectXmlEvaluator.evaluate(file, Map.of()).isSupported());
+    assertFalse("not installed", ProjectXmlEvaluator.evaluate(file, Map.of(), myLibraries).isSupported());
+  }
+
+  public void testCallerDefinitionsAreCopied() {
+    XmlFile file = (XmlFile)myFixture.configureByText("project.xml", "<project><haxedef name=\"touch\" if=\"mobile\"/></project>");
+    Map<String, String> definitions = new HashMap<>(Map.of("mobile", "true"));
+    ProjectXmlConfiguration configuration = ProjectXmlEvaluator.evaluate(file, definitions, myLibraries);
+    definitions.remove("mobile");
+
+    assertSame(configuration, ProjectXmlEvaluator.evaluate(file, Map.of("mobile", "true"), myLibraries));
+    assertEquals("true", configuration.getHaxeDefinitions().get("touch"));
+    assertNull(ProjectXmlEvaluator.evaluate(file, definitions, myLibraries).getHaxeDefinitions().get("touch"));
+  }
+}
@@ -0,0 +1,100 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.cache.CacheManager;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.usageView.UsageInfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks the words the Haxe and hxml id indexers report, and that finding usages only parses the files
+ * the index names as candidates.
+ */
+public class HaxeIdIndexTest extends HaxeCodeInsightFixtureTestCase {
+  private static final int UNRELATED_FILES = 20;
+
+  @Override
+  protected String getBasePath() {
+    return "/indexers/id/";
+  }
+
+  public void testWordContexts() {
+    myFixture.addFileToProject("Words.hx", """
+      // TODO: commentWord
+      class Words {
+        var codeWord = "stringWord";
+        #if never_defined
+        var inactiveWord;
+        #end
+      }
+      """);
+    myFixture.addFileToProject("build.hxml", "# buildComment\n-main pack.MainClass\n-D someDefine\n");
+
+    assertEquals(Set.of("Words.hx"), filesWithWord("codeWord", UsageSearchContext.IN_CODE));
+    assertEquals(Set.of("Words.hx"), filesWithWord("inactiveWord", UsageSearchContext.IN_CODE));
+    assertEquals(Set.of("Words.hx"), filesWithWord("stringWord", UsageSearchContext.IN_STRINGS));
+    assertEquals(Set.of("Words.hx"), filesWithWord("commentWord", UsageSearchContext.IN_COMMENTS));
+    assertEmpty(filesWithWord("stringWord", UsageSearchContext.IN_CODE));
+    assertEmpty(filesWithWord("commentWord", UsageSearchContext.IN_CODE));
+
+    assertEquals(Set.of("build.hxml"), filesWithWord("MainClass", UsageSearchContext.IN_CODE));
+    assertEquals(Set.of("build.hxml"), filesWithWord("buildComment", UsageSearchContext.IN_COMMENTS));
+    assertEmpty(filesWithWord("main", UsageSearchContext.IN_CODE));
+  }
+
+  public void testUsagesInMetadataAreFound() {
+    PsiFile builderFile = myFixture.addFileToProject("Builder.hx", "class Builder { public static function build() {} }");
+    myFixture.addFileToProject("Built.hx", "@:build(Builder.build()) class Built {}");
+
+    assertEquals(Set.of("Builder.hx", "Built.hx"), filesWithWord("Builder", UsageSearchContext.IN_CODE));
+    HaxeClass builder = PsiTreeUtil.findChildOfType(builderFile, HaxeClass.class);
+    assertNotNull(builder);
+    Collection<UsageInfo> usages = myFixture.findUsages(builder);
+    assertEquals(List.of("Built.hx"), usages.stream().map(usage -> usage.getFile().getName()).toList());
+  }
+
+  public void testFindUsagesOnlyParsesCandidateFiles() throws IOException {
+    PsiFile targetFile = myFixture.addFileToProject("Target.hx", "class Target { public function new() {} }");
+    myFixture.addFileToProject("User.hx", "class User { var target:Target; }");
+    // Created without PSI, so that they are only ever parsed if a search opens them.
+    List<VirtualFile> unrelatedFiles = new ArrayList<>();
+    for (int i = 0; i < UNRELATED_FILES; i++) {
+      unrelatedFiles.add(myFixture.getTempDirFixture().createFile("Unrelated" + i + ".hx",
+                                                                  "class Unrelated" + i + " { var value:Int = " + i + "; }"));
+    }
+
+    HaxeClass target = PsiTreeUtil.findChildOfType(targetFile, HaxeClass.class);
+    assertNotNull(target);
+    assertSize(1, myFixture.findUsages(target));
+
+    List<String> parsed = new ArrayList<>();
+    for (VirtualFile file : unrelatedFiles) {
+      PsiFile psiFile = getPsiManager().getFileManager().getCachedPsiFile(file);
+      if (psiFile instanceof PsiFileImpl impl && impl.getTreeElement() != null) {
+        parsed.add(file.getName());
+      }
+    }
+    assertEquals("files parsed by find usages that cannot contain a usage", List.of(), parsed);
+  }
+
+  private Set<String> filesWithWord(String word, short context) {
+    VirtualFile[] files = CacheManager.getInstance(getProject())
+      .getVirtualFilesWithWord(word, context, GlobalSearchScope.projectScope(getProject()), true);
+    Set<String> names = new TreeSet<>();
+    Arrays.stream(files).forEach(file -> names.add(file.getName()));
+    return names;
+  }
+}
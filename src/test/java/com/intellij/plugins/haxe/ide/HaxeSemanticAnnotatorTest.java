@@ -867,6 +867,10 @@ public class HaxeSemanticAnnotatorTest extends HaxeCodeInsightFixtureTestCase {
     doTestNoFixWithWarnings();
   }
   @Test
+  public void testOperatorOverloadForms() throws Throwable {
+    doTestNoFixWithWarnings();
+  }
+  @Test
   public void testResolveTypeFromUsage() throws Throwable {
     doTestNoFixWithWarnings();
   }
@@ -19,8 +19,13 @@ package com.intellij.plugins.haxe.ide;
 
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.navigation.NavigationItem;
 import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.indexing.FindSymbolParameters;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -71,4 +76,20 @@ public class HaxeSymbolContributorTest extends HaxeCodeInsightFixtureTestCase {
   public void testBasicSymbols() throws Throwable {
     doTest();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testItemsArePresentedFromIndex() throws Throwable {
+    myFixture.configureByFiles("BasicSymbols.hx");
+    final CommonProcessors.CollectProcessor<NavigationItem> processor = new CommonProcessors.CollectProcessor<>();
+    new HaxeSymbolContributor().processElementsWithName("foo1", processor, FindSymbolParameters.simple(getProject(), false));
+
+    assertSize(1, processor.getResults());
+    final NavigationItem item = processor.getResults().iterator().next();
+    assertEquals("foo1()", item.getPresentation().getPresentableText());
+    assertEquals("Bar1", item.getPresentation().getLocationString());
+
+    final PsiElement target = ((HaxeSymbolNavigationItem)item).getTargetElement();
+    assertInstanceOf(target, HaxeComponentName.class);
+    assertEquals("foo1", ((HaxeComponentName)target).getName());
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeCallExpression;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
+import com.intellij.plugins.haxe.util.HaxeDependencyRecorder;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+public class HaxeCallExpressionValidationCacheTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myHits = HaxeMetrics.counter("semantics.callValidation.cache.hit");
+  private final HaxeMetrics.Counter myMisses = HaxeMetrics.counter("semantics.callValidation.cache.miss");
+
+  private PsiFile myDependency;
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myDependency = myFixture.addFileToProject("Dep.hx", "class Dep { public static function take(amount:Int, name:String) {} }");
+    myFixture.configureByText("Test.hx", """
+      class Test {
+        function test() {
+          Dep.take(1, "one");
+        }
+      }
+      """);
+  }
+
+  private HaxeCallExpressionUtil.CallExpressionValidation validate() {
+    int offset = myFixture.getFile().getText().indexOf("take(");
+    HaxeCallExpression call = PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(offset), HaxeCallExpression.class);
+    assertNotNull(call);
+    HaxeMethod method = (HaxeMethod)((HaxeReferenceExpression)call.getExpression()).resolve();
+    assertNotNull(method);
+    return HaxeCallExpressionUtil.checkMethodCall(call, method);
+  }
+
+  public void testCallersGetCopies() {
+    HaxeCallExpressionUtil.CallExpressionValidation first = validate();
+    assertEquals(2, first.getParameterIndexToType().size());
+    first.getParameterIndexToType().clear();
+    first.getParameterNames().clear();
+
+    long hits = myHits.get();
+    HaxeCallExpressionUtil.CallExpressionValidation second = validate();
+    assertEquals(hits + 1, myHits.get());
+    assertNotSame(first, second);
+    assertEquals(2, second.getParameterIndexToType().size());
+    assertEquals("amount", second.getParameterNames().get(0));
+  }
+
+  public void testHitsReportTheirDependencies() {
+    validate();
+    long hits = myHits.get();
+    HaxeDependencyRecorder.Recorded<?> recorded = HaxeDependencyRecorder.recorded(this::validate);
+    assertEquals(hits + 1, myHits.get());
+    assertContainsElements(recorded.dependencies(), myDependency, myFixture.getFile());
+  }
+
+  public void testSignatureChangesInvalidate() {
+    validate();
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(myDependency);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText(document.getText().replace("amount:Int", "amount:Float"));
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    long misses = myMisses.get();
+    assertEquals("Float", validate().getParameterIndexToType().get(0).toPresentationString());
+    assertEquals(misses + 1, myMisses.get());
+  }
+
+  public void testEditsAroundLocalFunctionsInvalidate() {
+    myFixture.configureByText("Local.hx", """
+      class Local {
+        function test() {
+          var value = 1;
+          function inner() {
+            Dep.take(value, "one");
+          }
+        }
+      }
+      """);
+    validate();
+    Document document = myFixture.getEditor().getDocument();
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText(document.getText().replace("var value = 1;", "var value = 1.5;"));
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    long misses = myMisses.get();
+    validate();
+    assertEquals(misses + 1, myMisses.get());
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorInspections;
+import com.intellij.plugins.haxe.lang.psi.HaxeFieldDeclaration;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.model.type.HaxeTypeResolver;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.HashSet;
+
+public class HaxeHighlightingWarmUpTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myDeclarations = HaxeMetrics.counter("highlighting.warmUp.declarations");
+  private final HaxeMetrics.Counter myBodyCheckHits = HaxeMetrics.counter("annotator.HaxeMethodBodyAnnotator.cache.hit");
+  private final HaxeMetrics.Counter myBodyCheckMisses = HaxeMetrics.counter("annotator.HaxeMethodBodyAnnotator.cache.miss");
+  private final HaxeMetrics.Counter myEvaluatorHits = HaxeMetrics.counter("evaluator.cache.hit");
+  private final HaxeMetrics.Counter myEvaluatorMisses = HaxeMetrics.counter("evaluator.cache.miss");
+
+  private PsiFile myFile;
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    useHaxeToolkit();
+    super.setUp();
+    HaxeSemanticAnnotatorConfig.enableBodyCheckInTests(getTestRootDisposable());
+    myFixture.enableInspections(new HaxeSemanticAnnotatorInspections.MethodBodyInspection());
+    myFixture.addFileToProject("Dep.hx", "class Dep { public static function value() { return 1; } }");
+    myFile = myFixture.configureByText("Test.hx", """
+      class Test {
+        var field = Dep.value();
+        function first() {
+          var s:String = "a";
+        }
+        function second() {
+          var i:Int = Dep.value();
+        }
+        function third() {
+          return Dep.value() + 1;
+        }
+      }
+      """);
+  }
+
+  public void testWarmUpPopulatesCaches() {
+    long declarations = myDeclarations.get();
+    HaxeHighlightingWarmUp.warmUp(myFile, 2);
+    assertEquals(declarations + 4, myDeclarations.get());
+
+    long bodyCheckHits = myBodyCheckHits.get();
+    long bodyCheckMisses = myBodyCheckMisses.get();
+    for (HaxeMethod method : PsiTreeUtil.findChildrenOfType(myFile, HaxeMethod.class)) {
+      HaxeMethodBodyAnnotator.getProblems(method, new HashSet<>());
+    }
+    assertEquals("method bodies checked again", bodyCheckMisses, myBodyCheckMisses.get());
+    assertEquals(bodyCheckHits + 3, myBodyCheckHits.get());
+
+    HaxeFieldDeclaration field = PsiTreeUtil.findChildOfType(myFile, HaxeFieldDeclaration.class);
+    assertNotNull(field);
+    PsiElement initializer = field.getVarInit().getExpression();
+    long evaluatorHits = myEvaluatorHits.get();
+    long evaluatorMisses = myEvaluatorMisses.get();
+    assertEquals("Int", HaxeTypeResolver.getPsiElementType(initializer, null).toPresentationString());
+    assertEquals("initializer evaluated again", evaluatorMisses, myEvaluatorMisses.get());
+    assertEquals(evaluatorHits + 1, myEvaluatorHits.get());
+  }
+
+  public void testMoreThreadsThanDeclarations() {
+    long declarations = myDeclarations.get();
+    HaxeHighlightingWarmUp.warmUp(myFile, 16);
+    assertEquals(declarations + 4, myDeclarations.get());
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorInspections;
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The method body check, with its results cached until the body or a declaration it depends on changes.
+ */
+public class HaxeMethodBodyCheckTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final String TEST = """
+    class Test {
+      function first() {
+        var s:String = "a";
+        s = Dep.value();
+      }
+      function second() {
+        var s:String = "b";
+        s = Dep.value();
+      }
+    }
+    """;
+
+  private PsiFile myDependency;
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    useHaxeToolkit();
+    super.setUp();
+    HaxeSemanticAnnotatorConfig.enableBodyCheckInTests(getTestRootDisposable());
+    myDependency = myFixture.addFileToProject("Dep.hx", "class Dep { public static function value() { return 1; } }");
+    myFixture.configureByText("Test.hx", TEST);
+  }
+
+  public void testBodyCheckFollowsInspectionSettings() {
+    HaxeMethod method = findMethod("first");
+    assertFalse(HaxeSemanticAnnotatorConfig.isBodyCheckEnabled(method));
+    myFixture.enableInspections(new HaxeSemanticAnnotatorInspections.MethodBodyInspection());
+    assertTrue(HaxeSemanticAnnotatorConfig.isBodyCheckEnabled(method));
+  }
+
+  public void testProblemsFollowDependencyChanges() {
+    myFixture.enableInspections(getAnnotatorBasedInspection(), new HaxeSemanticAnnotatorInspections.MethodBodyInspection());
+    assertEquals(2, countIncompatibleTypes("Int"));
+
+    replaceInDependency("return 1;", "return \"one\";");
+    assertEquals(0, countIncompatibleTypes("Int"));
+
+    replaceInDependency("return \"one\";", "return 1.5;");
+    assertEquals(2, countIncompatibleTypes("Float"));
+  }
+
+  public void testCachedResultsReportTheirDependencies() {
+    Set<PsiFile> first = new HashSet<>();
+    HaxeMethodBodyAnnotator.getProblems(findMethod("first"), first);
+    assertContainsElements(first, myDependency);
+
+    // Dep.value() is typed from the caches now; they have to tell where its type came from all the same.
+    Set<PsiFile> second = new HashSet<>();
+    HaxeMethodBodyAnnotator.getProblems(findMethod("second"), second);
+    assertContainsElements(second, myDependency);
+  }
+
+  private int countIncompatibleTypes(String type) {
+    String message = HaxeBundle.message("haxe.semantic.incompatible.type.0.should.be.1", type, "String");
+    int count = 0;
+    for (HighlightInfo info : myFixture.doHighlighting()) {
+      if (message.equals(info.getDescription())) count++;
+    }
+    return count;
+  }
+
+  private void replaceInDependency(String text, String replacement) {
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(myDependency);
+    assertNotNull(document);
+    int offset = document.getText().indexOf(text);
+    assertTrue(text, offset >= 0);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.replaceString(offset, offset + text.length(), replacement);
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+  }
+
+  private HaxeMethod findMethod(String name) {
+    return (HaxeMethod)((HaxeFile)myFixture.getFile()).getClasses()[0].findMethodsByName(name, false)[0];
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.annotator.semantics;
+
+import com.intellij.analysis.problemsView.FileProblem;
+import com.intellij.analysis.problemsView.ProblemsCollector;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorConfig;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticAnnotatorInspections;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class HaxeProjectTypeCheckTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myHits = HaxeMetrics.counter("projectTypeCheck.cache.hit");
+  private final HaxeMetrics.Counter myMisses = HaxeMetrics.counter("projectTypeCheck.cache.miss");
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    useHaxeToolkit();
+    super.setUp();
+    HaxeSemanticAnnotatorConfig.enableBodyCheckInTests(getTestRootDisposable());
+    HaxeProjectSettings settings = HaxeProjectSettings.getInstance(getProject());
+    settings.setProjectTypeCheck(true);
+    Disposer.register(getTestRootDisposable(), () -> settings.setProjectTypeCheck(false));
+    myFixture.enableInspections(new HaxeSemanticAnnotatorInspections.MethodBodyInspection());
+  }
+
+  public void testReportsBodyProblems() {
+    PsiFile file = myFixture.addFileToProject("Test.hx", """
+      class Test {
+        function method() {
+          var i:Int = 1;
+          var s:String = 1;
+        }
+      }
+      """);
+    HaxeProjectTypeCheck.getInstance(getProject()).scanNow();
+
+    Collection<FileProblem> problems = getProject().getService(ProblemsCollector.class).getFileProblems(file.getVirtualFile());
+    Set<Integer> lines = new HashSet<>();
+    for (FileProblem problem : problems) {
+      assertTrue(problem.getText(), problem.getText().contains("Int should be String"));
+      lines.add(problem.getLine());
+    }
+    assertEquals(Set.of(3), lines);
+  }
+
+  public void testSwitchingOffRemovesProblems() {
+    PsiFile file = myFixture.addFileToProject("Test.hx", """
+      class Test {
+        function method() {
+          var s:String = 1;
+        }
+      }
+      """);
+    HaxeProjectTypeCheck typeCheck = HaxeProjectTypeCheck.getInstance(getProject());
+    typeCheck.scanNow();
+    assertEquals(1, getProblems(file).size());
+
+    HaxeProjectSettings.getInstance(getProject()).setProjectTypeCheck(false);
+    typeCheck.settingsChanged();
+    assertEmpty(getProblems(file));
+  }
+
+  public void testRechecksOnlyDependents() {
+    PsiFile dependency = myFixture.addFileToProject("Dep.hx", "class Dep { public static function value():Int { return 1; } }");
+    PsiFile dependent = myFixture.addFileToProject("A.hx", """
+      class A {
+        function method() {
+          var s:String = Dep.value();
+        }
+      }
+      """);
+    myFixture.addFileToProject("B.hx", """
+      class B {
+        function method() {
+          var i:Int = 1;
+        }
+      }
+      """);
+    HaxeProjectTypeCheck typeCheck = HaxeProjectTypeCheck.getInstance(getProject());
+    typeCheck.scanNow();
+    assertEquals(1, getProblems(dependent).size());
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(dependency);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("class Dep { public static function value():String { return \"a\"; } }");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    long hits = myHits.get();
+    long misses = myMisses.get();
+    typeCheck.scanNow();
+    // Dep and A are checked again; B is not even looked at.
+    assertEquals(misses + 2, myMisses.get());
+    assertEquals(hits, myHits.get());
+    assertEmpty(getProblems(dependent));
+  }
+
+  private List<String> getProblems(PsiFile file) {
+    return getProject().getService(ProblemsCollector.class).getFileProblems(file.getVirtualFile()).stream()
+      .map(FileProblem::getText)
+      .toList();
+  }
+}
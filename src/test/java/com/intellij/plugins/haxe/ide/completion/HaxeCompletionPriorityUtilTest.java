@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.completion;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.lookup.HaxeCompletionPriorityData;
+import com.intellij.plugins.haxe.ide.lookup.HaxeMemberLookupElement;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.plugins.haxe.model.HaxeBaseMemberModel;
+import com.intellij.plugins.haxe.model.type.ResultHolder;
+import com.intellij.plugins.haxe.model.type.SpecificTypeReference;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.List;
+
+public class HaxeCompletionPriorityUtilTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/completion/";
+  }
+
+  private PsiElement configure(String text) {
+    myFixture.configureByText("Test.hx", text);
+    return myFixture.getFile().findElementAt(myFixture.getCaretOffset() - 1);
+  }
+
+  private HaxeMemberLookupElement lookup(String name, boolean functionType) {
+    int offset = myFixture.getFile().getText().indexOf(name);
+    HaxeComponentName componentName = PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(offset), HaxeComponentName.class);
+    assertNotNull(name, componentName);
+    return new HaxeMemberLookupElement(null, componentName, null, null, HaxeBaseMemberModel.fromPsi(componentName), functionType);
+  }
+
+  private static HaxeCompletionPriorityData rank(List<HaxeCompletionPriorityUtil.Ranker> rankers, HaxeMemberLookupElement element,
+                                                 boolean evaluateTypes) {
+    rankers.forEach(ranker -> ranker.rank(element, evaluateTypes));
+    return element.getPriority();
+  }
+
+  public void testArgumentKindIsRankedWithoutTypes() {
+    PsiElement position = configure("""
+      class Test {
+        static function take(amount:Int) {}
+        function test() {
+          var localAmount = 1;
+          take(lo<caret>);
+        }
+      }
+      """);
+    List<HaxeCompletionPriorityUtil.Ranker> rankers = HaxeCompletionPriorityUtil.createRankers(position);
+
+    HaxeCompletionPriorityData cheap = rank(rankers, lookup("localAmount", false), false);
+    assertEquals(HaxeCompletionPriorityData.LOCAL_VAR + 1, cheap.type);
+    assertEquals(0.0, cheap.assignable);
+    assertEquals(0.0, cheap.name);
+
+    HaxeCompletionPriorityData full = rank(rankers, lookup("localAmount", false), true);
+    assertEquals(HaxeCompletionPriorityData.LOCAL_VAR + 1, full.type);
+    assertTrue("an Int is assignable to the Int parameter", full.assignable > 0);
+    assertTrue("the names share a word", full.name > 0);
+  }
+
+  public void testFunctionTypesArePenalizedInBlocksWithoutTypes() {
+    PsiElement position = configure("""
+      class Test {
+        function helper():Int return 1;
+        function test() {
+          he<caret>;
+        }
+      }
+      """);
+    List<HaxeCompletionPriorityUtil.Ranker> rankers = HaxeCompletionPriorityUtil.createRankers(position);
+
+    assertEquals(HaxeCompletionPriorityData.METHOD - 0.5, rank(rankers, lookup("helper", true), false).type);
+    assertEquals(HaxeCompletionPriorityData.METHOD, rank(rankers, lookup("helper", false), false).type);
+  }
+
+  public void testCachedTypesAreCopies() {
+    configure("""
+      class Test {
+        var field:String;<caret>
+      }
+      """);
+    HaxeBaseMemberModel model = lookup("field", false).getModel();
+    ResultHolder type = HaxeCompletionPriorityUtil.getResultType(model);
+    assertEquals("String", type.toPresentationString());
+
+    type.setType(SpecificTypeReference.getDynamic(model.getBasePsi()));
+    assertNotSame(type, HaxeCompletionPriorityUtil.getResultType(model));
+    assertEquals("String", HaxeCompletionPriorityUtil.getResultType(model).toPresentationString());
+  }
+}
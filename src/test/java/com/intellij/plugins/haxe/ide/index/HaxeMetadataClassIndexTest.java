@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
+import com.intellij.plugins.haxe.metadata.psi.impl.HaxeMetadataTypeName;
+import com.intellij.psi.search.GlobalSearchScope;
+
+public class HaxeMetadataClassIndexTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/indexers/metadata/";
+  }
+
+  private boolean hasClasses(HaxeMetadataTypeName meta) {
+    return HaxeMetadataClassIndex.hasClasses(meta, getProject(), GlobalSearchScope.projectScope(getProject()));
+  }
+
+  public void testAutoBuildClassesAreIndexed() {
+    myFixture.addFileToProject("Plain.hx", "class Plain {}");
+    assertFalse(hasClasses(HaxeMeta.AUTO_BUILD));
+
+    myFixture.addFileToProject("Built.hx", """
+      @:autoBuild(Macro.build())
+      interface Built {}
+      """);
+    assertTrue(hasClasses(HaxeMeta.AUTO_BUILD));
+  }
+
+  public void testEditsAreIndexed() {
+    myFixture.addFileToProject("Built.hx", "@:autoBuild(Macro.build()) interface Built {}");
+    assertTrue(hasClasses(HaxeMeta.AUTO_BUILD));
+
+    myFixture.addFileToProject("Built.hx", "interface Built {}");
+    assertFalse(hasClasses(HaxeMeta.AUTO_BUILD));
+  }
+
+  public void testOnlyAutoBuildIsIndexed() {
+    myFixture.addFileToProject("Built.hx", """
+      @:build(Macro.build())
+      @:using(Tools)
+      class Built {}
+      """);
+
+    assertFalse(hasClasses(HaxeMeta.AUTO_BUILD));
+    assertFalse(hasClasses(HaxeMeta.BUILD));
+    assertFalse(hasClasses(HaxeMeta.USING));
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.metadata.util;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.lang.psi.HaxeExpression;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMeta;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataCompileTimeMeta;
+import com.intellij.plugins.haxe.metadata.psi.HaxeMetadataRunTimeMeta;
+import com.intellij.plugins.haxe.metadata.psi.impl.HaxeMetadataTypeName;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.List;
+
+public class HaxeMetadataSummaryTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final HaxeMetadataTypeName MY_META = new HaxeMetadataTypeName("myMeta");
+  private static final HaxeMetadataTypeName OTHER_META = new HaxeMetadataTypeName("otherMeta");
+
+  @Override
+  protected String getBasePath() {
+    return "/metadata/";
+  }
+
+  private HaxeMetadataSummary summarize(String text) {
+    myFixture.configureByText("Test.hx", text);
+    HaxeClass haxeClass = PsiTreeUtil.findChildOfType(myFixture.getFile(), HaxeClass.class);
+    assertNotNull(haxeClass);
+    return HaxeMetadataSummary.of(haxeClass);
+  }
+
+  private static List<String> names(List<HaxeMeta> metas) {
+    return metas.stream().map(meta -> meta.getType().getText()).toList();
+  }
+
+  public void testMetadataIsKeptInOrder() {
+    HaxeMetadataSummary summary = summarize("""
+      @:keep
+      @:build(Macro.first())
+      @runtimeMeta
+      @:myMeta(1)
+      @:build(Macro.second())
+      class Test {}
+      """);
+
+    assertEquals(List.of("keep", "build", "runtimeMeta", "myMeta", "build"), names(summary.find(null, null)));
+    assertEquals(List.of("keep", "build", "myMeta", "build"), names(summary.find(HaxeMetadataCompileTimeMeta.class, null)));
+    assertEquals(List.of("runtimeMeta"), names(summary.find(HaxeMetadataRunTimeMeta.class, null)));
+    assertEquals(List.of("build", "build"), names(summary.find(null, HaxeMeta.BUILD)));
+  }
+
+  public void testWellKnownMetadata() {
+    HaxeMetadataSummary summary = summarize("""
+      @:build(Macro.build())
+      @:forward
+      class Test {}
+      """);
+
+    assertTrue(summary.contains(HaxeMetadataCompileTimeMeta.class, HaxeMeta.BUILD));
+    assertTrue(summary.contains(null, HaxeMeta.FORWARD));
+    assertFalse(summary.contains(HaxeMetadataRunTimeMeta.class, HaxeMeta.FORWARD));
+    assertFalse(summary.contains(null, HaxeMeta.USING));
+    assertFalse(summary.contains(null, HaxeMeta.AUTO_BUILD));
+    assertEmpty(summary.find(null, HaxeMeta.USING));
+    assertEmpty(summary.getArguments(HaxeMeta.USING));
+  }
+
+  public void testOtherMetadataIsFoundByName() {
+    HaxeMetadataSummary summary = summarize("""
+      @:keep
+      @:myMeta(1)
+      class Test {}
+      """);
+
+    assertTrue(summary.contains(HaxeMetadataCompileTimeMeta.class, HaxeMeta.KEEP));
+    assertTrue(summary.contains(null, MY_META));
+    assertFalse(summary.contains(null, OTHER_META));
+    assertFalse(summary.contains(null, HaxeMeta.KEEP_SUB));
+    assertEquals(List.of("myMeta"), names(summary.find(null, MY_META)));
+    assertEquals(List.of("1"), summary.getArguments(MY_META).stream().map(HaxeExpression::getText).toList());
+  }
+
+  public void testArgumentsAreKeptInOrder() {
+    HaxeMetadataSummary summary = summarize("""
+      @:build(Macro.first(), Macro.second())
+      @:keep
+      @:build(Macro.third())
+      class Test {}
+      """);
+
+    assertEquals(List.of("Macro.first()", "Macro.second()", "Macro.third()"),
+                 summary.getArguments(HaxeMeta.BUILD).stream().map(HaxeExpression::getText).toList());
+    assertEmpty(summary.getArguments(HaxeMeta.KEEP));
+  }
+
+  public void testNoMetadata() {
+    HaxeMetadataSummary summary = summarize("class Test {}");
+
+    assertSame(HaxeMetadataSummary.EMPTY, summary);
+    assertTrue(summary.isEmpty());
+    assertEmpty(summary.find(null, null));
+  }
+}
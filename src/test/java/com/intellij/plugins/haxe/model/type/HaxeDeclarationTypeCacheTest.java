@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeFieldDeclaration;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.io.*;
+
+public class HaxeDeclarationTypeCacheTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myHits = HaxeMetrics.counter("declarationTypes.cache.hit");
+  private final HaxeMetrics.Counter myMisses = HaxeMetrics.counter("declarationTypes.cache.miss");
+
+  private PsiFile myDependency;
+  private HaxeFieldDeclaration myField;
+
+  @Override
+  protected String getBasePath() {
+    return "/resolve/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myDependency = myFixture.addFileToProject("Dep.hx", """
+      class Dep {
+        public function new() {}
+        public static function make():Dep { return new Dep(); }
+      }
+      """);
+    PsiFile file = myFixture.addFileToProject("Test.hx", "class Test { var field = Dep.make(); }");
+    myField = PsiTreeUtil.findChildOfType(file, HaxeFieldDeclaration.class);
+    assertNotNull(myField);
+    assertTrue(HaxeDeclarationTypeCache.isCacheable(myField));
+  }
+
+  public void testWrittenTypesReadBack() throws IOException {
+    assertEquals("Dep", HaxeTypeResolver.getFieldOrMethodReturnType(myField).toPresentationString());
+    byte[] written = write(HaxeDeclarationTypeCache.getInstance(getProject()));
+
+    HaxeDeclarationTypeCache restored = new HaxeDeclarationTypeCache(getProject());
+    restored.read(new DataInputStream(new ByteArrayInputStream(written)));
+    long hits = myHits.get();
+    ResultHolder type = restored.getType(myField, () -> {
+      fail("type evaluated again");
+      return null;
+    });
+    assertEquals("Dep", type.toPresentationString());
+    assertEquals(hits + 1, myHits.get());
+  }
+
+  public void testOtherFormatIsIgnored() throws IOException {
+    HaxeTypeResolver.getFieldOrMethodReturnType(myField);
+    byte[] written = write(HaxeDeclarationTypeCache.getInstance(getProject()));
+    written[0]++;
+
+    HaxeDeclarationTypeCache restored = new HaxeDeclarationTypeCache(getProject());
+    restored.read(new DataInputStream(new ByteArrayInputStream(written)));
+    long misses = myMisses.get();
+    restored.getType(myField, () -> HaxeTypeResolver.getFieldOrMethodReturnType(myField));
+    assertEquals(misses + 1, myMisses.get());
+  }
+
+  public void testDependencyChangeInvalidates() {
+    assertEquals("Dep", HaxeTypeResolver.getFieldOrMethodReturnType(myField).toPresentationString());
+    long misses = myMisses.get();
+    HaxeTypeResolver.getFieldOrMethodReturnType(myField);
+    assertEquals("unchanged dependency", misses, myMisses.get());
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(myDependency);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("""
+        class Dep {
+          public function new() {}
+          public static function make():String { return ""; }
+        }
+        """);
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    assertEquals("String", HaxeTypeResolver.getFieldOrMethodReturnType(myField).toPresentationString());
+    assertEquals(misses + 1, myMisses.get());
+  }
+
+  private static byte[] write(HaxeDeclarationTypeCache cache) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      cache.write(out);
+    }
+    return bytes.toByteArray();
+  }
+}
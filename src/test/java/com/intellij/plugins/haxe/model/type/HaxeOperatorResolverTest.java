@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeBinaryExpression;
+import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.List;
+
+public class HaxeOperatorResolverTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myHits = HaxeMetrics.counter("operator.overload.cache.hit");
+  private final HaxeMetrics.Counter myMisses = HaxeMetrics.counter("operator.overload.cache.miss");
+
+  private PsiFile myOperators;
+
+  @Override
+  protected String getBasePath() {
+    return "/resolve/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myOperators = myFixture.addFileToProject("Operators.hx", """
+      abstract Scale(String) {}
+
+      abstract Vec(String) {
+        @:op(A * B)
+        public function scale(s:Scale):Vec {return cast this;}
+      }
+
+      abstract StaticVec(String) {
+        @:op(A * B)
+        public static function scale(v:StaticVec, s:Scale):StaticVec {return v;}
+      }
+
+      abstract CommutativeVec(String) {
+        @:op(A * B) @:commutative
+        public function scale(s:Scale):CommutativeVec {return cast this;}
+      }
+
+      abstract StaticCommutativeVec(String) {
+        @:op(A * B) @:commutative
+        public static function scale(v:StaticCommutativeVec, s:Scale):StaticCommutativeVec {return v;}
+      }
+      """);
+  }
+
+  private List<ResultHolder> evaluate(String... expressions) {
+    StringBuilder body = new StringBuilder();
+    for (String expression : expressions) {
+      body.append("    ").append(expression).append(";\n");
+    }
+    myFixture.configureByText("Test.hx", """
+      class Test {
+        var scale:Scale;
+        var vec:Vec;
+        var staticVec:StaticVec;
+        var commutativeVec:CommutativeVec;
+        var staticCommutativeVec:StaticCommutativeVec;
+        function test() {
+      %s  }
+      }
+      """.formatted(body));
+    return PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HaxeBinaryExpression.class).stream()
+      .map(expression -> HaxeExpressionEvaluator.evaluate(expression, null).result)
+      .toList();
+  }
+
+  public void testOverloadForms() {
+    List<ResultHolder> results = evaluate("vec * scale", "scale * vec",
+                                          "staticVec * scale", "scale * staticVec",
+                                          "commutativeVec * scale", "scale * commutativeVec",
+                                          "staticCommutativeVec * scale", "scale * staticCommutativeVec");
+
+    assertEquals("Vec", results.get(0).toPresentationString());
+    assertTrue("member overloads are not commutative", results.get(1).isUnknown());
+    assertEquals("StaticVec", results.get(2).toPresentationString());
+    assertTrue("static overloads are not commutative", results.get(3).isUnknown());
+    assertEquals("CommutativeVec", results.get(4).toPresentationString());
+    assertEquals("CommutativeVec", results.get(5).toPresentationString());
+    assertEquals("StaticCommutativeVec", results.get(6).toPresentationString());
+    assertEquals("StaticCommutativeVec", results.get(7).toPresentationString());
+  }
+
+  public void testLookupsAreMemoized() {
+    long hits = myHits.get();
+    long misses = myMisses.get();
+    List<ResultHolder> results = evaluate("vec * scale", "vec * scale");
+
+    assertEquals(misses + 1, myMisses.get());
+    assertEquals(hits + 1, myHits.get());
+    assertEquals("Vec", results.get(1).toPresentationString());
+    assertNotSame(results.get(0).getType(), results.get(1).getType());
+  }
+
+  public void testEditsInvalidateMemoizedLookups() {
+    assertEquals("Vec", evaluate("vec * scale").get(0).toPresentationString());
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(myOperators);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText(document.getText().replace("function scale(s:Scale):Vec", "function scale(s:Scale):Scale"));
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    long misses = myMisses.get();
+    assertEquals("Scale", evaluate("vec * scale").get(0).toPresentationString());
+    assertEquals(misses + 1, myMisses.get());
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.lang.psi.HaxeFieldDeclaration;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.List;
+
+public class HaxeTypeDefExpansionTest extends HaxeCodeInsightFixtureTestCase {
+
+  private final HaxeMetrics.Counter myHits = HaxeMetrics.counter("typedef.expansion.cache.hit");
+  private final HaxeMetrics.Counter myMisses = HaxeMetrics.counter("typedef.expansion.cache.miss");
+
+  @Override
+  protected String getBasePath() {
+    return "/resolve/";
+  }
+
+  private HaxeClass findTypedef(PsiFile file, String name) {
+    for (HaxeClass haxeClass : PsiTreeUtil.findChildrenOfType(file, HaxeClass.class)) {
+      if (name.equals(haxeClass.getName())) return haxeClass;
+    }
+    fail("no typedef " + name);
+    return null;
+  }
+
+  private List<HaxeFieldDeclaration> findFields() {
+    PsiFile file = myFixture.addFileToProject("Test.hx", """
+      class Test {
+        var first:A;
+        var second:A;
+      }
+      """);
+    return List.copyOf(PsiTreeUtil.findChildrenOfType(file, HaxeFieldDeclaration.class));
+  }
+
+  /**
+   * @return the expansion of the typedef, asked for from the given field.
+   */
+  private static SpecificTypeReference expand(HaxeClass typedef, HaxeFieldDeclaration field) {
+    SpecificHaxeClassReference reference = SpecificHaxeClassReference.withoutGenerics(new HaxeClassReference(typedef.getModel(), field));
+    assertTrue(reference.isTypeDefOfClass());
+    return reference.fullyResolveTypeDefAndUnwrapNullTypeReference();
+  }
+
+  public void testCycleExpandsToUnknown() {
+    PsiFile typedefs = myFixture.addFileToProject("Cycle.hx", """
+      typedef A = B;
+      typedef B = A;
+      """);
+    HaxeClass typedef = findTypedef(typedefs, "A");
+    List<HaxeFieldDeclaration> fields = findFields();
+
+    SpecificTypeReference first = expand(typedef, fields.get(0));
+    assertTrue(first.isUnknown());
+
+    long hits = myHits.get();
+    long misses = myMisses.get();
+    SpecificTypeReference second = expand(typedef, fields.get(1));
+    assertTrue(second.isUnknown());
+    assertEquals("cycle expanded again", misses, myMisses.get());
+    assertTrue(myHits.get() > hits);
+
+    // Each caller gets its own copy, in its own context.
+    assertNotSame(first, second);
+    assertSame(fields.get(0), first.getElementContext());
+    assertSame(fields.get(1), second.getElementContext());
+  }
+
+  public void testUnresolvedTargetEndsExpansion() {
+    PsiFile typedefs = myFixture.addFileToProject("Typedefs.hx", """
+      typedef A = B;
+      typedef B = Missing;
+      """);
+    HaxeClass typedef = findTypedef(typedefs, "A");
+    List<HaxeFieldDeclaration> fields = findFields();
+
+    SpecificTypeReference first = expand(typedef, fields.get(0));
+    assertNotNull(first);
+    assertFalse(first instanceof SpecificHaxeClassReference classReference && classReference.isTypeDefOfClass()
+                && classReference.getHaxeClass() == typedef);
+
+    long hits = myHits.get();
+    long misses = myMisses.get();
+    SpecificTypeReference second = expand(typedef, fields.get(1));
+    assertEquals("chain expanded again", misses, myMisses.get());
+    assertTrue(myHits.get() > hits);
+    assertEquals(first.toPresentationString(), second.toPresentationString());
+    assertSame(fields.get(1), second.getElementContext());
+  }
+
+  public void testTargetEditsInvalidateExpansion() {
+    myFixture.addFileToProject("Foo.hx", "class Foo {}");
+    myFixture.addFileToProject("Bar.hx", "class Bar {}");
+    PsiFile typedefs = myFixture.addFileToProject("Typedefs.hx", "typedef A = B;");
+    myFixture.addFileToProject("B.hx", "typedef B = Foo;");
+    HaxeClass typedef = findTypedef(typedefs, "A");
+    List<HaxeFieldDeclaration> fields = findFields();
+    assertEquals("Foo", expand(typedef, fields.get(0)).toPresentationString());
+
+    // Only the file of the typedef further down the chain changes.
+    myFixture.addFileToProject("B.hx", "typedef B = Bar;");
+    long misses = myMisses.get();
+    assertEquals("Bar", expand(typedef, fields.get(1)).toPresentationString());
+    assertTrue(myMisses.get() > misses);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeReference;
+import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
+import com.intellij.plugins.haxe.lang.psi.HaxeResolver;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Allocation benchmark for the resolve entry path: once a result is cached, resolving a reference again must not
+ * allocate anything on top of what the platform's resolve cache does for the same lookup.
+ */
+public class HaxeResolveAllocationTest extends HaxeCodeInsightFixtureTestCase {
+  private static final int ITERATIONS = 20_000;
+  private static final double MAX_EXTRA_BYTES_PER_RESOLVE = 4;
+
+  @Override
+  protected String getBasePath() {
+    return "/resolve/";
+  }
+
+  public void testCachedResolveDoesNotAllocate() {
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) return;
+
+    myFixture.configureByText("Test.hx", """
+      class Test {
+        var field:Int;
+        function new() {
+          var local = 1;
+          var other = local + field;
+          for (i in 0...other) trace(i + local);
+        }
+      }
+      """);
+    List<HaxeReference> references =
+      new ArrayList<>(PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HaxeReferenceExpression.class));
+    assertFalse(references.isEmpty());
+
+    ResolveCache resolveCache = ResolveCache.getInstance(getProject());
+    ResolveCache.AbstractResolver<HaxeReference, List<? extends PsiElement>> cacheOnly = (reference, incompleteCode) -> null;
+    Consumer<HaxeReference> platformLookup = reference -> resolveCache.resolveWithCaching(reference, cacheOnly, false, false);
+    Consumer<HaxeReference> haxeResolve = reference -> HaxeResolver.INSTANCE.resolve(reference, false);
+
+    // fill the cache and warm up both paths
+    bytesPerResolve(threadBean, references, haxeResolve);
+    bytesPerResolve(threadBean, references, platformLookup);
+
+    double baseline = bytesPerResolve(threadBean, references, platformLookup);
+    double resolve = bytesPerResolve(threadBean, references, haxeResolve);
+    assertTrue(String.format("cached resolve allocates %.1f bytes per call (resolve cache alone: %.1f)", resolve, baseline),
+               resolve - baseline <= MAX_EXTRA_BYTES_PER_RESOLVE);
+  }
+
+  private static double bytesPerResolve(com.sun.management.ThreadMXBean threadBean, List<HaxeReference> references,
+                                        Consumer<HaxeReference> resolve) {
+    long start = threadBean.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (HaxeReference reference : references) {
+        resolve.accept(reference);
+      }
+    }
+    return (threadBean.getCurrentThreadAllocatedBytes() - start) / (double)(ITERATIONS * references.size());
+  }
+}
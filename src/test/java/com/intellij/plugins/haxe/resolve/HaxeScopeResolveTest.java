@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+
+/**
+ * Resolution of local names through the per-scope symbol tables: which declaration a name reaches must be the one
+ * the tree walk over {@code processDeclarations} used to find.
+ */
+public class HaxeScopeResolveTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final String TEXT = """
+    class Test {
+      var shadowed:Int;
+      function new() {
+        var local = 1;
+        trace(local);
+        trace(shadowed);
+        var shadowed = 2;
+        for (i in 0...local) trace(i);
+        var items = [1];
+        for (items in items) trace(items);
+        try {} catch (error:Dynamic) trace(error);
+        function countdown(n:Int) { if (n > 0) countdown(n - 1); }
+      }
+      function param(value:Int) { { { return value; } } }
+    }
+    """;
+
+  @Override
+  protected String getBasePath() {
+    return "/resolve/";
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myFixture.configureByText("Test.hx", TEXT);
+  }
+
+  public void testLocalDeclaredBefore() {
+    assertResolvesTo("trace(local)", "local", "var local");
+  }
+
+  public void testLaterBlockDeclarationIsNotVisible() {
+    assertResolvesTo("trace(shadowed)", "shadowed", "var shadowed:Int");
+  }
+
+  public void testForIterator() {
+    assertResolvesTo("trace(i)", "i", "for (i");
+  }
+
+  public void testForIterableIsResolvedOutsideTheLoop() {
+    assertResolvesTo("in items)", "items", "var items");
+    assertResolvesTo("trace(items)", "items", "for (items");
+  }
+
+  public void testCatchParameter() {
+    assertResolvesTo("trace(error)", "error", "catch (error");
+  }
+
+  public void testLocalFunctionFromItsOwnBody() {
+    assertResolvesTo("countdown(n - 1)", "countdown", "function countdown");
+    assertResolvesTo("countdown(n - 1)", "n", "countdown(n:");
+  }
+
+  public void testParameterThroughNestedBlocks() {
+    assertResolvesTo("return value", "value", "param(value");
+  }
+
+  /**
+   * @param usage       text around the reference, which must be unique in the file.
+   * @param name        the referenced name, found inside {@code usage}.
+   * @param declaration text starting a unique part of the file that holds the expected declaration's name.
+   */
+  private void assertResolvesTo(String usage, String name, String declaration) {
+    int usageOffset = TEXT.indexOf(usage);
+    assertTrue(usage, usageOffset >= 0 && TEXT.indexOf(usage, usageOffset + 1) < 0);
+    int referenceOffset = usageOffset + usage.indexOf(name);
+    int declarationOffset = TEXT.indexOf(declaration);
+    assertTrue(declaration, declarationOffset >= 0);
+    int nameOffset = declarationOffset + declaration.lastIndexOf(name);
+
+    HaxeReferenceExpression reference =
+      PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(referenceOffset), HaxeReferenceExpression.class);
+    assertNotNull(usage, reference);
+    PsiElement resolved = reference.resolve();
+    assertNotNull(usage, resolved);
+    assertTrue(usage + " resolved to " + resolved.getText(), resolved.getTextRange().contains(nameOffset));
+  }
+}
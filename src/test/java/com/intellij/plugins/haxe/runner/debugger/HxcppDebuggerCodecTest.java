@@ -0,0 +1,141 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.testFramework.UsefulTestCase;
+import debugger.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Checks the hand written debugger codec against the generated haxe serializer, which is the reference for the
+ * wire format.
+ */
+public class HxcppDebuggerCodecTest extends UsefulTestCase {
+
+  private static final List<String> STRINGS = List.of(
+    "", "Main.hx", "with space", "a+b=c&d", "100%", "-_.*!'()~", "tab\tnew\nline", "ünïcödé", "日本語", "😀"
+  );
+
+  private static List<Object> commands() {
+    return List.of(
+      Command.Exit, Command.Detach, Command.Files, Command.AllClasses, Command.BreakNow, Command.WhereAllThreads,
+      Command.Classes(null), Command.Classes("Main"),
+      Command.Continue(1), Command.Next(1), Command.Step(1), Command.Finish(1), Command.Up(-3), Command.SetFrame(0),
+      Command.AddFileLineBreakpoint("src/Main.hx", 42), Command.AddClassFunctionBreakpoint("pack.Main", "new"),
+      Command.ListBreakpoints(true, false), Command.DeleteBreakpointRange(0, Integer.MAX_VALUE),
+      Command.SetCurrentThread(Integer.MIN_VALUE),
+      Command.WhereCurrentThread(false), Command.Variables(true),
+      Command.PrintExpression(false, "a + b * 2"), Command.SetExpression(true, "x", "\"quoted\""),
+      Command.GetStructured(false, "this.map.get('key')")
+    );
+  }
+
+  private static List<Object> messages() {
+    StringList strings = StringList.Terminator;
+    for (String string : STRINGS) {
+      strings = StringList.Element(string, strings);
+    }
+    FrameList frames = FrameList.Frame(true, 0, "Main", "main", "Main.hx", 12,
+                                       FrameList.Frame(false, 1, "Main", "main", "Main.hx", 3, FrameList.Terminator));
+    StructuredValue structured = StructuredValue.List(
+      StructuredValueListType.Instance("Main"),
+      StructuredValueList.Element("count", StructuredValue.Single(StructuredValueType.TypeInt, "3"),
+      StructuredValueList.Element("name", StructuredValue.Single(StructuredValueType.TypeString, "ünïcödé"),
+      StructuredValueList.Element("child", StructuredValue.Elided(StructuredValueType.TypeInstance("Main"), "this.child"),
+      StructuredValueList.Element("fn", StructuredValue.Single(StructuredValueType.TypeFunction, "<function>"),
+                                  StructuredValueList.Terminator)))));
+
+    return List.of(
+      Message.OK, Message.Exited, Message.Detached,
+      Message.ErrorInternal("something went wrong: 100%"), Message.ErrorNoSuchThread(7),
+      Message.ErrorNoMatchingFunctions("Main", "foo", strings), Message.ErrorBadCount(-1),
+      Message.Files(strings), Message.Variables(StringList.Element("a", StringList.Element("a", StringList.Terminator))),
+      Message.Classes(ClassList.Element("Main", true, ClassList.Element("Other", false, ClassList.Continued("Other")))),
+      Message.Classes(ClassList.Terminator),
+      Message.MemBytes(0), Message.Compacted(2048, 1024), Message.Collected(-5, 5),
+      Message.ThreadLocation(1, 0, "Main", "main", "Main.hx", 12),
+      Message.FileLineBreakpointNumber(3), Message.ClassFunctionBreakpointNumber(4, StringList.Terminator),
+      Message.Breakpoints(BreakpointList.Breakpoint(1, "Main.hx:12", true, false, BreakpointList.Terminator)),
+      Message.BreakpointDescription(1, BreakpointLocationList.FileLine("Main.hx", 12,
+                                       BreakpointLocationList.ClassFunction("Main", "main", BreakpointLocationList.Terminator))),
+      Message.BreakpointStatuses(BreakpointStatusList.Deleted(1, BreakpointStatusList.Nonexistent(2, BreakpointStatusList.Terminator))),
+      Message.ThreadsWhere(ThreadWhereList.Where(0, ThreadStatus.StoppedBreakpoint(1), frames,
+                           ThreadWhereList.Where(1, ThreadStatus.Running, FrameList.Terminator, ThreadWhereList.Terminator))),
+      Message.ThreadsWhere(ThreadWhereList.Where(2, ThreadStatus.StoppedCriticalError("null access"), frames,
+                                                 ThreadWhereList.Terminator)),
+      Message.Value("a + b", "Int", "3"), Message.Structured(structured),
+      Message.ThreadCreated(1), Message.ThreadTerminated(1), Message.ThreadStarted(1),
+      Message.ThreadStopped(1, 0, "Main", "main", "Main.hx", 12)
+    );
+  }
+
+  public void testEncodingMatchesGeneratedSerializer() {
+    for (Object value : commands()) {
+      assertEquals(String.valueOf(value), haxe.Serializer.run(value), HxcppDebuggerCodec.encode(value));
+    }
+    for (Object value : messages()) {
+      assertEquals(String.valueOf(value), haxe.Serializer.run(value), HxcppDebuggerCodec.encode(value));
+    }
+  }
+
+  public void testDecodingMatchesGeneratedUnserializer() {
+    for (Object value : messages()) {
+      String serialized = haxe.Serializer.run(value);
+      byte[] payload = serialized.getBytes(StandardCharsets.ISO_8859_1);
+      Object decoded = HxcppDebuggerCodec.decode(payload, payload.length);
+      assertEquals(serialized, haxe.Serializer.run(decoded));
+      assertEquals(haxe.Unserializer.run(serialized).toString(), String.valueOf(decoded));
+    }
+  }
+
+  public void testConstantsAreShared() {
+    for (Object value : List.of(Message.OK, Message.Exited, StringList.Terminator, StructuredValueType.TypeArray)) {
+      byte[] payload = HxcppDebuggerCodec.encode(value).getBytes(StandardCharsets.ISO_8859_1);
+      assertSame(value, HxcppDebuggerCodec.decode(payload, payload.length));
+    }
+  }
+
+  public void testFramesMatchGeneratedProtocol() throws IOException {
+    for (Object value : commands()) {
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      haxe.root.JavaProtocol.writeCommand(expected, (Command)value);
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      HxcppDebuggerCodec.writeCommand(actual, (Command)value);
+      assertEquals(expected.toString(StandardCharsets.ISO_8859_1), actual.toString(StandardCharsets.ISO_8859_1));
+    }
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    for (Object value : messages()) {
+      String serialized = haxe.Serializer.run(value);
+      stream.writeBytes(String.format("%08d%s", serialized.length(), serialized).getBytes(StandardCharsets.ISO_8859_1));
+    }
+    ByteArrayInputStream input = new ByteArrayInputStream(stream.toByteArray());
+    for (Object value : messages()) {
+      Message message = HxcppDebuggerCodec.readMessage(input);
+      assertEquals(haxe.root.JavaProtocol.getMessageId((Message)value), haxe.root.JavaProtocol.getMessageId(message));
+      assertEquals(value.toString(), message.toString());
+    }
+    assertEquals(0, input.available());
+  }
+
+  public void testUnsupportedTokensFallBackToGeneratedUnserializer() {
+    // MemBytes never carries a float, but the generated unserializer accepts one; so must the codec.
+    String serialized = "wy16:debugger.Messagey8:MemBytes:1d1.5";
+    byte[] payload = serialized.getBytes(StandardCharsets.ISO_8859_1);
+    Object decoded = HxcppDebuggerCodec.decode(payload, payload.length);
+    assertEquals(haxe.Unserializer.run(serialized).toString(), String.valueOf(decoded));
+  }
+
+  public void testTruncatedFrameFails() {
+    byte[] frame = "00000010wy16:deb".getBytes(StandardCharsets.ISO_8859_1);
+    try {
+      HxcppDebuggerCodec.readMessage(new ByteArrayInputStream(frame));
+      fail("expected an exception for a truncated frame");
+    }
+    catch (IOException expected) {
+    }
+  }
+}
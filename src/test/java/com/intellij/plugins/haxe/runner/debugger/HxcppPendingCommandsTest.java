@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.testFramework.UsefulTestCase;
+import debugger.*;
+import haxe.root.JavaProtocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matching of debugger replies, read through {@link HxcppDebuggerCodec}, to the commands waiting for them.
+ */
+public class HxcppPendingCommandsTest extends UsefulTestCase {
+
+  private final HxcppPendingCommands<String> myPending = new HxcppPendingCommands<>();
+  private final List<String> myReplies = new ArrayList<>();
+
+  public void testRepliesMatchCommandsInOrder() throws IOException {
+    myPending.add(Command.SetFrame(1), "setFrame");
+    myPending.add(Command.Variables(false), "variables");
+    myPending.add(Command.AddFileLineBreakpoint("Main.hx", 3), "breakpoint");
+
+    receive(Message.ThreadLocation(1, 1, "Main", "main", "Main.hx", 3),
+            Message.Variables(StringList.Terminator),
+            Message.FileLineBreakpointNumber(2));
+    assertOrderedEquals(myReplies, "setFrame", "variables", "breakpoint");
+  }
+
+  public void testErrorAnswersAnyCommand() throws IOException {
+    myPending.add(Command.GetStructured(false, "this"), "structured");
+    myPending.add(Command.Variables(false), "variables");
+
+    receive(Message.ErrorEvaluatingExpression("no such field"), Message.Variables(StringList.Terminator));
+    assertOrderedEquals(myReplies, "structured", "variables");
+  }
+
+  public void testUnsolicitedReplyIsDropped() throws IOException {
+    receive(Message.OK);
+    assertEmpty(myReplies);
+
+    myPending.add(Command.Variables(false), "variables");
+    receive(Message.Variables(StringList.Terminator));
+    assertOrderedEquals(myReplies, "variables");
+  }
+
+  public void testMismatchedReplyKeepsTheQueue() throws IOException {
+    myPending.add(Command.Variables(false), "variables");
+
+    receive(Message.Files(StringList.Terminator), Message.Variables(StringList.Terminator));
+    assertOrderedEquals(myReplies, "variables");
+  }
+
+  public void testReplyToLaterCommandSkipsEarlierOnes() throws IOException {
+    myPending.add(Command.SetFrame(1), "setFrame");
+    myPending.add(Command.Variables(false), "variables");
+    myPending.add(Command.WhereCurrentThread(false), "where");
+
+    receive(Message.Variables(StringList.Terminator), Message.ThreadsWhere(ThreadWhereList.Terminator));
+    assertOrderedEquals(myReplies, "skipped setFrame", "variables", "where");
+  }
+
+  /**
+   * Frames the messages the way the debugger sends them, reads them back with the codec and settles the pending
+   * commands they answer, recording the listeners reached.
+   */
+  private void receive(Message... messages) throws IOException {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    for (Message message : messages) {
+      String serialized = haxe.Serializer.run(message);
+      stream.writeBytes(String.format("%08d%s", serialized.length(), serialized).getBytes(StandardCharsets.ISO_8859_1));
+    }
+    ByteArrayInputStream input = new ByteArrayInputStream(stream.toByteArray());
+    for (int i = 0; i < messages.length; i++) {
+      Message message = HxcppDebuggerCodec.readMessage(input);
+      HxcppPendingCommands.Match<String> match = myPending.match(JavaProtocol.getMessageId(message));
+      for (HxcppPendingCommands.Pending<String> skipped : match.skipped()) {
+        myReplies.add("skipped " + skipped.listener());
+      }
+      if (match.reply() != null) {
+        myReplies.add(match.reply().listener());
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+
+public class HaxeDeclarationSignatureUtilTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/util/";
+  }
+
+  private long stampOf(String text) {
+    return HaxeDeclarationSignatureUtil.getSignatureStamp(myFixture.configureByText("Test.hx", text));
+  }
+
+  public void testBodiesOfTypedMethodsAreIgnored() {
+    long stamp = stampOf("class Test { function new() { trace(1); } function size():Int { return 1; } }");
+    assertEquals(stamp, stampOf("class Test { function new() { trace(2); } function size():Int { var x = 2; return x; } }"));
+  }
+
+  public void testBodiesOfUntypedMethodsAreIncluded() {
+    long stamp = stampOf("class Test { function size() { return 1; } }");
+    assertFalse(stamp == stampOf("class Test { function size() { return 'one'; } }"));
+  }
+
+  public void testDeclarationsAreIncluded() {
+    long stamp = stampOf("class Test { var field:Int; function size():Int { return 1; } }");
+    assertFalse(stamp == stampOf("class Test { var field:String; function size():Int { return 1; } }"));
+    assertFalse(stamp == stampOf("class Test { var field:Int; function size():Float { return 1; } }"));
+  }
+}
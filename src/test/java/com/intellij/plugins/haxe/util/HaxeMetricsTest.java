@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.testFramework.UsefulTestCase;
+
+public class HaxeMetricsTest extends UsefulTestCase {
+
+  public void testCountersAccumulateAndReset() {
+    HaxeMetrics.Counter counter = HaxeMetrics.counter("test.counter");
+    HaxeMetrics.reset();
+    counter.increment();
+    HaxeMetrics.increment("test.counter");
+    assertEquals(2, counter.get());
+    assertSame(counter, HaxeMetrics.counter("test.counter"));
+
+    HaxeMetrics.reset();
+    assertEquals(0, counter.get());
+  }
+
+  public void testSnapshotReportsHitRatio() {
+    HaxeMetrics.reset();
+    HaxeMetrics.counter("test.cache.hit").add(3);
+    HaxeMetrics.counter("test.cache.miss").add(1);
+    String snapshot = HaxeMetrics.snapshot();
+    assertTrue(snapshot, snapshot.contains("test.cache.miss = 1 (75") && snapshot.contains("% hit ratio)"));
+  }
+
+  public void testHistogramPercentiles() {
+    HaxeMetrics.Histogram histogram = HaxeMetrics.histogram("test.timer");
+    HaxeMetrics.reset();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1_500);        // 1.5 microseconds
+    }
+    histogram.record(5_000_000);      // 5 milliseconds
+    assertEquals(100, histogram.getCount());
+    assertEquals(2, histogram.percentileMicros(50));
+    assertEquals(8192, histogram.percentileMicros(100));
+  }
+}
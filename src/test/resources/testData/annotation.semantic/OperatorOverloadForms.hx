@@ -0,0 +1,46 @@
+package ;
+
+class OperatorOverloadForms {
+    var scale:Scale;
+    var vec:Vec;
+    var staticVec:StaticVec;
+    var commutativeVec:CommutativeVec;
+    var staticCommutativeVec:StaticCommutativeVec;
+
+    public function new() {
+        vec * scale; // CORRECT member overload, "this" is the left operand
+        <error descr="Unable to apply operator * for types Scale and Vec">scale * vec</error>; // WRONG overload is not commutative
+        <error descr="Unable to apply operator * for types Vec and Vec">vec * vec</error>; // WRONG no overload for these operands
+
+        staticVec * scale; // CORRECT static overload
+        <error descr="Unable to apply operator * for types Scale and StaticVec">scale * staticVec</error>; // WRONG overload is not commutative
+
+        commutativeVec * scale; // CORRECT member overload
+        scale * commutativeVec; // CORRECT commutative member overload with its operands swapped
+
+        staticCommutativeVec * scale; // CORRECT static overload
+        scale * staticCommutativeVec; // CORRECT commutative static overload with its operands swapped
+    }
+}
+
+abstract Scale(String) {}
+
+abstract Vec(String) {
+    @:op(A * B)
+    public function scale(s:Scale):Vec {return cast this;}
+}
+
+abstract StaticVec(String) {
+    @:op(A * B)
+    public static function scale(v:StaticVec, s:Scale):StaticVec {return v;}
+}
+
+abstract CommutativeVec(String) {
+    @:op(A * B) @:commutative
+    public function scale(s:Scale):CommutativeVec {return cast this;}
+}
+
+abstract StaticCommutativeVec(String) {
+    @:op(A * B) @:commutative
+    public static function scale(v:StaticCommutativeVec, s:Scale):StaticCommutativeVec {return v;}
+}